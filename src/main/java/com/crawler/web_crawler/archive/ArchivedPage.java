@@ -0,0 +1,17 @@
+package com.crawler.web_crawler.archive;
+
+import com.crawler.web_crawler.fetch.PageResponse;
+
+import java.time.Instant;
+
+public record ArchivedPage(
+        Long sourceId,
+        String url,
+        Instant fetchedAt,
+        String contentType,
+        byte[] body
+) {
+    public PageResponse toPageResponse() {
+        return new PageResponse(url, 200, body, contentType, null, null, false);
+    }
+}
@@ -0,0 +1,397 @@
+package com.crawler.web_crawler.archive;
+
+import com.crawler.web_crawler.fetch.PageResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Append-only store of raw fetched pages. Records are written to numbered segment files;
+// a segment is sealed once it reaches the configured size and is then read through mmap.
+// The index (source id -> record positions in fetch order) is rebuilt by scanning on startup.
+// Sealed segments older than max-age, or the oldest ones beyond max-bytes, are deleted with their index entries.
+@Slf4j
+@Component
+public class PageArchive {
+    private static final int RECORD_MAGIC = 0x50414745; // "PAGE"
+    // magic, source id, fetch time, url length, content type length, body length, crc
+    private static final int HEADER_SIZE = 4 + 8 + 8 + 4 + 4 + 4 + 4;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".arc";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentSize;
+    private final Duration maxAge;
+    private final long maxBytes;
+    private final Clock clock;
+
+    private final Object lock = new Object();
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final Map<Long, List<IndexEntry>> index = new HashMap<>();
+    private Segment active;
+
+    @Autowired
+    public PageArchive(@Value("${crawler.archive.enabled:false}") boolean enabled,
+                       @Value("${crawler.archive.dir:./data/archive}") Path directory,
+                       @Value("${crawler.archive.segment-size:64MB}") DataSize segmentSize,
+                       @Value("${crawler.archive.max-age:90d}") Duration maxAge,
+                       @Value("${crawler.archive.max-bytes:10GB}") DataSize maxBytes) {
+        this(enabled, directory, segmentSize, maxAge, maxBytes, Clock.systemUTC());
+    }
+
+    // A zero max-age or max-bytes turns that limit off
+    PageArchive(boolean enabled, Path directory, DataSize segmentSize, Duration maxAge, DataSize maxBytes, Clock clock) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize.toBytes();
+        this.maxAge = maxAge;
+        this.maxBytes = maxBytes.toBytes();
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if(!enabled)
+            return;
+
+        Files.createDirectories(directory);
+        List<Path> files;
+        try(Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        synchronized(lock) {
+            for(Path file: files) {
+                Segment segment = new Segment(segmentId(file), file);
+                segment.size = scan(segment);
+                segments.put(segment.id, segment);
+            }
+
+            if(segments.isEmpty()) {
+                active = createSegment(1);
+            } else {
+                active = segments.lastEntry().getValue();
+                active.mapped = null; // The active segment is read through its channel until sealed
+                active.openForAppend();
+            }
+            expireSegments();
+        }
+
+        log.info("Page archive opened in {} with {} segments", directory, segments.size());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        synchronized(lock) {
+            if(active != null && active.channel != null)
+                active.channel.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void append(Long sourceId, PageResponse page) {
+        append(sourceId, page.url(), page.contentType(), page.body(), Instant.now());
+    }
+
+    public void append(Long sourceId, String url, String contentType, byte[] body, Instant fetchedAt) {
+        if(!enabled || sourceId == null)
+            return;
+
+        byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+        byte[] contentTypeBytes = contentType == null ? new byte[0] : contentType.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = gzip(body);
+
+        CRC32 crc = new CRC32();
+        crc.update(urlBytes);
+        crc.update(contentTypeBytes);
+        crc.update(compressed);
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + urlBytes.length + contentTypeBytes.length + compressed.length);
+        record.putInt(RECORD_MAGIC)
+                .putLong(sourceId)
+                .putLong(fetchedAt.toEpochMilli())
+                .putInt(urlBytes.length)
+                .putInt(contentTypeBytes.length)
+                .putInt(compressed.length)
+                .putInt((int) crc.getValue())
+                .put(urlBytes)
+                .put(contentTypeBytes)
+                .put(compressed)
+                .flip();
+
+        synchronized(lock) {
+            try {
+                if(active.size > 0 && active.size + record.remaining() > segmentSize)
+                    roll();
+
+                long offset = active.size;
+                int length = record.remaining();
+                while(record.hasRemaining())
+                    active.channel.write(record, active.size + (length - record.remaining()));
+
+                active.size += length;
+                active.lastFetchedAt = Math.max(active.lastFetchedAt, fetchedAt.toEpochMilli());
+                index.computeIfAbsent(sourceId, id -> new ArrayList<>())
+                        .add(new IndexEntry(active.id, offset, length, fetchedAt.toEpochMilli()));
+            } catch (IOException e) {
+                log.warn("Cannot archive page {}: {}", url, e.getMessage());
+            }
+        }
+    }
+
+    public int countPages(Long sourceId) {
+        synchronized(lock) {
+            return index.getOrDefault(sourceId, List.of()).size();
+        }
+    }
+
+    // Pages are delivered one at a time in fetch order, so a re-parse never holds the whole history in memory
+    public void forEachPage(Long sourceId, Instant from, Instant to, Consumer<ArchivedPage> consumer) {
+        List<IndexEntry> entries;
+        synchronized(lock) {
+            entries = new ArrayList<>(index.getOrDefault(sourceId, List.of()));
+        }
+
+        long fromMillis = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+        long toMillis = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+        for(IndexEntry entry: entries) {
+            if(entry.fetchedAt() < fromMillis || entry.fetchedAt() > toMillis)
+                continue;
+
+            try {
+                ByteBuffer record = read(entry);
+                if(record != null) // Null when the segment expired meanwhile
+                    consumer.accept(decode(record));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read archived page of source " + sourceId, e);
+            }
+        }
+    }
+
+    private ByteBuffer read(IndexEntry entry) throws IOException {
+        Segment segment;
+        synchronized(lock) {
+            segment = segments.get(entry.segment());
+            if(segment == null)
+                return null;
+            if(segment == active) {
+                ByteBuffer buffer = ByteBuffer.allocate(entry.length());
+                while(buffer.hasRemaining()) {
+                    if(active.channel.read(buffer, entry.offset() + buffer.position()) < 0)
+                        throw new IOException("Unexpected end of segment " + segment.path);
+                }
+                return buffer.flip();
+            }
+        }
+
+        return segment.mapped().slice((int) entry.offset(), entry.length());
+    }
+
+    private void roll() throws IOException {
+        active.channel.close();
+        active.channel = null;
+        active.mapped = null;
+        active = createSegment(active.id + 1);
+        expireSegments();
+    }
+
+    @Scheduled(fixedDelayString = "${crawler.archive.retention-check:1h}")
+    public void applyRetention() {
+        if(!enabled)
+            return;
+
+        synchronized(lock) {
+            expireSegments();
+        }
+    }
+
+    // Only sealed segments are deleted, oldest first; the active one always stays
+    private void expireSegments() {
+        long cutoff = maxAge.isZero() || maxAge.isNegative() ? Long.MIN_VALUE : clock.instant().minus(maxAge).toEpochMilli();
+        long totalBytes = segments.values().stream().mapToLong(segment -> segment.size).sum();
+        Set<Integer> expired = new HashSet<>();
+        for(Segment segment: new ArrayList<>(segments.values())) {
+            if(segment == active)
+                break;
+            if(segment.lastFetchedAt >= cutoff && (maxBytes <= 0 || totalBytes <= maxBytes))
+                continue;
+
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("Cannot delete expired archive segment {}: {}", segment.path, e.getMessage());
+                continue;
+            }
+            segment.mapped = null;
+            segments.remove(segment.id);
+            totalBytes -= segment.size;
+            expired.add(segment.id);
+        }
+
+        if(expired.isEmpty())
+            return;
+
+        index.values().forEach(entries -> entries.removeIf(entry -> expired.contains(entry.segment())));
+        index.values().removeIf(List::isEmpty);
+        log.info("Page archive deleted {} expired segments, {} bytes remain", expired.size(), totalBytes);
+    }
+
+    private Segment createSegment(int id) throws IOException {
+        Segment segment = new Segment(id, directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX)));
+        segment.openForAppend();
+        segments.put(id, segment);
+        return segment;
+    }
+
+    // Indexes all complete records and returns the end of the last valid one
+    private long scan(Segment segment) throws IOException {
+        long fileSize = Files.size(segment.path);
+        if(fileSize == 0)
+            return 0;
+
+        ByteBuffer buffer = segment.mapped();
+        int position = 0;
+        while(position + HEADER_SIZE <= fileSize) {
+            ByteBuffer record = buffer.duplicate().position(position);
+            if(record.getInt() != RECORD_MAGIC)
+                break;
+
+            long sourceId = record.getLong();
+            long fetchedAt = record.getLong();
+            int length = HEADER_SIZE + record.getInt() + record.getInt() + record.getInt();
+            if(position + length > fileSize || !hasValidChecksum(buffer.slice(position, length)))
+                break;
+
+            index.computeIfAbsent(sourceId, id -> new ArrayList<>())
+                    .add(new IndexEntry(segment.id, position, length, fetchedAt));
+            segment.lastFetchedAt = Math.max(segment.lastFetchedAt, fetchedAt);
+            position += length;
+        }
+
+        if(position < fileSize) {
+            log.warn("Archive segment {} has a damaged tail after {} bytes, it will be truncated", segment.path, position);
+            segment.mapped = null;
+            try(FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.WRITE)) {
+                channel.truncate(position);
+            }
+        }
+
+        return position;
+    }
+
+    private boolean hasValidChecksum(ByteBuffer record) {
+        int expected = record.getInt(HEADER_SIZE - 4);
+        CRC32 crc = new CRC32();
+        crc.update(record.position(HEADER_SIZE));
+        return (int) crc.getValue() == expected;
+    }
+
+    private ArchivedPage decode(ByteBuffer record) throws IOException {
+        record.getInt(); // magic
+        long sourceId = record.getLong();
+        long fetchedAt = record.getLong();
+        byte[] url = new byte[record.getInt()];
+        byte[] contentType = new byte[record.getInt()];
+        byte[] compressed = new byte[record.getInt()];
+        record.getInt(); // crc
+        record.get(url).get(contentType).get(compressed);
+
+        return new ArchivedPage(
+                sourceId,
+                new String(url, StandardCharsets.UTF_8),
+                Instant.ofEpochMilli(fetchedAt),
+                contentType.length == 0 ? null : new String(contentType, StandardCharsets.UTF_8),
+                gunzip(compressed)
+        );
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(body.length / 4 + 64);
+        try(GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try(GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return gzip.readAllBytes();
+        }
+    }
+
+    private static int segmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private record IndexEntry(int segment, long offset, int length, long fetchedAt) {}
+
+    private static final class Segment {
+        private final int id;
+        private final Path path;
+        private FileChannel channel;
+        private long size;
+        private long lastFetchedAt = Long.MIN_VALUE;
+        private volatile MappedByteBuffer mapped;
+
+        private Segment(int id, Path path) {
+            this.id = id;
+            this.path = path;
+        }
+
+        private void openForAppend() throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            size = channel.size();
+        }
+
+        private MappedByteBuffer mapped() throws IOException {
+            MappedByteBuffer buffer = mapped;
+            if(buffer == null) {
+                try(FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+                }
+                mapped = buffer;
+            }
+            return buffer;
+        }
+    }
+}
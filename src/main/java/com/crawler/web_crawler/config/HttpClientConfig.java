@@ -0,0 +1,24 @@
+package com.crawler.web_crawler.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+@Configuration
+public class HttpClientConfig {
+
+    // One shared client for all crawls: it keeps a keep-alive connection pool per host
+    // and multiplexes requests over HTTP/2 where the server supports it.
+    @Bean
+    public HttpClient httpClient(@Value("${crawler.http.connect-timeout:10s}") Duration connectTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .build();
+    }
+
+}
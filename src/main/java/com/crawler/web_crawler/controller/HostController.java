@@ -0,0 +1,37 @@
+package com.crawler.web_crawler.controller;
+
+import com.crawler.web_crawler.fetch.HostCircuitBreaker;
+import com.crawler.web_crawler.fetch.HostRateLimiter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/")
+public class HostController {
+    private final HostRateLimiter hostRateLimiter;
+    private final HostCircuitBreaker hostCircuitBreaker;
+
+    public HostController(HostRateLimiter hostRateLimiter, HostCircuitBreaker hostCircuitBreaker) {
+        this.hostRateLimiter = hostRateLimiter;
+        this.hostCircuitBreaker = hostCircuitBreaker;
+    }
+
+    @GetMapping("/hosts/limits")
+    public ResponseEntity<List<HostRateLimiter.HostLimiterState>> getHostLimits() {
+        return ResponseEntity.ok(hostRateLimiter.getStates());
+    }
+
+    @GetMapping("/hosts/circuits")
+    public ResponseEntity<List<HostCircuitBreaker.CircuitBreakerState>> getHostCircuits() {
+        return ResponseEntity.ok(hostCircuitBreaker.getStates());
+    }
+
+    @DeleteMapping("/hosts/circuits/{host}")
+    public ResponseEntity<String> resetHostCircuit(@PathVariable("host") String host) {
+        hostCircuitBreaker.reset(host);
+        return ResponseEntity.ok("Reset");
+    }
+
+}
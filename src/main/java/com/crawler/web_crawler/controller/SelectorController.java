@@ -0,0 +1,27 @@
+package com.crawler.web_crawler.controller;
+
+import com.crawler.web_crawler.model.dto.SelectorTestRequestDTO;
+import com.crawler.web_crawler.model.dto.SelectorTestResultDTO;
+import com.crawler.web_crawler.service.selector.SelectorSandboxService;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/")
+public class SelectorController {
+    private final SelectorSandboxService selectorSandboxService;
+
+    public SelectorController(SelectorSandboxService selectorSandboxService) {
+        this.selectorSandboxService = selectorSandboxService;
+    }
+
+    @Operation(summary = "Try css selectors on a page without saving a source or articles")
+    @PostMapping("/selectors/test")
+    public ResponseEntity<SelectorTestResultDTO> testSelectors(@RequestBody @Valid SelectorTestRequestDTO request,
+                                                               @RequestParam(name = "refresh", defaultValue = "false") boolean refresh) {
+        return ResponseEntity.ok(selectorSandboxService.testSelectors(request, refresh));
+    }
+
+}
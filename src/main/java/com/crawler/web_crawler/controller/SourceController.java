@@ -1,15 +1,18 @@
 package com.crawler.web_crawler.controller;
 
+import com.crawler.web_crawler.model.dto.ReparseResultDTO;
 import com.crawler.web_crawler.model.dto.SourceRequestDTO;
 import com.crawler.web_crawler.model.entity.Source;
 import com.crawler.web_crawler.service.newsArticle.NewsParserService;
 import com.crawler.web_crawler.service.source.SourceService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -55,4 +58,16 @@ public class SourceController {
         articleService.parseAndSave(source);
     }
 
+    @Operation(summary = "Parse archived pages of the source again, e.g. after a selector change")
+    @PostMapping("/source/{id}/reparse")
+    public ResponseEntity<ReparseResultDTO> reparseSource(@PathVariable("id") Long id,
+                                                          @RequestParam(name = "from", required = false)
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                          @RequestParam(name = "to", required = false)
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                          @RequestParam(name = "save", defaultValue = "true") boolean save) {
+        Source source = service.getSource(id);
+        return ResponseEntity.ok(articleService.reparseArchive(source, from, to, save));
+    }
+
 }
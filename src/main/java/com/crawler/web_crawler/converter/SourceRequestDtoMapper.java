@@ -1,7 +1,9 @@
 package com.crawler.web_crawler.converter;
 
 import com.crawler.web_crawler.model.dto.SourceRequestDTO;
+import com.crawler.web_crawler.model.entity.ParserType;
 import com.crawler.web_crawler.model.entity.Source;
+import com.crawler.web_crawler.model.entity.SourceSettings;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -13,6 +15,10 @@ public class SourceRequestDtoMapper {
         source.setSchedule(sourceRequestDTO.schedule());
         source.setSelectors(sourceRequestDTO.selectors());
         source.setIsActive(sourceRequestDTO.isActive());
+        source.setMaxBodySize(sourceRequestDTO.maxBodySize());
+        source.setParserType(parserTypeOf(sourceRequestDTO));
+        source.setLanguage(sourceRequestDTO.language());
+        source.setSettings(settingsOf(sourceRequestDTO));
 
         return source;
     }
@@ -22,8 +28,22 @@ public class SourceRequestDtoMapper {
                 source.getUrl(),
                 source.getSchedule(),
                 source.getSelectors(),
-                source.getIsActive()
+                source.getIsActive(),
+                source.getMaxBodySize(),
+                source.getParserType(),
+                source.getLanguage(),
+                source.getSettings()
         );
     }
 
+    public SourceSettings settingsOf(SourceRequestDTO sourceRequestDTO) {
+        return sourceRequestDTO.settings() != null ? sourceRequestDTO.settings() : new SourceSettings();
+    }
+
+    public ParserType parserTypeOf(SourceRequestDTO sourceRequestDTO) {
+        return sourceRequestDTO.parserType() != null
+                ? sourceRequestDTO.parserType()
+                : ParserType.detect(sourceRequestDTO.url());
+    }
+
 }
@@ -0,0 +1,7 @@
+package com.crawler.web_crawler.exception.JsoupException;
+
+public class CircuitOpenException extends JsoupClientException {
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
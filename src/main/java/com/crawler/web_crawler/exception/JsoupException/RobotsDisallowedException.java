@@ -0,0 +1,7 @@
+package com.crawler.web_crawler.exception.JsoupException;
+
+public class RobotsDisallowedException extends JsoupClientException {
+    public RobotsDisallowedException(String message) {
+        super(message);
+    }
+}
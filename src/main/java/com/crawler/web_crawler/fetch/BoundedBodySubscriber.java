@@ -0,0 +1,70 @@
+package com.crawler.web_crawler.fetch;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+// Collects a response body up to maxBytes and cancels the download once the limit is reached
+public class BoundedBodySubscriber implements HttpResponse.BodySubscriber<BoundedBodySubscriber.BoundedBody> {
+    private final long maxBytes;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final CompletableFuture<BoundedBody> result = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+
+    public BoundedBodySubscriber(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public static HttpResponse.BodyHandler<BoundedBody> handler(long maxBytes) {
+        return responseInfo -> new BoundedBodySubscriber(maxBytes);
+    }
+
+    @Override
+    public CompletionStage<BoundedBody> getBody() {
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+        if(result.isDone())
+            return;
+
+        for(ByteBuffer item: items) {
+            int remaining = (int) (maxBytes - buffer.size());
+            int length = Math.min(item.remaining(), remaining);
+            byte[] bytes = new byte[length];
+            item.get(bytes);
+            buffer.write(bytes, 0, length);
+
+            if(item.hasRemaining()) {
+                subscription.cancel();
+                result.complete(new BoundedBody(buffer.toByteArray(), true));
+                return;
+            }
+        }
+
+        subscription.request(1);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        result.complete(new BoundedBody(buffer.toByteArray(), false));
+    }
+
+    public record BoundedBody(byte[] bytes, boolean truncated) {}
+}
@@ -0,0 +1,79 @@
+package com.crawler.web_crawler.fetch;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Resolves the host and opens a pooled connection shortly before a crawl fires,
+// so the crawl itself starts on a warm DNS cache entry and a live connection
+@Slf4j
+@Component
+public class ConnectionWarmer {
+    private final PageFetcher pageFetcher;
+    @Getter
+    private final boolean enabled;
+    @Getter
+    private final Duration lead;
+
+    // Name lookups block, they must not hold up the scheduler thread that fires the warm-up
+    private final ExecutorService resolver = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "connection-warmer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ConnectionWarmer(PageFetcher pageFetcher,
+                            @Value("${crawler.warm-up.enabled:false}") boolean enabled,
+                            @Value("${crawler.warm-up.lead:5s}") Duration lead) {
+        this.pageFetcher = pageFetcher;
+        this.enabled = enabled;
+        this.lead = lead;
+    }
+
+    public CompletableFuture<Void> warmUp(String url) {
+        URI uri;
+        try {
+            uri = url != null ? URI.create(url) : null;
+        } catch (IllegalArgumentException e) {
+            uri = null;
+        }
+        // A missing host would resolve to loopback
+        if(uri == null || !uri.isAbsolute() || uri.getHost() == null || uri.getHost().isBlank()) {
+            log.warn("Cannot warm up connection to {}: not an absolute url", url);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String host = uri.getHost();
+        return CompletableFuture
+                .runAsync(() -> {
+                    try {
+                        InetAddress.getAllByName(host);
+                    } catch (UnknownHostException e) {
+                        throw new CompletionException(e);
+                    }
+                }, resolver)
+                .thenCompose(resolved -> pageFetcher.warmUp(url))
+                .handle((response, throwable) -> {
+                    if(throwable != null)
+                        log.debug("Warm-up of {} failed: {}", url, throwable.getMessage());
+                    return null;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resolver.shutdownNow();
+    }
+
+}
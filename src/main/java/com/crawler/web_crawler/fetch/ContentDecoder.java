@@ -0,0 +1,60 @@
+package com.crawler.web_crawler.fetch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+// Decodes gzip/deflate transfer encodings without inflating more than maxBytes
+public final class ContentDecoder {
+
+    private ContentDecoder() {}
+
+    public static DecodedBody decode(byte[] body, String contentEncoding, long maxBytes) throws IOException {
+        if(contentEncoding == null || body.length == 0)
+            return new DecodedBody(body, false);
+
+        String encoding = contentEncoding.trim().toLowerCase();
+        return switch(encoding) {
+            case "gzip", "x-gzip" -> inflate(new GZIPInputStream(new ByteArrayInputStream(body)), maxBytes);
+            case "deflate" -> inflateDeflate(body, maxBytes);
+            case "identity", "" -> new DecodedBody(body, false);
+            default -> throw new IOException("Unsupported content encoding: " + contentEncoding);
+        };
+    }
+
+    // "deflate" is specified as zlib, but some servers send a raw deflate stream
+    private static DecodedBody inflateDeflate(byte[] body, long maxBytes) throws IOException {
+        try {
+            return inflate(new InflaterInputStream(new ByteArrayInputStream(body)), maxBytes);
+        } catch (ZipException e) {
+            return inflate(new InflaterInputStream(new ByteArrayInputStream(body), new Inflater(true)), maxBytes);
+        }
+    }
+
+    private static DecodedBody inflate(InputStream input, long maxBytes) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try(input) {
+            int read;
+            while((read = input.read(buffer)) != -1) {
+                int length = (int) Math.min(read, maxBytes - output.size());
+                output.write(buffer, 0, length);
+                if(length < read)
+                    return new DecodedBody(output.toByteArray(), true);
+            }
+        } catch (EOFException e) {
+            // The compressed body itself was truncated, keep what could be decoded
+            return new DecodedBody(output.toByteArray(), true);
+        }
+
+        return new DecodedBody(output.toByteArray(), false);
+    }
+
+    public record DecodedBody(byte[] bytes, boolean truncated) {}
+}
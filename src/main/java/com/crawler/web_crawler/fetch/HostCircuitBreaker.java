@@ -0,0 +1,159 @@
+package com.crawler.web_crawler.fetch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Stops sending requests to a host after repeated failures. An open circuit lets a single
+// probe through after an exponentially growing, jittered backoff; a successful probe closes it.
+@Slf4j
+@Component
+public class HostCircuitBreaker {
+    private final int failureThreshold;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Clock clock;
+
+    private final Map<String, HostCircuit> circuits = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HostCircuitBreaker(@Value("${crawler.circuit-breaker.failure-threshold:3}") int failureThreshold,
+                              @Value("${crawler.circuit-breaker.base-backoff:30s}") Duration baseBackoff,
+                              @Value("${crawler.circuit-breaker.max-backoff:30m}") Duration maxBackoff) {
+        this(failureThreshold, baseBackoff, maxBackoff, Clock.systemUTC());
+    }
+
+    public HostCircuitBreaker(int failureThreshold, Duration baseBackoff, Duration maxBackoff, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.clock = clock;
+    }
+
+    public boolean tryAcquire(String host) {
+        return circuits.computeIfAbsent(host, HostCircuit::new).tryAcquire();
+    }
+
+    public void recordSuccess(String host) {
+        HostCircuit circuit = circuits.get(host);
+        if(circuit != null)
+            circuit.recordSuccess();
+    }
+
+    public void recordFailure(String host) {
+        circuits.computeIfAbsent(host, HostCircuit::new).recordFailure();
+    }
+
+    // The outcome says nothing about the host (e.g. the request was cancelled), let the next call probe again
+    public void releaseProbe(String host) {
+        HostCircuit circuit = circuits.get(host);
+        if(circuit != null)
+            circuit.releaseProbe();
+    }
+
+    public Instant getOpenUntil(String host) {
+        HostCircuit circuit = circuits.get(host);
+        return circuit == null ? null : circuit.state().openUntil();
+    }
+
+    public void reset(String host) {
+        circuits.remove(host);
+    }
+
+    public List<CircuitBreakerState> getStates() {
+        return circuits.values().stream()
+                .map(HostCircuit::state)
+                .sorted(Comparator.comparing(CircuitBreakerState::host))
+                .toList();
+    }
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    public record CircuitBreakerState(
+            String host,
+            State state,
+            int consecutiveFailures,
+            int trips,
+            Instant openUntil
+    ) {}
+
+    private class HostCircuit {
+        private final String host;
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private int trips; // Opened in a row without a successful request, drives the backoff exponent
+        private Instant openUntil;
+
+        private HostCircuit(String host) {
+            this.host = host;
+        }
+
+        private synchronized boolean tryAcquire() {
+            return switch(state) {
+                case CLOSED -> true;
+                case HALF_OPEN -> false; // A probe is already in flight
+                case OPEN -> {
+                    if(clock.instant().isBefore(openUntil))
+                        yield false;
+
+                    log.info("Circuit for host {} is half-open, sending a probe request", host);
+                    state = State.HALF_OPEN;
+                    yield true;
+                }
+            };
+        }
+
+        private synchronized void recordSuccess() {
+            if(state != State.CLOSED)
+                log.info("Circuit for host {} is closed again", host);
+
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            trips = 0;
+            openUntil = null;
+        }
+
+        private synchronized void releaseProbe() {
+            if(state == State.HALF_OPEN)
+                state = State.OPEN;
+        }
+
+        private synchronized void recordFailure() {
+            consecutiveFailures++;
+            if(state == State.HALF_OPEN || consecutiveFailures >= failureThreshold)
+                open();
+        }
+
+        private void open() {
+            trips++;
+            Duration backoff = backoff(trips);
+            state = State.OPEN;
+            openUntil = clock.instant().plus(backoff);
+            log.warn("Circuit for host {} is open for {} sec after {} failures", host, backoff.toSeconds(), consecutiveFailures);
+        }
+
+        // Equal jitter: half of the exponential delay is fixed, the other half is random
+        private Duration backoff(int trips) {
+            long exponential = baseBackoff.toMillis() << Math.min(trips - 1, 30);
+            long capped = Math.min(exponential <= 0 ? Long.MAX_VALUE : exponential, maxBackoff.toMillis());
+            long half = capped / 2;
+            return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+        }
+
+        private synchronized CircuitBreakerState state() {
+            return new CircuitBreakerState(host, state, consecutiveFailures, trips, openUntil);
+        }
+    }
+}
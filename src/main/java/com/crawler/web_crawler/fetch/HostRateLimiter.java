@@ -0,0 +1,212 @@
+package com.crawler.web_crawler.fetch;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Politeness limiter: at most maxInFlight requests per host, paced by a token bucket.
+// Waiters are queued per host in FIFO order and never block the calling thread.
+@Slf4j
+@Component
+public class HostRateLimiter {
+    private final int maxInFlight;
+    private final double requestsPerSecond;
+    private final int burst;
+    private final Duration maxQueueWait;
+
+    private final Map<String, HostLimiter> limiters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "host-rate-limiter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public HostRateLimiter(@Value("${crawler.host.max-in-flight:2}") int maxInFlight,
+                           @Value("${crawler.host.requests-per-second:1.0}") double requestsPerSecond,
+                           @Value("${crawler.host.burst:2}") int burst,
+                           @Value("${crawler.host.max-queue-wait:60s}") Duration maxQueueWait) {
+        this.maxInFlight = maxInFlight;
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = burst;
+        this.maxQueueWait = maxQueueWait;
+    }
+
+    public CompletableFuture<Permit> acquire(String host) {
+        HostLimiter limiter = limiters.computeIfAbsent(host, HostLimiter::new);
+        CompletableFuture<Permit> future = new CompletableFuture<Permit>().orTimeout(maxQueueWait.toMillis(), TimeUnit.MILLISECONDS);
+        limiter.enqueue(future);
+        return future;
+    }
+
+    // Crawl-delay from robots.txt: one request per interval at most, null restores the default pacing
+    public void setMinInterval(String host, Duration interval) {
+        limiters.computeIfAbsent(host, HostLimiter::new).setMinInterval(interval);
+    }
+
+    public List<HostLimiterState> getStates() {
+        return limiters.values().stream()
+                .map(HostLimiter::state)
+                .sorted(Comparator.comparing(HostLimiterState::host))
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    public interface Permit {
+        void release();
+    }
+
+    public record HostLimiterState(
+            String host,
+            double requestsPerSecond,
+            int inFlight,
+            int queued,
+            double availableTokens,
+            long acquired,
+            long averageWaitMillis,
+            long maxWaitMillis
+    ) {}
+
+    private record Waiter(CompletableFuture<Permit> future, long enqueuedAt) {}
+
+    private class HostLimiter {
+        private final String host;
+        private final Queue<Waiter> queue = new ArrayDeque<>();
+        private double rate = requestsPerSecond;
+        private int capacity = burst;
+        private double tokens = burst;
+        private long lastRefill = System.nanoTime();
+        private int inFlight;
+        private boolean drainScheduled;
+        private long acquired;
+        private long totalWaitNanos;
+        private long maxWaitNanos;
+
+        private HostLimiter(String host) {
+            this.host = host;
+        }
+
+        private void enqueue(CompletableFuture<Permit> future) {
+            synchronized(this) {
+                queue.add(new Waiter(future, System.nanoTime()));
+            }
+            drain();
+        }
+
+        private void setMinInterval(Duration interval) {
+            synchronized(this) {
+                refill();
+                if(interval == null || interval.isZero()) {
+                    rate = requestsPerSecond;
+                    capacity = burst;
+                } else {
+                    rate = Math.min(requestsPerSecond, 1_000_000_000.0 / interval.toNanos());
+                    capacity = 1;
+                    tokens = Math.min(tokens, capacity);
+                }
+            }
+            drain();
+        }
+
+        private void release() {
+            synchronized(this) {
+                inFlight--;
+            }
+            drain();
+        }
+
+        private void drain() {
+            List<Waiter> granted = new ArrayList<>();
+            synchronized(this) {
+                refill();
+                while(!queue.isEmpty() && inFlight < maxInFlight && tokens >= 1) {
+                    Waiter waiter = queue.poll();
+                    if(waiter.future().isDone())
+                        continue; // Timed out or cancelled while queued
+
+                    tokens -= 1;
+                    inFlight++;
+                    long waited = System.nanoTime() - waiter.enqueuedAt();
+                    acquired++;
+                    totalWaitNanos += waited;
+                    maxWaitNanos = Math.max(maxWaitNanos, waited);
+                    granted.add(waiter);
+                }
+
+                if(!queue.isEmpty() && inFlight < maxInFlight && !drainScheduled) {
+                    long delayNanos = (long) ((1 - tokens) / rate * 1_000_000_000L);
+                    drainScheduled = true;
+                    timer.schedule(this::scheduledDrain, Math.max(delayNanos, 1), TimeUnit.NANOSECONDS);
+                }
+            }
+
+            // Complete outside the lock: completion runs the caller's continuation
+            for(Waiter waiter: granted) {
+                if(!waiter.future().complete(new HostPermit(this)))
+                    release();
+            }
+        }
+
+        private void scheduledDrain() {
+            synchronized(this) {
+                drainScheduled = false;
+            }
+            drain();
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) / 1_000_000_000.0 * rate);
+            lastRefill = now;
+        }
+
+        private synchronized HostLimiterState state() {
+            refill();
+            return new HostLimiterState(
+                    host,
+                    rate,
+                    inFlight,
+                    queue.size(),
+                    tokens,
+                    acquired,
+                    acquired == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos / acquired),
+                    TimeUnit.NANOSECONDS.toMillis(maxWaitNanos)
+            );
+        }
+    }
+
+    private static class HostPermit implements Permit {
+        private final HostLimiter limiter;
+        private boolean released;
+
+        private HostPermit(HostLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        @Override
+        public synchronized void release() {
+            if(released)
+                return;
+
+            released = true;
+            limiter.release();
+        }
+    }
+}
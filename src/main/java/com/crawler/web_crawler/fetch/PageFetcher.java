@@ -0,0 +1,205 @@
+package com.crawler.web_crawler.fetch;
+
+import com.crawler.web_crawler.exception.JsoupException.CircuitOpenException;
+import com.crawler.web_crawler.exception.JsoupException.RobotsDisallowedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+@Slf4j
+@Component
+public class PageFetcher {
+    // Sites see the same token in our requests that their robots.txt groups are matched against
+    public static final String AGENT_TOKEN = "web-crawler";
+    public static final String USER_AGENT = "Mozilla/5.0 (compatible; " + AGENT_TOKEN + "/1.0)";
+    public static final String REFERRER = "http://www.google.com";
+    public static final Duration TIMEOUT = Duration.ofMillis(10_000);
+
+    private final HttpClient httpClient;
+    private final HostRateLimiter hostRateLimiter;
+    private final HostCircuitBreaker hostCircuitBreaker;
+    private final RobotsPolicyCache robotsPolicyCache;
+    private final long defaultMaxBodySize;
+
+    public PageFetcher(HttpClient httpClient,
+                       HostRateLimiter hostRateLimiter,
+                       HostCircuitBreaker hostCircuitBreaker,
+                       RobotsPolicyCache robotsPolicyCache,
+                       @Value("${crawler.http.max-body-size:2MB}") DataSize defaultMaxBodySize) {
+        this.httpClient = httpClient;
+        this.hostRateLimiter = hostRateLimiter;
+        this.hostCircuitBreaker = hostCircuitBreaker;
+        this.robotsPolicyCache = robotsPolicyCache;
+        this.defaultMaxBodySize = defaultMaxBodySize.toBytes();
+    }
+
+    public CompletableFuture<PageResponse> fetch(String url) {
+        return fetch(url, PageValidators.none(), null);
+    }
+
+    public CompletableFuture<PageResponse> fetch(String url, PageValidators validators) {
+        return fetch(url, validators, null);
+    }
+
+    public CompletableFuture<PageResponse> fetch(String url, PageValidators validators, Integer maxBodySize) {
+        long limit = maxBodySize != null && maxBodySize > 0 ? maxBodySize : defaultMaxBodySize;
+        HttpRequest request;
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(TIMEOUT)
+                    .header("User-Agent", USER_AGENT)
+                    .header("Referer", REFERRER)
+                    .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+                    .header("Accept-Encoding", "gzip, deflate")
+                    .GET();
+
+            if(validators.etag() != null)
+                builder.header("If-None-Match", validators.etag());
+            if(validators.lastModified() != null)
+                builder.header("If-Modified-Since", validators.lastModified());
+
+            request = builder.build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // Cancelling the returned future reaches the queued permit or the exchange in flight, see send
+        CompletableFuture<PageResponse> result = new CompletableFuture<>();
+        exchange(url, request, BoundedBodySubscriber.handler(limit), result)
+                .thenApply(response -> toPageResponse(url, response, limit))
+                .whenComplete((page, throwable) -> complete(result, page, throwable));
+        return result;
+    }
+
+    // A HEAD request through the same politeness gates as a fetch, it only leaves a live connection in the client's pool
+    public CompletableFuture<Void> warmUp(String url) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(TIMEOUT)
+                    .header("User-Agent", USER_AGENT)
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        exchange(url, request, HttpResponse.BodyHandlers.discarding(), result)
+                .whenComplete((response, throwable) -> complete(result, null, throwable));
+        return result;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> exchange(String url, HttpRequest request,
+                                                            HttpResponse.BodyHandler<T> bodyHandler, CompletableFuture<?> result) {
+        return robotsPolicyCache.isAllowed(request.uri())
+                .thenCompose(allowed -> allowed
+                        ? send(request, bodyHandler, result)
+                        : CompletableFuture.failedFuture(new RobotsDisallowedException("Page " + url + " is disallowed by robots.txt")));
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                                                        CompletableFuture<?> result) {
+        String host = request.uri().getHost();
+        if(!hostCircuitBreaker.tryAcquire(host)) {
+            return CompletableFuture.failedFuture(new CircuitOpenException(
+                    "Circuit breaker is open for host " + host + " until " + hostCircuitBreaker.getOpenUntil(host)));
+        }
+
+        // Only the exchange itself tells about the host; a permit that times out in our own queue says nothing
+        CompletableFuture<HostRateLimiter.Permit> permitFuture = hostRateLimiter.acquire(host);
+        cancelWith(result, permitFuture);
+        return permitFuture
+                .whenComplete((permit, throwable) -> {
+                    if(throwable != null)
+                        hostCircuitBreaker.releaseProbe(host);
+                })
+                .thenCompose(permit -> {
+                    CompletableFuture<HttpResponse<T>> exchange;
+                    try {
+                        exchange = httpClient.sendAsync(request, bodyHandler);
+                    } catch (RuntimeException e) {
+                        permit.release();
+                        hostCircuitBreaker.releaseProbe(host);
+                        throw e;
+                    }
+                    cancelWith(result, exchange);
+                    return exchange.whenComplete((response, throwable) -> {
+                        permit.release();
+                        recordOutcome(host, response, throwable);
+                    });
+                });
+    }
+
+    private static <T> void complete(CompletableFuture<T> result, T value, Throwable throwable) {
+        if(throwable != null)
+            result.completeExceptionally(throwable);
+        else
+            result.complete(value);
+    }
+
+    private static void cancelWith(CompletableFuture<?> result, CompletableFuture<?> stage) {
+        result.whenComplete((value, throwable) -> {
+            if(result.isCancelled())
+                stage.cancel(true);
+        });
+    }
+
+    // Network errors, timeouts, 5xx and 429 mean the host is in trouble; other statuses mean it answered
+    private void recordOutcome(String host, HttpResponse<?> response, Throwable throwable) {
+        if(unwrap(throwable) instanceof CancellationException) {
+            hostCircuitBreaker.releaseProbe(host);
+            return;
+        }
+
+        if(throwable != null || response.statusCode() >= 500 || response.statusCode() == 429)
+            hostCircuitBreaker.recordFailure(host);
+        else
+            hostCircuitBreaker.recordSuccess(host);
+    }
+
+    // Dependent stages see the failure of an earlier stage wrapped
+    private static Throwable unwrap(Throwable throwable) {
+        while((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null)
+            throwable = throwable.getCause();
+        return throwable;
+    }
+
+    private PageResponse toPageResponse(String url, HttpResponse<BoundedBodySubscriber.BoundedBody> response, long limit) {
+        BoundedBodySubscriber.BoundedBody body = response.body();
+        ContentDecoder.DecodedBody decoded;
+        try {
+            decoded = ContentDecoder.decode(body.bytes(), response.headers().firstValue("Content-Encoding").orElse(null), limit);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+
+        boolean truncated = body.truncated() || decoded.truncated();
+        if(truncated)
+            log.warn("Page {} is larger than {} bytes and was truncated", url, limit);
+
+        // Relative links of a redirected page resolve against where it was found
+        return new PageResponse(
+                response.uri().toString(),
+                response.statusCode(),
+                decoded.bytes(),
+                response.headers().firstValue("Content-Type").orElse(null),
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null),
+                truncated
+        );
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.crawler.web_crawler.fetch;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public record PageResponse(
+        String url,
+        int statusCode,
+        byte[] body,
+        String contentType,
+        String etag,
+        String lastModified,
+        boolean truncated
+) {
+    public static final int NOT_MODIFIED = 304;
+
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    public boolean isNotModified() {
+        return statusCode == NOT_MODIFIED;
+    }
+
+    // Fallback validator for servers that send neither ETag nor Last-Modified
+    public String digest() {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    public String charset() {
+        if(contentType == null)
+            return null;
+
+        int index = contentType.toLowerCase().indexOf("charset=");
+        if(index < 0)
+            return null;
+
+        String charset = contentType.substring(index + "charset=".length()).trim();
+        int end = charset.indexOf(';');
+        if(end >= 0)
+            charset = charset.substring(0, end);
+
+        charset = charset.replace("\"", "").trim();
+        // A malformed or unknown charset is treated as missing, the page is then sniffed or read as UTF-8
+        try {
+            return Charset.isSupported(charset) ? charset : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
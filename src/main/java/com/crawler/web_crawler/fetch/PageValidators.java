@@ -0,0 +1,18 @@
+package com.crawler.web_crawler.fetch;
+
+import com.crawler.web_crawler.model.entity.Source;
+
+public record PageValidators(
+        String etag,
+        String lastModified
+) {
+    private static final PageValidators NONE = new PageValidators(null, null);
+
+    public static PageValidators none() {
+        return NONE;
+    }
+
+    public static PageValidators of(Source source) {
+        return new PageValidators(source.getEtag(), source.getLastModified());
+    }
+}
@@ -0,0 +1,171 @@
+package com.crawler.web_crawler.fetch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// robots.txt policy per origin. Entries live for a TTL, are revalidated with a conditional request
+// when they expire and the least recently used origins are evicted once maxHosts is reached.
+@Slf4j
+@Component
+public class RobotsPolicyCache {
+    private static final long MAX_ROBOTS_SIZE = DataSize.ofKilobytes(500).toBytes();
+
+    private final HttpClient httpClient;
+    private final HostRateLimiter hostRateLimiter;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Duration errorTtl;
+    private final Duration maxCrawlDelay;
+    private final String userAgent;
+    private final Clock clock;
+
+    private final Map<String, RobotsEntry> entries;
+
+    @Autowired
+    public RobotsPolicyCache(HttpClient httpClient,
+                             HostRateLimiter hostRateLimiter,
+                             @Value("${crawler.robots.enabled:true}") boolean enabled,
+                             @Value("${crawler.robots.ttl:24h}") Duration ttl,
+                             @Value("${crawler.robots.error-ttl:1h}") Duration errorTtl,
+                             @Value("${crawler.robots.max-hosts:1000}") int maxHosts,
+                             @Value("${crawler.robots.max-crawl-delay:30s}") Duration maxCrawlDelay) {
+        this(httpClient, hostRateLimiter, enabled, ttl, errorTtl, maxHosts, maxCrawlDelay, PageFetcher.AGENT_TOKEN, Clock.systemUTC());
+    }
+
+    public RobotsPolicyCache(HttpClient httpClient, HostRateLimiter hostRateLimiter, boolean enabled,
+                             Duration ttl, Duration errorTtl, int maxHosts, Duration maxCrawlDelay,
+                             String userAgent, Clock clock) {
+        this.httpClient = httpClient;
+        this.hostRateLimiter = hostRateLimiter;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.errorTtl = errorTtl;
+        this.maxCrawlDelay = maxCrawlDelay;
+        this.userAgent = userAgent;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RobotsEntry> eldest) {
+                return size() > maxHosts;
+            }
+        };
+    }
+
+    public CompletableFuture<Boolean> isAllowed(URI uri) {
+        if(!enabled)
+            return CompletableFuture.completedFuture(true);
+
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if(uri.getRawQuery() != null)
+            path += "?" + uri.getRawQuery();
+
+        String finalPath = path;
+        return rulesFor(uri).thenApply(rules -> rules.isAllowed(finalPath));
+    }
+
+    public int size() {
+        synchronized(entries) {
+            return entries.size();
+        }
+    }
+
+    private CompletableFuture<RobotsRules> rulesFor(URI uri) {
+        String origin = uri.getScheme() + "://" + uri.getRawAuthority();
+        RobotsEntry entry;
+        synchronized(entries) {
+            entry = entries.get(origin);
+            if(entry == null) {
+                entry = new RobotsEntry();
+                entries.put(origin, entry);
+            }
+        }
+
+        synchronized(entry) {
+            if(entry.rules != null && clock.instant().isBefore(entry.expiresAt))
+                return CompletableFuture.completedFuture(entry.rules);
+            if(entry.loading != null)
+                return entry.loading;
+
+            CompletableFuture<RobotsRules> loading = load(origin, uri.getHost(), entry);
+            if(!loading.isDone())
+                entry.loading = loading;
+            return loading;
+        }
+    }
+
+    private CompletableFuture<RobotsRules> load(String origin, String host, RobotsEntry entry) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(origin + "/robots.txt"))
+                .timeout(PageFetcher.TIMEOUT)
+                .header("User-Agent", PageFetcher.USER_AGENT)
+                .GET();
+        if(entry.etag != null)
+            builder.header("If-None-Match", entry.etag);
+        if(entry.lastModified != null)
+            builder.header("If-Modified-Since", entry.lastModified);
+
+        return httpClient.sendAsync(builder.build(), BoundedBodySubscriber.handler(MAX_ROBOTS_SIZE))
+                .handle((response, throwable) -> {
+                    synchronized(entry) {
+                        update(origin, host, entry, response, throwable);
+                        entry.loading = null;
+                        return entry.rules;
+                    }
+                });
+    }
+
+    private void update(String origin, String host, RobotsEntry entry,
+                        HttpResponse<BoundedBodySubscriber.BoundedBody> response, Throwable throwable) {
+        Instant now = clock.instant();
+        if(throwable != null || response.statusCode() >= 500) {
+            // Keep the last known policy if there is one, otherwise crawl and retry later
+            log.warn("Cannot load robots.txt for {}: {}", origin,
+                    throwable != null ? throwable.getMessage() : "status code " + response.statusCode());
+            if(entry.rules == null)
+                entry.rules = RobotsRules.allowAll();
+            entry.expiresAt = now.plus(errorTtl);
+            return;
+        }
+
+        int statusCode = response.statusCode();
+        if(statusCode == 304 && entry.rules != null) {
+            entry.expiresAt = now.plus(ttl);
+            return;
+        }
+
+        entry.rules = statusCode >= 200 && statusCode < 300
+                ? RobotsRules.parse(new String(response.body().bytes(), StandardCharsets.UTF_8), userAgent)
+                : RobotsRules.allowAll(); // Missing robots.txt means no restrictions
+        entry.etag = response.headers().firstValue("ETag").orElse(null);
+        entry.lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        entry.expiresAt = now.plus(ttl);
+
+        Duration crawlDelay = entry.rules.getCrawlDelay();
+        if(crawlDelay != null && crawlDelay.compareTo(maxCrawlDelay) > 0)
+            crawlDelay = maxCrawlDelay;
+        hostRateLimiter.setMinInterval(host, crawlDelay);
+        log.info("Loaded robots.txt for {}, crawl delay: {}", origin, crawlDelay);
+    }
+
+    private static class RobotsEntry {
+        private RobotsRules rules;
+        private Instant expiresAt;
+        private String etag;
+        private String lastModified;
+        private CompletableFuture<RobotsRules> loading;
+    }
+}
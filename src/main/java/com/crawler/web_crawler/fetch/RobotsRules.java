@@ -0,0 +1,217 @@
+package com.crawler.web_crawler.fetch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Allow/Disallow rules of a single robots.txt group. Plain path prefixes are compiled into a trie,
+// patterns with '*' or '$' are kept in a short list. The longest matching rule wins, Allow wins a tie.
+public class RobotsRules {
+    private static final RobotsRules ALLOW_ALL = new RobotsRules(new Node(), List.of(), null);
+
+    private final Node root;
+    private final List<WildcardRule> wildcardRules;
+    private final Duration crawlDelay;
+
+    private RobotsRules(Node root, List<WildcardRule> wildcardRules, Duration crawlDelay) {
+        this.root = root;
+        this.wildcardRules = wildcardRules;
+        this.crawlDelay = crawlDelay;
+    }
+
+    public static RobotsRules allowAll() {
+        return ALLOW_ALL;
+    }
+
+    public static RobotsRules parse(String content, String userAgent) {
+        String agent = userAgent.toLowerCase(Locale.ROOT);
+        List<String[]> specificRules = new ArrayList<>();
+        List<String[]> defaultRules = new ArrayList<>();
+        Duration specificDelay = null;
+        Duration defaultDelay = null;
+
+        boolean specificGroup = false;
+        boolean defaultGroup = false;
+        boolean specificFound = false;
+        boolean readingAgents = false;
+        for(String rawLine: content.split("\r\n|\r|\n")) {
+            int comment = rawLine.indexOf('#');
+            String line = (comment >= 0 ? rawLine.substring(0, comment) : rawLine).trim();
+            int colon = line.indexOf(':');
+            if(colon <= 0)
+                continue;
+
+            String key = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            if(key.equals("user-agent")) {
+                if(!readingAgents) {
+                    specificGroup = false;
+                    defaultGroup = false;
+                    readingAgents = true;
+                }
+                String token = value.toLowerCase(Locale.ROOT);
+                if(token.equals("*"))
+                    defaultGroup = true;
+                else if(!token.isEmpty() && agent.equals(token)) {
+                    specificGroup = true;
+                    specificFound = true;
+                }
+                continue;
+            }
+
+            readingAgents = false;
+            if(key.equals("allow") || key.equals("disallow")) {
+                if(value.isEmpty())
+                    continue; // An empty Disallow allows everything
+
+                String[] rule = {key, value};
+                if(specificGroup)
+                    specificRules.add(rule);
+                if(defaultGroup)
+                    defaultRules.add(rule);
+            } else if(key.equals("crawl-delay")) {
+                Duration delay = parseDelay(value);
+                if(specificGroup)
+                    specificDelay = delay;
+                if(defaultGroup)
+                    defaultDelay = delay;
+            }
+        }
+
+        // A group naming our agent replaces the '*' group entirely, even when it has no rules
+        return compile(specificFound ? specificRules : defaultRules, specificFound ? specificDelay : defaultDelay);
+    }
+
+    public boolean isAllowed(String path) {
+        if(path.isEmpty() || path.equals("/robots.txt"))
+            return true;
+
+        int bestLength = -1;
+        boolean allowed = true;
+
+        Node node = root;
+        for(int i = 0; node != null; i++) {
+            if(node.ruleLength >= 0) {
+                bestLength = node.ruleLength;
+                allowed = node.allow;
+            }
+            if(i == path.length())
+                break;
+            node = node.child(path.charAt(i));
+        }
+
+        for(WildcardRule rule: wildcardRules) {
+            int length = rule.pattern().length();
+            if(length < bestLength || (length == bestLength && (allowed || !rule.allow())))
+                continue;
+            if(matches(rule.pattern(), path)) {
+                bestLength = length;
+                allowed = rule.allow();
+            }
+        }
+
+        return allowed;
+    }
+
+    public Duration getCrawlDelay() {
+        return crawlDelay;
+    }
+
+    private static RobotsRules compile(List<String[]> rules, Duration crawlDelay) {
+        if(rules.isEmpty() && crawlDelay == null)
+            return ALLOW_ALL;
+
+        Builder root = new Builder();
+        List<WildcardRule> wildcardRules = new ArrayList<>();
+        for(String[] rule: rules) {
+            boolean allow = rule[0].equals("allow");
+            String pattern = rule[1];
+            if(pattern.indexOf('*') >= 0 || pattern.endsWith("$")) {
+                wildcardRules.add(new WildcardRule(pattern, allow));
+                continue;
+            }
+
+            Builder node = root;
+            for(int i = 0; i < pattern.length(); i++)
+                node = node.children.computeIfAbsent(pattern.charAt(i), c -> new Builder());
+            node.ruleLength = pattern.length();
+            node.allow |= allow;
+        }
+
+        return new RobotsRules(root.build(), List.copyOf(wildcardRules), crawlDelay);
+    }
+
+    private static Duration parseDelay(String value) {
+        try {
+            double seconds = Double.parseDouble(value);
+            return seconds > 0 ? Duration.ofMillis((long) (seconds * 1000)) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // '*' matches any sequence, a trailing '$' anchors the pattern at the end of the path
+    private static boolean matches(String pattern, String path) {
+        boolean anchored = pattern.endsWith("$");
+        int patternLength = anchored ? pattern.length() - 1 : pattern.length();
+
+        int p = 0, s = 0, star = -1, starMatch = 0;
+        while(p < patternLength || s < path.length()) {
+            if(p == patternLength && !anchored)
+                return true;
+
+            if(p < patternLength && pattern.charAt(p) == '*') {
+                star = p++;
+                starMatch = s;
+            } else if(p < patternLength && s < path.length() && pattern.charAt(p) == path.charAt(s)) {
+                p++;
+                s++;
+            } else if(star >= 0 && starMatch < path.length()) {
+                p = star + 1;
+                s = ++starMatch;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record WildcardRule(String pattern, boolean allow) {}
+
+    private static class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int ruleLength = -1;
+        private boolean allow;
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    private static class Builder {
+        private final Map<Character, Builder> children = new TreeMap<>();
+        private int ruleLength = -1;
+        private boolean allow;
+
+        private Node build() {
+            Node node = new Node();
+            node.ruleLength = ruleLength;
+            node.allow = allow;
+            node.keys = new char[children.size()];
+            node.children = new Node[children.size()];
+            int i = 0;
+            for(Map.Entry<Character, Builder> entry: children.entrySet()) {
+                node.keys[i] = entry.getKey();
+                node.children[i] = entry.getValue().build();
+                i++;
+            }
+            return node;
+        }
+    }
+}
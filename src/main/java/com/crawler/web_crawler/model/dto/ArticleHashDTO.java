@@ -0,0 +1,6 @@
+package com.crawler.web_crawler.model.dto;
+
+public record ArticleHashDTO(
+        Long id,
+        String hash
+) {}
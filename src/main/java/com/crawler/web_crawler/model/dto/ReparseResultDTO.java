@@ -0,0 +1,9 @@
+package com.crawler.web_crawler.model.dto;
+
+public record ReparseResultDTO(
+        int pages,
+        int articles,
+        int newArticles,
+        boolean saved,
+        long parseMillis
+) {}
@@ -0,0 +1,27 @@
+package com.crawler.web_crawler.model.dto;
+
+import com.crawler.web_crawler.model.entity.SourceSettings;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.util.Map;
+
+public record SelectorTestRequestDTO(
+        @NotNull @NotBlank(message = "URL cannot be empty")
+        String url,
+
+        @NotNull
+        Map<String, String> selectors,
+
+        @Positive
+        Integer maxBodySize,
+
+        @Valid
+        SourceSettings settings // Only structuredData changes what a single page yields
+) {
+    public SelectorTestRequestDTO(String url, Map<String, String> selectors, Integer maxBodySize) {
+        this(url, selectors, maxBodySize, null);
+    }
+}
@@ -0,0 +1,21 @@
+package com.crawler.web_crawler.model.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public record SelectorTestResultDTO(
+        String url,
+        boolean fromCache,
+        long fetchMillis,
+        long parseMillis,
+        Map<String, Integer> matches,
+        List<ArticlePreview> articles
+) {
+    public record ArticlePreview(
+            String title,
+            String content,
+            LocalDate publishDate,
+            String detailUrl
+    ) {}
+}
@@ -1,8 +1,13 @@
 package com.crawler.web_crawler.model.dto;
 
+import com.crawler.web_crawler.model.entity.Language;
+import com.crawler.web_crawler.model.entity.ParserType;
+import com.crawler.web_crawler.model.entity.SourceSettings;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
 
 import java.util.Map;
 
@@ -17,5 +22,19 @@ public record SourceRequestDTO(
         @NotNull
         Map<String, String> selectors,
 
-        boolean isActive
-) {}
+        boolean isActive,
+
+        @Positive
+        Integer maxBodySize,
+
+        ParserType parserType, // Detected from the url when not set
+
+        Language language, // Dates in any supported language when not set
+
+        @Valid
+        SourceSettings settings // Crawler defaults when not set
+) {
+    public SourceRequestDTO(String url, String schedule, Map<String, String> selectors, boolean isActive) {
+        this(url, schedule, selectors, isActive, null, null, null, null);
+    }
+}
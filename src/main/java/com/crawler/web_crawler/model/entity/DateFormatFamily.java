@@ -0,0 +1,8 @@
+package com.crawler.web_crawler.model.entity;
+
+// Shape of the teaser dates of a source, learned by DateParser and tried first on the next dates
+public enum DateFormatFamily {
+    DAY_MONTH_NAME, // 15 января 2025, 8 апреля 25, 8 апреля
+    DAY_MONTH_DOTTED, // 15.01.2025, 15.01.25
+    DAY_MONTH_SPACED // 15 01 2025
+}
@@ -0,0 +1,10 @@
+package com.crawler.web_crawler.model.entity;
+
+// Language of the dates on the pages of a source; a source without one accepts the words of all of them
+public enum Language {
+    RU,
+    UK,
+    EN,
+    PL,
+    DE
+}
@@ -35,6 +35,18 @@ public class NewsArticle {
     @Column(unique = true)
     private String hash; // for check duplicates
 
+    @Transient
+    private String detailUrl; // Link to the full article found on the listing, not stored
+
+    public NewsArticle(Long id, String title, LocalDate publishDate, String content, Source source, String hash) {
+        this.id = id;
+        this.title = title;
+        this.publishDate = publishDate;
+        this.content = content;
+        this.source = source;
+        this.hash = hash;
+    }
+
     //TODO Если изменить title, date или source нужно изменять и hash. Подумать об этом
     public void setHash() {
         hash = String.valueOf(Objects.hash(
@@ -43,6 +55,13 @@ public class NewsArticle {
                 this.source.getId()));
     }
 
+    // For articles known only by their url, see SitemapParser
+    public void setUrlHash(String url) {
+        hash = String.valueOf(Objects.hash(
+                url,
+                this.source.getId()));
+    }
+
     @Override
     public boolean equals(Object obj) {
         if(this == obj)
@@ -0,0 +1,34 @@
+package com.crawler.web_crawler.model.entity;
+
+import java.net.URI;
+import java.util.Locale;
+
+public enum ParserType {
+    HTML, // Listing page scraped with css selectors
+    FEED, // RSS or Atom feed
+    SITEMAP, // sitemap.xml, sitemap index or Google News sitemap
+    DISCOVERY; // Links followed from the source url, pages matching articleUrl are articles; never detected
+
+    // Used when a source is added without an explicit type
+    public static ParserType detect(String url) {
+        String path;
+        try {
+            path = URI.create(url).getPath();
+        } catch (IllegalArgumentException e) {
+            return HTML;
+        }
+        if(path == null)
+            return HTML;
+
+        path = path.toLowerCase(Locale.ROOT);
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+        if(fileName.contains("sitemap") && (fileName.endsWith(".xml") || fileName.endsWith(".xml.gz")))
+            return SITEMAP;
+
+        return path.endsWith(".rss") || path.endsWith(".xml") || path.endsWith(".atom")
+                || path.endsWith("/rss") || path.endsWith("/feed") || path.endsWith("/atom")
+                || path.contains("/rss/") || path.contains("/feed/")
+                ? FEED
+                : HTML;
+    }
+}
@@ -1,6 +1,7 @@
 package com.crawler.web_crawler.model.entity;
 
 import com.crawler.web_crawler.converter.JsonMapConverter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -8,6 +9,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
@@ -36,9 +38,65 @@ public class Source {
     @Column(name = "is_active")
     private Boolean isActive;
 
-    //TODO Add language field for parsing publishDate in different languages
-//    @Column(name = "lang", nullable = false)
-//    private String language;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "parser_type")
+    private ParserType parserType;
+
+    @Embedded
+    @JsonProperty("settings")
+    private SourceSettings settings = new SourceSettings();
+
+    // Upper bound in bytes for a downloaded page, null means the crawler default
+    @Column(name = "max_body_size")
+    private Integer maxBodySize;
+
+    // Validators of the last successfully parsed page, used for conditional requests
+    private String etag;
+
+    @Column(name = "last_modified")
+    private String lastModified;
+
+    @Column(name = "content_digest")
+    private String contentDigest;
+
+    // Month names and relative words of other languages are not accepted in dates when set
+    @Enumerated(EnumType.STRING)
+    private Language language;
+
+    // Shape of the teaser dates, learned on the first crawls so later dates are parsed with one attempt
+    @Enumerated(EnumType.STRING)
+    @Column(name = "date_format")
+    private DateFormatFamily dateFormat;
+
+    // lastmod of each child sitemap read so far, dropped with the page validators. Replaced rather than
+    // changed in place, so a crawl that fails half way leaves the saved map as it was
+    @Column(name = "sitemap_lastmods", columnDefinition = "JSON")
+    @Convert(converter = JsonMapConverter.class)
+    @JsonIgnore
+    private Map<String, String> sitemapLastmods = new HashMap<>();
+
+
+    public Source(Long id, String url, String schedule, Map<String, String> selectors, Boolean isActive) {
+        this.id = id;
+        this.url = url;
+        this.schedule = schedule;
+        this.selectors = selectors;
+        this.isActive = isActive;
+    }
+
+    // Hibernate leaves an embedded object null when all of its columns are
+    public SourceSettings getSettings() {
+        if(settings == null)
+            settings = new SourceSettings();
+        return settings;
+    }
+
+    public void resetPageValidators() {
+        etag = null;
+        lastModified = null;
+        contentDigest = null;
+        sitemapLastmods = new HashMap<>();
+    }
 
     @Override
     public String toString() {
@@ -0,0 +1,126 @@
+package com.crawler.web_crawler.model.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+// Crawl settings of a source, everything that isn't a css selector. A null value means the crawler default.
+// pageUrlTemplate, maxPages, pageConcurrency - listing pagination; stopAfterKnown - incremental crawl, 0 is off;
+// detailConcurrency, detailTimeBudget (seconds) - detail pages; structuredData - read JSON-LD articles;
+// sitemapMaxAge (days) - oldest sitemap entry on the first crawl; articleUrl, followUrl (regexes),
+// discoveryDepth, discoveryMaxPages, discoveryConcurrency - link discovery.
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode
+@Embeddable
+public class SourceSettings {
+    public static final String PAGE_PLACEHOLDER = "{page}";
+
+    public static final int MAX_PAGES = 50;
+    public static final int MAX_PAGE_CONCURRENCY = 8;
+    public static final int MAX_STOP_AFTER_KNOWN = 100;
+    public static final int MAX_DETAIL_CONCURRENCY = 16;
+    public static final int MAX_DETAIL_TIME_BUDGET = 120;
+    public static final int MAX_SITEMAP_AGE = 365;
+    public static final int MAX_DISCOVERY_DEPTH = 5;
+    public static final int MAX_DISCOVERY_PAGES = 50_000;
+    public static final int MAX_DISCOVERY_CONCURRENCY = 16;
+
+    @Size(max = 255)
+    @Column(name = "page_url_template")
+    private String pageUrlTemplate;
+
+    @Positive @Max(MAX_PAGES)
+    @Column(name = "max_pages")
+    private Integer maxPages;
+
+    @Positive @Max(MAX_PAGE_CONCURRENCY)
+    @Column(name = "page_concurrency")
+    private Integer pageConcurrency;
+
+    @Min(0) @Max(MAX_STOP_AFTER_KNOWN)
+    @Column(name = "stop_after_known")
+    private Integer stopAfterKnown;
+
+    @Positive @Max(MAX_DETAIL_CONCURRENCY)
+    @Column(name = "detail_concurrency")
+    private Integer detailConcurrency;
+
+    @Positive @Max(MAX_DETAIL_TIME_BUDGET)
+    @Column(name = "detail_time_budget")
+    private Integer detailTimeBudget;
+
+    @Column(name = "structured_data")
+    private Boolean structuredData;
+
+    @Positive @Max(MAX_SITEMAP_AGE)
+    @Column(name = "sitemap_max_age")
+    private Integer sitemapMaxAge;
+
+    @Size(max = 255)
+    @Column(name = "article_url")
+    private String articleUrl;
+
+    @Size(max = 255)
+    @Column(name = "follow_url")
+    private String followUrl;
+
+    @Positive @Max(MAX_DISCOVERY_DEPTH)
+    @Column(name = "discovery_depth")
+    private Integer discoveryDepth;
+
+    @Positive @Max(MAX_DISCOVERY_PAGES)
+    @Column(name = "discovery_max_pages")
+    private Integer discoveryMaxPages;
+
+    @Positive @Max(MAX_DISCOVERY_CONCURRENCY)
+    @Column(name = "discovery_concurrency")
+    private Integer discoveryConcurrency;
+
+    // Rows saved before validation existed may hold anything, so the crawler still bounds every number it reads
+    public static int bounded(Integer value, int defaultValue, int minValue, int maxValue) {
+        return value == null ? defaultValue : Math.max(minValue, Math.min(value, maxValue));
+    }
+
+    @JsonIgnore
+    public boolean isStructuredDataEnabled() {
+        return Boolean.TRUE.equals(structuredData);
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "pageUrlTemplate must contain the " + PAGE_PLACEHOLDER + " placeholder")
+    public boolean isPageUrlTemplateValid() {
+        return pageUrlTemplate == null || pageUrlTemplate.contains(PAGE_PLACEHOLDER);
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "articleUrl and followUrl must be valid regular expressions")
+    public boolean isUrlPatternsValid() {
+        return isPattern(articleUrl) && isPattern(followUrl);
+    }
+
+    private static boolean isPattern(String value) {
+        if(value == null || value.isBlank())
+            return true;
+
+        try {
+            Pattern.compile(value.trim());
+            return true;
+        } catch (PatternSyntaxException e) {
+            return false;
+        }
+    }
+}
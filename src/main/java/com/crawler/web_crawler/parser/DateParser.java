@@ -1,71 +1,335 @@
 package com.crawler.web_crawler.parser;
 
+import com.crawler.web_crawler.model.entity.DateFormatFamily;
+import com.crawler.web_crawler.model.entity.Language;
+import com.crawler.web_crawler.model.entity.Source;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
 import java.util.Optional;
 
+// Single pass over the text without regexes, formatters or exceptions; it is called for every teaser on a page.
+// Words are looked up in the DateWords trie while their letters are read, so every supported language costs the same.
+// Accepted: "15 января 2025", "8 April 25", "15. März" (current year), "January 15th, 2025", "15 01 2025", "15.01.2025",
+// "15.01.25", with an optional "13:41" time and commas anywhere; "5 минут назад", "2 hours ago", "vor einer Stunde";
+// a weekday alone is its last occurrence; "сегодня" / "gestern" anywhere in the text win.
+// With a source, the format family its dates had last time is tried first as one strict shape.
 @Slf4j
 @Component
 public class DateParser {
-    private final static String REGEX_FULL_YEAR = ".*\\d{4}.*";
-    private final static String REGEX_SHORT_YEAR = ".*\\d{2}\\b.*";
-    private final static String REGEX_TIME = "\\b\\d{1,2}:\\d{2}\\b";
-    private final static String REGEX_COMMA = "[,]";
+    private static final int MAX_NUMBERS = 3;
+    private static final int MAX_NUMBER_DIGITS = 9;
+    private static final char NO_SEPARATOR = 0;
+    private static final char MIXED_SEPARATOR = 1;
 
     public Optional<LocalDate> toLocalDateFromString(String date) {
-        date = date.toLowerCase();
-        date = deleteTime(date);
-
-        int offset = getOffsetIfAdverbTimeExist(date);
-        if(offset <= 0)
-            return Optional.of(LocalDate.now().plusDays(offset));
-
-        Optional<LocalDate> localDate;
-        for(DateTimeFormatter formatter: ParseUtils.getDateTimeFormatters()) {
-            try {
-                if(!date.matches(REGEX_FULL_YEAR) && !date.matches(REGEX_SHORT_YEAR))
-                    date = date + " " + LocalDate.now().getYear();
-                localDate = Optional.of(LocalDate.parse(date, formatter));
-
-                return localDate;
-            } catch (DateTimeParseException ignore) {}
+        ParsedDate parsedDate = lex(date, null);
+        return parsedDate == null ? Optional.empty() : Optional.of(parsedDate.date());
+    }
+
+    // Relative dates say nothing about the format, the learned family is kept for them
+    public Optional<LocalDate> toLocalDateFromString(Source source, String date) {
+        DateFormatFamily learned = source.getDateFormat();
+        if(learned != null) {
+            LocalDate localDate = parseAs(learned, date, source.getLanguage());
+            if(localDate != null)
+                return Optional.of(localDate);
         }
 
-        log.warn("Unable to recognize date: {}", date);
-        return Optional.empty();
-    }
+        ParsedDate parsedDate = lex(date, source.getLanguage());
+        if(parsedDate == null)
+            return Optional.empty();
 
-    private String deleteTime(String date) {
-        return date
-                .replaceAll(REGEX_TIME, "")
-                .replaceAll(REGEX_COMMA, "")
-                .trim();
+        if(parsedDate.family() != null && parsedDate.family() != learned) {
+            log.info("Dates of {} are now read as {}", source.getUrl(), parsedDate.family());
+            source.setDateFormat(parsedDate.family());
+        }
+        return Optional.of(parsedDate.date());
     }
 
-    private int getOffsetIfAdverbTimeExist(String date) {
-        record DayAndOffset(
-                String name,
-                int offset
-        ) {}
-        DayAndOffset ruToday = new DayAndOffset("сегодня", 0);
-        DayAndOffset ruYesterday = new DayAndOffset("вчера", -1);
-        List<DayAndOffset> daysWithOffset = List.of(ruToday, ruYesterday);
+    private ParsedDate lex(String date, Language language) {
+        int length = date.length();
+        Lexed lexed = new Lexed();
+        char separator = NO_SEPARATOR;
+
+        int i = 0;
+        while(i < length) {
+            char c = date.charAt(i);
+            if(c == ',' || c == '.' || isSpace(c)) {
+                char kind = c == '.' ? '.' : ' ';
+                separator = separator == NO_SEPARATOR || separator == kind ? kind : MIXED_SEPARATOR;
+                i++;
+                continue;
+            }
+
+            int start = i;
+            if(isDigit(c)) {
+                i = digitsEnd(date, i, length);
+                int digits = i - start;
+
+                if(i < length && date.charAt(i) == ':') {
+                    int timeEnd = skipTime(date, i, digits);
+                    if(timeEnd < 0)
+                        lexed.valid = false;
+                    i = Math.max(timeEnd, i + 1);
+                    continue;
+                }
+                if(i < length && Character.isLetter(date.charAt(i))) {
+                    // 15th
+                    int suffixEnd = lettersEnd(date, i, length);
+                    DateWords.Word suffix = DateWords.find(date, i, suffixEnd, language);
+                    if(suffix == null || suffix.kind() != DateWords.Kind.ORDINAL)
+                        lexed.valid = false;
+                    i = suffixEnd;
+                }
+                lexed.addNumber(valueOf(date, start, start + digits), digits, separator);
+            } else if(Character.isLetter(c)) {
+                DateWords.Node node = DateWords.ROOT;
+                while(i < length && Character.isLetter(date.charAt(i))) {
+                    if(node != null)
+                        node = node.next(date.charAt(i));
+                    i++;
+                }
 
-        for(DayAndOffset landDayAndOffset: daysWithOffset) {
-            String name = landDayAndOffset.name();
-            int offset = landDayAndOffset.offset();
-            int index = date.indexOf(name);
-            if(index >= 0) {
-                return offset;
+                DateWords.Word word = node == null ? null : node.word(language);
+                if(word != null && word.kind() == DateWords.Kind.RELATIVE_DAY)
+                    return new ParsedDate(LocalDate.now().plusDays(word.value()), null);
+                lexed.addWord(word, separator);
+            } else {
+                lexed.valid = false;
+                i++;
             }
+            separator = NO_SEPARATOR;
         }
 
-        return 1; // No offset
+        if(separator != NO_SEPARATOR && separator != ' ')
+            lexed.valid = false; // A trailing dot or mixed separators after the last part
+        ParsedDate parsedDate = lexed.valid ? toParsedDate(lexed) : null;
+        if(parsedDate == null)
+            log.warn("Unable to recognize date: {}", date);
+        return parsedDate;
+    }
+
+    private ParsedDate toParsedDate(Lexed lexed) {
+        if(lexed.unitMinutes >= 0 || lexed.ago || lexed.one)
+            return toRelativeDate(lexed);
+        if(lexed.month > 0)
+            return toNamedMonthDate(lexed);
+        if(lexed.count == 0 && lexed.weekday > 0) {
+            LocalDate date = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.of(lexed.weekday)));
+            return new ParsedDate(date, null);
+        }
+
+        // 15 01 2025, 15.01.2025, 15.01.25; a numeric date always has a year
+        char separator = lexed.separators[1];
+        if(lexed.count != MAX_NUMBERS || lexed.digits[0] > 2 || lexed.digits[1] != 2 || separator != lexed.separators[2])
+            return null;
+        if(separator == '.' && lexed.digits[0] != 2)
+            return null;
+        if(separator != '.' && separator != ' ')
+            return null;
+
+        DateFormatFamily family = separator == '.' ? DateFormatFamily.DAY_MONTH_DOTTED : DateFormatFamily.DAY_MONTH_SPACED;
+        LocalDate date = toDate(lexed.numbers[0], lexed.numbers[1], lexed.numbers[2], lexed.digits[2]);
+        return date == null ? null : new ParsedDate(date, family);
+    }
+
+    // 5 минут назад, an hour ago, vor 2 Stunden, годину тому
+    private ParsedDate toRelativeDate(Lexed lexed) {
+        if(lexed.unitMinutes < 0 || !lexed.ago || lexed.month > 0 || lexed.count > 1)
+            return null;
+        if(lexed.count == 1 && (lexed.one || lexed.unitPosition != 1))
+            return null;
+
+        long amount = lexed.count == 1 ? lexed.numbers[0] : 1;
+        return new ParsedDate(LocalDateTime.now().minusMinutes(amount * lexed.unitMinutes).toLocalDate(), null);
+    }
+
+    // 15 января 2025, 15. März, 8 April 25 or, only learned when the day comes first, January 15, 2025
+    private ParsedDate toNamedMonthDate(Lexed lexed) {
+        if(lexed.count == 0 || lexed.count > 2 || lexed.digits[0] > 2 || lexed.monthPosition > 1)
+            return null;
+
+        boolean dayFirst = lexed.monthPosition == 1;
+        char daySeparator = dayFirst ? lexed.monthSeparator : lexed.separators[0];
+        if(daySeparator == NO_SEPARATOR || (lexed.count == 2 && lexed.separators[1] == NO_SEPARATOR))
+            return null;
+
+        LocalDate date = toDate(lexed.numbers[0], lexed.month, lexed.count == 2 ? lexed.numbers[1] : -1, lexed.digits[1]);
+        return date == null ? null : new ParsedDate(date, dayFirst ? DateFormatFamily.DAY_MONTH_NAME : null);
     }
 
+    // The learned shape only, without a time, commas or extra words; null sends the text to the full lexer
+    private LocalDate parseAs(DateFormatFamily family, String date, Language language) {
+        int start = 0;
+        int end = date.length();
+        while(start < end && isSpace(date.charAt(start)))
+            start++;
+        while(end > start && isSpace(date.charAt(end - 1)))
+            end--;
+
+        int dayEnd = digitsEnd(date, start, end);
+        int dayDigits = dayEnd - start;
+        if(dayDigits < 1 || dayDigits > 2 || dayEnd == end)
+            return null;
+
+        return switch(family) {
+            case DAY_MONTH_NAME -> parseMonthName(date, start, dayEnd, end, language);
+            case DAY_MONTH_DOTTED -> dayDigits == 2 ? parseNumeric(date, start, dayEnd, end, '.') : null;
+            case DAY_MONTH_SPACED -> parseNumeric(date, start, dayEnd, end, ' ');
+        };
+    }
+
+    // "15 января 2025" or "15. März"
+    private LocalDate parseMonthName(String date, int start, int dayEnd, int end, Language language) {
+        int monthStart = date.charAt(dayEnd) == '.' ? dayEnd + 1 : dayEnd;
+        if(monthStart == end || date.charAt(monthStart) != ' ')
+            return null;
+
+        monthStart++;
+        int monthEnd = lettersEnd(date, monthStart, end);
+        DateWords.Word month = DateWords.find(date, monthStart, monthEnd, language);
+        if(monthEnd == monthStart || month == null || month.kind() != DateWords.Kind.MONTH)
+            return null;
+        if(monthEnd == end)
+            return toDate(valueOf(date, start, dayEnd), month.value(), -1, 0);
+
+        if(date.charAt(monthEnd) != ' ' || digitsEnd(date, monthEnd + 1, end) != end)
+            return null;
+        return toDate(valueOf(date, start, dayEnd), month.value(), valueOf(date, monthEnd + 1, end), end - monthEnd - 1);
+    }
+
+    private LocalDate parseNumeric(String date, int start, int dayEnd, int end, char separator) {
+        if(date.charAt(dayEnd) != separator)
+            return null;
+
+        int monthEnd = digitsEnd(date, dayEnd + 1, end);
+        if(monthEnd - dayEnd - 1 != 2 || monthEnd == end || date.charAt(monthEnd) != separator)
+            return null;
+        if(digitsEnd(date, monthEnd + 1, end) != end)
+            return null;
+
+        return toDate(valueOf(date, start, dayEnd), valueOf(date, dayEnd + 1, monthEnd),
+                valueOf(date, monthEnd + 1, end), end - monthEnd - 1);
+    }
+
+    // A year of -1 is the current one; otherwise it has 2 (20xx) or at least 4 digits
+    private LocalDate toDate(int day, int month, int year, int yearDigits) {
+        if(year < 0)
+            year = LocalDate.now().getYear();
+        else if(yearDigits == 2)
+            year += 2000;
+        else if(yearDigits < 4)
+            return null;
+
+        if(day < 1 || day > 31 || month < 1 || month > 12)
+            return null;
+
+        // Like the SMART resolver: 31 of a shorter month becomes its last day
+        int lastDay = YearMonth.of(year, month).lengthOfMonth();
+        return LocalDate.of(year, month, Math.min(day, lastDay));
+    }
+
+    // "13:41" or "13:41:05" right after the hour digits; returns the index after it or -1 when it isn't a time
+    private int skipTime(String date, int colon, int hourDigits) {
+        int i = digitsEnd(date, colon + 1, date.length());
+        if(hourDigits > 2 || i - colon - 1 != 2)
+            return -1;
+
+        if(i + 2 < date.length() && date.charAt(i) == ':' && isDigit(date.charAt(i + 1)) && isDigit(date.charAt(i + 2)))
+            i += 3;
+        return i < date.length() && (isDigit(date.charAt(i)) || Character.isLetter(date.charAt(i))) ? -1 : i;
+    }
+
+    private static int digitsEnd(String date, int start, int end) {
+        int i = start;
+        while(i < end && isDigit(date.charAt(i)))
+            i++;
+        return i;
+    }
+
+    private static int lettersEnd(String date, int start, int end) {
+        int i = start;
+        while(i < end && Character.isLetter(date.charAt(i)))
+            i++;
+        return i;
+    }
+
+    private static int valueOf(String date, int start, int end) {
+        int value = 0;
+        for(int i = start; i < end && i - start < MAX_NUMBER_DIGITS; i++)
+            value = value * 10 + (date.charAt(i) - '0');
+        return value;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || Character.isWhitespace(c);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // family is null for relative dates and the shapes without a fast path
+    private record ParsedDate(LocalDate date, DateFormatFamily family) {}
+
+    // Parts of the text in the order they were read; a separator is the one in front of its part
+    private static class Lexed {
+        private boolean valid = true;
+        private int count;
+        private final int[] numbers = new int[MAX_NUMBERS];
+        private final int[] digits = new int[MAX_NUMBERS];
+        private final char[] separators = new char[MAX_NUMBERS];
+        private int month; // From a month name, 0 when there is none
+        private int monthPosition; // Numbers read before the month name
+        private char monthSeparator;
+        private int weekday;
+        private int unitMinutes = -1;
+        private int unitPosition;
+        private boolean ago;
+        private boolean one;
+
+        private void addNumber(int value, int digitCount, char separator) {
+            if(count == MAX_NUMBERS) {
+                valid = false;
+                return;
+            }
+            numbers[count] = value;
+            digits[count] = digitCount;
+            separators[count] = separator;
+            count++;
+        }
+
+        private void addWord(DateWords.Word word, char separator) {
+            if(word == null) {
+                valid = false;
+                return;
+            }
+
+            switch(word.kind()) {
+                case MONTH -> {
+                    if(month > 0)
+                        valid = false;
+                    month = word.value();
+                    monthPosition = count;
+                    monthSeparator = separator;
+                }
+                case WEEKDAY -> weekday = word.value();
+                case UNIT -> {
+                    if(unitMinutes >= 0)
+                        valid = false;
+                    unitMinutes = word.value();
+                    unitPosition = count;
+                }
+                case AGO -> ago = true;
+                case ONE -> one = true;
+                default -> valid = false; // An ordinal suffix apart from its number
+            }
+        }
+    }
 }
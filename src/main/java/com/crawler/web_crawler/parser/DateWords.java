@@ -0,0 +1,153 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.model.entity.Language;
+
+import java.util.Arrays;
+
+// Month names, weekdays and relative words of all supported languages in one trie built once, so DateParser
+// recognizes a word of any language while it reads the letters, without a table scan or a formatter per locale.
+// Keys are lower case; a node keeps the word of each language that ends on it.
+class DateWords {
+    enum Kind { MONTH, WEEKDAY, RELATIVE_DAY, UNIT, AGO, ONE, ORDINAL }
+
+    // value is the month (1-12), the ISO day of week, the offset in days or the length of the unit in minutes
+    record Word(Kind kind, int value, Language language) {}
+
+    static final Node ROOT = new Node();
+    private static final int[] UNIT_MINUTES = {0, 1, 60, 24 * 60, 7 * 24 * 60};
+
+    static {
+        months(Language.RU, "января|янв", "февраля|фев", "марта|мар", "апреля|апр", "мая", "июня|июн",
+                "июля|июл", "августа|авг", "сентября|сен|сент", "октября|окт", "ноября|ноя", "декабря|дек");
+        months(Language.UK, "січня", "лютого", "березня", "квітня", "травня", "червня",
+                "липня", "серпня", "вересня", "жовтня", "листопада", "грудня");
+        months(Language.EN, "january|jan", "february|feb", "march|mar", "april|apr", "may", "june|jun",
+                "july|jul", "august|aug", "september|sep|sept", "october|oct", "november|nov", "december|dec");
+        months(Language.PL, "stycznia", "lutego", "marca", "kwietnia", "maja", "czerwca",
+                "lipca", "sierpnia", "września", "października", "listopada", "grudnia");
+        months(Language.DE, "januar|jan|jänner", "februar|feb", "märz|maerz|mär", "april|apr", "mai", "juni|jun",
+                "juli|jul", "august|aug", "september|sep|sept", "oktober|okt", "november|nov", "dezember|dez");
+
+        weekdays(Language.RU, "понедельник", "вторник", "среда", "четверг", "пятница", "суббота", "воскресенье");
+        weekdays(Language.UK, "понеділок", "вівторок", "середа", "четвер", "пʼятниця|пятниця", "субота", "неділя");
+        weekdays(Language.EN, "monday|mon", "tuesday|tue|tues", "wednesday|wed", "thursday|thu|thurs",
+                "friday|fri", "saturday|sat", "sunday|sun");
+        weekdays(Language.PL, "poniedziałek", "wtorek", "środa", "czwartek", "piątek", "sobota", "niedziela");
+        weekdays(Language.DE, "montag", "dienstag", "mittwoch", "donnerstag", "freitag", "samstag|sonnabend", "sonntag");
+
+        // Today, yesterday, the day before yesterday
+        relativeDays(Language.RU, "сегодня", "вчера", "позавчера");
+        relativeDays(Language.UK, "сьогодні", "вчора", "позавчора");
+        relativeDays(Language.EN, "today", "yesterday");
+        relativeDays(Language.PL, "dzisiaj|dziś", "wczoraj", "przedwczoraj");
+        relativeDays(Language.DE, "heute", "gestern", "vorgestern");
+
+        // Second, minute, hour, day, week in the forms used after a number
+        units(Language.RU, "секунду|секунды|секунд|сек", "минуту|минуты|минут|мин", "час|часа|часов|ч",
+                "день|дня|дней", "неделю|недели|недель");
+        units(Language.UK, "секунду|секунди|секунд|сек", "хвилину|хвилини|хвилин|хв", "годину|години|годин|год",
+                "день|дні|днів", "тиждень|тижні|тижнів");
+        units(Language.EN, "second|seconds|sec|secs", "minute|minutes|min|mins", "hour|hours|hr|hrs",
+                "day|days", "week|weeks");
+        units(Language.PL, "sekundę|sekundy|sekund|sek", "minutę|minuty|minut|min", "godzinę|godziny|godzin|godz",
+                "dzień|dni", "tydzień|tygodnie|tygodni");
+        units(Language.DE, "sekunde|sekunden|sek", "minute|minuten|min", "stunde|stunden|std",
+                "tag|tagen", "woche|wochen");
+
+        add(Language.RU, Kind.AGO, 0, "назад");
+        add(Language.UK, Kind.AGO, 0, "тому");
+        add(Language.EN, Kind.AGO, 0, "ago");
+        add(Language.PL, Kind.AGO, 0, "temu");
+        add(Language.DE, Kind.AGO, 0, "vor");
+
+        // "an hour ago", "vor einer Stunde"; Slavic languages say it with the noun alone
+        add(Language.EN, Kind.ONE, 1, "a|an");
+        add(Language.DE, Kind.ONE, 1, "einer|einem");
+
+        add(Language.EN, Kind.ORDINAL, 0, "st|nd|rd|th");
+    }
+
+    // Walks the letters of text[start, end), null when they are not a known word of the language
+    static Word find(String text, int start, int end, Language language) {
+        Node node = ROOT;
+        for(int i = start; i < end && node != null; i++)
+            node = node.next(text.charAt(i));
+        return node == null ? null : node.word(language);
+    }
+
+    private static void months(Language language, String... names) {
+        for(int i = 0; i < names.length; i++)
+            add(language, Kind.MONTH, i + 1, names[i]);
+    }
+
+    private static void weekdays(Language language, String... names) {
+        for(int i = 0; i < names.length; i++)
+            add(language, Kind.WEEKDAY, i + 1, names[i]);
+    }
+
+    private static void relativeDays(Language language, String... names) {
+        for(int i = 0; i < names.length; i++)
+            add(language, Kind.RELATIVE_DAY, -i, names[i]);
+    }
+
+    private static void units(Language language, String... names) {
+        for(int i = 0; i < names.length; i++)
+            add(language, Kind.UNIT, UNIT_MINUTES[i], names[i]);
+    }
+
+    // Forms of one word are separated by |
+    private static void add(Language language, Kind kind, int value, String forms) {
+        Word word = new Word(kind, value, language);
+        for(String form: forms.split("\\|")) {
+            Node node = ROOT;
+            for(int i = 0; i < form.length(); i++)
+                node = node.child(form.charAt(i));
+            node.words = Arrays.copyOf(node.words, node.words.length + 1);
+            node.words[node.words.length - 1] = word;
+        }
+    }
+
+    static class Node {
+        private char[] keys = new char[0]; // Sorted for the binary search
+        private Node[] children = new Node[0];
+        private Word[] words = new Word[0];
+
+        Node next(char c) {
+            int index = Arrays.binarySearch(keys, Character.toLowerCase(c));
+            return index < 0 ? null : children[index];
+        }
+
+        // Without a language the first word added wins; the supported languages don't give one spelling two meanings
+        Word word(Language language) {
+            for(Word word: words) {
+                if(language == null || word.language() == language)
+                    return word;
+            }
+            return null;
+        }
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if(index >= 0)
+                return children[index];
+
+            int insertAt = -index - 1;
+            Node child = new Node();
+            keys = insert(keys, insertAt, c);
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, insertAt);
+            grown[insertAt] = child;
+            System.arraycopy(children, insertAt, grown, insertAt + 1, children.length - insertAt);
+            children = grown;
+            return child;
+        }
+
+        private static char[] insert(char[] keys, int index, char c) {
+            char[] grown = new char[keys.length + 1];
+            System.arraycopy(keys, 0, grown, 0, index);
+            grown[index] = c;
+            System.arraycopy(keys, index, grown, index + 1, keys.length - index);
+            return grown;
+        }
+    }
+}
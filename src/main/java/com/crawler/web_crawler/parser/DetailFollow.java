@@ -0,0 +1,35 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.model.entity.ParserType;
+import com.crawler.web_crawler.model.entity.Source;
+import com.crawler.web_crawler.model.entity.SourceSettings;
+
+import java.time.Duration;
+import java.util.Map;
+
+// Detail pages: link - selector of the article link on the listing and detailContent - selector of the full text
+// on the detail page are kept in Source.selectors; the settings detailConcurrency - detail pages fetched at once
+// and detailTimeBudget - seconds a crawl may spend on detail pages.
+// Sitemap entries are links themselves, so sitemap sources need only detailContent.
+public record DetailFollow(String contentSelector, int concurrency, Duration timeBudget) {
+    public static final String LINK = "link";
+    public static final String DETAIL_CONTENT = "detailContent";
+
+    private static final int DEFAULT_CONCURRENCY = 4;
+    private static final int DEFAULT_TIME_BUDGET_SECONDS = 20;
+
+    public static DetailFollow of(Source source) {
+        Map<String, String> selectors = source.getSelectors() == null ? Map.of() : source.getSelectors();
+        SourceSettings settings = source.getSettings();
+        return new DetailFollow(
+                selectors.containsKey(LINK) || source.getParserType() == ParserType.SITEMAP ? selectors.get(DETAIL_CONTENT) : null,
+                SourceSettings.bounded(settings.getDetailConcurrency(), DEFAULT_CONCURRENCY, 1, SourceSettings.MAX_DETAIL_CONCURRENCY),
+                Duration.ofSeconds(SourceSettings.bounded(settings.getDetailTimeBudget(),
+                        DEFAULT_TIME_BUDGET_SECONDS, 1, SourceSettings.MAX_DETAIL_TIME_BUDGET))
+        );
+    }
+
+    public boolean isEnabled() {
+        return contentSelector != null && !contentSelector.isBlank();
+    }
+}
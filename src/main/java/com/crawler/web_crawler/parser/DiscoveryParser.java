@@ -0,0 +1,265 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.archive.PageArchive;
+import com.crawler.web_crawler.exception.JsoupException.JsoupParseException;
+import com.crawler.web_crawler.fetch.PageResponse;
+import com.crawler.web_crawler.fetch.PageValidators;
+import com.crawler.web_crawler.model.entity.NewsArticle;
+import com.crawler.web_crawler.model.entity.ParserType;
+import com.crawler.web_crawler.model.entity.Source;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.internal.StringUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Finds articles on sites without a usable listing page: links on the site are followed level by level from the source
+// url, up to discoveryDepth links away and discoveryMaxPages pages, and each page whose canonical url matches articleUrl
+// is read with the source's selectors or structured data as JsoupParser reads a listing (see LinkDiscovery).
+// Only the next level of the frontier is kept as strings, every url ever scheduled is a 64-bit fingerprint, and the
+// fetch workers pull links out of the token stream without a Document; only article pages are parsed into one.
+// Pages are fetched at the host's pace, so the time budget is discoveryMaxPages pages at that pace; once it is spent
+// no new page is started and the articles found so far are kept.
+@Slf4j
+@Component
+public class DiscoveryParser implements Parser {
+    private final JsoupClient jsoupClient;
+    private final PageArchive pageArchive;
+    private final JsoupParser jsoupParser;
+    private final Duration pageInterval;
+    private final Clock clock;
+
+    @Autowired
+    public DiscoveryParser(JsoupClient jsoupClient, PageArchive pageArchive, JsoupParser jsoupParser,
+                           @Value("${crawler.host.requests-per-second:1.0}") double requestsPerSecond) {
+        this(jsoupClient, pageArchive, jsoupParser, requestsPerSecond, Clock.systemUTC());
+    }
+
+    DiscoveryParser(JsoupClient jsoupClient, PageArchive pageArchive, JsoupParser jsoupParser,
+                    double requestsPerSecond, Clock clock) {
+        this.jsoupClient = jsoupClient;
+        this.pageArchive = pageArchive;
+        this.jsoupParser = jsoupParser;
+        this.pageInterval = Duration.ofNanos((long) Math.ceil(1_000_000_000 / requestsPerSecond));
+        this.clock = clock;
+    }
+
+    @Override
+    public ParserType getType() {
+        return ParserType.DISCOVERY;
+    }
+
+    // Pages still in flight when the budget is spent get one listing page's limit to finish
+    @Override
+    public Duration timeLimit(Source source) {
+        return fetchBudget(LinkDiscovery.of(source)).plus(PAGE_TIME_LIMIT);
+    }
+
+    // Discovered pages aren't ordered by date, so the incremental stop isn't applied
+    @Override
+    public List<NewsArticle> parse(Source source, KnownArticleStop stop) {
+        log.info("Start discovering articles from {}", source.getUrl());
+        LinkDiscovery discovery = LinkDiscovery.of(source);
+        String startUrl = UrlCanonicalizer.canonicalize(source.getUrl());
+        if(startUrl == null)
+            throw new JsoupParseException("Cannot discover links from " + source.getUrl());
+
+        Crawl crawl = new Crawl(source, discovery, UrlCanonicalizer.siteOf(startUrl), clock.instant().plus(fetchBudget(discovery)));
+        crawl.seen.add(UrlCanonicalizer.fingerprint(startUrl));
+        List<String> level = List.of(startUrl);
+        for(int depth = 0; !level.isEmpty() && !crawl.isOverBudget(); depth++)
+            level = crawlLevel(crawl, level, depth < discovery.maxDepth());
+        if(crawl.isOverBudget())
+            log.warn("Discovery of {} ran out of its {} time budget, the remaining pages are left for the next crawl",
+                    source.getUrl(), fetchBudget(discovery));
+
+        Map<String, NewsArticle> articles = new LinkedHashMap<>();
+        crawl.articles.forEach(article -> articles.putIfAbsent(article.getHash(), article));
+        log.info("Stop discovering articles from {}, {} pages loaded, {} articles", source.getUrl(), crawl.loaded.get(), articles.size());
+        return new ArrayList<>(articles.values());
+    }
+
+    @Override
+    public List<NewsArticle> parsePage(Source source, PageResponse page) {
+        String url = UrlCanonicalizer.canonicalize(page.url());
+        if(url == null || !LinkDiscovery.of(source).isArticle(url))
+            return List.of();
+
+        return articleOf(source, page, url).stream().toList();
+    }
+
+    // Returns the urls of the next level
+    private List<String> crawlLevel(Crawl crawl, List<String> urls, boolean followLinks) {
+        Queue<String> nextLevel = new ConcurrentLinkedQueue<>();
+        AtomicInteger nextUrl = new AtomicInteger();
+
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(crawl.discovery.concurrency(), urls.size())];
+        for(int i = 0; i < workers.length; i++) {
+            CompletableFuture<Void> worker = new CompletableFuture<>();
+            workers[i] = worker;
+            fetchPages(crawl, urls, nextUrl, followLinks, nextLevel, worker);
+        }
+
+        CompletableFuture<Void> allPages = CompletableFuture.allOf(workers);
+        try {
+            allPages.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for(CompletableFuture<?> worker: workers)
+                worker.cancel(true); // A cancelled worker takes no further url
+            throw new JsoupParseException("Interrupted while discovering pages of " + crawl.source.getUrl(), e);
+        } catch (ExecutionException e) {
+            throw new JsoupParseException("Cannot discover pages of " + crawl.source.getUrl(), e.getCause());
+        }
+
+        return new ArrayList<>(nextLevel);
+    }
+
+    // A worker takes the next url whenever its page is done. Pages that complete at once (disallowed by robots.txt,
+    // open circuit) are handled in the loop rather than in a nested callback, so the stack doesn't grow with the level.
+    private void fetchPages(Crawl crawl, List<String> urls, AtomicInteger nextUrl, boolean followLinks,
+                            Queue<String> nextLevel, CompletableFuture<Void> worker) {
+        try {
+            while(!worker.isDone()) {
+                int index = nextUrl.getAndIncrement();
+                if(index >= urls.size() || crawl.isOverBudget()) {
+                    worker.complete(null);
+                    return;
+                }
+
+                String url = urls.get(index);
+                CompletableFuture<PageResponse> page = jsoupClient.fetchPage(url, PageValidators.none(), crawl.source.getMaxBodySize());
+                if(!page.isDone()) {
+                    page.whenComplete((response, throwable) -> {
+                        readPage(crawl, url, response, throwable, followLinks, nextLevel);
+                        fetchPages(crawl, urls, nextUrl, followLinks, nextLevel, worker);
+                    });
+                    return;
+                }
+
+                PageResponse response = null;
+                Throwable throwable = null;
+                try {
+                    response = page.join();
+                } catch (CompletionException | CancellationException e) {
+                    throwable = e;
+                }
+                readPage(crawl, url, response, throwable, followLinks, nextLevel);
+            }
+        } catch (RuntimeException e) {
+            worker.completeExceptionally(e);
+        }
+    }
+
+    private void readPage(Crawl crawl, String url, PageResponse page, Throwable throwable, boolean followLinks,
+                          Queue<String> nextLevel) {
+        if(throwable != null || !page.isSuccessful()) {
+            log.warn("Cannot load discovered page {}", url);
+            return;
+        }
+
+        crawl.loaded.incrementAndGet();
+        if(page.contentType() != null && !page.contentType().toLowerCase().contains("html"))
+            return;
+
+        // One broken page must not end the crawl and lose the articles found so far
+        try {
+            if(crawl.discovery.isArticle(url)) {
+                pageArchive.append(crawl.source.getId(), page);
+                articleOf(crawl.source, page, url).ifPresent(crawl.articles::add);
+            }
+            if(followLinks)
+                addLinks(crawl, url, page, nextLevel);
+        } catch (RuntimeException e) {
+            log.warn("Cannot read discovered page {}: {}", url, e.getMessage());
+        }
+    }
+
+    private Duration fetchBudget(LinkDiscovery discovery) {
+        return pageInterval.multipliedBy(discovery.maxPages());
+    }
+
+    private Optional<NewsArticle> articleOf(Source source, PageResponse page, String url) {
+        List<NewsArticle> articles = jsoupParser.parsePage(source, page);
+        if(articles.isEmpty()) {
+            log.info("No article found on {}", url);
+            return Optional.empty();
+        }
+
+        NewsArticle article = articles.get(0);
+        article.setDetailUrl(url);
+        return Optional.of(article);
+    }
+
+    private void addLinks(Crawl crawl, String url, PageResponse page, Queue<String> nextLevel) {
+        HtmlTokenizer tokenizer = new HtmlTokenizer(new String(page.body(), StreamingExtractor.charsetOf(page)));
+        String baseUrl = url;
+        boolean baseSet = false;
+        HtmlTokenizer.Token token;
+        while((token = tokenizer.next()) != HtmlTokenizer.Token.EOF) {
+            String href = token == HtmlTokenizer.Token.START_TAG ? tokenizer.attribute("href") : null;
+            if(href == null)
+                continue;
+
+            if(tokenizer.tagName().equals("base") && !baseSet) {
+                baseUrl = StringUtil.resolve(baseUrl, href);
+                baseSet = true;
+            } else if(tokenizer.tagName().equals("a") && !crawl.offer(StringUtil.resolve(baseUrl, href), nextLevel)) {
+                return;
+            }
+        }
+    }
+
+    private class Crawl {
+        private final Source source;
+        private final LinkDiscovery discovery;
+        private final String site;
+        private final UrlFingerprintSet seen;
+        private final AtomicInteger scheduled = new AtomicInteger(1);
+        private final AtomicInteger loaded = new AtomicInteger();
+        private final Queue<NewsArticle> articles = new ConcurrentLinkedQueue<>();
+        private final Instant deadline;
+
+        private Crawl(Source source, LinkDiscovery discovery, String site, Instant deadline) {
+            this.source = source;
+            this.discovery = discovery;
+            this.site = site;
+            this.seen = new UrlFingerprintSet(discovery.maxPages());
+            this.deadline = deadline;
+        }
+
+        private boolean isOverBudget() {
+            return clock.instant().isAfter(deadline);
+        }
+
+        // Schedules a new page of the site for the next level; false once the page budget is spent
+        private boolean offer(String link, Queue<String> nextLevel) {
+            if(scheduled.get() >= discovery.maxPages())
+                return false;
+
+            String url = UrlCanonicalizer.canonicalize(link);
+            if(url == null || !site.equals(UrlCanonicalizer.siteOf(url)) || !discovery.isFollowed(url))
+                return true;
+
+            if(seen.add(UrlCanonicalizer.fingerprint(url)) && scheduled.incrementAndGet() <= discovery.maxPages())
+                nextLevel.add(url);
+            return true;
+        }
+    }
+}
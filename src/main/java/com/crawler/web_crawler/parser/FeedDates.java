@@ -0,0 +1,59 @@
+package com.crawler.web_crawler.parser;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Optional;
+
+// Feed dates follow RFC 822 (RSS pubDate) or RFC 3339 (Atom, dc:date), no guessing is needed
+public class FeedDates {
+    // RFC 822 allows named US zones that RFC_1123_DATE_TIME doesn't know
+    private static final Map<String, String> ZONES = Map.of(
+            "UT", "+0000", "Z", "+0000",
+            "EST", "-0500", "EDT", "-0400",
+            "CST", "-0600", "CDT", "-0500",
+            "MST", "-0700", "MDT", "-0600",
+            "PST", "-0800", "PDT", "-0700"
+    );
+
+    public static Optional<LocalDate> parse(String value) {
+        if(value == null || value.isBlank())
+            return Optional.empty();
+
+        String date = value.trim();
+        if(!date.isEmpty() && Character.isDigit(date.charAt(0)) && date.indexOf('T') > 0)
+            return parseRfc3339(date);
+
+        return parseRfc822(date).or(() -> parseRfc3339(date));
+    }
+
+    private static Optional<LocalDate> parseRfc822(String date) {
+        int zoneStart = date.lastIndexOf(' ');
+        if(zoneStart > 0) {
+            String zone = ZONES.get(date.substring(zoneStart + 1));
+            if(zone != null)
+                date = date.substring(0, zoneStart + 1) + zone;
+        }
+
+        try {
+            return Optional.of(ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toLocalDate());
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<LocalDate> parseRfc3339(String date) {
+        try {
+            return Optional.of(OffsetDateTime.parse(date).toLocalDate());
+        } catch (DateTimeParseException ignore) {}
+
+        try {
+            return Optional.of(LocalDate.parse(date.length() > 10 ? date.substring(0, 10) : date));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
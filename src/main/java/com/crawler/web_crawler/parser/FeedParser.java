@@ -0,0 +1,182 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.archive.PageArchive;
+import com.crawler.web_crawler.exception.JsoupException.JsoupClientException;
+import com.crawler.web_crawler.exception.JsoupException.JsoupParseException;
+import com.crawler.web_crawler.fetch.PageResponse;
+import com.crawler.web_crawler.fetch.PageValidators;
+import com.crawler.web_crawler.model.entity.NewsArticle;
+import com.crawler.web_crawler.model.entity.ParserType;
+import com.crawler.web_crawler.model.entity.Source;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// RSS 2.0, RSS 1.0 and Atom feeds read with a streaming XML reader, items are mapped straight to articles
+@Slf4j
+@Component
+public class FeedParser implements Parser {
+    private static final Set<String> FEED_ROOTS = Set.of("rss", "feed", "RDF");
+
+    private static final int MAX_ITEMS = 500;
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_CONTENT_LENGTH = 10_000;
+
+    private final JsoupClient jsoupClient;
+    private final PageArchive pageArchive;
+
+    public FeedParser(JsoupClient jsoupClient, PageArchive pageArchive) {
+        this.jsoupClient = jsoupClient;
+        this.pageArchive = pageArchive;
+    }
+
+    @Override
+    public ParserType getType() {
+        return ParserType.FEED;
+    }
+
+    @Override
+    public List<NewsArticle> parse(Source source, KnownArticleStop stop) {
+        log.info("Start reading feed {}", source.getUrl());
+        String url = source.getUrl();
+        PageResponse page;
+        try {
+            page = jsoupClient.getPage(url, PageValidators.of(source), source.getMaxBodySize());
+        } catch (JsoupClientException e) {
+            throw new JsoupParseException(e.getMessage(), e);
+        }
+
+        String digest = page.isNotModified() ? null : page.digest();
+        if(digest == null || digest.equals(source.getContentDigest())) {
+            log.info("Feed {} was not modified since the last scan", url);
+            return new ArrayList<>();
+        }
+
+        pageArchive.append(source.getId(), page);
+        List<NewsArticle> articles = readItems(source, page, stop);
+
+        source.setEtag(page.etag());
+        source.setLastModified(page.lastModified());
+        source.setContentDigest(digest);
+
+        log.info("Stop reading feed {}", url);
+        return articles;
+    }
+
+    @Override
+    public List<NewsArticle> parsePage(Source source, PageResponse page) {
+        return readItems(source, page, KnownArticleStop.never());
+    }
+
+    private List<NewsArticle> readItems(Source source, PageResponse page, KnownArticleStop stop) {
+        List<NewsArticle> articles = new ArrayList<>();
+        XMLStreamReader reader = null;
+        try {
+            reader = XmlStreams.createReader(page.body());
+            if(!XmlStreams.toRootElement(reader) || !FEED_ROOTS.contains(reader.getLocalName()))
+                throw new JsoupParseException("The page is not an RSS or Atom feed: " + page.url());
+
+            FeedItem item = null;
+            while(reader.hasNext() && articles.size() < MAX_ITEMS && !stop.isStopped()) {
+                int event = reader.next();
+                if(event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if(name.equals("item") || name.equals("entry"))
+                        item = new FeedItem();
+                    else if(item != null)
+                        readField(reader, name, item, page.url());
+                } else if(event == XMLStreamConstants.END_ELEMENT && item != null
+                        && (reader.getLocalName().equals("item") || reader.getLocalName().equals("entry"))) {
+                    toArticle(source, item).ifPresent(article -> {
+                        articles.add(article);
+                        stop.accept(article);
+                    });
+                    item = null;
+                }
+            }
+        } catch (XMLStreamException e) {
+            log.warn("Cannot read feed {}: {}", page.url(), e.getMessage());
+            throw new JsoupParseException("Cannot read feed: " + page.url(), e);
+        } finally {
+            XmlStreams.close(reader);
+        }
+
+        return articles;
+    }
+
+    private void readField(XMLStreamReader reader, String name, FeedItem item, String feedUrl) throws XMLStreamException {
+        switch(name) {
+            case "title" -> item.title = firstNonNull(item.title, XmlStreams.readText(reader));
+            case "link" -> {
+                String href = reader.getAttributeValue(null, "href");
+                String rel = reader.getAttributeValue(null, "rel");
+                if(href == null)
+                    item.link = firstNonNull(item.link, XmlStreams.readText(reader));
+                else if(rel == null || rel.equals("alternate"))
+                    item.link = firstNonNull(item.link, href);
+                if(item.link != null)
+                    item.link = resolve(feedUrl, item.link);
+            }
+            case "encoded", "content" -> item.content = firstNonNull(item.content, XmlStreams.readText(reader));
+            case "description", "summary" -> item.summary = firstNonNull(item.summary, XmlStreams.readText(reader));
+            case "pubDate", "published", "date", "issued" -> item.published = firstNonNull(item.published, XmlStreams.readText(reader));
+            case "updated", "modified" -> item.updated = firstNonNull(item.updated, XmlStreams.readText(reader));
+            default -> {}
+        }
+    }
+
+    private Optional<NewsArticle> toArticle(Source source, FeedItem item) {
+        Optional<LocalDate> publishDate = FeedDates.parse(item.published).or(() -> FeedDates.parse(item.updated));
+        String title = item.title == null ? null : truncate(item.title.strip(), MAX_TITLE_LENGTH);
+        if(title == null || title.isEmpty() || publishDate.isEmpty()) {
+            log.warn("Skipping feed item due to missing fields {}", title == null || title.isEmpty() ? "title" : "publish date");
+            return Optional.empty();
+        }
+
+        String html = item.content != null && !item.content.isEmpty() ? item.content : item.summary;
+        NewsArticle article = new NewsArticle();
+        article.setTitle(title);
+        article.setContent(html == null ? null : ParseUtils.boundedText(Jsoup.parseBodyFragment(html).body(), MAX_CONTENT_LENGTH));
+        article.setPublishDate(publishDate.get());
+        article.setSource(source);
+        article.setDetailUrl(item.link);
+        article.setHash();
+
+        return Optional.of(article);
+    }
+
+    private static String resolve(String feedUrl, String link) {
+        try {
+            return URI.create(feedUrl).resolve(link.strip()).toString();
+        } catch (IllegalArgumentException e) {
+            return link.strip();
+        }
+    }
+
+    private static String firstNonNull(String current, String value) {
+        return current != null ? current : value;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    private static class FeedItem {
+        private String title;
+        private String link;
+        private String content;
+        private String summary;
+        private String published;
+        private String updated;
+    }
+}
@@ -0,0 +1,240 @@
+package com.crawler.web_crawler.parser;
+
+import org.jsoup.parser.Parser;
+
+import java.util.Locale;
+import java.util.Set;
+
+// Pull tokenizer for the streaming extractor: start tags with attributes, end tags and text, nothing is kept
+// after the next token. Comments and processing instructions are returned as COMMENT, doctypes as DOCTYPE, without content;
+// script and style bodies are returned as DATA so they never end up in extracted text, as with jsoup's DataNode;
+// xmp, iframe, noembed and noframes bodies are text jsoup keeps undecoded.
+public class HtmlTokenizer {
+    public enum Token { START_TAG, END_TAG, TEXT, DATA, COMMENT, DOCTYPE, EOF }
+
+    private static final Set<String> DATA_TAGS = Set.of("script", "style");
+    private static final Set<String> RAW_TEXT_TAGS = Set.of("xmp", "iframe", "noembed", "noframes");
+    private static final Set<String> RCDATA_TAGS = Set.of("title", "textarea");
+    private static final int MAX_ATTRIBUTES = 32;
+
+    private final String html;
+    private final int length;
+    private int position;
+
+    private String tagName;
+    private boolean selfClosing;
+    private final String[] attributeNames = new String[MAX_ATTRIBUTES];
+    private final String[] attributeValues = new String[MAX_ATTRIBUTES];
+    private int attributeCount;
+    private String text;
+    private String rawTextEnd; // Set after a script, style, title... start tag, their body is read up to the end tag
+    private boolean unclosed;
+
+    public HtmlTokenizer(String html) {
+        this.html = html;
+        this.length = html.length();
+    }
+
+    public Token next() {
+        if(rawTextEnd != null)
+            return readRawText();
+
+        while(position < length) {
+            if(html.charAt(position) != '<' || position + 1 >= length)
+                return readText();
+
+            char next = html.charAt(position + 1);
+            if(next == '!' || next == '?') {
+                boolean doctype = html.regionMatches(true, position, "<!doctype", 0, 9);
+                skipMarkupDeclaration();
+                return doctype ? Token.DOCTYPE : Token.COMMENT;
+            } else if(next == '/') {
+                if(position + 2 < length && isAsciiLetter(html.charAt(position + 2)))
+                    return readEndTag();
+                skipPast('>', position + 2);
+            } else if(isAsciiLetter(next)) {
+                return readStartTag();
+            } else {
+                return readText();
+            }
+        }
+        return Token.EOF;
+    }
+
+    public String tagName() {
+        return tagName;
+    }
+
+    public boolean isSelfClosing() {
+        return selfClosing;
+    }
+
+    public String attribute(String name) {
+        for(int i = 0; i < attributeCount; i++) {
+            if(attributeNames[i].equals(name))
+                return attributeValues[i];
+        }
+        return null;
+    }
+
+    public String text() {
+        return text;
+    }
+
+    // The last raw text body ran to the end of the page without its end tag
+    public boolean isUnclosed() {
+        return unclosed;
+    }
+
+    private Token readText() {
+        int start = position;
+        position = html.indexOf('<', position + 1);
+        if(position < 0)
+            position = length;
+
+        text = decode(html.substring(start, position), false);
+        return Token.TEXT;
+    }
+
+    private Token readRawText() {
+        int start = position;
+        int end = indexOfIgnoreCase("</" + rawTextEnd, position);
+        position = end < 0 ? length : end;
+        unclosed = end < 0;
+
+        String value = html.substring(start, position);
+        Token token = DATA_TAGS.contains(rawTextEnd) ? Token.DATA : Token.TEXT;
+        text = RCDATA_TAGS.contains(rawTextEnd) ? decode(value, false) : value;
+        rawTextEnd = null;
+        return token;
+    }
+
+    private Token readStartTag() {
+        position++;
+        tagName = readTagName();
+        attributeCount = 0;
+        selfClosing = false;
+
+        while(position < length) {
+            char c = html.charAt(position);
+            if(c == '>') {
+                position++;
+                break;
+            }
+            if(c == '/') {
+                selfClosing = position + 1 < length && html.charAt(position + 1) == '>';
+                position++;
+                continue;
+            }
+            if(Character.isWhitespace(c)) {
+                position++;
+                continue;
+            }
+            readAttribute();
+        }
+
+        if(!selfClosing && (DATA_TAGS.contains(tagName) || RAW_TEXT_TAGS.contains(tagName) || RCDATA_TAGS.contains(tagName)))
+            rawTextEnd = tagName;
+        return Token.START_TAG;
+    }
+
+    private Token readEndTag() {
+        position += 2;
+        tagName = readTagName();
+        attributeCount = 0;
+        skipPast('>', position);
+        return Token.END_TAG;
+    }
+
+    private void readAttribute() {
+        int start = position;
+        while(position < length) {
+            char c = html.charAt(position);
+            if(Character.isWhitespace(c) || c == '=' || c == '>' || (c == '/' && position > start))
+                break;
+            position++;
+        }
+        String name = html.substring(start, position).toLowerCase(Locale.ROOT);
+
+        while(position < length && Character.isWhitespace(html.charAt(position)))
+            position++;
+
+        String value = "";
+        if(position < length && html.charAt(position) == '=') {
+            position++;
+            while(position < length && Character.isWhitespace(html.charAt(position)))
+                position++;
+            value = readAttributeValue();
+        }
+
+        // As in html, the first of duplicate attributes wins
+        if(attributeCount < MAX_ATTRIBUTES && !name.isEmpty() && attribute(name) == null) {
+            attributeNames[attributeCount] = name;
+            attributeValues[attributeCount] = value;
+            attributeCount++;
+        }
+    }
+
+    private String readAttributeValue() {
+        if(position >= length)
+            return "";
+
+        char quote = html.charAt(position);
+        int start;
+        int end;
+        if(quote == '"' || quote == '\'') {
+            start = position + 1;
+            end = html.indexOf(quote, start);
+            if(end < 0)
+                end = length;
+            position = Math.min(end + 1, length);
+        } else {
+            start = position;
+            while(position < length && !Character.isWhitespace(html.charAt(position)) && html.charAt(position) != '>')
+                position++;
+            end = position;
+        }
+        return decode(html.substring(start, end), true);
+    }
+
+    private String readTagName() {
+        int start = position;
+        while(position < length) {
+            char c = html.charAt(position);
+            if(Character.isWhitespace(c) || c == '/' || c == '>')
+                break;
+            position++;
+        }
+        return html.substring(start, position).toLowerCase(Locale.ROOT);
+    }
+
+    private void skipMarkupDeclaration() {
+        if(html.startsWith("<!--", position)) {
+            int end = html.indexOf("-->", position + 4);
+            position = end < 0 ? length : end + 3;
+        } else {
+            skipPast('>', position + 2);
+        }
+    }
+
+    private void skipPast(char c, int from) {
+        int end = html.indexOf(c, from);
+        position = end < 0 ? length : end + 1;
+    }
+
+    private int indexOfIgnoreCase(String value, int from) {
+        for(int i = from; i <= length - value.length(); i++) {
+            if(html.regionMatches(true, i, value, 0, value.length()))
+                return i;
+        }
+        return -1;
+    }
+
+    private static String decode(String value, boolean inAttribute) {
+        return value.indexOf('&') < 0 ? value : Parser.unescapeEntities(value, inAttribute);
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
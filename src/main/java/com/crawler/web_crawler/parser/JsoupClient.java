@@ -1,30 +1,80 @@
 package com.crawler.web_crawler.parser;
 
 import com.crawler.web_crawler.exception.JsoupException.JsoupClientException;
+import com.crawler.web_crawler.fetch.PageFetcher;
+import com.crawler.web_crawler.fetch.PageResponse;
+import com.crawler.web_crawler.fetch.PageValidators;
 import lombok.extern.slf4j.Slf4j;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 @Slf4j
 @Component
 public class JsoupClient {
-    private static final String USER_AGENT =
-            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/135.0.0.0 Safari/537.36";
-    private static final int TIMEOUT = 10_000;
+    private final PageFetcher pageFetcher;
+
+    public JsoupClient(PageFetcher pageFetcher) {
+        this.pageFetcher = pageFetcher;
+    }
+
+    public CompletableFuture<PageResponse> fetchPage(String url) {
+        return pageFetcher.fetch(url);
+    }
+
+    public CompletableFuture<PageResponse> fetchPage(String url, PageValidators validators, Integer maxBodySize) {
+        return pageFetcher.fetch(url, validators, maxBodySize);
+    }
+
+    // Returns either a successful page or a 304 answer to the conditional request
+    public PageResponse getPage(String url, PageValidators validators, Integer maxBodySize) throws JsoupClientException {
+        PageResponse page = awaitPage(url, fetchPage(url, validators, maxBodySize));
+        if(!page.isSuccessful() && !page.isNotModified()) {
+            log.warn("Cannot access to this page: {}. Status code: {}", url, page.statusCode());
+            throw new JsoupClientException("Cannot access to this page: " + url + ". Status code: " + page.statusCode());
+        }
+
+        return page;
+    }
 
     public Document getPageByUrl(String url) throws JsoupClientException {
+        PageResponse page = awaitPage(url, fetchPage(url));
+        if(!page.isSuccessful()) {
+            log.warn("Cannot access to this page: {}. Status code: {}", url, page.statusCode());
+            throw new JsoupClientException("Cannot access to this page: " + url + ". Status code: " + page.statusCode());
+        }
+
+        return toDocument(page);
+    }
+
+    public Document toDocument(PageResponse page) throws JsoupClientException {
         try {
-            return Jsoup.connect(url)
-                    .timeout(TIMEOUT)
-                    .userAgent(USER_AGENT)
-                    .referrer("http://www.google.com")
-                    .get();
+            return Jsoup.parse(new ByteArrayInputStream(page.body()), page.charset(), page.url());
         } catch (IOException e) {
+            log.warn("Cannot parse this page: {}", page.url());
+            throw new JsoupClientException("Cannot parse this page: " + page.url(), e);
+        }
+    }
+
+    public PageResponse awaitPage(String url, CompletableFuture<PageResponse> future) throws JsoupClientException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new JsoupClientException("Interrupted while loading page: " + url, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof JsoupClientException clientException)
+                throw clientException;
+
             log.warn("Cannot access to this page: {}", url);
-            throw new JsoupClientException("Cannot access to this page: " + url, e);
+            throw new JsoupClientException("Cannot access to this page: " + url, cause);
         }
     }
 
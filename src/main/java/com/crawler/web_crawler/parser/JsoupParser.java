@@ -1,20 +1,38 @@
 package com.crawler.web_crawler.parser;
 
+import com.crawler.web_crawler.archive.PageArchive;
 import com.crawler.web_crawler.exception.JsoupException.JsoupClientException;
 import com.crawler.web_crawler.exception.JsoupException.JsoupParseException;
+import com.crawler.web_crawler.fetch.PageResponse;
+import com.crawler.web_crawler.fetch.PageValidators;
 import com.crawler.web_crawler.model.entity.NewsArticle;
+import com.crawler.web_crawler.model.entity.ParserType;
 import com.crawler.web_crawler.model.entity.Source;
 import lombok.extern.slf4j.Slf4j;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
 
 @Slf4j
 @Component
@@ -22,63 +40,517 @@ public class JsoupParser implements Parser {
     public static final String SELECTOR_TITLE = "title";
     public static final String SELECTOR_CONTENT = "content";
     public static final String SELECTOR_DATE = "date";
+    public static final String SELECTOR_ARTICLE = "article"; // Optional block that holds one article
+
+    // Caps that keep the memory of a single crawl predictable on huge listing pages
+    private static final int MAX_ELEMENTS_PER_SELECTOR = 500;
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_CONTENT_LENGTH = 10_000;
+    private static final int MAX_DATE_LENGTH = 100;
+
+    private static final Map<String, Integer> MAX_TEXT_LENGTHS = Map.of(
+            SELECTOR_TITLE, MAX_TITLE_LENGTH,
+            SELECTOR_CONTENT, MAX_CONTENT_LENGTH,
+            SELECTOR_DATE, MAX_DATE_LENGTH
+    );
+
+    private static final Evaluator ANCHOR = QueryParser.parse("a[href]");
 
     private final DateParser dateParser;
     private final JsoupClient jsoupClient;
+    private final PageArchive pageArchive;
+    private final SelectorCache selectorCache;
 
-    public JsoupParser(DateParser dateParser, JsoupClient jsoupClient) {
+    public JsoupParser(DateParser dateParser, JsoupClient jsoupClient, PageArchive pageArchive, SelectorCache selectorCache) {
         this.dateParser = dateParser;
         this.jsoupClient = jsoupClient;
+        this.pageArchive = pageArchive;
+        this.selectorCache = selectorCache;
     }
 
     @Override
-    public List<NewsArticle> parse(Source source) {
+    public ParserType getType() {
+        return ParserType.HTML;
+    }
+
+    @Override
+    public List<NewsArticle> parse(Source source, KnownArticleStop stop) {
         log.info("Start scanning {} for new articles", source.getUrl());
         List<NewsArticle> articles = new ArrayList<>();
 
         String url = source.getUrl();
-        Map<String, String> selectors = source.getSelectors(); // title, content, date
-        Document document;
+        PageResponse page;
+        String digest;
         try {
-            document = jsoupClient.getPageByUrl(url);
+            page = jsoupClient.getPage(url, PageValidators.of(source), source.getMaxBodySize());
+            if(page.isNotModified()) {
+                log.info("Page {} was not modified since the last scan", url);
+                return articles;
+            }
+
+            digest = page.digest();
+            if(digest.equals(source.getContentDigest())) {
+                log.info("Page {} content is the same as on the last scan", url);
+                return articles;
+            }
         } catch (JsoupClientException e) {
             throw new JsoupParseException(e.getMessage(), e);
         }
 
-        //TODO Add scan other pages for more news
-        //TODO Add a separate page for testing css-selectors
+        pageArchive.append(source.getId(), page);
+        ParsedPage firstPage = parseListingPage(source, page, stop);
+        articles = new ArrayList<>(firstPage.articles());
 
-        Elements titleElements = document.select(selectors.get(SELECTOR_TITLE));
-        Elements contentElements = document.select(selectors.get(SELECTOR_CONTENT));
-        Elements publishDateElements = document.select(selectors.get(SELECTOR_DATE));
+        Pagination pagination = Pagination.of(source);
+        if(pagination.isEnabled() && !stop.isStopped()) {
+            articles.addAll(pagination.pageUrlTemplate() != null
+                    ? parseTemplatePages(source, pagination, stop)
+                    : followNextPages(source, pagination, firstPage.document(), stop));
+        } else if(stop.isStopped()) {
+            log.info("Reached already known articles on {}", url);
+        }
+        articles = distinctByHash(articles);
+
+        source.setEtag(page.etag());
+        source.setLastModified(page.lastModified());
+        source.setContentDigest(digest);
 
-        List<String> titles = fromElementsToList(titleElements);
-        List<String> contents = fromElementsToList(contentElements);
-        List<String> publishDates = fromElementsToList(publishDateElements);
+        log.info("Stop scanning {}", source.getUrl());
+        return articles;
+    }
 
+    @Override
+    public List<NewsArticle> parsePage(Source source, PageResponse page) {
+        return parseListingPage(source, page, KnownArticleStop.never()).articles();
+    }
+
+    // Used by the selector sandbox, which keeps already parsed pages; the engine is picked as for a crawl,
+    // so the preview shows what would be stored
+    public List<NewsArticle> parseDocument(Source source, PageResponse page, Document document) {
+        return parseListingPage(source, page, () -> document, KnownArticleStop.never()).articles();
+    }
+
+    private ParsedPage parseListingPage(Source source, PageResponse page, KnownArticleStop stop) {
+        return parseListingPage(source, page, () -> toDocument(page), stop);
+    }
+
+    private ParsedPage parseListingPage(Source source, PageResponse page, Supplier<Document> document,
+                                        KnownArticleStop stop) {
+        if(StructuredData.isEnabled(source)) {
+            List<StructuredData.Item> items = StructuredData.read(page);
+            if(!items.isEmpty())
+                return parseStructuredPage(source, document, items, stop);
+            log.info("No structured data on {}, using css selectors", page.url());
+        }
+
+        Map<String, Evaluator> evaluators = fieldEvaluators(source); // Compiled first, a wrong selector fails before parsing
+        Map<String, StreamingSelector> streamingSelectors = streamingSelectors(source, evaluators.keySet());
+        if(streamingSelectors != null) {
+            List<NewsArticle> articles = parseFieldStream(source, page, streamingSelectors, stop);
+            if(articles != null)
+                return new ParsedPage(null, articles);
+        }
+
+        Document parsed = document.get();
+        return new ParsedPage(parsed, extractArticles(source, parsed, evaluators, stop));
+    }
+
+    // The page is parsed into a DOM only when some fields have to come from the css selectors or the next page link is needed
+    private ParsedPage parseStructuredPage(Source source, Supplier<Document> document, List<StructuredData.Item> items,
+                                           KnownArticleStop stop) {
+        Map<String, Evaluator> evaluators = missingFieldEvaluators(source, items);
+        Document parsed = !evaluators.isEmpty() || source.getSelectors().containsKey(Pagination.NEXT_PAGE)
+                ? document.get()
+                : null;
+        return new ParsedPage(parsed, fromStructuredData(source, parsed, items, evaluators, stop));
+    }
+
+    private Map<String, Evaluator> missingFieldEvaluators(Source source, List<StructuredData.Item> items) {
+        Map<String, Evaluator> evaluators = new LinkedHashMap<>();
+        addIfMissing(evaluators, source, SELECTOR_TITLE, items.stream().anyMatch(item -> item.title() == null));
+        addIfMissing(evaluators, source, SELECTOR_CONTENT, items.stream().anyMatch(item -> item.content() == null));
+        addIfMissing(evaluators, source, SELECTOR_DATE, items.stream().anyMatch(item -> item.publishDate() == null));
+        addIfMissing(evaluators, source, DetailFollow.LINK, items.stream().anyMatch(item -> item.url() == null));
+        return evaluators;
+    }
+
+    private void addIfMissing(Map<String, Evaluator> evaluators, Source source, String key, boolean missing) {
+        if(missing && source.getSelectors().containsKey(key))
+            evaluators.put(key, selectorCache.get(source, key));
+    }
+
+    // Css values are paired with the structured items by index, so they are used only when the counts match
+    private List<NewsArticle> fromStructuredData(Source source, Document document, List<StructuredData.Item> items,
+                                                 Map<String, Evaluator> evaluators, KnownArticleStop stop) {
+        Map<String, Elements> elements = evaluators.isEmpty()
+                ? Map.of()
+                : ParseUtils.selectAll(document, evaluators, MAX_ELEMENTS_PER_SELECTOR);
+        List<String> titles = fallbackValues(elements, SELECTOR_TITLE, MAX_TITLE_LENGTH, items.size());
+        List<String> contents = fallbackValues(elements, SELECTOR_CONTENT, MAX_CONTENT_LENGTH, items.size());
+        List<String> publishDates = fallbackValues(elements, SELECTOR_DATE, MAX_DATE_LENGTH, items.size());
+        List<String> links = fallbackValues(elements, DetailFollow.LINK, 0, items.size());
+
+        List<NewsArticle> articles = new ArrayList<>();
+        for(int i = 0; i < items.size() && !stop.isStopped(); i++) {
+            StructuredData.Item item = items.get(i);
+            String publishDateText = publishDates.isEmpty() ? null : publishDates.get(i);
+            Optional<LocalDate> publishDate = item.publishDate() != null
+                    ? Optional.of(item.publishDate())
+                    : parseDate(source, publishDateText);
+            toArticle(
+                    source,
+                    item.title() != null || titles.isEmpty() ? item.title() : titles.get(i),
+                    item.content() != null || contents.isEmpty() ? item.content() : contents.get(i),
+                    publishDate,
+                    item.url() != null || links.isEmpty() ? item.url() : links.get(i)
+            ).ifPresent(article -> addArticle(articles, article, stop));
+        }
+
+        return articles;
+    }
+
+    private List<String> fallbackValues(Map<String, Elements> elements, String key, int maxTextLength, int size) {
+        Elements values = elements.get(key);
+        if(values == null)
+            return List.of();
+        if(values.size() != size) {
+            log.warn("Found {} '{}' elements for {} structured data items, skipping them", values.size(), key, size);
+            return List.of();
+        }
+
+        return key.equals(DetailFollow.LINK)
+                ? values.stream().map(this::linkOf).toList()
+                : fromElementsToList(values, maxTextLength);
+    }
+
+    private Document toDocument(PageResponse page) {
+        try {
+            return jsoupClient.toDocument(page);
+        } catch (JsoupClientException e) {
+            throw new JsoupParseException(e.getMessage(), e);
+        }
+    }
+
+    // Null unless every field selector is in the streaming subset; article blocks and the next page link need a Document
+    private Map<String, StreamingSelector> streamingSelectors(Source source, Set<String> keys) {
+        if(keys.contains(SELECTOR_ARTICLE) || source.getSelectors().containsKey(Pagination.NEXT_PAGE))
+            return null;
+
+        Map<String, StreamingSelector> selectors = new LinkedHashMap<>();
+        for(String key: keys) {
+            StreamingSelector selector = selectorCache.getStreaming(source, key);
+            if(selector == null)
+                return null;
+            selectors.put(key, selector);
+        }
+        return selectors;
+    }
+
+    private Map<String, Evaluator> fieldEvaluators(Source source) {
+        Map<String, Evaluator> evaluators = new LinkedHashMap<>();
+        evaluators.put(SELECTOR_TITLE, selectorCache.get(source, SELECTOR_TITLE));
+        evaluators.put(SELECTOR_CONTENT, selectorCache.get(source, SELECTOR_CONTENT));
+        evaluators.put(SELECTOR_DATE, selectorCache.get(source, SELECTOR_DATE));
+        if(source.getSelectors().containsKey(DetailFollow.LINK))
+            evaluators.put(DetailFollow.LINK, selectorCache.get(source, DetailFollow.LINK));
+        if(source.getSelectors().containsKey(SELECTOR_ARTICLE))
+            evaluators.put(SELECTOR_ARTICLE, selectorCache.get(source, SELECTOR_ARTICLE));
+        return evaluators;
+    }
+
+    private List<NewsArticle> extractArticles(Source source, Document document, Map<String, Evaluator> evaluators,
+                                              KnownArticleStop stop) {
+        Evaluator articleEvaluator = evaluators.remove(SELECTOR_ARTICLE);
+        return articleEvaluator != null
+                ? parseArticleBlocks(source, document, articleEvaluator, evaluators, stop)
+                : parseFieldLists(source, document, evaluators, stop);
+    }
+
+    // Articles keep their listing content when the detail page fails or the time budget runs out
+    @Override
+    public void fetchDetails(Source source, List<NewsArticle> articles) {
+        DetailFollow detailFollow = DetailFollow.of(source);
+        List<NewsArticle> linked = articles.stream()
+                .filter(article -> article.getDetailUrl() != null)
+                .toList();
+        if(!detailFollow.isEnabled() || linked.isEmpty())
+            return;
+
+        Evaluator contentEvaluator = selectorCache.get(source, DetailFollow.DETAIL_CONTENT);
+        AtomicReferenceArray<String> contents = new AtomicReferenceArray<>(linked.size());
+        AtomicInteger nextArticle = new AtomicInteger();
+        AtomicBoolean stopped = new AtomicBoolean();
+
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(detailFollow.concurrency(), linked.size())];
+        for(int i = 0; i < workers.length; i++)
+            workers[i] = fetchDetailPages(source, linked, contentEvaluator, contents, nextArticle, stopped);
+
+        CompletableFuture<Void> allDetails = CompletableFuture.allOf(workers);
+        try {
+            allDetails.get(detailFollow.timeBudget().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Detail pages of {} were not loaded within {} sec", source.getUrl(), detailFollow.timeBudget().toSeconds());
+        } finally {
+            stopped.set(true);
+        }
+
+        int loaded = 0;
+        for(int i = 0; i < linked.size(); i++) {
+            String content = contents.get(i);
+            if(content != null && !content.isEmpty()) {
+                linked.get(i).setContent(content);
+                loaded++;
+            }
+        }
+        log.info("Loaded {} of {} detail pages of {}", loaded, linked.size(), source.getUrl());
+    }
+
+    private CompletableFuture<Void> fetchDetailPages(Source source, List<NewsArticle> articles, Evaluator contentEvaluator,
+                                                     AtomicReferenceArray<String> contents, AtomicInteger nextArticle,
+                                                     AtomicBoolean stopped) {
+        int index = nextArticle.getAndIncrement();
+        if(index >= articles.size() || stopped.get())
+            return CompletableFuture.completedFuture(null);
+
+        String url = articles.get(index).getDetailUrl();
+        return jsoupClient.fetchPage(url, PageValidators.none(), source.getMaxBodySize())
+                .handle((page, throwable) -> {
+                    if(throwable != null || !page.isSuccessful()) {
+                        log.warn("Cannot load detail page {}", url);
+                        return null;
+                    }
+
+                    try {
+                        Elements content = ParseUtils.selectAll(jsoupClient.toDocument(page),
+                                Map.of(DetailFollow.DETAIL_CONTENT, contentEvaluator), 1).get(DetailFollow.DETAIL_CONTENT);
+                        contents.set(index, firstText(content, MAX_CONTENT_LENGTH));
+                    } catch (JsoupClientException e) {
+                        log.warn("Cannot parse detail page {}", url);
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> fetchDetailPages(source, articles, contentEvaluator, contents, nextArticle, stopped));
+    }
+
+    // Pages are known upfront, so up to pageConcurrency of them are loaded at once; the first missing page ends the listing.
+    // With the incremental stop pages are requested one window of pageConcurrency at a time, so a stop saves the rest.
+    private List<NewsArticle> parseTemplatePages(Source source, Pagination pagination, KnownArticleStop stop) {
+        int window = stop.isEnabled() ? pagination.pageConcurrency() : pagination.maxPages();
+        List<NewsArticle> articles = new ArrayList<>();
+        for(int firstPage = 2; firstPage <= pagination.maxPages(); firstPage += window) {
+            int lastPage = Math.min(firstPage + window - 1, pagination.maxPages());
+            List<PageResponse> pages = fetchTemplatePages(source, pagination, firstPage, lastPage);
+            for(PageResponse page: pages) {
+                pageArchive.append(source.getId(), page);
+                List<NewsArticle> pageArticles = parseListingPage(source, page, stop).articles();
+                if(pageArticles.isEmpty())
+                    return articles;
+
+                articles.addAll(pageArticles);
+                if(stop.isStopped()) {
+                    log.info("Reached already known articles on {}", page.url());
+                    return articles;
+                }
+            }
+            if(pages.size() < lastPage - firstPage + 1)
+                break;
+        }
+
+        return articles;
+    }
+
+    private List<PageResponse> fetchTemplatePages(Source source, Pagination pagination, int firstPage, int lastPage) {
+        PageResponse[] pages = new PageResponse[lastPage + 1];
+        AtomicInteger nextPage = new AtomicInteger(firstPage);
+        AtomicInteger stopAt = new AtomicInteger(lastPage + 1);
+
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(pagination.pageConcurrency(), lastPage - firstPage + 1)];
+        for(int i = 0; i < workers.length; i++)
+            workers[i] = fetchPages(source, pagination, pages, nextPage, stopAt);
+
+        CompletableFuture<Void> allPages = CompletableFuture.allOf(workers);
+        try {
+            allPages.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            allPages.cancel(true);
+            throw new JsoupParseException("Interrupted while loading pages of " + source.getUrl(), e);
+        } catch (ExecutionException e) {
+            throw new JsoupParseException("Cannot load pages of " + source.getUrl(), e.getCause());
+        }
+
+        List<PageResponse> loaded = new ArrayList<>();
+        for(int pageNumber = firstPage; pageNumber < stopAt.get() && pages[pageNumber] != null; pageNumber++)
+            loaded.add(pages[pageNumber]);
+        return loaded;
+    }
+
+    private CompletableFuture<Void> fetchPages(Source source, Pagination pagination, PageResponse[] pages,
+                                               AtomicInteger nextPage, AtomicInteger stopAt) {
+        int pageNumber = nextPage.getAndIncrement();
+        if(pageNumber >= stopAt.get())
+            return CompletableFuture.completedFuture(null);
+
+        String url = pagination.pageUrl(pageNumber);
+        return jsoupClient.fetchPage(url, PageValidators.none(), source.getMaxBodySize())
+                .handle((page, throwable) -> {
+                    if(throwable != null || !page.isSuccessful()) {
+                        log.info("Listing of {} ends before page {}", source.getUrl(), url);
+                        stopAt.accumulateAndGet(pageNumber, Math::min);
+                    } else {
+                        pages[pageNumber] = page;
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> fetchPages(source, pagination, pages, nextPage, stopAt));
+    }
+
+    // Each page holds the link to the next one, so pages are loaded one after another
+    private List<NewsArticle> followNextPages(Source source, Pagination pagination, Document document, KnownArticleStop stop) {
+        List<NewsArticle> articles = new ArrayList<>();
+        Evaluator nextPageEvaluator = selectorCache.get(source, Pagination.NEXT_PAGE);
+        Set<String> visited = new HashSet<>();
+        visited.add(source.getUrl());
+
+        for(int pageNumber = 2; pageNumber <= pagination.maxPages(); pageNumber++) {
+            Element link = document.selectFirst(nextPageEvaluator);
+            String url = link == null ? "" : link.absUrl("href");
+            if(url.isEmpty() || !visited.add(url))
+                break;
+
+            try {
+                PageResponse page = jsoupClient.getPage(url, PageValidators.none(), source.getMaxBodySize());
+                pageArchive.append(source.getId(), page);
+                ParsedPage parsedPage = parseListingPage(source, page, stop);
+                if(parsedPage.articles().isEmpty())
+                    break;
+
+                articles.addAll(parsedPage.articles());
+                if(stop.isStopped()) {
+                    log.info("Reached already known articles on {}", url);
+                    break;
+                }
+                document = parsedPage.document();
+            } catch (JsoupClientException | JsoupParseException e) {
+                log.warn("Stop scanning pages of {} at {}: {}", source.getUrl(), url, e.getMessage());
+                break;
+            }
+        }
+
+        return articles;
+    }
+
+    // The same teaser can show up twice, e.g. when it moves to the next page while the listing is loaded
+    private List<NewsArticle> distinctByHash(List<NewsArticle> articles) {
+        Map<String, NewsArticle> uniqueArticles = new LinkedHashMap<>();
+        articles.forEach(article -> uniqueArticles.putIfAbsent(article.getHash(), article));
+        return new ArrayList<>(uniqueArticles.values());
+    }
+
+    // Fields are selected over the whole page and paired by index; texts are taken in page order, only up to the stop
+    private List<NewsArticle> parseFieldLists(Source source, Document document, Map<String, Evaluator> evaluators,
+                                              KnownArticleStop stop) {
+        Map<String, Elements> elements = ParseUtils.selectAll(document, evaluators, MAX_ELEMENTS_PER_SELECTOR);
+        Elements links = elements.getOrDefault(DetailFollow.LINK, new Elements());
+        return pairByIndex(
+                source,
+                lazyTexts(elements.get(SELECTOR_TITLE), MAX_TITLE_LENGTH),
+                lazyTexts(elements.get(SELECTOR_CONTENT), MAX_CONTENT_LENGTH),
+                lazyTexts(elements.get(SELECTOR_DATE), MAX_DATE_LENGTH),
+                links.stream().map(this::linkOf).toList(),
+                stop
+        );
+    }
+
+    // Same pairing as parseFieldLists, with the fields collected by the streaming extractor instead of a Document
+    // Null when the markup needs error recovery the streaming extractor doesn't follow
+    private List<NewsArticle> parseFieldStream(Source source, PageResponse page, Map<String, StreamingSelector> selectors,
+                                               KnownArticleStop stop) {
+        Map<String, List<StreamingExtractor.Match>> matches =
+                StreamingExtractor.extract(page, selectors, MAX_TEXT_LENGTHS, MAX_ELEMENTS_PER_SELECTOR);
+        if(matches == null) {
+            log.debug("Page {} needs html error recovery, parsing it with jsoup", page.url());
+            return null;
+        }
+        return pairByIndex(
+                source,
+                matches.get(SELECTOR_TITLE).stream().map(StreamingExtractor.Match::text).toList(),
+                matches.get(SELECTOR_CONTENT).stream().map(StreamingExtractor.Match::text).toList(),
+                matches.get(SELECTOR_DATE).stream().map(StreamingExtractor.Match::text).toList(),
+                matches.getOrDefault(DetailFollow.LINK, List.of()).stream().map(StreamingExtractor.Match::link).toList(),
+                stop
+        );
+    }
+
+    private List<NewsArticle> pairByIndex(Source source, List<String> titles, List<String> contents, List<String> publishDates,
+                                          List<String> links, KnownArticleStop stop) {
         int size = titles.size() == publishDates.size() ? titles.size() : -1;
         if(size == -1) {
             log.warn("The number of titles does not match the number of dates");
             throw new JsoupParseException("The number of titles does not match the number of dates");
         }
 
-        for(int i = 0; i < size; i++) {
-            String title = titles.get(i);
+        List<NewsArticle> articles = new ArrayList<>();
+        for(int i = 0; i < size && !stop.isStopped(); i++) {
             String content = (i < contents.size()) ? contents.get(i) : null;
-            Optional<LocalDate> publishDate = dateParser.toLocalDateFromString(publishDates.get(i));
-            if(title == null || publishDate.isEmpty()) {
-                log.warn("Skipping article due to missing fields {}", title == null ? "title" : "publish date");
-                continue;
-            }
+            String link = (i < links.size()) ? links.get(i) : null;
+            toArticle(source, titles.get(i), content, publishDates.get(i), link)
+                    .ifPresent(article -> addArticle(articles, article, stop));
+        }
 
-            NewsArticle article = createArticle(source, title, content, publishDate.get());
-            articles.add(article);
+        return articles;
+    }
+
+    // Fields are selected inside each article block, so a block with a missing field can't shift the others
+    private List<NewsArticle> parseArticleBlocks(Source source, Document document, Evaluator articleEvaluator,
+                                                 Map<String, Evaluator> evaluators, KnownArticleStop stop) {
+        List<NewsArticle> articles = new ArrayList<>();
+        Elements blocks = ParseUtils.selectAll(document, Map.of(SELECTOR_ARTICLE, articleEvaluator), MAX_ELEMENTS_PER_SELECTOR)
+                .get(SELECTOR_ARTICLE);
+
+        for(int i = 0; i < blocks.size() && !stop.isStopped(); i++) {
+            Map<String, Elements> fields = ParseUtils.selectAll(blocks.get(i), evaluators, 1);
+            toArticle(
+                    source,
+                    firstText(fields.get(SELECTOR_TITLE), MAX_TITLE_LENGTH),
+                    firstText(fields.get(SELECTOR_CONTENT), MAX_CONTENT_LENGTH),
+                    firstText(fields.get(SELECTOR_DATE), MAX_DATE_LENGTH),
+                    fields.containsKey(DetailFollow.LINK) && !fields.get(DetailFollow.LINK).isEmpty()
+                            ? linkOf(fields.get(DetailFollow.LINK).get(0))
+                            : null
+            ).ifPresent(article -> addArticle(articles, article, stop));
         }
 
-        log.info("Stop scanning {}", source.getUrl());
         return articles;
     }
 
+    private void addArticle(List<NewsArticle> articles, NewsArticle article, KnownArticleStop stop) {
+        articles.add(article);
+        stop.accept(article);
+    }
+
+    private Optional<NewsArticle> toArticle(Source source, String title, String content, String publishDateText, String detailUrl) {
+        return toArticle(source, title, content, parseDate(source, publishDateText), detailUrl);
+    }
+
+    private Optional<NewsArticle> toArticle(Source source, String title, String content, Optional<LocalDate> publishDate,
+                                            String detailUrl) {
+        if(title == null || title.isEmpty() || publishDate.isEmpty()) {
+            log.warn("Skipping article due to missing fields {}", title == null || title.isEmpty() ? "title" : "publish date");
+            return Optional.empty();
+        }
+
+        NewsArticle article = createArticle(source, title, content, publishDate.get());
+        article.setDetailUrl(detailUrl);
+        return Optional.of(article);
+    }
+
+    private Optional<LocalDate> parseDate(Source source, String publishDateText) {
+        return publishDateText == null ? Optional.empty() : dateParser.toLocalDateFromString(source, publishDateText);
+    }
+
     private NewsArticle createArticle(Source source, String title, String content, LocalDate date) {
         NewsArticle article = new NewsArticle();
         article.setTitle(title);
@@ -90,14 +562,40 @@ public class JsoupParser implements Parser {
         return article;
     }
 
-    private List<String> fromElementsToList(Elements elements) {
-        if(elements == null) {
-            log.warn("The elements list received from jsoup is null");
-            throw new JsoupParseException("The elements list received from jsoup is null");
+    private record ParsedPage(Document document, List<NewsArticle> articles) {}
+
+    // The link selector may point at the anchor itself or at a block that contains it
+    private String linkOf(Element element) {
+        String url = element.absUrl("href");
+        if(url.isEmpty()) {
+            Element anchor = element.selectFirst(ANCHOR);
+            url = anchor == null ? "" : anchor.absUrl("href");
         }
+        return url.isEmpty() ? null : url;
+    }
+
+    private String firstText(Elements elements, int maxTextLength) {
+        return elements.isEmpty() ? null : ParseUtils.boundedText(elements.get(0), maxTextLength);
+    }
+
+    // Texts are extracted on access, so elements after an incremental stop are never walked
+    private List<String> lazyTexts(Elements elements, int maxTextLength) {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return ParseUtils.boundedText(elements.get(index), maxTextLength);
+            }
+
+            @Override
+            public int size() {
+                return elements.size();
+            }
+        };
+    }
 
+    private List<String> fromElementsToList(Elements elements, int maxTextLength) {
         return elements.stream()
-                .map(Element::text)
+                .map(element -> ParseUtils.boundedText(element, maxTextLength))
                 .toList();
     }
 
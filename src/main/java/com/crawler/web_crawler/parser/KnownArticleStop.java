@@ -0,0 +1,47 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.model.entity.NewsArticle;
+import com.crawler.web_crawler.model.entity.Source;
+import com.crawler.web_crawler.model.entity.SourceSettings;
+
+import java.util.function.Predicate;
+
+// Incremental crawl: listings are newest-first, so after stopAfterKnown consecutive already saved articles
+// (a source setting, off by default) the rest of the listing and the following pages are skipped.
+// One instance per crawl; isKnown is only asked once an article is extracted, so a not modified page costs no lookup.
+public class KnownArticleStop {
+    private final Predicate<String> isKnown;
+    private final int stopAfterKnown;
+    private int consecutiveKnown;
+
+    public KnownArticleStop(Predicate<String> isKnown, int stopAfterKnown) {
+        this.isKnown = isKnown;
+        this.stopAfterKnown = stopAfterKnown;
+    }
+
+    public static KnownArticleStop of(Source source, Predicate<String> isKnown) {
+        int stopAfterKnown = SourceSettings.bounded(source.getSettings().getStopAfterKnown(), 0, 0, SourceSettings.MAX_STOP_AFTER_KNOWN);
+        return new KnownArticleStop(isKnown, stopAfterKnown);
+    }
+
+    public static KnownArticleStop never() {
+        return new KnownArticleStop(hash -> false, 0);
+    }
+
+    public boolean isEnabled() {
+        return stopAfterKnown > 0;
+    }
+
+    // Returns true once the crawl should stop; the article that completes the run is still counted as seen
+    public boolean accept(NewsArticle article) {
+        if(!isEnabled())
+            return false;
+
+        consecutiveKnown = isKnown.test(article.getHash()) ? consecutiveKnown + 1 : 0;
+        return isStopped();
+    }
+
+    public boolean isStopped() {
+        return isEnabled() && consecutiveKnown >= stopAfterKnown;
+    }
+}
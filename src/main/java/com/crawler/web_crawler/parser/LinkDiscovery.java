@@ -0,0 +1,53 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.exception.JsoupException.JsoupParseException;
+import com.crawler.web_crawler.model.entity.Source;
+import com.crawler.web_crawler.model.entity.SourceSettings;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+// Link discovery, read from the source settings:
+// articleUrl - regex a canonical url has to match (find) to be read as an article, required;
+// followUrl - regex of the other pages whose links are followed, every page of the site when not set;
+// discoveryDepth - links away from the source url; discoveryMaxPages - pages per crawl including the first one;
+// discoveryConcurrency - pages fetched at once.
+public record LinkDiscovery(Pattern articleUrl, Pattern followUrl, int maxDepth, int maxPages, int concurrency) {
+    private static final int DEFAULT_DEPTH = 2;
+    private static final int DEFAULT_MAX_PAGES = 200;
+    private static final int DEFAULT_CONCURRENCY = 4;
+
+    public static LinkDiscovery of(Source source) {
+        SourceSettings settings = source.getSettings();
+        Pattern articleUrl = toPattern(source, "articleUrl", settings.getArticleUrl());
+        if(articleUrl == null)
+            throw new JsoupParseException("Source " + source.getUrl() + " has no articleUrl pattern for link discovery");
+
+        return new LinkDiscovery(
+                articleUrl,
+                toPattern(source, "followUrl", settings.getFollowUrl()),
+                SourceSettings.bounded(settings.getDiscoveryDepth(), DEFAULT_DEPTH, 1, SourceSettings.MAX_DISCOVERY_DEPTH),
+                SourceSettings.bounded(settings.getDiscoveryMaxPages(), DEFAULT_MAX_PAGES, 1, SourceSettings.MAX_DISCOVERY_PAGES),
+                SourceSettings.bounded(settings.getDiscoveryConcurrency(), DEFAULT_CONCURRENCY, 1, SourceSettings.MAX_DISCOVERY_CONCURRENCY)
+        );
+    }
+
+    public boolean isArticle(String url) {
+        return articleUrl.matcher(url).find();
+    }
+
+    public boolean isFollowed(String url) {
+        return followUrl == null || followUrl.matcher(url).find() || isArticle(url);
+    }
+
+    private static Pattern toPattern(Source source, String key, String value) {
+        if(value == null || value.isBlank())
+            return null;
+
+        try {
+            return Pattern.compile(value.trim());
+        } catch (PatternSyntaxException e) {
+            throw new JsoupParseException("Invalid " + key + " pattern of " + source.getUrl() + ": " + e.getDescription(), e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.fetch.PageResponse;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Short-lived parsed pages for the selector sandbox, so trying out selectors doesn't hit the site again
+@Component
+public class PageSnapshotCache {
+    // The raw page is kept next to its Document for the streaming extractor and the structured data
+    public record PageSnapshot(PageResponse page, Document document) {}
+
+    private final Duration ttl;
+    private final Clock clock;
+    private final Map<String, Snapshot> snapshots;
+
+    @Autowired
+    public PageSnapshotCache(@Value("${crawler.sandbox.snapshot-ttl:5m}") Duration ttl,
+                             @Value("${crawler.sandbox.max-snapshots:50}") int maxSnapshots) {
+        this(ttl, maxSnapshots, Clock.systemUTC());
+    }
+
+    public PageSnapshotCache(Duration ttl, int maxSnapshots, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+                return size() > maxSnapshots;
+            }
+        };
+    }
+
+    public synchronized Optional<PageSnapshot> get(String url) {
+        Snapshot snapshot = snapshots.get(url);
+        if(snapshot == null)
+            return Optional.empty();
+
+        if(!clock.instant().isBefore(snapshot.expiresAt())) {
+            snapshots.remove(url);
+            return Optional.empty();
+        }
+        return Optional.of(snapshot.page());
+    }
+
+    public synchronized void put(String url, PageSnapshot page) {
+        snapshots.put(url, new Snapshot(page, clock.instant().plus(ttl)));
+    }
+
+    public synchronized void evict(String url) {
+        snapshots.remove(url);
+    }
+
+    private record Snapshot(PageSnapshot page, Instant expiresAt) {}
+}
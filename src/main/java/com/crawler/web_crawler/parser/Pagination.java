@@ -0,0 +1,42 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.model.entity.Source;
+import com.crawler.web_crawler.model.entity.SourceSettings;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+
+// Listing pagination: nextPage is a selector in Source.selectors, the "next page" link followed page by page;
+// the settings are pageUrlTemplate - url with a {page} placeholder, pages 2..maxPages are fetched concurrently;
+// maxPages - pages per crawl including the first one; pageConcurrency - pages fetched at once.
+@Slf4j
+public record Pagination(String nextPageSelector, String pageUrlTemplate, int maxPages, int pageConcurrency) {
+    public static final String NEXT_PAGE = "nextPage";
+
+    private static final int DEFAULT_PAGE_CONCURRENCY = 2;
+
+    public static Pagination of(Source source) {
+        Map<String, String> selectors = source.getSelectors() == null ? Map.of() : source.getSelectors();
+        SourceSettings settings = source.getSettings();
+        String template = settings.getPageUrlTemplate();
+        if(template != null && !template.contains(SourceSettings.PAGE_PLACEHOLDER)) {
+            log.warn("Page url template of {} has no {} placeholder", source.getUrl(), SourceSettings.PAGE_PLACEHOLDER);
+            template = null;
+        }
+
+        return new Pagination(
+                selectors.get(NEXT_PAGE),
+                template,
+                SourceSettings.bounded(settings.getMaxPages(), 1, 1, SourceSettings.MAX_PAGES),
+                SourceSettings.bounded(settings.getPageConcurrency(), DEFAULT_PAGE_CONCURRENCY, 1, SourceSettings.MAX_PAGE_CONCURRENCY)
+        );
+    }
+
+    public boolean isEnabled() {
+        return maxPages > 1 && (pageUrlTemplate != null || nextPageSelector != null);
+    }
+
+    public String pageUrl(int page) {
+        return pageUrlTemplate.replace(SourceSettings.PAGE_PLACEHOLDER, String.valueOf(page));
+    }
+}
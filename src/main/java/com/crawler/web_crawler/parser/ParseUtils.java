@@ -1,22 +1,126 @@
 package com.crawler.web_crawler.parser;
 
-import java.time.format.DateTimeFormatter;
-import java.util.Locale;
+import org.jsoup.internal.StringUtil;
+import org.jsoup.nodes.CDataNode;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.Collector;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class ParseUtils {
-    public static DateTimeFormatter[] getDateTimeFormatters() {
-        return new DateTimeFormatter[] {
-                DateTimeFormatter.ofPattern("dd MMMM yyyy", Locale.forLanguageTag("ru")),
-                DateTimeFormatter.ofPattern("d MMMM yyyy", Locale.forLanguageTag("ru")),
-                DateTimeFormatter.ofPattern("dd MMMM yy", Locale.forLanguageTag("ru")),
-                DateTimeFormatter.ofPattern("d MMMM yy", Locale.forLanguageTag("ru")),
-                DateTimeFormatter.ofPattern("d MM yyyy"),
-                DateTimeFormatter.ofPattern("d MM yy"),
-                DateTimeFormatter.ofPattern("dd MM yy"),
-                DateTimeFormatter.ofPattern("dd MM yyyy"),
-                DateTimeFormatter.ofPattern("dd.MM.yyyy"),
-                DateTimeFormatter.ofPattern("dd.MM.yy"),
-        };
+    // Same normalisation as Element.text(), but stops walking the subtree once maxLength chars are collected
+    public static String boundedText(Element element, int maxLength) {
+        StringBuilder text = new StringBuilder();
+        NodeTraversor.filter(new NodeFilter() {
+            @Override
+            public FilterResult head(Node node, int depth) {
+                if(node instanceof TextNode textNode) {
+                    if(textNode instanceof CDataNode || preservesWhitespace(textNode.parent()))
+                        appendRaw(text, textNode.getWholeText(), maxLength);
+                    else
+                        appendNormalised(text, textNode.getWholeText(), maxLength);
+                } else if(node instanceof Element child && isSeparated(child)) {
+                    appendSpace(text, maxLength);
+                }
+
+                return text.length() >= maxLength ? FilterResult.STOP : FilterResult.CONTINUE;
+            }
+
+            @Override
+            public FilterResult tail(Node node, int depth) {
+                if(node instanceof Element child && child.isBlock() && continuesInline(child.nextSibling()))
+                    appendSpace(text, maxLength);
+
+                return text.length() >= maxLength ? FilterResult.STOP : FilterResult.CONTINUE;
+            }
+        }, element);
+
+        return text.toString().trim();
+    }
+
+    // Runs several selectors in one walk over the tree instead of one document.select() per selector.
+    // Matches keep document order, as with select(); a selector stops collecting after maxMatches elements.
+    public static Map<String, Elements> selectAll(Element root, Map<String, Evaluator> evaluators, int maxMatches) {
+        Map<String, Elements> matches = new LinkedHashMap<>();
+        evaluators.keySet().forEach(key -> matches.put(key, new Elements()));
+
+        try {
+            NodeTraversor.filter(new NodeFilter() {
+                private int open = evaluators.size();
+
+                @Override
+                public FilterResult head(Node node, int depth) {
+                    if(!(node instanceof Element element))
+                        return FilterResult.CONTINUE;
+
+                    for(Map.Entry<String, Evaluator> entry: evaluators.entrySet()) {
+                        Elements found = matches.get(entry.getKey());
+                        if(found.size() < maxMatches && entry.getValue().matches(root, element)) {
+                            found.add(element);
+                            if(found.size() == maxMatches)
+                                open--;
+                        }
+                    }
+                    return open == 0 ? FilterResult.STOP : FilterResult.CONTINUE;
+                }
+
+                @Override
+                public FilterResult tail(Node node, int depth) {
+                    return FilterResult.CONTINUE;
+                }
+            }, root);
+        } finally {
+            // Structural evaluators memoize matches per thread; resetting them releases the document
+            Element empty = new Element("html");
+            evaluators.values().forEach(evaluator -> Collector.findFirst(evaluator, empty));
+        }
+
+        return matches;
+    }
+
+    private static boolean isSeparated(Element element) {
+        return element.isBlock() || element.normalName().equals("br");
+    }
+
+    // Element.text() puts a space after a block only when text or an inline element follows it
+    private static boolean continuesInline(Node next) {
+        return next instanceof TextNode || (next instanceof Element element && !element.tag().formatAsBlock());
+    }
+
+    // Text in pre, textarea or title, looking up to six levels up as Element.text() does, keeps its whitespace
+    private static boolean preservesWhitespace(Node parent) {
+        Element element = parent instanceof Element parentElement ? parentElement : null;
+        for(int i = 0; i < 6 && element != null; i++, element = element.parent()) {
+            if(element.tag().preserveWhitespace())
+                return true;
+        }
+        return false;
+    }
+
+    // Soft hyphens and zero width spaces are dropped, as Element.text() drops them
+    private static void appendNormalised(StringBuilder text, String value, int maxLength) {
+        for(int i = 0; i < value.length() && text.length() < maxLength; i++) {
+            char c = value.charAt(i);
+            if(StringUtil.isActuallyWhitespace(c))
+                appendSpace(text, maxLength);
+            else if(!StringUtil.isInvisibleChar(c))
+                text.append(c);
+        }
+    }
+
+    private static void appendRaw(StringBuilder text, String value, int maxLength) {
+        text.append(value, 0, Math.min(value.length(), Math.max(0, maxLength - text.length())));
+    }
 
+    private static void appendSpace(StringBuilder text, int maxLength) {
+        if(!text.isEmpty() && text.charAt(text.length() - 1) != ' ' && text.length() < maxLength)
+            text.append(' ');
     }
 }
@@ -1,12 +1,35 @@
 package com.crawler.web_crawler.parser;
 
+import com.crawler.web_crawler.fetch.PageResponse;
 import com.crawler.web_crawler.model.entity.NewsArticle;
+import com.crawler.web_crawler.model.entity.ParserType;
 import com.crawler.web_crawler.model.entity.Source;
 
+import java.time.Duration;
 import java.util.List;
 
 public interface Parser {
+    Duration PAGE_TIME_LIMIT = Duration.ofSeconds(30);
 
-    List<NewsArticle> parse(Source source);
+    ParserType getType();
+
+    // A crawl that takes longer is discarded, the default allows PAGE_TIME_LIMIT per listing page
+    default Duration timeLimit(Source source) {
+        return PAGE_TIME_LIMIT.multipliedBy(Pagination.of(source).maxPages());
+    }
+
+    // The stop is fed every extracted article in page order and ends the crawl early once it is reached
+    List<NewsArticle> parse(Source source, KnownArticleStop stop);
+
+    default List<NewsArticle> parse(Source source) {
+        return parse(source, KnownArticleStop.never());
+    }
+
+    // Extracts articles from an already downloaded page, e.g. one read back from the page archive
+    List<NewsArticle> parsePage(Source source, PageResponse page);
+
+    // Loads the full content of articles that turned out to be new, when the source links to detail pages
+    default void fetchDetails(Source source, List<NewsArticle> articles) {
+    }
 
 }
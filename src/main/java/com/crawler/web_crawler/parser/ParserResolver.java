@@ -0,0 +1,28 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.model.entity.ParserType;
+import com.crawler.web_crawler.model.entity.Source;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Picks the parser of a source by its parser type, sources saved before the type existed are html listings
+@Component
+public class ParserResolver {
+    private final Map<ParserType, Parser> parsers = new EnumMap<>(ParserType.class);
+
+    public ParserResolver(List<Parser> parsers) {
+        parsers.forEach(parser -> this.parsers.put(parser.getType(), parser));
+    }
+
+    public Parser forSource(Source source) {
+        ParserType type = source.getParserType() == null ? ParserType.HTML : source.getParserType();
+        Parser parser = parsers.get(type);
+        if(parser == null)
+            throw new IllegalStateException("No parser for type " + type);
+
+        return parser;
+    }
+}
@@ -0,0 +1,66 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.exception.JsoupException.JsoupParseException;
+import com.crawler.web_crawler.model.entity.Source;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.jsoup.select.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Compiled css selectors per source, so a crawl doesn't parse the same selector strings again.
+// An entry is dropped when the source is updated or deleted and recompiled if its selectors differ.
+@Component
+public class SelectorCache {
+    private final Map<Long, CompiledSelectors> cache = new ConcurrentHashMap<>();
+
+    public Evaluator get(Source source, String key) {
+        Map<String, String> selectors = source.getSelectors();
+        if(source.getId() == null)
+            return compile(key, selectors.get(key));
+
+        CompiledSelectors compiled = cache.compute(source.getId(), (id, cached) ->
+                cached != null && cached.selectors().equals(selectors) ? cached : new CompiledSelectors(Map.copyOf(selectors)));
+
+        return compiled.evaluators().computeIfAbsent(key, k -> compile(k, selectors.get(k)));
+    }
+
+    // Null when the selector is outside the subset the streaming extractor runs
+    public StreamingSelector getStreaming(Source source, String key) {
+        Map<String, String> selectors = source.getSelectors();
+        if(source.getId() == null)
+            return StreamingSelector.compile(selectors.get(key));
+
+        CompiledSelectors compiled = cache.compute(source.getId(), (id, cached) ->
+                cached != null && cached.selectors().equals(selectors) ? cached : new CompiledSelectors(Map.copyOf(selectors)));
+
+        return compiled.streamingSelectors().computeIfAbsent(key, k -> Optional.ofNullable(StreamingSelector.compile(selectors.get(k))))
+                .orElse(null);
+    }
+
+    public void invalidate(Long sourceId) {
+        if(sourceId != null)
+            cache.remove(sourceId);
+    }
+
+    private Evaluator compile(String key, String selector) {
+        if(selector == null || selector.isBlank())
+            throw new JsoupParseException("Css selector '" + key + "' is not set");
+
+        try {
+            return QueryParser.parse(selector);
+        } catch (Selector.SelectorParseException e) {
+            throw new JsoupParseException("Invalid css selector '" + key + "': " + e.getMessage(), e);
+        }
+    }
+
+    private record CompiledSelectors(Map<String, String> selectors, Map<String, Evaluator> evaluators,
+                                     Map<String, Optional<StreamingSelector>> streamingSelectors) {
+        private CompiledSelectors(Map<String, String> selectors) {
+            this(selectors, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.archive.PageArchive;
+import com.crawler.web_crawler.exception.JsoupException.JsoupClientException;
+import com.crawler.web_crawler.exception.JsoupException.JsoupParseException;
+import com.crawler.web_crawler.fetch.PageResponse;
+import com.crawler.web_crawler.fetch.PageValidators;
+import com.crawler.web_crawler.model.entity.NewsArticle;
+import com.crawler.web_crawler.model.entity.ParserType;
+import com.crawler.web_crawler.model.entity.Source;
+import com.crawler.web_crawler.model.entity.SourceSettings;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.net.URI;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Discovers articles from sitemap.xml, sitemap indexes and Google News sitemaps without loading any listing html.
+// A child sitemap is re-read only when its lastmod in the index changed since the last crawl (or, without lastmod,
+// when its content changed); the seen lastmods are saved with the Source and dropped together with its page validators.
+// Entries are article candidates: the title is news:title or the url, the content comes from the detail page when
+// detailContent is set. An entry without news:publication_date is dated by its lastmod, which moves with every edit
+// of the page, so such an entry is deduplicated by its canonical url instead of its title and date. sitemapMaxAge (days, a source setting) skips old entries on the first crawl of a site.
+@Slf4j
+@Component
+public class SitemapParser implements Parser {
+    private static final String NEWS_NAMESPACE = "http://www.google.com/schemas/sitemap-news/0.9";
+
+    private static final int MAX_URLS = 1000;
+    private static final int MAX_CHILDREN_PER_CRAWL = 20;
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int DEFAULT_MAX_AGE_DAYS = 7;
+
+    private final JsoupClient jsoupClient;
+    private final PageArchive pageArchive;
+    private final JsoupParser jsoupParser;
+    private final Clock clock;
+
+    @Autowired
+    public SitemapParser(JsoupClient jsoupClient, PageArchive pageArchive, JsoupParser jsoupParser) {
+        this(jsoupClient, pageArchive, jsoupParser, Clock.systemDefaultZone());
+    }
+
+    SitemapParser(JsoupClient jsoupClient, PageArchive pageArchive, JsoupParser jsoupParser, Clock clock) {
+        this.jsoupClient = jsoupClient;
+        this.pageArchive = pageArchive;
+        this.jsoupParser = jsoupParser;
+        this.clock = clock;
+    }
+
+    @Override
+    public ParserType getType() {
+        return ParserType.SITEMAP;
+    }
+
+    // Sitemaps aren't ordered by date, so the incremental stop isn't applied
+    @Override
+    public List<NewsArticle> parse(Source source, KnownArticleStop stop) {
+        log.info("Start reading sitemap {}", source.getUrl());
+        String url = source.getUrl();
+        PageResponse page = getPage(url, PageValidators.of(source), source);
+        String digest = page.isNotModified() ? null : page.digest();
+        if(digest == null || digest.equals(source.getContentDigest())) {
+            log.info("Sitemap {} was not modified since the last scan", url);
+            return new ArrayList<>();
+        }
+
+        pageArchive.append(source.getId(), page);
+        Sitemap sitemap = readSitemap(source, page);
+        List<NewsArticle> articles = new ArrayList<>(sitemap.articles());
+        if(sitemap.children().isEmpty()) {
+            source.setEtag(page.etag());
+            source.setLastModified(page.lastModified());
+            source.setContentDigest(digest);
+        } else {
+            // The index has to be read every time, its children may change while it stays the same
+            articles.addAll(readChangedChildren(source, sitemap.children()));
+        }
+
+        log.info("Stop reading sitemap {}, {} article candidates", url, articles.size());
+        return articles;
+    }
+
+    @Override
+    public List<NewsArticle> parsePage(Source source, PageResponse page) {
+        return readSitemap(source, page).articles();
+    }
+
+    @Override
+    public void fetchDetails(Source source, List<NewsArticle> articles) {
+        jsoupParser.fetchDetails(source, articles);
+    }
+
+    private List<NewsArticle> readChangedChildren(Source source, Map<String, String> children) {
+        Map<String, String> seenLastmods = new HashMap<>(source.getSitemapLastmods());
+        List<NewsArticle> articles = new ArrayList<>();
+        int read = 0;
+        for(Map.Entry<String, String> child: children.entrySet()) {
+            String childUrl = child.getKey();
+            String lastmod = child.getValue();
+            if(lastmod != null && lastmod.equals(seenLastmods.get(childUrl)))
+                continue;
+            if(read++ == MAX_CHILDREN_PER_CRAWL) {
+                log.info("Read {} changed child sitemaps of {}, the rest is left for the next crawl", MAX_CHILDREN_PER_CRAWL, source.getUrl());
+                break;
+            }
+
+            try {
+                PageResponse page = getPage(childUrl, PageValidators.none(), source);
+                String version = lastmod != null ? lastmod : page.digest();
+                if(version.equals(seenLastmods.get(childUrl)))
+                    continue;
+
+                pageArchive.append(source.getId(), page);
+                articles.addAll(readSitemap(source, page).articles());
+                seenLastmods.put(childUrl, version);
+            } catch (JsoupParseException e) {
+                log.warn("Cannot read child sitemap {}: {}", childUrl, e.getMessage());
+            }
+        }
+
+        seenLastmods.keySet().retainAll(children.keySet());
+        source.setSitemapLastmods(seenLastmods);
+        return articles;
+    }
+
+    private PageResponse getPage(String url, PageValidators validators, Source source) {
+        try {
+            return jsoupClient.getPage(url, validators, source.getMaxBodySize());
+        } catch (JsoupClientException e) {
+            throw new JsoupParseException(e.getMessage(), e);
+        }
+    }
+
+    private Sitemap readSitemap(Source source, PageResponse page) {
+        Map<String, String> children = new LinkedHashMap<>();
+        List<NewsArticle> articles = new ArrayList<>();
+        LocalDate oldestDate = LocalDate.now(clock).minusDays(maxAgeDays(source));
+        XMLStreamReader reader = null;
+        try {
+            reader = XmlStreams.createReader(page.body());
+            if(!XmlStreams.toRootElement(reader))
+                throw new JsoupParseException("The page is not a sitemap: " + page.url());
+
+            boolean index = reader.getLocalName().equals("sitemapindex");
+            if(!index && !reader.getLocalName().equals("urlset"))
+                throw new JsoupParseException("The page is not a sitemap: " + page.url());
+
+            SitemapEntry entry = null;
+            while(reader.hasNext() && articles.size() < MAX_URLS && children.size() < MAX_URLS) {
+                int event = reader.next();
+                if(event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if(name.equals("url") || name.equals("sitemap"))
+                        entry = new SitemapEntry();
+                    else if(entry != null)
+                        readField(reader, name, entry, page.url());
+                } else if(event == XMLStreamConstants.END_ELEMENT && entry != null
+                        && (reader.getLocalName().equals("url") || reader.getLocalName().equals("sitemap"))) {
+                    if(index && entry.loc != null)
+                        children.put(entry.loc, entry.lastmod);
+                    else if(!index)
+                        toArticle(source, entry, oldestDate).ifPresent(articles::add);
+                    entry = null;
+                }
+            }
+        } catch (XMLStreamException e) {
+            log.warn("Cannot read sitemap {}: {}", page.url(), e.getMessage());
+            throw new JsoupParseException("Cannot read sitemap: " + page.url(), e);
+        } finally {
+            XmlStreams.close(reader);
+        }
+
+        return new Sitemap(children, articles);
+    }
+
+    private void readField(XMLStreamReader reader, String name, SitemapEntry entry, String sitemapUrl) throws XMLStreamException {
+        boolean news = NEWS_NAMESPACE.equals(reader.getNamespaceURI());
+        switch(name) {
+            case "loc" -> {
+                if(entry.loc == null)
+                    entry.loc = resolve(sitemapUrl, XmlStreams.readText(reader));
+            }
+            case "lastmod" -> entry.lastmod = XmlStreams.readText(reader);
+            case "title" -> {
+                if(news)
+                    entry.title = XmlStreams.readText(reader);
+            }
+            case "publication_date" -> {
+                if(news)
+                    entry.publicationDate = XmlStreams.readText(reader);
+            }
+            default -> {}
+        }
+    }
+
+    private Optional<NewsArticle> toArticle(Source source, SitemapEntry entry, LocalDate oldestDate) {
+        Optional<LocalDate> publicationDate = FeedDates.parse(entry.publicationDate);
+        Optional<LocalDate> publishDate = publicationDate.or(() -> FeedDates.parse(entry.lastmod));
+        if(entry.loc == null || publishDate.isEmpty() || publishDate.get().isBefore(oldestDate))
+            return Optional.empty();
+
+        String title = entry.title != null && !entry.title.isEmpty() ? entry.title : entry.loc;
+        NewsArticle article = new NewsArticle();
+        article.setTitle(title.length() > MAX_TITLE_LENGTH ? title.substring(0, MAX_TITLE_LENGTH) : title);
+        article.setPublishDate(publishDate.get());
+        article.setSource(source);
+        article.setDetailUrl(entry.loc);
+        if(publicationDate.isPresent()) {
+            article.setHash();
+        } else {
+            String canonicalUrl = UrlCanonicalizer.canonicalize(entry.loc);
+            article.setUrlHash(canonicalUrl != null ? canonicalUrl : entry.loc);
+        }
+
+        return Optional.of(article);
+    }
+
+    private static int maxAgeDays(Source source) {
+        return SourceSettings.bounded(source.getSettings().getSitemapMaxAge(), DEFAULT_MAX_AGE_DAYS, 1, SourceSettings.MAX_SITEMAP_AGE);
+    }
+
+    private static String resolve(String sitemapUrl, String loc) {
+        if(loc.isEmpty())
+            return null;
+
+        try {
+            return URI.create(sitemapUrl).resolve(loc).toString();
+        } catch (IllegalArgumentException e) {
+            return loc;
+        }
+    }
+
+    // An index has children and no articles, a urlset the other way round
+    private record Sitemap(Map<String, String> children, List<NewsArticle> articles) {}
+
+    private static class SitemapEntry {
+        private String loc;
+        private String lastmod;
+        private String title;
+        private String publicationDate;
+    }
+}
@@ -0,0 +1,662 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.fetch.PageResponse;
+import org.jsoup.internal.StringUtil;
+import org.jsoup.parser.Tag;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Runs StreamingSelectors over the token stream of a page without building a Document.
+// Open elements are kept only as a stack of names with, per selector, how many compounds their ancestors matched;
+// a descendant chain matched this way finds the same elements as jsoup. Texts are collected the way
+// ParseUtils.boundedText and Element.text() collect them, so both engines give the same titles and hashes.
+// The stack follows jsoup's tree builder: implied html, head, body, tbody and tr elements, implied end tags and
+// ignored stray end tags. Where the builder would move or reopen elements (misnested formatting, content
+// foster-parented out of a table, a table in a p that depends on quirks mode...) extract returns null and the page
+// is parsed with jsoup instead.
+public class StreamingExtractor {
+    // Field value of one matched element; link is the element's own href or the first one inside it
+    public record Match(String text, String link) {}
+
+    private static final Set<String> VOID_TAGS = Set.of(
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "keygen", "link", "meta", "param",
+            "source", "track", "wbr"
+    );
+    // Start tags that close an open <p>, as the html tree builder does
+    private static final Set<String> CLOSES_P = Set.of(
+            "address", "article", "aside", "blockquote", "center", "details", "dir", "div", "dl", "fieldset",
+            "figcaption", "figure", "footer", "header", "hgroup", "menu", "nav", "ol", "p", "section", "summary", "ul",
+            "h1", "h2", "h3", "h4", "h5", "h6", "pre", "listing", "form", "li", "dd", "dt", "hr", "xmp"
+    );
+    private static final Set<String> HEADINGS = Set.of("h1", "h2", "h3", "h4", "h5", "h6");
+    private static final Set<String> HEAD_TAGS = Set.of(
+            "base", "basefont", "bgsound", "command", "link", "meta", "noframes", "noscript", "script", "style", "title"
+    );
+    private static final Set<String> FORMATTING_TAGS = Set.of(
+            "a", "b", "big", "code", "em", "font", "i", "nobr", "s", "small", "strike", "strong", "tt", "u"
+    );
+    // Closing one of these drops the formatting elements opened inside it instead of reopening them
+    private static final Set<String> MARKER_TAGS = Set.of("applet", "caption", "marquee", "object", "td", "th");
+    private static final Set<String> SPECIAL_TAGS = Set.of(
+            "address", "applet", "area", "article", "aside", "base", "basefont", "bgsound", "blockquote", "body", "br",
+            "button", "caption", "center", "col", "colgroup", "dd", "details", "dir", "div", "dl", "dt", "embed",
+            "fieldset", "figcaption", "figure", "footer", "form", "frame", "frameset", "h1", "h2", "h3", "h4", "h5", "h6",
+            "head", "header", "hgroup", "hr", "html", "iframe", "img", "input", "keygen", "li", "link", "listing", "main",
+            "marquee", "menu", "meta", "nav", "noembed", "noframes", "noscript", "object", "ol", "p", "param",
+            "plaintext", "pre", "script", "search", "section", "select", "source", "style", "summary", "table", "tbody",
+            "td", "template", "textarea", "tfoot", "th", "thead", "title", "tr", "track", "ul", "wbr", "xmp"
+    );
+    private static final Set<String> BLOCK_END_TAGS = Set.of(
+            "address", "article", "aside", "blockquote", "button", "center", "details", "dir", "div", "dl", "fieldset",
+            "figcaption", "figure", "footer", "header", "hgroup", "listing", "menu", "nav", "ol", "pre", "section",
+            "summary", "ul"
+    );
+    private static final Set<String> TABLE_TAGS = Set.of("caption", "col", "colgroup", "tbody", "td", "tfoot", "th", "thead", "tr");
+    private static final Set<String> TABLE_CONTEXT_TAGS = Set.of("table", "tbody", "thead", "tfoot", "tr", "colgroup");
+    private static final Set<String> TABLE_SECTIONS = Set.of("tbody", "thead", "tfoot");
+    private static final Set<String> FOREIGN_TO_HTML_TAGS = Set.of(
+            "b", "big", "blockquote", "body", "br", "center", "code", "dd", "div", "dl", "dt", "em", "embed", "font",
+            "h1", "h2", "h3", "h4", "h5", "h6", "head", "hr", "i", "img", "li", "listing", "menu", "meta", "nobr", "ol",
+            "p", "pre", "ruby", "s", "small", "span", "strike", "strong", "sub", "sup", "table", "tt", "u", "ul", "var"
+    );
+    // Rebuilt, dropped or reparented by the tree builder in ways not followed here
+    private static final Set<String> UNSUPPORTED_TAGS = Set.of(
+            "frame", "frameset", "image", "isindex", "math", "plaintext", "rb", "rp", "rt", "rtc", "template"
+    );
+    private static final Set<String> DEFAULT_SCOPE = Set.of("applet", "caption", "html", "marquee", "object", "table", "td", "template", "th");
+    private static final Set<String> BUTTON_SCOPE = union(DEFAULT_SCOPE, Set.of("button"));
+    private static final Set<String> LIST_ITEM_SCOPE = union(DEFAULT_SCOPE, Set.of("ol", "ul"));
+    private static final Set<String> TABLE_SCOPE = Set.of("html", "table", "template");
+    private static final Pattern META_CHARSET = Pattern.compile("(?i)<meta[^>]+charset\\s*=\\s*[\"']?([\\w.:-]+)");
+    private static final int CHARSET_SNIFF_BYTES = 5000;
+
+    // Null when the page needs tree builder error recovery that only a Document reproduces
+    public static Map<String, List<Match>> extract(PageResponse page, Map<String, StreamingSelector> selectors,
+                                                   Map<String, Integer> maxTextLengths, int maxMatches) {
+        return new Run(page.url(), selectors, maxTextLengths, maxMatches).extract(new String(page.body(), charsetOf(page)));
+    }
+
+    // Header charset first, then a <meta charset> near the top of the page, as jsoup does
+    static Charset charsetOf(PageResponse page) {
+        String charset = page.charset();
+        if(charset == null) {
+            String head = new String(page.body(), 0, Math.min(page.body().length, CHARSET_SNIFF_BYTES), StandardCharsets.ISO_8859_1);
+            Matcher matcher = META_CHARSET.matcher(head);
+            charset = matcher.find() ? matcher.group(1) : null;
+        }
+
+        try {
+            return charset == null ? StandardCharsets.UTF_8 : Charset.forName(charset);
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    private static class Run {
+        private final String[] keys;
+        private final StreamingSelector[] selectors;
+        private final int[] maxTextLengths;
+        private final int maxMatches;
+        private final List<List<Match>> results = new ArrayList<>();
+
+        private final List<String> openNames = new ArrayList<>();
+        private final List<int[]> openProgress = new ArrayList<>();
+        private final List<Capture> captures = new ArrayList<>();
+        private String baseUrl;
+        private boolean baseSet;
+        private boolean headSeen;
+        private boolean bodySeen;
+        private boolean afterBody;
+        private boolean formOpen; // Set by a <form> until a </form>, even one that doesn't close it
+        private boolean skipNewline; // A newline right after <pre> or <listing> is dropped
+        private int foreignDepth = -1; // Depth of the outermost open svg element
+        private boolean recovery; // The tree builder would rebuild part of the tree, the page goes to jsoup
+
+        private Run(String baseUrl, Map<String, StreamingSelector> selectors, Map<String, Integer> maxTextLengths, int maxMatches) {
+            this.baseUrl = baseUrl;
+            this.keys = selectors.keySet().toArray(new String[0]);
+            this.selectors = selectors.values().toArray(new StreamingSelector[0]);
+            this.maxTextLengths = new int[keys.length];
+            for(int i = 0; i < keys.length; i++) {
+                this.maxTextLengths[i] = maxTextLengths.getOrDefault(keys[i], Integer.MAX_VALUE);
+                results.add(new ArrayList<>());
+            }
+            this.maxMatches = maxMatches;
+        }
+
+        private Map<String, List<Match>> extract(String html) {
+            HtmlTokenizer tokenizer = new HtmlTokenizer(html);
+            HtmlTokenizer.Token token;
+            while(!recovery && (token = tokenizer.next()) != HtmlTokenizer.Token.EOF) {
+                switch(token) {
+                    case START_TAG -> startTag(tokenizer);
+                    case END_TAG -> endTag(tokenizer.tagName());
+                    case TEXT -> text(tokenizer.text());
+                    case COMMENT -> captures.forEach(capture -> capture.blockClosed = false);
+                    default -> {}
+                }
+                skipNewline = token == HtmlTokenizer.Token.START_TAG && !tokenizer.isSelfClosing()
+                        && (tokenizer.tagName().equals("pre") || tokenizer.tagName().equals("listing"));
+                if(tokenizer.isUnclosed())
+                    recovery = true; // jsoup cuts an unclosed title or textarea at the first '<'
+            }
+            if(recovery)
+                return null;
+            popTo(0);
+
+            Map<String, List<Match>> matches = new LinkedHashMap<>();
+            for(int i = 0; i < keys.length; i++)
+                matches.put(keys[i], results.get(i));
+            return matches;
+        }
+
+        private void startTag(HtmlTokenizer tag) {
+            String name = tag.tagName();
+            if(afterBody && (name.equals("script") || name.equals("style")) && !tag.isSelfClosing())
+                return; // Goes back into the body, without text
+            if(afterBody || UNSUPPORTED_TAGS.contains(name)
+                    || (name.equals("html") && !openNames.isEmpty())
+                    || (name.equals("head") && headSeen)
+                    || (name.equals("body") && bodySeen)
+                    || (tag.isSelfClosing() && (name.equals("html") || name.equals("head") || name.equals("body")))) {
+                recovery = true;
+                return;
+            }
+
+            if(foreignDepth >= 0) {
+                if(FOREIGN_TO_HTML_TAGS.contains(name))
+                    recovery = true;
+                else
+                    insert(tag, tag.isSelfClosing());
+                return;
+            }
+
+            placeInDocument(name);
+            if(bodySeen && !recovery)
+                closeImplied(name);
+            if(!recovery)
+                insert(tag, VOID_TAGS.contains(name) || (tag.isSelfClosing() && !name.equals("form")));
+        }
+
+        private void text(String value) {
+            if(skipNewline && value.startsWith("\n"))
+                value = value.substring(1);
+            if(!StringUtil.isBlank(value)) {
+                if(afterBody || foreignDepth >= 0) {
+                    recovery = true;
+                    return;
+                }
+                placeInDocument(null);
+                if(TABLE_CONTEXT_TAGS.contains(current()))
+                    recovery = true; // Foster-parented before the table
+                if(recovery)
+                    return;
+            } else if(openNames.isEmpty()) {
+                return;
+            }
+
+            if(captures.isEmpty())
+                return;
+
+            boolean preserve = preservesWhitespace();
+            for(Capture capture: captures) {
+                if(capture.blockClosed)
+                    capture.appendSpace();
+                capture.blockClosed = false;
+                capture.appendText(value, preserve);
+            }
+        }
+
+        // Text in pre, textarea or title, looking up to six levels up as Element.text() does, keeps its whitespace
+        private boolean preservesWhitespace() {
+            for(int i = openNames.size() - 1; i >= Math.max(0, openNames.size() - 6); i--) {
+                if(Tag.valueOf(openNames.get(i)).preserveWhitespace())
+                    return true;
+            }
+            return false;
+        }
+
+        // Opens the html, head and body elements the tree builder implies before a start tag, or text when name is null
+        private void placeInDocument(String name) {
+            if(openNames.isEmpty()) {
+                if("html".equals(name))
+                    return;
+                insert(implied("html"), false);
+            }
+            if(!headSeen) {
+                if("head".equals(name))
+                    return;
+                insert(implied("head"), false);
+            }
+
+            int head = openNames.indexOf("head");
+            if(head >= 0) {
+                if(!current().equals("head"))
+                    return; // Text of a title or style
+                if("noscript".equals(name))
+                    recovery = true; // Read as raw text in the head
+                if(name != null && HEAD_TAGS.contains(name))
+                    return;
+                popTo(head);
+            }
+
+            if(!bodySeen) {
+                if("body".equals(name))
+                    return;
+                if(name != null && HEAD_TAGS.contains(name) && !name.equals("noscript")) {
+                    recovery = true; // Moved back into the head
+                    return;
+                }
+                insert(implied("body"), false);
+            }
+        }
+
+        // Closes, and for tables opens, the elements the tree builder would before this start tag in the body
+        private void closeImplied(String name) {
+            if(TABLE_TAGS.contains(name)) {
+                placeInTable(name);
+                return;
+            }
+            if(TABLE_CONTEXT_TAGS.contains(current())) {
+                if(!name.equals("script") && !name.equals("style"))
+                    recovery = true; // Foster-parented before the table
+                return;
+            }
+
+            int select = openNames.lastIndexOf("select");
+            if(select >= 0) {
+                if(name.equals("option") || name.equals("optgroup")) {
+                    if(current().equals("option") || (name.equals("optgroup") && current().equals("optgroup")))
+                        closeTo(openNames.size() - 1);
+                } else {
+                    recovery = true; // Dropped or closing the select
+                }
+                return;
+            }
+
+            if((name.equals("a") && openBeforeMarker("a")) || (name.equals("nobr") && indexInScope(DEFAULT_SCOPE, "nobr") >= 0)
+                    || (name.equals("form") && formOpen)
+                    || (name.equals("table") && indexInScope(BUTTON_SCOPE, "p") >= 0)) {
+                recovery = true; // Adoption agency, ignored form, table in a p only closes it in no-quirks mode
+                return;
+            }
+
+            if(name.equals("li"))
+                closeListItem("li");
+            else if(name.equals("dd") || name.equals("dt"))
+                closeListItem("dd", "dt");
+            if(CLOSES_P.contains(name))
+                closeInScope(BUTTON_SCOPE, "p");
+            if(HEADINGS.contains(name) && HEADINGS.contains(current()))
+                closeTo(openNames.size() - 1);
+            else if(name.equals("button"))
+                closeInScope(DEFAULT_SCOPE, "button");
+            else if((name.equals("option") || name.equals("optgroup")) && current().equals("option"))
+                closeTo(openNames.size() - 1);
+        }
+
+        // Cells go into a row, rows into a tbody, as the tree builder implies them
+        private void placeInTable(String name) {
+            int table = openNames.lastIndexOf("table");
+            if(table < 0) {
+                recovery = true; // Dropped outside a table
+                return;
+            }
+
+            switch(name) {
+                case "caption", "colgroup", "tbody", "thead", "tfoot" -> closeTo(table + 1);
+                case "col" -> {
+                    if(!current().equals("colgroup")) {
+                        closeTo(table + 1);
+                        insert(implied("colgroup"), false);
+                    }
+                }
+                case "tr" -> openTableSection(table);
+                default -> {
+                    int row = openNames.lastIndexOf("tr");
+                    if(row > table) {
+                        closeTo(row + 1);
+                    } else {
+                        openTableSection(table);
+                        insert(implied("tr"), false);
+                    }
+                }
+            }
+        }
+
+        private void openTableSection(int table) {
+            int section = table;
+            for(int i = openNames.size() - 1; i > table; i--) {
+                if(TABLE_SECTIONS.contains(openNames.get(i))) {
+                    section = i;
+                    break;
+                }
+            }
+            closeTo(section + 1);
+            if(section == table)
+                insert(implied("tbody"), false);
+        }
+
+        private void closeListItem(String... names) {
+            for(int i = openNames.size() - 1; i >= 0; i--) {
+                String open = openNames.get(i);
+                if(List.of(names).contains(open)) {
+                    closeTo(i);
+                    return;
+                }
+                if(SPECIAL_TAGS.contains(open) && !open.equals("address") && !open.equals("div") && !open.equals("p"))
+                    return;
+            }
+        }
+
+        private void endTag(String name) {
+            if(!bodySeen && (name.equals("head") || name.equals("body") || name.equals("html") || name.equals("br"))
+                    && !(name.equals("head") && openNames.contains("head"))) {
+                recovery = true; // Implies the elements before it
+                return;
+            }
+            if(afterBody && !name.equals("body") && !name.equals("html") && !name.equals("script") && !name.equals("style"))
+                recovery = true; // Handled as if the body were still open
+            if(afterBody || openNames.isEmpty())
+                return;
+            if(foreignDepth >= 0) {
+                if(current().equals(name))
+                    closeTo(openNames.size() - 1);
+                else
+                    recovery = true;
+                return;
+            }
+            if(!bodySeen) {
+                headEndTag(name);
+                return;
+            }
+
+            int select = openNames.lastIndexOf("select");
+            if(select >= 0) {
+                selectEndTag(name, select);
+                return;
+            }
+
+            switch(name) {
+                case "body", "html" -> {
+                    popTo(openNames.indexOf("body"));
+                    afterBody = true;
+                }
+                case "p" -> {
+                    int p = indexInScope(BUTTON_SCOPE, "p");
+                    if(p < 0)
+                        recovery = true; // An empty <p> is inserted
+                    else
+                        closeTo(p);
+                }
+                case "br" -> recovery = true;
+                case "form" -> {
+                    int form = indexInScope(DEFAULT_SCOPE, "form");
+                    if(form >= 0 && form < openNames.size() - 1)
+                        recovery = true; // Removed from under its children
+                    else if(form >= 0 && formOpen)
+                        closeTo(form);
+                    formOpen = false;
+                }
+                case "li" -> closeInScope(LIST_ITEM_SCOPE, "li");
+                case "dd", "dt" -> closeInScope(DEFAULT_SCOPE, name);
+                case "h1", "h2", "h3", "h4", "h5", "h6" -> closeInScope(DEFAULT_SCOPE, "h1", "h2", "h3", "h4", "h5", "h6");
+                case "applet", "marquee", "object" -> closeInScope(DEFAULT_SCOPE, name);
+                default -> {
+                    if(BLOCK_END_TAGS.contains(name))
+                        closeInScope(DEFAULT_SCOPE, name);
+                    else if(TABLE_TAGS.contains(name) || name.equals("table"))
+                        closeInScope(TABLE_SCOPE, name);
+                    else if(FORMATTING_TAGS.contains(name))
+                        formattingEndTag(name);
+                    else
+                        otherEndTag(name);
+                }
+            }
+        }
+
+        private void headEndTag(String name) {
+            if(name.equals("head"))
+                popTo(openNames.indexOf("head"));
+            else if(current().equals(name))
+                closeTo(openNames.size() - 1);
+        }
+
+        private void selectEndTag(String name, int select) {
+            String current = current();
+            if(name.equals("select"))
+                closeTo(select);
+            else if(name.equals("option") && current.equals("option"))
+                closeTo(openNames.size() - 1);
+            else if(name.equals("optgroup") && current.equals("optgroup"))
+                closeTo(openNames.size() - 1);
+            else if(name.equals("optgroup") && current.equals("option") && openNames.get(openNames.size() - 2).equals("optgroup"))
+                closeTo(openNames.size() - 2);
+            else if(!name.equals("option") && !name.equals("optgroup"))
+                recovery = true;
+        }
+
+        // A misnested formatting end tag runs the adoption agency, which moves elements around
+        private void formattingEndTag(String name) {
+            for(int i = openNames.size() - 1; i >= 0; i--) {
+                String open = openNames.get(i);
+                if(open.equals(name)) {
+                    if(i == openNames.size() - 1)
+                        closeTo(i);
+                    else
+                        recovery = true;
+                    return;
+                }
+                if(MARKER_TAGS.contains(open))
+                    return; // Opened outside the cell, ignored
+            }
+        }
+
+        // Closes the nearest element of that name unless a special element comes first, then the end tag is ignored
+        private void otherEndTag(String name) {
+            for(int i = openNames.size() - 1; i >= 0; i--) {
+                String open = openNames.get(i);
+                if(open.equals(name)) {
+                    closeTo(i);
+                    return;
+                }
+                if(SPECIAL_TAGS.contains(open))
+                    return;
+            }
+        }
+
+        private void closeInScope(Set<String> scope, String... names) {
+            int index = indexInScope(scope, names);
+            if(index >= 0)
+                closeTo(index);
+        }
+
+        private int indexInScope(Set<String> scope, String... names) {
+            for(int i = openNames.size() - 1; i >= 0; i--) {
+                String open = openNames.get(i);
+                if(List.of(names).contains(open))
+                    return i;
+                if(scope.contains(open))
+                    return -1;
+            }
+            return -1;
+        }
+
+        private boolean openBeforeMarker(String name) {
+            for(int i = openNames.size() - 1; i >= 0; i--) {
+                String open = openNames.get(i);
+                if(open.equals(name))
+                    return true;
+                if(MARKER_TAGS.contains(open))
+                    return false;
+            }
+            return false;
+        }
+
+        // Closes the elements from index up; a formatting element closed this way would be reopened at the next
+        // content unless a cell or another marker below it closes too
+        private void closeTo(int index) {
+            boolean marker = false;
+            for(int i = index; i < openNames.size() && !recovery; i++) {
+                String open = openNames.get(i);
+                if(MARKER_TAGS.contains(open))
+                    marker = true;
+                else if(i > index && !marker && FORMATTING_TAGS.contains(open))
+                    recovery = true;
+            }
+            popTo(index);
+        }
+
+        private void insert(HtmlTokenizer tag, boolean isVoid) {
+            String name = tag.tagName();
+            if(name.equals("base") && !baseSet && tag.attribute("href") != null) {
+                baseUrl = StringUtil.resolve(baseUrl, tag.attribute("href"));
+                baseSet = true;
+            }
+
+            boolean block = isBlock(name);
+            boolean inline = !block && !Tag.valueOf(name).formatAsBlock();
+            for(Capture capture: captures) {
+                if(capture.blockClosed && inline)
+                    capture.appendSpace();
+                capture.blockClosed = false;
+                if(block || name.equals("br"))
+                    capture.appendSpace();
+                if(capture.link == null && name.equals("a") && tag.attribute("href") != null)
+                    capture.link = absUrl(tag.attribute("href"));
+            }
+
+            int[] parentProgress = openProgress.isEmpty() ? new int[selectors.length] : openProgress.get(openProgress.size() - 1);
+            int[] progress = new int[selectors.length];
+            List<Capture> started = new ArrayList<>();
+            for(int i = 0; i < selectors.length; i++) {
+                int matched = parentProgress[i];
+                int last = selectors[i].length() - 1;
+                progress[i] = matched;
+                if(matched == last && results.get(i).size() < maxMatches && selectors[i].matches(last, tag)) {
+                    started.add(new Capture(i, results.get(i).size(), openNames.size(), maxTextLengths[i],
+                            tag.attribute("href") != null ? absUrl(tag.attribute("href")) : null));
+                    results.get(i).add(null);
+                } else if(matched < last && selectors[i].matches(matched, tag)) {
+                    progress[i] = matched + 1;
+                }
+            }
+            captures.addAll(started);
+
+            if(name.equals("form"))
+                formOpen = true;
+            if(isVoid) {
+                finish(openNames.size(), block);
+                return;
+            }
+            if(name.equals("head"))
+                headSeen = true;
+            else if(name.equals("body"))
+                bodySeen = true;
+            else if(foreignDepth < 0 && name.equals("svg"))
+                foreignDepth = openNames.size();
+            openNames.add(name);
+            openProgress.add(progress);
+        }
+
+        private void popTo(int index) {
+            while(openNames.size() > index) {
+                int depth = openNames.size() - 1;
+                String name = openNames.remove(depth);
+                openProgress.remove(depth);
+                boolean block = isBlock(name);
+                if(depth == foreignDepth)
+                    foreignDepth = -1;
+                finish(depth, block);
+            }
+        }
+
+        private String current() {
+            return openNames.isEmpty() ? "" : openNames.get(openNames.size() - 1);
+        }
+
+        // Element at this depth is closed: captures opened on it are done, the others learn whether a block ended
+        private void finish(int depth, boolean block) {
+            for(int i = captures.size() - 1; i >= 0; i--) {
+                Capture capture = captures.get(i);
+                if(capture.depth == depth) {
+                    results.get(capture.selector).set(capture.index, new Match(capture.text.toString().trim(), capture.link));
+                    captures.remove(i);
+                } else {
+                    capture.blockClosed = block;
+                }
+            }
+        }
+
+        private String absUrl(String href) {
+            String url = StringUtil.resolve(baseUrl, href);
+            return url.isEmpty() ? null : url;
+        }
+
+        // Element.text() spaces off svg elements like blocks
+        private boolean isBlock(String name) {
+            return foreignDepth >= 0 || name.equals("svg") || Tag.valueOf(name).isBlock();
+        }
+
+        // An element the tree builder creates without a tag in the page
+        private static HtmlTokenizer implied(String name) {
+            HtmlTokenizer tag = new HtmlTokenizer("<" + name + ">");
+            tag.next();
+            return tag;
+        }
+    }
+
+    private static Set<String> union(Set<String> first, Set<String> second) {
+        Set<String> union = new HashSet<>(first);
+        union.addAll(second);
+        return Set.copyOf(union);
+    }
+
+    private static class Capture {
+        private final int selector;
+        private final int index;
+        private final int depth;
+        private final int maxLength;
+        private final StringBuilder text = new StringBuilder();
+        private String link;
+        // The last node was a closed block; Element.text() spaces it off only from a following text or inline element
+        private boolean blockClosed;
+
+        private Capture(int selector, int index, int depth, int maxLength, String link) {
+            this.selector = selector;
+            this.index = index;
+            this.depth = depth;
+            this.maxLength = maxLength;
+            this.link = link;
+        }
+
+        private void appendText(String value, boolean preserve) {
+            if(preserve) {
+                text.append(value, 0, Math.min(value.length(), Math.max(0, maxLength - text.length())));
+                return;
+            }
+
+            for(int i = 0; i < value.length() && text.length() < maxLength; i++) {
+                char c = value.charAt(i);
+                if(StringUtil.isActuallyWhitespace(c))
+                    appendSpace();
+                else if(!StringUtil.isInvisibleChar(c))
+                    text.append(c);
+            }
+        }
+
+        private void appendSpace() {
+            if(!text.isEmpty() && text.charAt(text.length() - 1) != ' ' && text.length() < maxLength)
+                text.append(' ');
+        }
+    }
+}
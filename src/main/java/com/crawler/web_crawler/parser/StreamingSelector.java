@@ -0,0 +1,167 @@
+package com.crawler.web_crawler.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// The subset of css the streaming extractor runs without a tree: compounds of tag, #id, .class and
+// [attr], [attr=value], [attr^=value], [attr$=value], [attr*=value], joined by the descendant combinator.
+// Matching follows jsoup: tag and attribute names and class and attribute values ignore case, ids don't.
+public class StreamingSelector {
+    private final Compound[] steps;
+
+    private StreamingSelector(Compound[] steps) {
+        this.steps = steps;
+    }
+
+    // Returns null when the selector is outside the subset
+    public static StreamingSelector compile(String selector) {
+        if(selector == null || selector.isBlank())
+            return null;
+
+        List<Compound> steps = new ArrayList<>();
+        for(String part: selector.trim().split("\\s+")) {
+            Compound compound = Compound.parse(part);
+            if(compound == null)
+                return null;
+            steps.add(compound);
+        }
+        return new StreamingSelector(steps.toArray(new Compound[0]));
+    }
+
+    public int length() {
+        return steps.length;
+    }
+
+    public boolean matches(int step, HtmlTokenizer tag) {
+        return steps[step].matches(tag);
+    }
+
+    private record Compound(String tag, String id, String[] classes, AttributeTest[] attributes) {
+        private static Compound parse(String part) {
+            int[] position = {0};
+            String tag = null;
+            if(part.charAt(0) == '*') {
+                position[0]++;
+            } else if(isNameChar(part.charAt(0))) {
+                tag = readName(part, position).toLowerCase(Locale.ROOT);
+            }
+
+            String id = null;
+            List<String> classes = new ArrayList<>();
+            List<AttributeTest> attributes = new ArrayList<>();
+            while(position[0] < part.length()) {
+                char c = part.charAt(position[0]++);
+                if(c == '#' && id == null) {
+                    id = readName(part, position);
+                    if(id.isEmpty())
+                        return null;
+                } else if(c == '.') {
+                    String className = readName(part, position);
+                    if(className.isEmpty())
+                        return null;
+                    classes.add(className);
+                } else if(c == '[') {
+                    AttributeTest attribute = AttributeTest.parse(part, position);
+                    if(attribute == null)
+                        return null;
+                    attributes.add(attribute);
+                } else {
+                    return null;
+                }
+            }
+
+            return new Compound(tag, id, classes.toArray(new String[0]), attributes.toArray(new AttributeTest[0]));
+        }
+
+        private boolean matches(HtmlTokenizer tag) {
+            if(this.tag != null && !this.tag.equals(tag.tagName()))
+                return false;
+            if(id != null && !id.equals(tag.attribute("id")))
+                return false;
+            for(String className: classes) {
+                if(!hasClass(tag.attribute("class"), className))
+                    return false;
+            }
+            for(AttributeTest attribute: attributes) {
+                if(!attribute.matches(tag.attribute(attribute.name())))
+                    return false;
+            }
+            return true;
+        }
+
+        private static boolean hasClass(String classAttribute, String className) {
+            if(classAttribute == null)
+                return false;
+
+            int length = classAttribute.length();
+            int start = 0;
+            while(start < length) {
+                while(start < length && Character.isWhitespace(classAttribute.charAt(start)))
+                    start++;
+                int end = start;
+                while(end < length && !Character.isWhitespace(classAttribute.charAt(end)))
+                    end++;
+                if(end - start == className.length() && classAttribute.regionMatches(true, start, className, 0, end - start))
+                    return true;
+                start = end;
+            }
+            return false;
+        }
+    }
+
+    private record AttributeTest(String name, char operator, String value) {
+        private static AttributeTest parse(String part, int[] position) {
+            String name = readName(part, position).toLowerCase(Locale.ROOT);
+            if(name.isEmpty() || position[0] >= part.length())
+                return null;
+
+            char operator = part.charAt(position[0]++);
+            if(operator == ']')
+                return new AttributeTest(name, ' ', null);
+            if(operator != '=') {
+                if(position[0] >= part.length() || part.charAt(position[0]++) != '=' || "^$*".indexOf(operator) < 0)
+                    return null;
+            }
+
+            int end = part.indexOf(']', position[0]);
+            if(end < 0)
+                return null;
+            String value = part.substring(position[0], end).trim();
+            position[0] = end + 1;
+            if(value.length() >= 2 && (value.charAt(0) == '"' || value.charAt(0) == '\'')
+                    && value.charAt(value.length() - 1) == value.charAt(0))
+                value = value.substring(1, value.length() - 1);
+            if(value.isEmpty() || value.indexOf('"') >= 0 || value.indexOf('\'') >= 0)
+                return null;
+
+            return new AttributeTest(name, operator, value.trim().toLowerCase(Locale.ROOT));
+        }
+
+        private boolean matches(String attributeValue) {
+            if(attributeValue == null)
+                return false;
+            if(value == null)
+                return true;
+
+            String actual = attributeValue.trim().toLowerCase(Locale.ROOT);
+            return switch(operator) {
+                case '=' -> actual.equals(value);
+                case '^' -> actual.startsWith(value);
+                case '$' -> actual.endsWith(value);
+                default -> actual.contains(value);
+            };
+        }
+    }
+
+    private static String readName(String part, int[] position) {
+        int start = position[0];
+        while(position[0] < part.length() && isNameChar(part.charAt(position[0])))
+            position[0]++;
+        return part.substring(start, position[0]);
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '-' || c == '_';
+    }
+}
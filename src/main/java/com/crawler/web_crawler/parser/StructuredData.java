@@ -0,0 +1,184 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.fetch.PageResponse;
+import com.crawler.web_crawler.model.entity.Source;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.internal.StringUtil;
+
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// schema.org articles embedded as <script type="application/ld+json">, enabled by the structuredData source setting.
+// Only the script blocks are read, the page is not parsed into a DOM and the dates are ISO 8601, so DateParser isn't needed.
+@Slf4j
+public class StructuredData {
+    private static final Set<String> ARTICLE_TYPES = Set.of(
+            "NewsArticle", "Article", "BlogPosting", "ReportageNewsArticle", "AnalysisNewsArticle",
+            "OpinionNewsArticle", "BackgroundNewsArticle", "LiveBlogPosting", "TechArticle", "Report"
+    );
+    private static final byte[] SCRIPT_OPEN = "<script".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SCRIPT_CLOSE = "</script".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LD_JSON = "application/ld+json".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int MAX_ITEMS = 500;
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_CONTENT_LENGTH = 10_000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Missing fields are left null and may be filled from the css selectors
+    public record Item(String title, String content, LocalDate publishDate, String url) {
+        public boolean isComplete() {
+            return title != null && content != null && publishDate != null;
+        }
+    }
+
+    public static boolean isEnabled(Source source) {
+        return source.getSettings().isStructuredDataEnabled();
+    }
+
+    public static List<Item> read(PageResponse page) {
+        return read(scriptBlocks(page.body(), StreamingExtractor.charsetOf(page)), page.url());
+    }
+
+    static List<Item> read(List<String> blocks, String pageUrl) {
+        List<Item> items = new ArrayList<>();
+        for(String block: blocks) {
+            try {
+                collect(MAPPER.readTree(block), pageUrl, items);
+            } catch (JsonProcessingException e) {
+                log.debug("Skipping invalid JSON-LD block on {}: {}", pageUrl, e.getOriginalMessage());
+            }
+        }
+        return items;
+    }
+
+    // Byte scan for <script ...application/ld+json...>...</script>, only the block bodies are decoded
+    static List<String> scriptBlocks(byte[] body, Charset charset) {
+        List<String> blocks = new ArrayList<>();
+        int from = indexOfIgnoreCase(body, SCRIPT_OPEN, 0, body.length);
+        while(from >= 0) {
+            int tagEnd = indexOf(body, (byte) '>', from + SCRIPT_OPEN.length);
+            if(tagEnd < 0)
+                break;
+
+            int blockEnd = indexOfIgnoreCase(body, SCRIPT_CLOSE, tagEnd + 1, body.length);
+            if(blockEnd < 0)
+                break;
+
+            if(indexOfIgnoreCase(body, LD_JSON, from, tagEnd) >= 0)
+                blocks.add(new String(body, tagEnd + 1, blockEnd - tagEnd - 1, charset));
+            from = indexOfIgnoreCase(body, SCRIPT_OPEN, blockEnd + SCRIPT_CLOSE.length, body.length);
+        }
+        return blocks;
+    }
+
+    private static void collect(JsonNode node, String pageUrl, List<Item> items) {
+        if(items.size() >= MAX_ITEMS)
+            return;
+
+        if(node.isArray()) {
+            for(JsonNode child: node)
+                collect(child, pageUrl, items);
+            return;
+        }
+        if(!node.isObject())
+            return;
+
+        if(node.has("@graph"))
+            collect(node.get("@graph"), pageUrl, items);
+
+        if(isType(node, Set.of("ItemList"))) {
+            for(JsonNode element: node.path("itemListElement"))
+                collect(element.has("item") ? element.get("item") : element, pageUrl, items);
+        } else if(isType(node, ARTICLE_TYPES)) {
+            items.add(toItem(node, pageUrl));
+        }
+    }
+
+    private static Item toItem(JsonNode node, String pageUrl) {
+        String title = text(node, "headline", MAX_TITLE_LENGTH);
+        String content = text(node, "articleBody", MAX_CONTENT_LENGTH);
+        String publishDate = text(node, "datePublished", MAX_TITLE_LENGTH);
+        JsonNode mainEntity = node.path("mainEntityOfPage");
+        String url = node.path("url").isTextual() ? node.get("url").asText()
+                : mainEntity.isTextual() ? mainEntity.asText()
+                : mainEntity.path("@id").isTextual() ? mainEntity.get("@id").asText()
+                : null;
+
+        return new Item(
+                title != null ? title : text(node, "name", MAX_TITLE_LENGTH),
+                content != null ? content : text(node, "description", MAX_CONTENT_LENGTH),
+                FeedDates.parse(publishDate != null ? publishDate : text(node, "dateCreated", MAX_TITLE_LENGTH)).orElse(null),
+                resolve(pageUrl, url)
+        );
+    }
+
+    // "@type" is a string or an array, sometimes with the full schema.org url
+    private static boolean isType(JsonNode node, Set<String> types) {
+        JsonNode type = node.path("@type");
+        if(type.isArray()) {
+            for(JsonNode value: type) {
+                if(types.contains(shortType(value.asText())))
+                    return true;
+            }
+            return false;
+        }
+        return type.isTextual() && types.contains(shortType(type.asText()));
+    }
+
+    private static String shortType(String type) {
+        return type.substring(type.lastIndexOf('/') + 1);
+    }
+
+    private static String text(JsonNode node, String field, int maxLength) {
+        JsonNode value = node.path(field);
+        if(value.isArray() && !value.isEmpty())
+            value = value.get(0);
+        if(!value.isTextual())
+            return null;
+
+        String text = StringUtil.normaliseWhitespace(org.jsoup.parser.Parser.unescapeEntities(value.asText(), false)).trim();
+        if(text.isEmpty())
+            return null;
+        return text.length() > maxLength ? text.substring(0, maxLength) : text;
+    }
+
+    private static String resolve(String pageUrl, String url) {
+        if(url == null || url.isBlank())
+            return null;
+
+        try {
+            return pageUrl == null || pageUrl.isEmpty() ? URI.create(url).toString() : URI.create(pageUrl).resolve(url.trim()).toString();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte value, int from) {
+        for(int i = from; i < bytes.length; i++) {
+            if(bytes[i] == value)
+                return i;
+        }
+        return -1;
+    }
+
+    private static int indexOfIgnoreCase(byte[] bytes, byte[] pattern, int from, int to) {
+        for(int i = from; i <= to - pattern.length; i++) {
+            int j = 0;
+            while(j < pattern.length && Character.toLowerCase(bytes[i + j]) == pattern[j])
+                j++;
+            if(j == pattern.length)
+                return i;
+        }
+        return -1;
+    }
+}
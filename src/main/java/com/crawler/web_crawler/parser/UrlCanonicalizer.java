@@ -0,0 +1,99 @@
+package com.crawler.web_crawler.parser;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// One spelling per page for link discovery: lower-case scheme and host, no default port, fragment or dot segments,
+// "/" for an empty path, tracking parameters dropped and the rest sorted. Urls that aren't http(s) give null.
+public class UrlCanonicalizer {
+    private static final List<String> TRACKING_PARAMETERS = List.of("fbclid", "gclid", "yclid", "_openstat", "mc_cid", "mc_eid");
+
+    public static String canonicalize(String url) {
+        if(url == null || url.isBlank())
+            return null;
+
+        URI uri;
+        try {
+            uri = new URI(url.trim().replace(" ", "%20")).normalize();
+        } catch (URISyntaxException e) {
+            return null;
+        }
+
+        String scheme = uri.getScheme() == null ? null : uri.getScheme().toLowerCase(Locale.ROOT);
+        String host = uri.getHost();
+        if(host == null || !("http".equals(scheme) || "https".equals(scheme)))
+            return null;
+
+        host = host.toLowerCase(Locale.ROOT);
+        if(host.endsWith("."))
+            host = host.substring(0, host.length() - 1);
+        int port = uri.getPort();
+        boolean defaultPort = port == -1 || (port == 80 && scheme.equals("http")) || (port == 443 && scheme.equals("https"));
+
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        if(path.startsWith("/.."))
+            return null; // normalize() keeps the segments it cannot resolve
+
+        StringBuilder canonical = new StringBuilder(scheme).append("://").append(host);
+        if(!defaultPort)
+            canonical.append(':').append(port);
+        canonical.append(path);
+        String query = canonicalQuery(uri.getRawQuery());
+        if(!query.isEmpty())
+            canonical.append('?').append(query);
+        return canonical.toString();
+    }
+
+    // Host without "www.", hubs often link to themselves both ways; null when the url has no host
+    public static String siteOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            if(host == null)
+                return null;
+
+            host = host.toLowerCase(Locale.ROOT);
+            return host.startsWith("www.") ? host.substring(4) : host;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // 64-bit FNV-1a of the canonical url without "www." finished with the fmix64 step of MurmurHash3,
+    // so that urls differing only at the end still spread over all bits
+    public static long fingerprint(String canonicalUrl) {
+        int hostStart = canonicalUrl.indexOf("://") + 3;
+        int skipFrom = canonicalUrl.startsWith("www.", hostStart) ? hostStart : -1;
+
+        long hash = 0xcbf29ce484222325L;
+        for(int i = 0; i < canonicalUrl.length(); i++) {
+            if(i == skipFrom)
+                i += 4;
+            hash ^= canonicalUrl.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static String canonicalQuery(String query) {
+        if(query == null || query.isEmpty())
+            return "";
+
+        List<String> parameters = new ArrayList<>();
+        for(String parameter: query.split("&")) {
+            String name = parameter.contains("=") ? parameter.substring(0, parameter.indexOf('=')) : parameter;
+            if(!parameter.isEmpty() && !name.startsWith("utm_") && !TRACKING_PARAMETERS.contains(name))
+                parameters.add(parameter);
+        }
+        parameters.sort(null);
+        return String.join("&", parameters);
+    }
+}
@@ -0,0 +1,70 @@
+package com.crawler.web_crawler.parser;
+
+// Urls seen by one discovery crawl as 64-bit fingerprints in an open-addressing long[] with linear probing:
+// 8 to 16 bytes a url instead of a String with its HashSet entry. Two urls with the same fingerprint count as one,
+// which at 64 bits needs billions of urls to become likely. Shared by the fetch workers, so access is synchronized.
+public class UrlFingerprintSet {
+    private static final long EMPTY = 0;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] table;
+    private int size;
+
+    public UrlFingerprintSet(int expectedSize) {
+        table = new long[capacityFor(expectedSize)];
+    }
+
+    // Returns false when the fingerprint was already there
+    public synchronized boolean add(long fingerprint) {
+        long key = fingerprint == EMPTY ? 1 : fingerprint;
+        int mask = table.length - 1;
+        int index = (int) key & mask;
+        while(table[index] != EMPTY) {
+            if(table[index] == key)
+                return false;
+            index = (index + 1) & mask;
+        }
+
+        table[index] = key;
+        if(++size > table.length / 4 * 3)
+            grow();
+        return true;
+    }
+
+    public synchronized boolean contains(long fingerprint) {
+        long key = fingerprint == EMPTY ? 1 : fingerprint;
+        int mask = table.length - 1;
+        for(int index = (int) key & mask; table[index] != EMPTY; index = (index + 1) & mask) {
+            if(table[index] == key)
+                return true;
+        }
+        return false;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] old = table;
+        table = new long[old.length * 2];
+        int mask = table.length - 1;
+        for(long key: old) {
+            if(key == EMPTY)
+                continue;
+
+            int index = (int) key & mask;
+            while(table[index] != EMPTY)
+                index = (index + 1) & mask;
+            table[index] = key;
+        }
+    }
+
+    // Keeps the table at most half full for the expected size
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while(capacity < expectedSize * 2L && capacity < 1 << 30)
+            capacity <<= 1;
+        return capacity;
+    }
+}
@@ -0,0 +1,72 @@
+package com.crawler.web_crawler.parser;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+// Streaming XML reading shared by the feed and sitemap parsers
+public class XmlStreams {
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    // Sitemaps are often served as .xml.gz without a Content-Encoding header, so gzip is recognised by its magic bytes
+    public static XMLStreamReader createReader(byte[] body) throws XMLStreamException {
+        InputStream input = new ByteArrayInputStream(body);
+        if(body.length > 2 && (body[0] & 0xff) == 0x1f && (body[1] & 0xff) == 0x8b) {
+            try {
+                input = new GZIPInputStream(input);
+            } catch (IOException e) {
+                throw new XMLStreamException("Cannot read gzip content", e);
+            }
+        }
+        return XML_INPUT_FACTORY.createXMLStreamReader(input);
+    }
+
+    public static boolean toRootElement(XMLStreamReader reader) throws XMLStreamException {
+        while(reader.hasNext()) {
+            if(reader.next() == XMLStreamConstants.START_ELEMENT)
+                return true;
+        }
+        return false;
+    }
+
+    // Text of the current element including nested markup such as Atom xhtml content
+    public static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while(depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if(event == XMLStreamConstants.START_ELEMENT)
+                depth++;
+            else if(event == XMLStreamConstants.END_ELEMENT)
+                depth--;
+            else if(event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE)
+                text.append(reader.getText());
+        }
+        return text.toString().trim();
+    }
+
+    public static void close(XMLStreamReader reader) {
+        if(reader == null)
+            return;
+
+        try {
+            reader.close();
+        } catch (XMLStreamException ignore) {}
+    }
+
+    // Feeds and sitemaps never need a DTD, and external entities would let a page read local files
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
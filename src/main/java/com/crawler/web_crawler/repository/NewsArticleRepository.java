@@ -1,15 +1,24 @@
 package com.crawler.web_crawler.repository;
 
+import com.crawler.web_crawler.model.dto.ArticleHashDTO;
 import com.crawler.web_crawler.model.entity.NewsArticle;
-import com.crawler.web_crawler.model.entity.Source;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import java.util.Set;
+import java.util.List;
 
 @Repository
 public interface NewsArticleRepository extends JpaRepository<NewsArticle, Long> {
-    @Query(value = "SELECT article.hash FROM NewsArticle article WHERE article.source = ?1")
-    Set<String> findHashesBySource(Source source);
+    // One chunk of the hashes of a source in id order, the next chunk starts after the last id
+    @Query(value = "SELECT new com.crawler.web_crawler.model.dto.ArticleHashDTO(article.id, article.hash) FROM NewsArticle article " +
+            "WHERE article.source.id = ?1 AND article.id > ?2 ORDER BY article.id")
+    List<ArticleHashDTO> findHashesAfter(Long sourceId, Long afterId, Pageable pageable);
+
+    @Query(value = "SELECT new com.crawler.web_crawler.model.dto.ArticleHashDTO(article.id, article.hash) FROM NewsArticle article " +
+            "WHERE article.id > ?1 ORDER BY article.id")
+    List<ArticleHashDTO> findAllHashesAfter(Long afterId, Pageable pageable);
+
+    boolean existsByHash(String hash);
 }
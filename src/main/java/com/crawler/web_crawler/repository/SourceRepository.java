@@ -1,11 +1,15 @@
 package com.crawler.web_crawler.repository;
 
+import com.crawler.web_crawler.model.entity.DateFormatFamily;
 import com.crawler.web_crawler.model.entity.Source;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public interface SourceRepository extends JpaRepository<Source, Long> {
@@ -13,4 +17,19 @@ public interface SourceRepository extends JpaRepository<Source, Long> {
 
     @Query(value = "SELECT source FROM Source source WHERE source.isActive=true")
     List<Source> findAllByIsActive();
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE Source source SET source.etag = ?2, source.lastModified = ?3, source.contentDigest = ?4 WHERE source.id = ?1")
+    void updatePageValidators(Long id, String etag, String lastModified, String contentDigest);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE Source source SET source.sitemapLastmods = ?2 WHERE source.id = ?1")
+    void updateSitemapLastmods(Long id, Map<String, String> sitemapLastmods);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE Source source SET source.dateFormat = ?2 WHERE source.id = ?1")
+    void updateDateFormat(Long id, DateFormatFamily dateFormat);
 }
@@ -0,0 +1,93 @@
+package com.crawler.web_crawler.scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+
+// Runs crawls either inline on the scheduler thread (default) or, in virtual-thread mode, each crawl
+// on its own virtual thread so the scheduler only triggers. A semaphore caps crawls running at once.
+@Slf4j
+@Component
+public class CrawlExecutor {
+    private final TaskExecutor executor;
+    private final int maxConcurrentCrawls;
+    private final Semaphore permits;
+    private final Map<String, Future<?>> runningCrawls = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CrawlExecutor(@Value("${crawler.execution.virtual-threads:false}") boolean virtualThreads,
+                         @Value("${crawler.execution.max-concurrent-crawls:1000}") int maxConcurrentCrawls) {
+        this(virtualThreads ? virtualThreadExecutor() : null, maxConcurrentCrawls);
+    }
+
+    public CrawlExecutor(TaskExecutor executor, int maxConcurrentCrawls) {
+        this.executor = executor;
+        this.maxConcurrentCrawls = maxConcurrentCrawls;
+        this.permits = new Semaphore(maxConcurrentCrawls, true);
+    }
+
+    public void execute(String sourceUrl, Runnable crawl) {
+        if(executor == null) {
+            crawl.run();
+            return;
+        }
+
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try {
+                crawl.run();
+            } finally {
+                permits.release();
+            }
+        }, null);
+
+        // The trigger no longer waits for the crawl, so a slow crawl must not overlap with its next run
+        if(runningCrawls.putIfAbsent(sourceUrl, task) != null) {
+            log.warn("Previous crawl of {} is still running, skipping this run", sourceUrl);
+            return;
+        }
+
+        executor.execute(() -> {
+            try {
+                task.run();
+            } finally {
+                runningCrawls.remove(sourceUrl, task);
+            }
+        });
+    }
+
+    public void cancel(String sourceUrl) {
+        Future<?> crawl = runningCrawls.remove(sourceUrl);
+        if(crawl != null)
+            crawl.cancel(true);
+    }
+
+    public int getActiveCrawls() {
+        return maxConcurrentCrawls - permits.availablePermits();
+    }
+
+    public int getWaitingCrawls() {
+        return permits.getQueueLength();
+    }
+
+    private static TaskExecutor virtualThreadExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("crawl-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+}
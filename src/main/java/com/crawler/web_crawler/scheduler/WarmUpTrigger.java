@@ -0,0 +1,37 @@
+package com.crawler.web_crawler.scheduler;
+
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+// Fires a fixed lead time before every execution of the cron expression
+public class WarmUpTrigger implements Trigger {
+    private final CronExpression expression;
+    private final Duration lead;
+    private final ZoneId zoneId;
+
+    public WarmUpTrigger(String expression, Duration lead) {
+        this(expression, lead, ZoneId.systemDefault());
+    }
+
+    public WarmUpTrigger(String expression, Duration lead, ZoneId zoneId) {
+        this.expression = CronExpression.parse(expression);
+        this.lead = lead;
+        this.zoneId = zoneId;
+    }
+
+    @Override
+    public Instant nextExecution(TriggerContext triggerContext) {
+        Instant lastExecution = triggerContext.lastActualExecution();
+        Instant base = lastExecution != null ? lastExecution : triggerContext.getClock().instant();
+
+        // Only cron fires that are still at least `lead` away can be warmed up in time
+        ZonedDateTime nextFire = expression.next(base.plus(lead).atZone(zoneId));
+        return nextFire == null ? null : nextFire.toInstant().minus(lead);
+    }
+}
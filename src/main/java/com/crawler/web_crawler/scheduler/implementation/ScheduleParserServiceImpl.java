@@ -1,7 +1,10 @@
 package com.crawler.web_crawler.scheduler.implementation;
 
+import com.crawler.web_crawler.fetch.ConnectionWarmer;
 import com.crawler.web_crawler.model.entity.Source;
+import com.crawler.web_crawler.scheduler.CrawlExecutor;
 import com.crawler.web_crawler.scheduler.SchedulerParserService;
+import com.crawler.web_crawler.scheduler.WarmUpTrigger;
 import com.crawler.web_crawler.service.newsArticle.NewsParserService;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -20,9 +23,13 @@ import java.util.concurrent.ScheduledFuture;
 public class ScheduleParserServiceImpl implements SchedulerParserService {
     private final TaskScheduler taskScheduler;
     private final NewsParserService newsParserService;
+    private final ConnectionWarmer connectionWarmer;
+    private final CrawlExecutor crawlExecutor;
 
     @Getter
     private final Map<String, ScheduledFuture<?>> scheduledSources = new ConcurrentHashMap<>();
+    @Getter
+    private final Map<String, ScheduledFuture<?>> scheduledWarmUps = new ConcurrentHashMap<>();
 
     @Override
     public void cancelScheduleSource(String sourceUrl) {
@@ -31,6 +38,11 @@ public class ScheduleParserServiceImpl implements SchedulerParserService {
             log.info("Interrupt execute parsing for this source {}", sourceUrl);
             future.cancel(true); // Passing true means interrupted the task if needed.
         }
+        crawlExecutor.cancel(sourceUrl);
+
+        ScheduledFuture<?> warmUpFuture = scheduledWarmUps.remove(sourceUrl);
+        if(warmUpFuture != null)
+            warmUpFuture.cancel(false);
     }
 
     @Override
@@ -40,13 +52,13 @@ public class ScheduleParserServiceImpl implements SchedulerParserService {
             return;
 
         CronTrigger cronTriggerSource = new CronTrigger(source.getSchedule());
-        Runnable parseTask = () -> {
+        Runnable parseTask = () -> crawlExecutor.execute(source.getUrl(), () -> {
             try {
                 newsParserService.parseAndSave(source);
             } catch (Exception e) {
                 log.error("Error during task execution with source {}. Error message: {}", source.getUrl(), e.getMessage());
             }
-        };
+        });
 
         ScheduledFuture<?> scheduledFuture = taskScheduler.schedule(
                 parseTask,
@@ -54,6 +66,19 @@ public class ScheduleParserServiceImpl implements SchedulerParserService {
         );
 
         scheduledSources.put(source.getUrl(), scheduledFuture);
+
+        if(connectionWarmer.isEnabled())
+            scheduleWarmUp(source);
+    }
+
+    private void scheduleWarmUp(Source source) {
+        Runnable warmUpTask = () -> connectionWarmer.warmUp(source.getUrl());
+        ScheduledFuture<?> warmUpFuture = taskScheduler.schedule(
+                warmUpTask,
+                new WarmUpTrigger(source.getSchedule(), connectionWarmer.getLead())
+        );
+
+        scheduledWarmUps.put(source.getUrl(), warmUpFuture);
     }
 
 }
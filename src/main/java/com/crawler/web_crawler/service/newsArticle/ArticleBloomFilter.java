@@ -0,0 +1,384 @@
+package com.crawler.web_crawler.service.newsArticle;
+
+import com.crawler.web_crawler.model.dto.ArticleHashDTO;
+import com.crawler.web_crawler.repository.NewsArticleRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Scalable Bloom filter of the hashes of all saved articles, in front of the duplicate check: "not there" means
+// the article is new without asking the database, "maybe" goes on to ArticleHashCache and the unique index.
+// Slices are memory-mapped files, each with twice the capacity of the one before at half its false positive rate,
+// so the filter grows with the table without a rebuild. A checkpoint catches up with articles saved since the last
+// one (by id, so other instances are covered too), forces the slices to disk and then records the covered id.
+// A missing or unreadable filter is rebuilt from the table in the background; until it has caught up every
+// check is answered with "maybe".
+@Slf4j
+@Component
+public class ArticleBloomFilter {
+    private static final int MAGIC = 0x424C4F4D; // "BLOM"
+    private static final int VERSION = 1;
+    // magic, version, capacity, bit count, hash functions, count, complete flag, covered id
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 8 + 4 + 8;
+    private static final int COUNT_OFFSET = 28;
+    private static final int COMPLETE_OFFSET = 36;
+    private static final int COVERED_ID_OFFSET = 40;
+    private static final long MAX_SLICE_BITS = 8L << 30; // 1 GiB, a mapping is limited to 2 GiB
+    private static final double TIGHTENING = 0.5;
+    private static final int LOAD_CHUNK = 10_000;
+    private static final String SLICE_PREFIX = "slice-";
+    private static final String SLICE_SUFFIX = ".bloom";
+
+    private final NewsArticleRepository repository;
+    private final boolean enabled;
+    private final Path directory;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+    private final Duration checkpointInterval;
+
+    private final List<Slice> slices = new ArrayList<>();
+    private long coveredId;
+    private volatile boolean ready;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "article-bloom-filter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ArticleBloomFilter(NewsArticleRepository repository,
+                              @Value("${crawler.bloom-filter.enabled:false}") boolean enabled,
+                              @Value("${crawler.bloom-filter.dir:./data/bloom}") Path directory,
+                              @Value("${crawler.bloom-filter.expected-entries:1000000}") long expectedEntries,
+                              @Value("${crawler.bloom-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                              @Value("${crawler.bloom-filter.checkpoint-interval:60s}") Duration checkpointInterval) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if(!enabled)
+            return;
+
+        Files.createDirectories(directory);
+        synchronized(this) {
+            boolean complete;
+            try {
+                complete = openSlices();
+            } catch (IOException e) {
+                log.warn("Article bloom filter in {} could not be opened.\nReason: {}", directory, e.getMessage());
+                complete = false;
+            }
+
+            if(!complete) {
+                log.info("Article bloom filter in {} is missing or unreadable, rebuilding it from the table", directory);
+                closeSlices();
+                deleteSlices();
+                slices.add(Slice.create(sliceFile(0), expectedEntries, falsePositiveRate * (1 - TIGHTENING)));
+                coveredId = 0;
+            }
+        }
+
+        executor.execute(this::catchUpSafely);
+        executor.scheduleWithFixedDelay(this::checkpointSafely, checkpointInterval.toMillis(), checkpointInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        executor.shutdownNow();
+        synchronized(this) {
+            if(ready)
+                writeCheckpoint();
+            closeSlices();
+        }
+    }
+
+    // False only when the key was surely never added; always true while the filter is off or catching up
+    public synchronized boolean mightContain(int key) {
+        if(!ready)
+            return true;
+
+        long hash = mix(key);
+        for(Slice slice: slices) {
+            if(slice.contains(hash))
+                return true;
+        }
+        return false;
+    }
+
+    public synchronized void add(int key) {
+        if(slices.isEmpty())
+            return;
+
+        long hash = mix(key);
+        for(Slice slice: slices) {
+            if(slice.contains(hash))
+                return;
+        }
+
+        Slice last = slices.get(slices.size() - 1);
+        if(last.count() >= last.capacity) {
+            try {
+                last = Slice.create(sliceFile(slices.size()), last.capacity * 2, last.falsePositiveRate() * TIGHTENING);
+                slices.add(last);
+                log.info("Article bloom filter grew to {} slices", slices.size());
+            } catch (IOException e) {
+                // Without the new slice "not there" can't be trusted any more; the next start rebuilds the filter
+                log.error("Article bloom filter could not grow, it is turned off.\nReason: {}", e.getMessage());
+                ready = false;
+                slices.get(0).setComplete(false);
+                executor.shutdownNow();
+                return;
+            }
+        }
+        last.add(hash);
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    synchronized int sliceCount() {
+        return slices.size();
+    }
+
+    // Reads the articles saved after the covered id. A lower id committed after the scan is missed;
+    // the duplicate it causes on save is healed by ArticleHashCache.resync
+    private void catchUp() {
+        long afterId;
+        synchronized(this) {
+            afterId = coveredId;
+        }
+
+        List<ArticleHashDTO> chunk;
+        int added = 0;
+        do {
+            chunk = repository.findAllHashesAfter(afterId, PageRequest.of(0, LOAD_CHUNK));
+            for(ArticleHashDTO row: chunk) {
+                if(row.hash() != null)
+                    add(ArticleHashCache.keyOf(row.hash()));
+            }
+            added += chunk.size();
+            if(!chunk.isEmpty())
+                afterId = chunk.get(chunk.size() - 1).id();
+        } while(chunk.size() == LOAD_CHUNK);
+
+        synchronized(this) {
+            if(slices.isEmpty())
+                return;
+
+            coveredId = afterId;
+            if(!ready) {
+                slices.get(0).setComplete(true);
+                writeCheckpoint();
+                ready = true;
+                log.info("Article bloom filter is ready, {} articles read from the table up to id {}", added, coveredId);
+            }
+        }
+    }
+
+    private void catchUpSafely() {
+        try {
+            catchUp();
+        } catch (RuntimeException e) {
+            log.error("Article bloom filter could not read the table, retrying at the next checkpoint.\nReason: {}", e.getMessage());
+        }
+    }
+
+    private void checkpointSafely() {
+        catchUpSafely();
+        synchronized(this) {
+            if(ready)
+                writeCheckpoint();
+        }
+    }
+
+    // The covered id is written after the bits are on disk, so after a crash the catch up starts early rather than late
+    private void writeCheckpoint() {
+        slices.forEach(slice -> slice.buffer.force());
+        Slice first = slices.get(0);
+        first.buffer.putLong(COVERED_ID_OFFSET, coveredId);
+        first.buffer.force();
+    }
+
+    // True when all slices are readable and the filter was complete when it was last written
+    private boolean openSlices() throws IOException {
+        List<Path> files;
+        try(Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().startsWith(SLICE_PREFIX))
+                    .sorted(Comparator.comparingInt(ArticleBloomFilter::sliceNumber))
+                    .toList();
+        }
+
+        for(int i = 0; i < files.size(); i++) {
+            if(sliceNumber(files.get(i)) != i)
+                return false;
+
+            Slice slice = Slice.open(files.get(i));
+            if(slice == null)
+                return false;
+            slices.add(slice);
+        }
+
+        if(slices.isEmpty() || !slices.get(0).isComplete())
+            return false;
+
+        coveredId = slices.get(0).buffer.getLong(COVERED_ID_OFFSET);
+        log.info("Article bloom filter opened from {} with {} slices, catching up after id {}", directory, slices.size(), coveredId);
+        return true;
+    }
+
+    private void closeSlices() throws IOException {
+        for(Slice slice: slices)
+            slice.channel.close();
+        slices.clear();
+    }
+
+    private void deleteSlices() throws IOException {
+        try(Stream<Path> stream = Files.list(directory)) {
+            for(Path file: stream.filter(path -> path.getFileName().toString().startsWith(SLICE_PREFIX)).toList())
+                Files.delete(file);
+        }
+    }
+
+    private Path sliceFile(int number) {
+        return directory.resolve(SLICE_PREFIX + number + SLICE_SUFFIX);
+    }
+
+    private static int sliceNumber(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(SLICE_PREFIX.length(), name.length() - SLICE_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    // Keys are Objects.hash values of similar titles; the finalizer of MurmurHash3 spreads them over 64 bits
+    private static long mix(int key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static class Slice {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final long capacity;
+        private final long bits;
+        private final int hashes;
+
+        private Slice(FileChannel channel, MappedByteBuffer buffer, long capacity, long bits, int hashes) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = capacity;
+            this.bits = bits;
+            this.hashes = hashes;
+        }
+
+        // Bits and hash functions of a Bloom filter holding capacity keys at the given false positive rate
+        private static Slice create(Path file, long capacity, double falsePositiveRate) throws IOException {
+            long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            bits = Math.min(Math.max(64, (bits + 63) / 64 * 64), MAX_SLICE_BITS);
+            int hashes = Math.max(1, (int) Math.round((double) bits / capacity * Math.log(2)));
+
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + bits / 8);
+            buffer.putInt(0, MAGIC)
+                    .putInt(4, VERSION)
+                    .putLong(8, capacity)
+                    .putLong(16, bits)
+                    .putInt(24, hashes)
+                    .putLong(COUNT_OFFSET, 0)
+                    .putInt(COMPLETE_OFFSET, 0)
+                    .putLong(COVERED_ID_OFFSET, 0);
+            return new Slice(channel, buffer, capacity, bits, hashes);
+        }
+
+        // Null when the file isn't a slice of this version or was cut short
+        private static Slice open(Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            if(size >= HEADER_SIZE) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                long capacity = buffer.getLong(8);
+                long bits = buffer.getLong(16);
+                int hashes = buffer.getInt(24);
+                if(buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION && capacity > 0 && hashes > 0
+                        && bits > 0 && bits % 64 == 0 && size == HEADER_SIZE + bits / 8)
+                    return new Slice(channel, buffer, capacity, bits, hashes);
+            }
+
+            log.warn("Article bloom filter slice {} is unreadable", file);
+            channel.close();
+            return null;
+        }
+
+        // Kirsch-Mitzenmacher: the k indexes are h1 + i * h2 over the two halves of the hash
+        private boolean contains(long hash) {
+            long h1 = hash;
+            long h2 = (hash >>> 32) | 1;
+            for(int i = 0; i < hashes; i++) {
+                long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bits;
+                long word = buffer.getLong(HEADER_SIZE + (int) (bit >>> 6) * 8);
+                if((word & (1L << bit)) == 0)
+                    return false;
+            }
+            return true;
+        }
+
+        private void add(long hash) {
+            long h1 = hash;
+            long h2 = (hash >>> 32) | 1;
+            for(int i = 0; i < hashes; i++) {
+                long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bits;
+                int offset = HEADER_SIZE + (int) (bit >>> 6) * 8;
+                buffer.putLong(offset, buffer.getLong(offset) | (1L << bit));
+            }
+            buffer.putLong(COUNT_OFFSET, count() + 1);
+        }
+
+        private long count() {
+            return buffer.getLong(COUNT_OFFSET);
+        }
+
+        // Derived back from the size, so a reopened slice keeps growing the series at the same rate
+        private double falsePositiveRate() {
+            return Math.exp(-(double) bits / capacity * Math.log(2) * Math.log(2));
+        }
+
+        private boolean isComplete() {
+            return buffer.getInt(COMPLETE_OFFSET) == 1;
+        }
+
+        private void setComplete(boolean complete) {
+            buffer.putInt(COMPLETE_OFFSET, complete ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.crawler.web_crawler.service.newsArticle;
+
+import com.crawler.web_crawler.model.dto.ArticleHashDTO;
+import com.crawler.web_crawler.model.entity.NewsArticle;
+import com.crawler.web_crawler.model.entity.Source;
+import com.crawler.web_crawler.repository.NewsArticleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hashes of the saved articles of each source, so checking a crawl for duplicates needs no database query.
+// A source is loaded on its first check in keyset chunks and kept as primitive ints (hashes are Objects.hash values,
+// see NewsArticle.setHash); saved articles are added after saveAll. At most max-entries hashes are kept over all
+// sources, the least recently crawled ones are dropped and loaded again when they are crawled next. A source that
+// alone is over the limit is not kept, its hashes are checked one by one against the unique index instead.
+// Sources that aren't loaded ask ArticleBloomFilter first, a hash it has never seen needs neither a load nor a query.
+@Slf4j
+@Component
+public class ArticleHashCache {
+    private static final int LOAD_CHUNK = 5000;
+
+    private final NewsArticleRepository repository;
+    private final ArticleBloomFilter bloomFilter;
+    private final int maxEntries;
+    private final Map<Long, SourceHashes> sources = new ConcurrentHashMap<>();
+    private final AtomicLong entries = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+
+    public ArticleHashCache(NewsArticleRepository repository,
+                            ArticleBloomFilter bloomFilter,
+                            @Value("${crawler.hash-cache.max-entries:2000000}") int maxEntries) {
+        this.repository = repository;
+        this.bloomFilter = bloomFilter;
+        this.maxEntries = maxEntries;
+    }
+
+    public boolean contains(Source source, String hash) {
+        if(hash == null)
+            return false;
+
+        int key = keyOf(hash);
+        SourceHashes hashes = source.getId() == null ? null : sources.get(source.getId());
+        if((hashes == null || !hashes.skipsFilter()) && !bloomFilter.mightContain(key))
+            return false;
+        if(source.getId() == null)
+            return existsInDatabase(hash, key);
+
+        if(hashes == null)
+            hashes = sources.computeIfAbsent(source.getId(), SourceHashes::new);
+        int loaded = hashes.load();
+        if(loaded < 0)
+            return existsInDatabase(hash, key);
+
+        account(hashes, loaded);
+        return hashes.contains(key);
+    }
+
+    // Sources that were not loaded yet get the saved articles from the database on their next check
+    public void addAll(Source source, List<NewsArticle> articles) {
+        for(NewsArticle article: articles) {
+            if(article.getHash() != null)
+                bloomFilter.add(keyOf(article.getHash()));
+        }
+
+        SourceHashes hashes = source.getId() == null ? null : sources.get(source.getId());
+        if(hashes == null)
+            return;
+
+        hashes.resynced = false;
+        account(hashes, hashes.addAll(articles));
+    }
+
+    public void invalidate(Long sourceId) {
+        SourceHashes hashes = sourceId == null ? null : sources.remove(sourceId);
+        if(hashes != null)
+            entries.addAndGet(-hashes.count);
+    }
+
+    // After a duplicate on save: the cached hashes or the bloom filter missed an article saved elsewhere, so the
+    // next check of the source reads its hashes from the database whatever the filter says, adding them to it
+    public void resync(Long sourceId) {
+        invalidate(sourceId);
+        if(sourceId != null)
+            sources.computeIfAbsent(sourceId, SourceHashes::new).resynced = true;
+    }
+
+    // Runs outside the locks of the sources, eviction looks at all of them
+    private void account(SourceHashes hashes, int added) {
+        if(added <= 0 || sources.get(hashes.sourceId) != hashes)
+            return; // Dropped in the meantime, its hashes are no longer counted
+
+        if(entries.addAndGet(added) > maxEntries)
+            evict(hashes);
+    }
+
+    long size() {
+        return entries.get();
+    }
+
+    // Drops the least recently used sources other than the one just grown until the total fits again
+    private void evict(SourceHashes current) {
+        while(entries.get() > maxEntries) {
+            SourceHashes eldest = null;
+            for(SourceHashes hashes: sources.values()) {
+                if(hashes != current && hashes.set != null && (eldest == null || hashes.lastUsed < eldest.lastUsed))
+                    eldest = hashes;
+            }
+            if(eldest == null)
+                return;
+
+            if(sources.remove(eldest.sourceId, eldest)) {
+                entries.addAndGet(-eldest.count);
+                log.info("Dropped cached article hashes of source {}", eldest.sourceId);
+            }
+        }
+    }
+
+    private boolean existsInDatabase(String hash, int key) {
+        boolean exists = repository.existsByHash(hash);
+        if(exists)
+            bloomFilter.add(key); // Saved after the filter's last catch up
+        return exists;
+    }
+
+    // Hashes that aren't Objects.hash values, none are written today, are folded to their String hash
+    static int keyOf(String hash) {
+        try {
+            return Integer.parseInt(hash);
+        } catch (NumberFormatException e) {
+            return hash.hashCode();
+        }
+    }
+
+    private class SourceHashes {
+        private final Long sourceId;
+        private volatile IntHashSet set;
+        private volatile int count;
+        private volatile long lastUsed;
+        private volatile boolean resynced;
+        private boolean tooLarge;
+
+        private SourceHashes(Long sourceId) {
+            this.sourceId = sourceId;
+        }
+
+        // Returns the number of hashes loaded now, 0 when they already were, -1 when the source is over the limit
+        private synchronized int load() {
+            lastUsed = clock.incrementAndGet();
+            if(set != null || tooLarge)
+                return tooLarge ? -1 : 0;
+
+            IntHashSet loaded = new IntHashSet();
+            Long afterId = 0L;
+            List<ArticleHashDTO> chunk;
+            do {
+                chunk = repository.findHashesAfter(sourceId, afterId, PageRequest.of(0, LOAD_CHUNK));
+                for(ArticleHashDTO row: chunk) {
+                    if(row.hash() != null) {
+                        loaded.add(keyOf(row.hash()));
+                        bloomFilter.add(keyOf(row.hash()));
+                    }
+                }
+                if(loaded.size() > maxEntries) {
+                    log.warn("Source {} has more than {} articles, its hashes are checked in the database", sourceId, maxEntries);
+                    tooLarge = true;
+                    return -1;
+                }
+                if(!chunk.isEmpty())
+                    afterId = chunk.get(chunk.size() - 1).id();
+            } while(chunk.size() == LOAD_CHUNK);
+
+            log.info("Loaded {} article hashes of source {}", loaded.size(), sourceId);
+            count = loaded.size();
+            set = loaded;
+            return count;
+        }
+
+        // A loaded set answers exactly, a resynced source has to be read from the database
+        private boolean skipsFilter() {
+            return set != null || resynced;
+        }
+
+        private synchronized boolean contains(int key) {
+            return set.contains(key);
+        }
+
+        private synchronized int addAll(List<NewsArticle> articles) {
+            if(set == null)
+                return 0;
+
+            for(NewsArticle article: articles) {
+                if(article.getHash() != null)
+                    set.add(keyOf(article.getHash()));
+            }
+            int added = set.size() - count;
+            count = set.size();
+            return added;
+        }
+    }
+
+    // Open-addressing int set with linear probing, about 8 bytes a hash at its fill limit instead of a String in a HashSet
+    private static class IntHashSet {
+        private static final int EMPTY = 0;
+
+        private int[] table = new int[16];
+        private boolean hasZero; // 0 marks a free slot, so a zero hash is kept aside
+        private int size;
+
+        private boolean add(int key) {
+            if(key == EMPTY) {
+                if(hasZero)
+                    return false;
+                hasZero = true;
+                size++;
+                return true;
+            }
+
+            int mask = table.length - 1;
+            int index = mix(key) & mask;
+            while(table[index] != EMPTY) {
+                if(table[index] == key)
+                    return false;
+                index = (index + 1) & mask;
+            }
+
+            table[index] = key;
+            if(++size > table.length / 2)
+                grow();
+            return true;
+        }
+
+        private boolean contains(int key) {
+            if(key == EMPTY)
+                return hasZero;
+
+            int mask = table.length - 1;
+            for(int index = mix(key) & mask; table[index] != EMPTY; index = (index + 1) & mask) {
+                if(table[index] == key)
+                    return true;
+            }
+            return false;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private void grow() {
+            int[] old = table;
+            table = new int[old.length * 2];
+            int mask = table.length - 1;
+            for(int key: old) {
+                if(key == EMPTY)
+                    continue;
+
+                int index = mix(key) & mask;
+                while(table[index] != EMPTY)
+                    index = (index + 1) & mask;
+                table[index] = key;
+            }
+        }
+
+        // Objects.hash values of similar titles are close together, the multiply spreads them over the table
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.crawler.web_crawler.service.newsArticle;
 
+import com.crawler.web_crawler.model.dto.ReparseResultDTO;
 import com.crawler.web_crawler.model.entity.Source;
 
+import java.time.Instant;
+
 public interface NewsParserService {
     void parseAndSave(Source source);
+    ReparseResultDTO reparseArchive(Source source, Instant from, Instant to, boolean save);
 }
@@ -1,73 +1,144 @@
 package com.crawler.web_crawler.service.newsArticle.implementation;
 
+import com.crawler.web_crawler.archive.PageArchive;
+import com.crawler.web_crawler.model.dto.ReparseResultDTO;
+import com.crawler.web_crawler.model.entity.DateFormatFamily;
 import com.crawler.web_crawler.model.entity.NewsArticle;
 import com.crawler.web_crawler.model.entity.Source;
+import com.crawler.web_crawler.parser.KnownArticleStop;
 import com.crawler.web_crawler.parser.Parser;
+import com.crawler.web_crawler.parser.ParserResolver;
 import com.crawler.web_crawler.repository.NewsArticleRepository;
+import com.crawler.web_crawler.repository.SourceRepository;
+import com.crawler.web_crawler.service.newsArticle.ArticleHashCache;
 import com.crawler.web_crawler.service.newsArticle.NewsParserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
 public class NewsParserServiceImpl implements NewsParserService {
-    private static final int PARSE_TIME_LIMIT = 30;
 
-    private final Parser parser;
+    private final ParserResolver parserResolver;
     private final NewsArticleRepository repository;
+    private final SourceRepository sourceRepository;
+    private final PageArchive pageArchive;
+    private final ArticleHashCache hashCache;
 
-    //TODO Consider adding a cache for article hashes, do not have to query the database for hashes every scan time
     //TODO Update tests for this class
 
-    private NewsParserServiceImpl(Parser parser, NewsArticleRepository repository) {
-        this.parser = parser;
+    private NewsParserServiceImpl(ParserResolver parserResolver,
+                                  NewsArticleRepository repository,
+                                  SourceRepository sourceRepository,
+                                  PageArchive pageArchive,
+                                  ArticleHashCache hashCache) {
+        this.parserResolver = parserResolver;
         this.repository = repository;
+        this.sourceRepository = sourceRepository;
+        this.pageArchive = pageArchive;
+        this.hashCache = hashCache;
     }
 
     @Override
     public void parseAndSave(Source source) {
+        String oldDigest = source.getContentDigest();
+        DateFormatFamily oldDateFormat = source.getDateFormat();
+        Map<String, String> oldSitemapLastmods = source.getSitemapLastmods();
         try {
             List<NewsArticle> uniqueNewsArticles = parseSource(source);
 
             if(uniqueNewsArticles.isEmpty()) {
                 log.info("No new articles were found for source: {}", source.getUrl());
-                return;
+            } else {
+                log.info("Found and save {} new articles for service {}", uniqueNewsArticles.size(), source.getUrl());
+                repository.saveAll(uniqueNewsArticles);
+                hashCache.addAll(source, uniqueNewsArticles);
             }
 
-            log.info("Found and save {} new articles for service {}", uniqueNewsArticles.size(), source.getUrl());
-            repository.saveAll(uniqueNewsArticles);
+            if(!Objects.equals(oldDigest, source.getContentDigest()))
+                sourceRepository.updatePageValidators(source.getId(), source.getEtag(), source.getLastModified(), source.getContentDigest());
+            if(!Objects.equals(oldSitemapLastmods, source.getSitemapLastmods()))
+                sourceRepository.updateSitemapLastmods(source.getId(), source.getSitemapLastmods());
+            if(source.getDateFormat() != oldDateFormat)
+                sourceRepository.updateDateFormat(source.getId(), source.getDateFormat());
         } catch (DataIntegrityViolationException | TimeoutException e) {
+            // The page has to be parsed again next time, so forget what was seen on it
+            source.resetPageValidators();
+            hashCache.resync(source.getId()); // A duplicate may mean the cached hashes are behind the database
             log.error("The list of articles was not saved.\nReason: {}", e.getMessage());
             throw new RuntimeException("Runtime exception while saving data: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            // The parsers set the validators of the new page before anything was saved; keeping them would
+            // make the next crawl skip the page as unchanged and lose its articles
+            source.resetPageValidators();
+            throw e;
+        }
+    }
+
+    @Override
+    public ReparseResultDTO reparseArchive(Source source, Instant from, Instant to, boolean save) {
+        log.info("Start re-parsing archived pages of {}", source.getUrl());
+        Map<String, NewsArticle> articlesByHash = new LinkedHashMap<>(); // The same article is usually on many snapshots
+        int[] pages = {0};
+        int[] articles = {0};
+
+        Parser parser = parserResolver.forSource(source);
+        long startParseTime = System.nanoTime();
+        pageArchive.forEachPage(source.getId(), from, to, page -> {
+            pages[0]++;
+            for(NewsArticle article: parser.parsePage(source, page.toPageResponse())) {
+                articles[0]++;
+                articlesByHash.putIfAbsent(article.getHash(), article);
+            }
+        });
+        long parseMillis = (System.nanoTime() - startParseTime) / 1_000_000;
+
+        List<NewsArticle> uniqueNewsArticles = new ArrayList<>(articlesByHash.values());
+        uniqueNewsArticles.removeIf((article) -> hashCache.contains(source, article.getHash()));
+
+        log.info("Re-parsed {} archived pages of {} in {} ms, {} new articles", pages[0], source.getUrl(), parseMillis, uniqueNewsArticles.size());
+        if(save && !uniqueNewsArticles.isEmpty()) {
+            repository.saveAll(uniqueNewsArticles);
+            hashCache.addAll(source, uniqueNewsArticles);
         }
+
+        return new ReparseResultDTO(pages[0], articles[0], uniqueNewsArticles.size(), save, parseMillis);
     }
 
     private List<NewsArticle> parseSource(Source source) throws TimeoutException {
+        Parser parser = parserResolver.forSource(source);
         long startParseTime = System.currentTimeMillis();
 
-        List<NewsArticle> articleList = parser.parse(source);
+        KnownArticleStop stop = KnownArticleStop.of(source, hash -> hashCache.contains(source, hash));
+        List<NewsArticle> articleList = parser.parse(source, stop);
 
         long duration = (System.currentTimeMillis() - startParseTime) / 1000;
         log.info("Scanning {} took {} seconds", source.getUrl(), duration);
 
-        if(duration > PARSE_TIME_LIMIT) {
-            log.error("Parsing source {} exceeded time limit ({} sec)", source.getUrl(), PARSE_TIME_LIMIT);
-            throw new TimeoutException("Parsing source: " + source.getUrl() + " exceeded time limit (" + PARSE_TIME_LIMIT + " sec)");
+        long timeLimit = parser.timeLimit(source).toSeconds();
+        if(duration > timeLimit) {
+            log.error("Parsing source {} exceeded time limit ({} sec)", source.getUrl(), timeLimit);
+            throw new TimeoutException("Parsing source: " + source.getUrl() + " exceeded time limit (" + timeLimit + " sec)");
         }
 
-        Set<String> hashes = getHashesFromDb(source);
-        articleList.removeIf((article) -> hashes.contains(article.getHash()));
+        if(articleList.isEmpty())
+            return articleList;
 
-        return articleList;
-    }
+        articleList.removeIf((article) -> hashCache.contains(source, article.getHash()));
+
+        if(!articleList.isEmpty())
+            parser.fetchDetails(source, articleList); // Only new articles are worth a request to their detail page
 
-    private Set<String> getHashesFromDb(Source source) {
-        return repository.findHashesBySource(source);
+        return articleList;
     }
 
 }
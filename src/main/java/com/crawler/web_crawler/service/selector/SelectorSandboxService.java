@@ -0,0 +1,8 @@
+package com.crawler.web_crawler.service.selector;
+
+import com.crawler.web_crawler.model.dto.SelectorTestRequestDTO;
+import com.crawler.web_crawler.model.dto.SelectorTestResultDTO;
+
+public interface SelectorSandboxService {
+    SelectorTestResultDTO testSelectors(SelectorTestRequestDTO request, boolean refresh);
+}
@@ -0,0 +1,115 @@
+package com.crawler.web_crawler.service.selector.implementation;
+
+import com.crawler.web_crawler.exception.JsoupException.JsoupClientException;
+import com.crawler.web_crawler.exception.JsoupException.JsoupParseException;
+import com.crawler.web_crawler.fetch.PageResponse;
+import com.crawler.web_crawler.fetch.PageValidators;
+import com.crawler.web_crawler.model.dto.SelectorTestRequestDTO;
+import com.crawler.web_crawler.model.dto.SelectorTestResultDTO;
+import com.crawler.web_crawler.model.entity.NewsArticle;
+import com.crawler.web_crawler.model.entity.Source;
+import com.crawler.web_crawler.parser.DetailFollow;
+import com.crawler.web_crawler.parser.JsoupClient;
+import com.crawler.web_crawler.parser.JsoupParser;
+import com.crawler.web_crawler.parser.PageSnapshotCache;
+import com.crawler.web_crawler.parser.PageSnapshotCache.PageSnapshot;
+import com.crawler.web_crawler.parser.ParseUtils;
+import com.crawler.web_crawler.parser.SelectorCache;
+import com.crawler.web_crawler.service.selector.SelectorSandboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Document;
+import org.jsoup.select.Evaluator;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Runs candidate selectors against a cached snapshot of the page; nothing is saved and the site is fetched once per snapshot
+@Slf4j
+@Service
+public class SelectorSandboxServiceImpl implements SelectorSandboxService {
+    private static final int MAX_MATCHES = 500;
+
+    // Keys of Source.selectors that apply to other pages, not to the listing
+    private static final Set<String> NOT_LISTING_SELECTORS = Set.of(DetailFollow.DETAIL_CONTENT);
+
+    private final JsoupClient jsoupClient;
+    private final JsoupParser jsoupParser;
+    private final SelectorCache selectorCache;
+    private final PageSnapshotCache pageSnapshotCache;
+
+    public SelectorSandboxServiceImpl(JsoupClient jsoupClient,
+                                      JsoupParser jsoupParser,
+                                      SelectorCache selectorCache,
+                                      PageSnapshotCache pageSnapshotCache) {
+        this.jsoupClient = jsoupClient;
+        this.jsoupParser = jsoupParser;
+        this.selectorCache = selectorCache;
+        this.pageSnapshotCache = pageSnapshotCache;
+    }
+
+    @Override
+    public SelectorTestResultDTO testSelectors(SelectorTestRequestDTO request, boolean refresh) {
+        String url = request.url();
+        if(refresh)
+            pageSnapshotCache.evict(url);
+
+        long startFetchTime = System.nanoTime();
+        Optional<PageSnapshot> cachedSnapshot = pageSnapshotCache.get(url);
+        PageSnapshot snapshot = cachedSnapshot.orElseGet(() -> loadSnapshot(url, request.maxBodySize()));
+        long fetchMillis = (System.nanoTime() - startFetchTime) / 1_000_000;
+
+        // Never saved: no id, so the compiled selectors don't take a place in the selector cache either
+        Source source = new Source();
+        source.setUrl(url);
+        source.setSelectors(request.selectors());
+        if(request.settings() != null)
+            source.setSettings(request.settings());
+
+        long startParseTime = System.nanoTime();
+        Map<String, Integer> matches = countMatches(source, snapshot.document());
+        List<SelectorTestResultDTO.ArticlePreview> articles = jsoupParser.parseDocument(source, snapshot.page(), snapshot.document()).stream()
+                .map(this::toPreview)
+                .toList();
+        long parseMillis = (System.nanoTime() - startParseTime) / 1_000_000;
+
+        log.info("Tested selectors on {} in {} ms, {} articles", url, parseMillis, articles.size());
+        return new SelectorTestResultDTO(url, cachedSnapshot.isPresent(), fetchMillis, parseMillis, matches, articles);
+    }
+
+    private PageSnapshot loadSnapshot(String url, Integer maxBodySize) {
+        try {
+            PageResponse page = jsoupClient.getPage(url, PageValidators.none(), maxBodySize);
+            PageSnapshot snapshot = new PageSnapshot(page, jsoupClient.toDocument(page));
+            pageSnapshotCache.put(url, snapshot);
+            return snapshot;
+        } catch (JsoupClientException e) {
+            throw new JsoupParseException(e.getMessage(), e);
+        }
+    }
+
+    private Map<String, Integer> countMatches(Source source, Document document) {
+        Map<String, Evaluator> evaluators = new LinkedHashMap<>();
+        source.getSelectors().keySet().stream()
+                .filter(key -> !NOT_LISTING_SELECTORS.contains(key))
+                .sorted()
+                .forEach(key -> evaluators.put(key, selectorCache.get(source, key)));
+
+        Map<String, Integer> matches = new LinkedHashMap<>();
+        ParseUtils.selectAll(document, evaluators, MAX_MATCHES)
+                .forEach((key, elements) -> matches.put(key, elements.size()));
+        return matches;
+    }
+
+    private SelectorTestResultDTO.ArticlePreview toPreview(NewsArticle article) {
+        return new SelectorTestResultDTO.ArticlePreview(
+                article.getTitle(),
+                article.getContent(),
+                article.getPublishDate(),
+                article.getDetailUrl()
+        );
+    }
+}
@@ -5,7 +5,9 @@ import com.crawler.web_crawler.exception.SourceAlreadyExistsException;
 import com.crawler.web_crawler.exception.SourceNotFoundException;
 import com.crawler.web_crawler.model.dto.SourceRequestDTO;
 import com.crawler.web_crawler.model.entity.Source;
+import com.crawler.web_crawler.parser.SelectorCache;
 import com.crawler.web_crawler.repository.SourceRepository;
+import com.crawler.web_crawler.service.newsArticle.ArticleHashCache;
 import com.crawler.web_crawler.service.source.SourceService;
 import com.crawler.web_crawler.scheduler.SchedulerParserService;
 import lombok.extern.slf4j.Slf4j;
@@ -21,13 +23,19 @@ public class SourceServiceImpl implements SourceService {
     private final SourceRepository repository;
     private final SourceRequestDtoMapper mapper;
     private final SchedulerParserService schedulerParserService;
+    private final SelectorCache selectorCache;
+    private final ArticleHashCache hashCache;
 
     public SourceServiceImpl(SourceRepository repository,
                              SourceRequestDtoMapper sourceMapper,
-                             SchedulerParserService schedulerParserService) {
+                             SchedulerParserService schedulerParserService,
+                             SelectorCache selectorCache,
+                             ArticleHashCache hashCache) {
         this.repository = repository;
         mapper = sourceMapper;
         this.schedulerParserService = schedulerParserService;
+        this.selectorCache = selectorCache;
+        this.hashCache = hashCache;
     }
 
     @Override
@@ -73,9 +81,15 @@ public class SourceServiceImpl implements SourceService {
         source.setSchedule(sourceRequestDTO.schedule());
         source.setSelectors(sourceRequestDTO.selectors());
         source.setIsActive(sourceRequestDTO.isActive());
+        source.setMaxBodySize(sourceRequestDTO.maxBodySize());
+        source.setParserType(mapper.parserTypeOf(sourceRequestDTO));
+        source.setLanguage(sourceRequestDTO.language());
+        source.setSettings(mapper.settingsOf(sourceRequestDTO));
+        source.resetPageValidators(); // Selectors may have changed, so the page must be parsed again
 
         try {
             Source updatedSource = repository.save(source);
+            selectorCache.invalidate(id);
             schedulerParserService.cancelScheduleSource(oldUrl);
             schedulerParserService.addNewScheduleSource(updatedSource);
             return mapper.toDto(updatedSource);
@@ -105,6 +119,8 @@ public class SourceServiceImpl implements SourceService {
 
         Source source = optionalSource.get();
         schedulerParserService.cancelScheduleSource(source.getUrl());
+        selectorCache.invalidate(id);
+        hashCache.invalidate(id);
 
         log.info("Deleting source with URL: {}", source.getUrl());
 
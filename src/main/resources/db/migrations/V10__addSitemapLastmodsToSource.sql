@@ -0,0 +1,2 @@
+ALTER TABLE crawler.source
+    ADD COLUMN sitemap_lastmods JSON DEFAULT NULL;
@@ -0,0 +1,4 @@
+ALTER TABLE crawler.source
+    ADD COLUMN etag VARCHAR(255) DEFAULT NULL,
+    ADD COLUMN last_modified VARCHAR(64) DEFAULT NULL,
+    ADD COLUMN content_digest VARCHAR(64) DEFAULT NULL;
@@ -0,0 +1,2 @@
+ALTER TABLE crawler.source
+    ADD COLUMN max_body_size INT DEFAULT NULL;
@@ -0,0 +1,2 @@
+ALTER TABLE crawler.source
+    ADD COLUMN parser_type VARCHAR(16) NOT NULL DEFAULT 'HTML';
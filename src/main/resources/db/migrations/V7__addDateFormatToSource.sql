@@ -0,0 +1,2 @@
+ALTER TABLE crawler.source
+    ADD COLUMN date_format VARCHAR(32) DEFAULT NULL;
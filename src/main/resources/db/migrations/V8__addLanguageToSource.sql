@@ -0,0 +1,2 @@
+ALTER TABLE crawler.source
+    ADD COLUMN language VARCHAR(8) DEFAULT NULL;
@@ -0,0 +1,47 @@
+ALTER TABLE crawler.source
+    ADD COLUMN page_url_template VARCHAR(255) DEFAULT NULL,
+    ADD COLUMN max_pages INT DEFAULT NULL,
+    ADD COLUMN page_concurrency INT DEFAULT NULL,
+    ADD COLUMN stop_after_known INT DEFAULT NULL,
+    ADD COLUMN detail_concurrency INT DEFAULT NULL,
+    ADD COLUMN detail_time_budget INT DEFAULT NULL,
+    ADD COLUMN structured_data BOOLEAN DEFAULT NULL,
+    ADD COLUMN sitemap_max_age INT DEFAULT NULL,
+    ADD COLUMN article_url VARCHAR(255) DEFAULT NULL,
+    ADD COLUMN follow_url VARCHAR(255) DEFAULT NULL,
+    ADD COLUMN discovery_depth INT DEFAULT NULL,
+    ADD COLUMN discovery_max_pages INT DEFAULT NULL,
+    ADD COLUMN discovery_concurrency INT DEFAULT NULL;
+
+# The settings were kept as strings in the selectors, numbers that don't parse fall back to the defaults
+UPDATE crawler.source
+SET page_url_template     = JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.pageUrlTemplate')),
+    max_pages             = IF(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.maxPages')) REGEXP '^ *[0-9]{1,6} *$',
+                               TRIM(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.maxPages'))), NULL),
+    page_concurrency      = IF(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.pageConcurrency')) REGEXP '^ *[0-9]{1,6} *$',
+                               TRIM(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.pageConcurrency'))), NULL),
+    stop_after_known      = IF(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.stopAfterKnown')) REGEXP '^ *[0-9]{1,6} *$',
+                               TRIM(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.stopAfterKnown'))), NULL),
+    detail_concurrency    = IF(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.detailConcurrency')) REGEXP '^ *[0-9]{1,6} *$',
+                               TRIM(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.detailConcurrency'))), NULL),
+    detail_time_budget    = IF(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.detailTimeBudget')) REGEXP '^ *[0-9]{1,6} *$',
+                               TRIM(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.detailTimeBudget'))), NULL),
+    structured_data       = LOWER(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.structuredData'))) = 'true',
+    sitemap_max_age       = IF(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.sitemapMaxAge')) REGEXP '^ *[0-9]{1,6} *$',
+                               TRIM(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.sitemapMaxAge'))), NULL),
+    article_url           = JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.articleUrl')),
+    follow_url            = JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.followUrl')),
+    discovery_depth       = IF(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.discoveryDepth')) REGEXP '^ *[0-9]{1,6} *$',
+                               TRIM(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.discoveryDepth'))), NULL),
+    discovery_max_pages   = IF(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.discoveryMaxPages')) REGEXP '^ *[0-9]{1,6} *$',
+                               TRIM(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.discoveryMaxPages'))), NULL),
+    discovery_concurrency = IF(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.discoveryConcurrency')) REGEXP '^ *[0-9]{1,6} *$',
+                               TRIM(JSON_UNQUOTE(JSON_EXTRACT(selectors, '$.discoveryConcurrency'))), NULL)
+WHERE selectors IS NOT NULL;
+
+UPDATE crawler.source
+SET selectors = JSON_REMOVE(selectors, '$.pageUrlTemplate', '$.maxPages', '$.pageConcurrency', '$.stopAfterKnown',
+                            '$.detailConcurrency', '$.detailTimeBudget', '$.structuredData', '$.sitemapMaxAge',
+                            '$.articleUrl', '$.followUrl', '$.discoveryDepth', '$.discoveryMaxPages',
+                            '$.discoveryConcurrency')
+WHERE selectors IS NOT NULL;
@@ -0,0 +1,192 @@
+package com.crawler.web_crawler.archive;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageArchiveTest {
+    private static final Instant NOW = Instant.parse("2025-03-01T00:00:00Z");
+
+    @TempDir
+    private Path directory;
+
+    private PageArchive underTest;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        underTest.close();
+    }
+
+    @Test
+    void forEachPage_whenPagesAppended_shouldReturnPagesOfSourceInFetchOrder() throws Exception {
+        // Given
+        underTest = open(DataSize.ofMegabytes(1));
+        underTest.append(1L, "https://source1.com", "text/html", "<p>first</p>".getBytes(), Instant.parse("2025-01-01T10:00:00Z"));
+        underTest.append(2L, "https://source2.com", null, "<p>other</p>".getBytes(), Instant.parse("2025-01-01T11:00:00Z"));
+        underTest.append(1L, "https://source1.com", "text/html", "<p>second</p>".getBytes(), Instant.parse("2025-01-02T10:00:00Z"));
+
+        // When
+        List<ArchivedPage> pages = read(underTest, 1L, null, null);
+
+        // Then
+        assertThat(pages).extracting(page -> new String(page.body())).containsExactly("<p>first</p>", "<p>second</p>");
+        assertEquals("text/html", pages.get(0).contentType());
+        assertEquals(Instant.parse("2025-01-01T10:00:00Z"), pages.get(0).fetchedAt());
+        assertEquals(1, underTest.countPages(2L));
+    }
+
+    @Test
+    void forEachPage_whenTimeRangeGiven_shouldSkipPagesOutsideIt() throws Exception {
+        // Given
+        underTest = open(DataSize.ofMegabytes(1));
+        underTest.append(1L, "https://source1.com", null, "old".getBytes(), Instant.parse("2025-01-01T00:00:00Z"));
+        underTest.append(1L, "https://source1.com", null, "new".getBytes(), Instant.parse("2025-02-01T00:00:00Z"));
+
+        // When
+        List<ArchivedPage> pages = read(underTest, 1L, Instant.parse("2025-01-15T00:00:00Z"), null);
+
+        // Then
+        assertThat(pages).extracting(page -> new String(page.body())).containsExactly("new");
+    }
+
+    @Test
+    void open_whenSegmentsExist_shouldRebuildIndexAndReadSealedSegments() throws Exception {
+        // Given
+        underTest = open(DataSize.ofBytes(200));
+        for(int i = 0; i < 5; i++)
+            underTest.append(1L, "https://source1.com", null, ("page " + i).getBytes(), Instant.ofEpochSecond(i));
+        underTest.close();
+
+        // When
+        underTest = open(DataSize.ofBytes(200));
+        underTest.append(1L, "https://source1.com", null, "page 5".getBytes(), Instant.ofEpochSecond(5));
+
+        // Then
+        try(Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isGreaterThan(1);
+        }
+        assertThat(read(underTest, 1L, null, null)).extracting(page -> new String(page.body()))
+                .containsExactly("page 0", "page 1", "page 2", "page 3", "page 4", "page 5");
+    }
+
+    @Test
+    void open_whenLastRecordIsIncomplete_shouldTruncateIt() throws Exception {
+        // Given
+        underTest = open(DataSize.ofMegabytes(1));
+        underTest.append(1L, "https://source1.com", null, "complete".getBytes(), Instant.ofEpochSecond(1));
+        underTest.append(1L, "https://source1.com", null, "broken".getBytes(), Instant.ofEpochSecond(2));
+        underTest.close();
+
+        Path segment;
+        try(Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try(FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        // When
+        underTest = open(DataSize.ofMegabytes(1));
+        underTest.append(1L, "https://source1.com", null, "after restart".getBytes(), Instant.ofEpochSecond(3));
+
+        // Then
+        assertThat(read(underTest, 1L, null, null)).extracting(page -> new String(page.body()))
+                .containsExactly("complete", "after restart");
+    }
+
+    @Test
+    void append_whenSealedSegmentsOlderThanMaxAge_shouldDeleteThemWithTheirPages() throws Exception {
+        // Given
+        underTest = open(DataSize.ofBytes(200), Duration.ofDays(30), DataSize.ofBytes(0));
+        for(int i = 0; i < 4; i++)
+            underTest.append(1L, "https://source1.com", null, ("old " + i).getBytes(), NOW.minus(Duration.ofDays(60)));
+
+        // When
+        for(int i = 0; i < 2; i++)
+            underTest.append(1L, "https://source1.com", null, ("new " + i).getBytes(), NOW.minus(Duration.ofDays(1)));
+        underTest.applyRetention();
+
+        // Then
+        assertThat(read(underTest, 1L, null, null)).extracting(page -> new String(page.body())).containsExactly("new 0", "new 1");
+        try(Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isLessThanOrEqualTo(2);
+        }
+
+        underTest.close();
+        underTest = open(DataSize.ofBytes(200), Duration.ofDays(30), DataSize.ofBytes(0));
+        assertEquals(2, underTest.countPages(1L));
+    }
+
+    @Test
+    void append_whenArchiveOverMaxBytes_shouldDeleteOldestSealedSegments() throws Exception {
+        // Given
+        underTest = open(DataSize.ofBytes(200), Duration.ZERO, DataSize.ofBytes(600));
+
+        // When
+        for(int i = 0; i < 30; i++)
+            underTest.append((long) i % 2, "https://source.com", null, ("page " + i).getBytes(), NOW);
+
+        // Then
+        assertThat(directorySize()).isLessThanOrEqualTo(600 + 200);
+        List<String> pages = read(underTest, 1L, null, null).stream().map(page -> new String(page.body())).toList();
+        assertThat(pages).isNotEmpty().doesNotContain("page 1").endsWith("page 29");
+        assertThat(underTest.countPages(0L) + underTest.countPages(1L)).isLessThan(30);
+    }
+
+    @Test
+    void append_whenArchiveDisabled_shouldDoNothing() throws Exception {
+        // Given
+        underTest = new PageArchive(false, directory, DataSize.ofMegabytes(1), Duration.ZERO, DataSize.ofBytes(0), Clock.systemUTC());
+        underTest.open();
+
+        // When
+        underTest.append(1L, "https://source1.com", null, "page".getBytes(), Instant.now());
+
+        // Then
+        assertEquals(0, underTest.countPages(1L));
+        try(Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private PageArchive open(DataSize segmentSize) throws Exception {
+        return open(segmentSize, Duration.ZERO, DataSize.ofBytes(0));
+    }
+
+    private PageArchive open(DataSize segmentSize, Duration maxAge, DataSize maxBytes) throws Exception {
+        PageArchive archive = new PageArchive(true, directory, segmentSize, maxAge, maxBytes, Clock.fixed(NOW, ZoneOffset.UTC));
+        archive.open();
+        return archive;
+    }
+
+    private long directorySize() throws Exception {
+        try(Stream<Path> files = Files.list(directory)) {
+            long size = 0;
+            for(Path file: files.toList())
+                size += Files.size(file);
+            return size;
+        }
+    }
+
+    private List<ArchivedPage> read(PageArchive archive, Long sourceId, Instant from, Instant to) {
+        List<ArchivedPage> pages = new ArrayList<>();
+        archive.forEachPage(sourceId, from, to, pages::add);
+        return pages;
+    }
+}
@@ -0,0 +1,111 @@
+package com.crawler.web_crawler.benchmark;
+
+import com.crawler.web_crawler.parser.DateParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+// Per-date cost of DateParser against the regex and formatter loop it replaced, on typical teaser dates.
+// Run with: mvn test-compile && java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath
+// -Dmdep.outputFile=/dev/stdout)" com.crawler.web_crawler.benchmark.DateParserBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class DateParserBenchmark {
+    private static final String[] DATES = {
+            "15 января 2025, 13:41", "8 апреля 25", "8 апреля", "15.01.2025", "08.04.25", "сегодня, 15:31", "3 сентября 2024"
+    };
+
+    private final DateParser dateParser = new DateParser();
+    private final LegacyDateParser legacyDateParser = new LegacyDateParser();
+
+    @Benchmark
+    public void lexer(Blackhole blackhole) {
+        for(String date: DATES)
+            blackhole.consume(dateParser.toLocalDateFromString(date));
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for(String date: DATES)
+            blackhole.consume(legacyDateParser.toLocalDateFromString(date));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DateParserBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+
+    // DateParser before the single pass lexer, kept as the baseline (logging dropped)
+    private static class LegacyDateParser {
+        private final static String REGEX_FULL_YEAR = ".*\\d{4}.*";
+        private final static String REGEX_SHORT_YEAR = ".*\\d{2}\\b.*";
+        private final static String REGEX_TIME = "\\b\\d{1,2}:\\d{2}\\b";
+        private final static String REGEX_COMMA = "[,]";
+
+        public Optional<LocalDate> toLocalDateFromString(String date) {
+            date = date.toLowerCase();
+            date = date.replaceAll(REGEX_TIME, "").replaceAll(REGEX_COMMA, "").trim();
+
+            int offset = getOffsetIfAdverbTimeExist(date);
+            if(offset <= 0)
+                return Optional.of(LocalDate.now().plusDays(offset));
+
+            for(DateTimeFormatter formatter: getDateTimeFormatters()) {
+                try {
+                    if(!date.matches(REGEX_FULL_YEAR) && !date.matches(REGEX_SHORT_YEAR))
+                        date = date + " " + LocalDate.now().getYear();
+                    return Optional.of(LocalDate.parse(date, formatter));
+                } catch (DateTimeParseException ignore) {}
+            }
+            return Optional.empty();
+        }
+
+        private int getOffsetIfAdverbTimeExist(String date) {
+            record DayAndOffset(String name, int offset) {}
+            List<DayAndOffset> daysWithOffset = List.of(new DayAndOffset("сегодня", 0), new DayAndOffset("вчера", -1));
+            for(DayAndOffset dayAndOffset: daysWithOffset) {
+                if(date.contains(dayAndOffset.name()))
+                    return dayAndOffset.offset();
+            }
+            return 1;
+        }
+
+        private static DateTimeFormatter[] getDateTimeFormatters() {
+            return new DateTimeFormatter[] {
+                    DateTimeFormatter.ofPattern("dd MMMM yyyy", Locale.forLanguageTag("ru")),
+                    DateTimeFormatter.ofPattern("d MMMM yyyy", Locale.forLanguageTag("ru")),
+                    DateTimeFormatter.ofPattern("dd MMMM yy", Locale.forLanguageTag("ru")),
+                    DateTimeFormatter.ofPattern("d MMMM yy", Locale.forLanguageTag("ru")),
+                    DateTimeFormatter.ofPattern("d MM yyyy"),
+                    DateTimeFormatter.ofPattern("d MM yy"),
+                    DateTimeFormatter.ofPattern("dd MM yy"),
+                    DateTimeFormatter.ofPattern("dd MM yyyy"),
+                    DateTimeFormatter.ofPattern("dd.MM.yyyy"),
+                    DateTimeFormatter.ofPattern("dd.MM.yy"),
+            };
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.crawler.web_crawler.fetch;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BoundedBodySubscriberTest {
+
+    @Test
+    void onNext_whenLimitExceeded_shouldCancelDownloadAndReturnTruncatedBody() {
+        // Given
+        Flow.Subscription subscription = mock(Flow.Subscription.class);
+        BoundedBodySubscriber underTest = new BoundedBodySubscriber(5);
+        underTest.onSubscribe(subscription);
+
+        // When
+        underTest.onNext(List.of(ByteBuffer.wrap("abc".getBytes())));
+        underTest.onNext(List.of(ByteBuffer.wrap("defgh".getBytes())));
+
+        // Then
+        BoundedBodySubscriber.BoundedBody body = underTest.getBody().toCompletableFuture().join();
+        assertEquals("abcde", new String(body.bytes()));
+        assertTrue(body.truncated());
+        verify(subscription).cancel();
+    }
+
+    @Test
+    void onComplete_whenBodyFitsLimit_shouldReturnWholeBody() {
+        // Given
+        Flow.Subscription subscription = mock(Flow.Subscription.class);
+        BoundedBodySubscriber underTest = new BoundedBodySubscriber(5);
+        underTest.onSubscribe(subscription);
+
+        // When
+        underTest.onNext(List.of(ByteBuffer.wrap("abcde".getBytes())));
+        underTest.onComplete();
+
+        // Then
+        BoundedBodySubscriber.BoundedBody body = underTest.getBody().toCompletableFuture().join();
+        assertEquals("abcde", new String(body.bytes()));
+        assertFalse(body.truncated());
+        verify(subscription, never()).cancel();
+    }
+}
@@ -0,0 +1,68 @@
+package com.crawler.web_crawler.fetch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConnectionWarmerTest {
+    @Mock
+    private PageFetcher pageFetcher;
+
+    private ConnectionWarmer underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ConnectionWarmer(pageFetcher, true, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void warmUp_whenUrlHasNoHost_shouldSkipIt() {
+        // When
+        underTest.warmUp(null).join();
+        underTest.warmUp("/news").join();
+        underTest.warmUp("not a url").join();
+        underTest.warmUp("file:///etc/hosts").join();
+
+        // Then
+        verifyNoInteractions(pageFetcher);
+    }
+
+    @Test
+    void warmUp_whenHostResolved_shouldSendRequestThroughPageFetcher() {
+        // Given
+        when(pageFetcher.warmUp("http://localhost/news")).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        underTest.warmUp("http://localhost/news").join();
+
+        // Then
+        verify(pageFetcher).warmUp("http://localhost/news");
+    }
+
+    @Test
+    void warmUp_whenRequestFails_shouldCompleteNormally() {
+        // Given
+        when(pageFetcher.warmUp(any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("refused")));
+
+        // When
+        underTest.warmUp("http://localhost/news").join();
+
+        // Then
+        verify(pageFetcher).warmUp("http://localhost/news");
+    }
+}
@@ -0,0 +1,168 @@
+package com.crawler.web_crawler.fetch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HostCircuitBreakerTest {
+    private static final String HOST = "host.com";
+
+    private MutableClock clock;
+    private HostCircuitBreaker underTest;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        underTest = new HostCircuitBreaker(3, Duration.ofSeconds(10), Duration.ofSeconds(60), clock);
+    }
+
+    @Test
+    void tryAcquire_whenFailuresBelowThreshold_shouldStayClosed() {
+        // Given
+        underTest.recordFailure(HOST);
+        underTest.recordFailure(HOST);
+
+        // When
+        boolean acquired = underTest.tryAcquire(HOST);
+
+        // Then
+        assertTrue(acquired);
+        assertEquals(HostCircuitBreaker.State.CLOSED, state().state());
+        assertEquals(2, state().consecutiveFailures());
+    }
+
+    @Test
+    void tryAcquire_whenThresholdReached_shouldRejectUntilBackoffPasses() {
+        // Given
+        failTimes(3);
+
+        // When
+        boolean acquired = underTest.tryAcquire(HOST);
+
+        // Then
+        assertFalse(acquired);
+        assertEquals(HostCircuitBreaker.State.OPEN, state().state());
+        assertThat(state().openUntil()).isBetween(clock.instant().plusSeconds(5), clock.instant().plusSeconds(10));
+    }
+
+    @Test
+    void tryAcquire_whenBackoffPassed_shouldLetSingleProbeThrough() {
+        // Given
+        failTimes(3);
+        clock.advance(Duration.ofSeconds(10));
+
+        // When
+        boolean probe = underTest.tryAcquire(HOST);
+        boolean concurrent = underTest.tryAcquire(HOST);
+
+        // Then
+        assertTrue(probe);
+        assertFalse(concurrent);
+        assertEquals(HostCircuitBreaker.State.HALF_OPEN, state().state());
+    }
+
+    @Test
+    void recordSuccess_whenProbeSucceeds_shouldCloseCircuit() {
+        // Given
+        failTimes(3);
+        clock.advance(Duration.ofSeconds(10));
+        underTest.tryAcquire(HOST);
+
+        // When
+        underTest.recordSuccess(HOST);
+
+        // Then
+        assertTrue(underTest.tryAcquire(HOST));
+        assertEquals(HostCircuitBreaker.State.CLOSED, state().state());
+        assertEquals(0, state().trips());
+    }
+
+    @Test
+    void recordFailure_whenProbeFails_shouldReopenWithLongerBackoff() {
+        // Given
+        failTimes(3);
+        clock.advance(Duration.ofSeconds(10));
+        underTest.tryAcquire(HOST);
+
+        // When
+        underTest.recordFailure(HOST);
+
+        // Then
+        assertEquals(HostCircuitBreaker.State.OPEN, state().state());
+        assertEquals(2, state().trips());
+        assertThat(state().openUntil()).isBetween(clock.instant().plusSeconds(10), clock.instant().plusSeconds(20));
+    }
+
+    @Test
+    void recordFailure_whenBackoffGrows_shouldNotExceedMaxBackoff() {
+        // Given
+        failTimes(3);
+
+        // When
+        for(int i = 0; i < 10; i++) {
+            clock.advance(Duration.ofSeconds(60));
+            underTest.tryAcquire(HOST);
+            underTest.recordFailure(HOST);
+        }
+
+        // Then
+        assertThat(state().openUntil()).isBetween(clock.instant().plusSeconds(30), clock.instant().plusSeconds(60));
+    }
+
+    @Test
+    void releaseProbe_whenProbeCancelled_shouldAllowNextProbe() {
+        // Given
+        failTimes(3);
+        clock.advance(Duration.ofSeconds(10));
+        underTest.tryAcquire(HOST);
+
+        // When
+        underTest.releaseProbe(HOST);
+
+        // Then
+        assertTrue(underTest.tryAcquire(HOST));
+    }
+
+    private void failTimes(int times) {
+        for(int i = 0; i < times; i++)
+            underTest.recordFailure(HOST);
+    }
+
+    private HostCircuitBreaker.CircuitBreakerState state() {
+        return underTest.getStates().get(0);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.crawler.web_crawler.fetch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HostRateLimiterTest {
+    private HostRateLimiter underTest;
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void acquire_whenMaxInFlightReached_shouldQueueUntilRelease() throws Exception {
+        // Given
+        underTest = new HostRateLimiter(2, 1000, 10, Duration.ofSeconds(5));
+
+        // When
+        HostRateLimiter.Permit first = underTest.acquire("host.com").get(1, TimeUnit.SECONDS);
+        underTest.acquire("host.com").get(1, TimeUnit.SECONDS);
+        CompletableFuture<HostRateLimiter.Permit> third = underTest.acquire("host.com");
+
+        // Then
+        assertFalse(third.isDone());
+        assertEquals(1, underTest.getStates().get(0).queued());
+
+        first.release();
+        assertNotNull(third.get(1, TimeUnit.SECONDS));
+        assertEquals(2, underTest.getStates().get(0).inFlight());
+    }
+
+    @Test
+    void acquire_whenDifferentHosts_shouldNotShareLimits() throws Exception {
+        // Given
+        underTest = new HostRateLimiter(1, 1000, 10, Duration.ofSeconds(5));
+
+        // When
+        underTest.acquire("first.com").get(1, TimeUnit.SECONDS);
+        CompletableFuture<HostRateLimiter.Permit> second = underTest.acquire("second.com");
+
+        // Then
+        assertNotNull(second.get(1, TimeUnit.SECONDS));
+        assertThat(underTest.getStates()).extracting(HostRateLimiter.HostLimiterState::host)
+                .containsExactly("first.com", "second.com");
+    }
+
+    @Test
+    void acquire_whenTokensExhausted_shouldPaceRequestsInArrivalOrder() throws Exception {
+        // Given
+        underTest = new HostRateLimiter(10, 20, 1, Duration.ofSeconds(5));
+        List<Integer> order = new ArrayList<>();
+
+        // When
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for(int i = 0; i < 3; i++) {
+            int index = i;
+            futures.add(underTest.acquire("host.com").thenAccept(permit -> {
+                synchronized(order) {
+                    order.add(index);
+                }
+                permit.release();
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(2, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertThat(order).containsExactly(0, 1, 2);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(90); // two refills at 20 req/s
+        assertThat(underTest.getStates().get(0).maxWaitMillis()).isGreaterThan(0);
+    }
+
+    @Test
+    void acquire_whenQueuedTooLong_shouldFailAndFreeQueue() throws Exception {
+        // Given
+        underTest = new HostRateLimiter(1, 1000, 10, Duration.ofMillis(50));
+        HostRateLimiter.Permit permit = underTest.acquire("host.com").get(1, TimeUnit.SECONDS);
+
+        // When
+        CompletableFuture<HostRateLimiter.Permit> waiting = underTest.acquire("host.com");
+
+        // Then
+        Exception exception = assertThrows(Exception.class, () -> waiting.get(1, TimeUnit.SECONDS));
+        assertThat(exception).hasCauseInstanceOf(TimeoutException.class);
+
+        permit.release();
+        assertNotNull(underTest.acquire("host.com").get(1, TimeUnit.SECONDS));
+    }
+}
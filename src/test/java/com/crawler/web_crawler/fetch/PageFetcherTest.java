@@ -0,0 +1,340 @@
+package com.crawler.web_crawler.fetch;
+
+import com.crawler.web_crawler.exception.JsoupException.CircuitOpenException;
+import com.crawler.web_crawler.exception.JsoupException.RobotsDisallowedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PageFetcherTest {
+    private HttpClient httpClient;
+    private HostRateLimiter hostRateLimiter;
+    private HostCircuitBreaker hostCircuitBreaker;
+    private PageFetcher underTest;
+
+    @BeforeEach
+    void setUp() {
+        httpClient = mock(HttpClient.class);
+        hostRateLimiter = new HostRateLimiter(2, 100, 10, Duration.ofSeconds(5));
+        hostCircuitBreaker = new HostCircuitBreaker(2, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        underTest = new PageFetcher(httpClient, hostRateLimiter, hostCircuitBreaker, robotsPolicyCache(false), DataSize.ofKilobytes(64));
+    }
+
+    @AfterEach
+    void tearDown() {
+        hostRateLimiter.shutdown();
+    }
+
+    @Test
+    void fetch_whenResponseReceived_shouldReturnBodyAndSendCrawlerHeaders() {
+        // Given
+        String url = "https://source.com/news";
+        stubResponse(200, "<html></html>".getBytes(), Map.of("Content-Type", List.of("text/html; charset=windows-1251")));
+
+        // When
+        PageResponse page = underTest.fetch(url).join();
+
+        // Then
+        assertEquals(200, page.statusCode());
+        assertEquals("<html></html>", new String(page.body()));
+        assertEquals("windows-1251", page.charset());
+        assertFalse(page.truncated());
+
+        HttpRequest request = capturedRequest();
+        assertEquals(url, request.uri().toString());
+        assertThat(request.timeout()).contains(PageFetcher.TIMEOUT);
+        assertThat(request.headers().firstValue("User-Agent")).contains(PageFetcher.USER_AGENT);
+        assertThat(request.headers().firstValue("Referer")).contains(PageFetcher.REFERRER);
+        assertThat(request.headers().firstValue("Accept-Encoding")).contains("gzip, deflate");
+        assertThat(request.headers().firstValue("If-None-Match")).isEmpty();
+
+        HostRateLimiter.HostLimiterState state = hostRateLimiter.getStates().get(0);
+        assertEquals("source.com", state.host());
+        assertEquals(1, state.acquired());
+        assertEquals(0, state.inFlight());
+    }
+
+    @Test
+    void fetch_whenValidatorsKnown_shouldSendConditionalRequest() {
+        // Given
+        String url = "https://source.com/news";
+        stubResponse(304, new byte[0], Map.of());
+
+        // When
+        PageResponse page = underTest.fetch(url, new PageValidators("\"abc\"", "Wed, 01 Jan 2025 00:00:00 GMT")).join();
+
+        // Then
+        assertTrue(page.isNotModified());
+
+        HttpRequest request = capturedRequest();
+        assertThat(request.headers().firstValue("If-None-Match")).contains("\"abc\"");
+        assertThat(request.headers().firstValue("If-Modified-Since")).contains("Wed, 01 Jan 2025 00:00:00 GMT");
+    }
+
+    @Test
+    void fetch_whenBodyIsGzipped_shouldDecodeIt() throws Exception {
+        // Given
+        String html = "<html><body>" + "<p>news</p>".repeat(100) + "</body></html>";
+        stubResponse(200, gzip(html), Map.of("Content-Encoding", List.of("gzip")));
+
+        // When
+        PageResponse page = underTest.fetch("https://source.com/news").join();
+
+        // Then
+        assertEquals(html, new String(page.body(), StandardCharsets.UTF_8));
+        assertFalse(page.truncated());
+    }
+
+    @Test
+    void fetch_whenDecodedBodyExceedsSourceLimit_shouldTruncateIt() throws Exception {
+        // Given
+        String html = "<p>news</p>".repeat(1_000);
+        stubResponse(200, gzip(html), Map.of("Content-Encoding", List.of("gzip")));
+
+        // When
+        PageResponse page = underTest.fetch("https://source.com/news", PageValidators.none(), 100).join();
+
+        // Then
+        assertEquals(100, page.body().length);
+        assertTrue(page.truncated());
+    }
+
+    @Test
+    void fetch_whenUrlIsMalformed_shouldReturnFailedFuture() {
+        // When
+        CompletableFuture<PageResponse> future = underTest.fetch("not a url");
+
+        // Then
+        assertTrue(future.isCompletedExceptionally());
+        verifyNoInteractions(httpClient);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fetch_whenHostKeepsFailing_shouldOpenCircuitAndFailFast() {
+        // Given
+        String url = "https://source.com/news";
+        stubResponse(503, new byte[0], Map.of());
+        underTest.fetch(url).join();
+        underTest.fetch(url).join();
+
+        // When
+        CompletableFuture<PageResponse> future = underTest.fetch(url);
+
+        // Then
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(CircuitOpenException.class, exception.getCause());
+        verify(httpClient, times(2)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        assertEquals(HostCircuitBreaker.State.OPEN, hostCircuitBreaker.getStates().get(0).state());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fetch_whenClientErrorReceived_shouldNotCountAsHostFailure() {
+        // Given
+        String url = "https://source.com/missing";
+        stubResponse(404, new byte[0], Map.of());
+
+        // When
+        underTest.fetch(url).join();
+        underTest.fetch(url).join();
+        underTest.fetch(url).join();
+
+        // Then
+        verify(httpClient, times(3)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        assertThat(hostCircuitBreaker.getStates()).extracting(HostCircuitBreaker.CircuitBreakerState::state)
+                .containsExactly(HostCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void fetch_whenPathDisallowedByRobots_shouldFailWithoutRequestingPage() {
+        // Given
+        underTest = new PageFetcher(httpClient, hostRateLimiter, hostCircuitBreaker, robotsPolicyCache(true), DataSize.ofKilobytes(64));
+        stubResponse(200, "User-agent: *\nDisallow: /private/".getBytes(), Map.of());
+
+        // When
+        CompletableFuture<PageResponse> future = underTest.fetch("https://source.com/private/news");
+
+        // Then
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(RobotsDisallowedException.class, exception.getCause());
+        assertEquals("https://source.com/robots.txt", capturedRequest().uri().toString());
+    }
+
+    @Test
+    void fetch_whenRedirected_shouldReturnFinalUrl() {
+        // Given
+        stubResponse("https://www.source.com/news/", 200, "<html></html>".getBytes(), Map.of());
+
+        // When
+        PageResponse page = underTest.fetch("https://source.com/news").join();
+
+        // Then
+        assertEquals("https://www.source.com/news/", page.url());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fetch_whenCancelled_shouldCancelRequestInFlight() {
+        // Given
+        CompletableFuture<HttpResponse<BoundedBodySubscriber.BoundedBody>> exchange = new CompletableFuture<>();
+        doReturn(exchange).when(httpClient).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        CompletableFuture<PageResponse> future = underTest.fetch("https://source.com/news");
+
+        // When
+        future.cancel(true);
+
+        // Then
+        assertTrue(exchange.isCancelled());
+        assertEquals(0, hostRateLimiter.getStates().get(0).inFlight());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fetch_whenCancelledRepeatedly_shouldNotCountAsHostFailure() {
+        // Given
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> new CompletableFuture<>());
+
+        // When
+        for(int i = 0; i < 3; i++)
+            underTest.fetch("https://source.com/news").cancel(true);
+
+        // Then
+        verify(httpClient, times(3)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        assertThat(hostCircuitBreaker.getStates()).extracting(HostCircuitBreaker.CircuitBreakerState::state)
+                .containsExactly(HostCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fetch_whenRateLimiterQueueTimesOut_shouldNotCountAsHostFailure() {
+        // Given
+        hostRateLimiter.shutdown();
+        hostRateLimiter = new HostRateLimiter(1, 100, 10, Duration.ofMillis(50));
+        underTest = new PageFetcher(httpClient, hostRateLimiter, hostCircuitBreaker, robotsPolicyCache(false), DataSize.ofKilobytes(64));
+        when(httpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+                .thenAnswer(invocation -> new CompletableFuture<>()); // Holds the only permit
+        underTest.fetch("https://source.com/news");
+
+        // When
+        for(int i = 0; i < 3; i++) {
+            CompletionException exception = assertThrows(CompletionException.class, underTest.fetch("https://source.com/news")::join);
+            assertInstanceOf(TimeoutException.class, exception.getCause());
+        }
+
+        // Then
+        verify(httpClient, times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        HostCircuitBreaker.CircuitBreakerState state = hostCircuitBreaker.getStates().get(0);
+        assertEquals(HostCircuitBreaker.State.CLOSED, state.state());
+        assertEquals(0, state.consecutiveFailures());
+    }
+
+    @Test
+    void warmUp_whenAllowed_shouldSendHeadRequestThroughRateLimiter() {
+        // Given
+        stubResponse(200, new byte[0], Map.of());
+
+        // When
+        underTest.warmUp("https://source.com/news").join();
+
+        // Then
+        HttpRequest request = capturedRequest();
+        assertEquals("HEAD", request.method());
+        assertThat(request.headers().firstValue("User-Agent")).contains(PageFetcher.USER_AGENT);
+        assertEquals(1, hostRateLimiter.getStates().get(0).acquired());
+    }
+
+    @Test
+    void warmUp_whenPathDisallowedByRobots_shouldNotRequestPage() {
+        // Given
+        underTest = new PageFetcher(httpClient, hostRateLimiter, hostCircuitBreaker, robotsPolicyCache(true), DataSize.ofKilobytes(64));
+        stubResponse(200, "User-agent: *\nDisallow: /private/".getBytes(), Map.of());
+
+        // When
+        CompletableFuture<Void> future = underTest.warmUp("https://source.com/private/news");
+
+        // Then
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(RobotsDisallowedException.class, exception.getCause());
+        assertEquals("https://source.com/robots.txt", capturedRequest().uri().toString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void warmUp_whenCircuitOpen_shouldNotRequestPage() {
+        // Given
+        stubResponse(503, new byte[0], Map.of());
+        underTest.fetch("https://source.com/news").join();
+        underTest.fetch("https://source.com/news").join();
+
+        // When
+        CompletableFuture<Void> future = underTest.warmUp("https://source.com/news");
+
+        // Then
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(CircuitOpenException.class, exception.getCause());
+        verify(httpClient, times(2)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    private RobotsPolicyCache robotsPolicyCache(boolean enabled) {
+        return new RobotsPolicyCache(httpClient, hostRateLimiter, enabled, Duration.ofHours(1), Duration.ofMinutes(5),
+                10, Duration.ofSeconds(30), "web-crawler", Clock.systemUTC());
+    }
+
+    private void stubResponse(int statusCode, byte[] body, Map<String, List<String>> headers) {
+        stubResponse(null, statusCode, body, headers);
+    }
+
+    // Without a redirect target the response comes from the requested uri
+    @SuppressWarnings("unchecked")
+    private void stubResponse(String redirectedTo, int statusCode, byte[] body, Map<String, List<String>> headers) {
+        doAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            HttpResponse<BoundedBodySubscriber.BoundedBody> response = mock(HttpResponse.class);
+            when(response.uri()).thenReturn(redirectedTo != null ? URI.create(redirectedTo) : request.uri());
+            when(response.statusCode()).thenReturn(statusCode);
+            when(response.body()).thenReturn(new BoundedBodySubscriber.BoundedBody(body, false));
+            when(response.headers()).thenReturn(HttpHeaders.of(headers, (name, value) -> true));
+            return CompletableFuture.completedFuture(response);
+        }).when(httpClient).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpRequest capturedRequest() {
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).sendAsync(requestCaptor.capture(), any(HttpResponse.BodyHandler.class));
+        return requestCaptor.getValue();
+    }
+
+    private byte[] gzip(String text) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try(GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return output.toByteArray();
+    }
+}
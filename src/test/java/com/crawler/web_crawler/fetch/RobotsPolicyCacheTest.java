@@ -0,0 +1,188 @@
+package com.crawler.web_crawler.fetch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RobotsPolicyCacheTest {
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    private HttpClient httpClient;
+    private HostRateLimiter hostRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        httpClient = mock(HttpClient.class);
+        hostRateLimiter = new HostRateLimiter(2, 10, 10, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        hostRateLimiter.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void isAllowed_whenPolicyCached_shouldNotRequestRobotsAgain() {
+        // Given
+        RobotsPolicyCache underTest = cache(Clock.fixed(NOW, ZoneOffset.UTC), 10);
+        stubResponse(200, "User-agent: *\nDisallow: /private", Map.of());
+
+        // When
+        boolean news = underTest.isAllowed(URI.create("https://host.com/news")).join();
+        boolean privatePage = underTest.isAllowed(URI.create("https://host.com/private/1")).join();
+
+        // Then
+        assertTrue(news);
+        assertFalse(privatePage);
+        verify(httpClient, times(1)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void isAllowed_whenPolicyExpired_shouldRevalidateConditionally() {
+        // Given
+        Clock[] clock = {Clock.fixed(NOW, ZoneOffset.UTC)};
+        RobotsPolicyCache underTest = cache(new DelegatingClock(clock), 10);
+        stubResponse(200, "User-agent: *\nDisallow: /private", Map.of("ETag", List.of("\"v1\"")));
+        underTest.isAllowed(URI.create("https://host.com/news")).join();
+
+        clock[0] = Clock.fixed(NOW.plus(Duration.ofHours(2)), ZoneOffset.UTC);
+        stubResponse(304, "", Map.of());
+
+        // When
+        boolean privatePage = underTest.isAllowed(URI.create("https://host.com/private/1")).join();
+
+        // Then
+        assertFalse(privatePage);
+        List<HttpRequest> requests = capturedRequests(2);
+        assertThat(requests.get(1).headers().firstValue("If-None-Match")).contains("\"v1\"");
+    }
+
+    @Test
+    void isAllowed_whenRobotsMissingOrFailing_shouldAllow() {
+        // Given
+        RobotsPolicyCache underTest = cache(Clock.fixed(NOW, ZoneOffset.UTC), 10);
+        stubResponse(404, "", Map.of());
+
+        // When
+        boolean allowed = underTest.isAllowed(URI.create("https://host.com/private")).join();
+
+        // Then
+        assertTrue(allowed);
+    }
+
+    @Test
+    void isAllowed_whenCrawlDelaySet_shouldSlowDownHost() {
+        // Given
+        RobotsPolicyCache underTest = cache(Clock.fixed(NOW, ZoneOffset.UTC), 10);
+        stubResponse(200, "User-agent: *\nCrawl-delay: 4", Map.of());
+
+        // When
+        underTest.isAllowed(URI.create("https://host.com/news")).join();
+
+        // Then
+        HostRateLimiter.HostLimiterState state = hostRateLimiter.getStates().get(0);
+        assertEquals("host.com", state.host());
+        assertEquals(0.25, state.requestsPerSecond(), 0.0001);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void isAllowed_whenTooManyHosts_shouldEvictLeastRecentlyUsed() {
+        // Given
+        RobotsPolicyCache underTest = cache(Clock.fixed(NOW, ZoneOffset.UTC), 2);
+        stubResponse(404, "", Map.of());
+
+        // When
+        underTest.isAllowed(URI.create("https://first.com/")).join();
+        underTest.isAllowed(URI.create("https://second.com/")).join();
+        underTest.isAllowed(URI.create("https://first.com/")).join();
+        underTest.isAllowed(URI.create("https://third.com/")).join();
+        underTest.isAllowed(URI.create("https://first.com/")).join();
+
+        // Then
+        assertEquals(2, underTest.size());
+        verify(httpClient, times(3)).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    void isAllowed_whenGroupNamesCrawler_shouldRequestRobotsAsThatCrawler() {
+        // Given
+        RobotsPolicyCache underTest = cache(Clock.fixed(NOW, ZoneOffset.UTC), 10);
+        stubResponse(200, "User-agent: *\nDisallow: /\n\nUser-agent: " + PageFetcher.AGENT_TOKEN + "\nDisallow: /private", Map.of());
+
+        // When
+        boolean news = underTest.isAllowed(URI.create("https://host.com/news")).join();
+
+        // Then
+        assertTrue(news);
+        assertThat(capturedRequests(1).get(0).headers().firstValue("User-Agent").orElseThrow())
+                .contains(PageFetcher.AGENT_TOKEN)
+                .isEqualTo(PageFetcher.USER_AGENT);
+    }
+
+    private RobotsPolicyCache cache(Clock clock, int maxHosts) {
+        return new RobotsPolicyCache(httpClient, hostRateLimiter, true, Duration.ofHours(1), Duration.ofMinutes(5),
+                maxHosts, Duration.ofSeconds(30), PageFetcher.AGENT_TOKEN, clock);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubResponse(int statusCode, String body, Map<String, List<String>> headers) {
+        HttpResponse<BoundedBodySubscriber.BoundedBody> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(statusCode);
+        when(response.body()).thenReturn(new BoundedBodySubscriber.BoundedBody(body.getBytes(), false));
+        when(response.headers()).thenReturn(HttpHeaders.of(headers, (name, value) -> true));
+
+        doReturn(CompletableFuture.completedFuture(response))
+                .when(httpClient).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<HttpRequest> capturedRequests(int times) {
+        ArgumentCaptor<HttpRequest> requestCaptor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient, times(times)).sendAsync(requestCaptor.capture(), any(HttpResponse.BodyHandler.class));
+        return requestCaptor.getAllValues();
+    }
+
+    private static class DelegatingClock extends Clock {
+        private final Clock[] clock;
+
+        private DelegatingClock(Clock[] clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return clock[0].instant();
+        }
+    }
+}
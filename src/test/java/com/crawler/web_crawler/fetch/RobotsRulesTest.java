@@ -0,0 +1,122 @@
+package com.crawler.web_crawler.fetch;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RobotsRulesTest {
+    private static final String AGENT = "web-crawler";
+
+    @Test
+    void isAllowed_whenPrefixDisallowed_shouldRejectMatchingPaths() {
+        // Given
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: *
+                Disallow: /private/
+                Disallow: /tmp
+                """, AGENT);
+
+        // Then
+        assertFalse(rules.isAllowed("/private/news"));
+        assertFalse(rules.isAllowed("/tmp.html"));
+        assertTrue(rules.isAllowed("/news"));
+        assertTrue(rules.isAllowed("/robots.txt"));
+    }
+
+    @Test
+    void isAllowed_whenAllowIsMoreSpecific_shouldPreferLongestMatch() {
+        // Given
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: *
+                Disallow: /news/
+                Allow: /news/public/
+                Disallow: /news/public/drafts
+                """, AGENT);
+
+        // Then
+        assertFalse(rules.isAllowed("/news/1"));
+        assertTrue(rules.isAllowed("/news/public/1"));
+        assertFalse(rules.isAllowed("/news/public/drafts/1"));
+    }
+
+    @Test
+    void isAllowed_whenAllowAndDisallowEquallyLong_shouldAllow() {
+        // Given
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: *
+                Disallow: /page
+                Allow: /page
+                """, AGENT);
+
+        // Then
+        assertTrue(rules.isAllowed("/page/1"));
+    }
+
+    @Test
+    void isAllowed_whenWildcardRules_shouldMatchPatterns() {
+        // Given
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: *
+                Disallow: /*?print=
+                Disallow: /*.pdf$
+                Allow: /docs/*.pdf$
+                """, AGENT);
+
+        // Then
+        assertFalse(rules.isAllowed("/news/1?print=1"));
+        assertFalse(rules.isAllowed("/files/report.pdf"));
+        assertTrue(rules.isAllowed("/files/report.pdf?download"));
+        assertTrue(rules.isAllowed("/docs/manual.pdf"));
+        assertTrue(rules.isAllowed("/news/1"));
+    }
+
+    @Test
+    void parse_whenGroupForOurAgent_shouldIgnoreDefaultGroup() {
+        // Given
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: *
+                Disallow: /
+
+                User-agent: other-bot
+                User-agent: Web-Crawler
+                Disallow: /private
+                Crawl-delay: 2.5
+                """, AGENT);
+
+        // Then
+        assertTrue(rules.isAllowed("/news"));
+        assertFalse(rules.isAllowed("/private"));
+        assertEquals(Duration.ofMillis(2500), rules.getCrawlDelay());
+    }
+
+    @Test
+    void parse_whenEmptyDisallow_shouldAllowEverything() {
+        // Given
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: *
+                Disallow:
+                """, AGENT);
+
+        // Then
+        assertSame(RobotsRules.allowAll(), rules);
+        assertNull(rules.getCrawlDelay());
+    }
+
+    @Test
+    void parse_whenGroupForOurAgentHasOnlyEmptyDisallow_shouldIgnoreDefaultGroup() {
+        // Given
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: web-crawler
+                Disallow:
+
+                User-agent: *
+                Disallow: /
+                """, AGENT);
+
+        // Then
+        assertTrue(rules.isAllowed("/news"));
+        assertSame(RobotsRules.allowAll(), rules);
+    }
+}
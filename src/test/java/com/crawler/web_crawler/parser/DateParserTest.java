@@ -1,5 +1,8 @@
 package com.crawler.web_crawler.parser;
 
+import com.crawler.web_crawler.model.entity.DateFormatFamily;
+import com.crawler.web_crawler.model.entity.Language;
+import com.crawler.web_crawler.model.entity.Source;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -8,6 +11,7 @@ import org.mockito.InjectMocks;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Optional;
@@ -121,5 +125,140 @@ class DateParserTest {
         assertThat(actualOptionalIsEmpty2).isEmpty();
     }
 
+    @Test
+    void toLocalDateFromString_whenTwoDigitDayWithoutYear_shouldAddCurrentYear() {
+        // Given
+        String date = "15 Января, 13:41:05";
+
+        // When
+        Optional<LocalDate> actual = underTest.toLocalDateFromString(date);
+
+        // Then
+        assertEquals(Optional.of(LocalDate.of(LocalDate.now().getYear(), 1, 15)), actual);
+    }
+
+    @Test
+    void toLocalDateFromString_whenDateHasExtraOrInvalidParts_shouldReturnEmpty() {
+        // Given
+        String trailingWord = "15 января 2025 г.";
+        String invalidMonth = "15.13.2025";
+        String invalidTime = "15 января 2025 135:41";
+        String numericWithoutYear = "15.01";
+
+        // When
+        Optional<LocalDate> actual = underTest.toLocalDateFromString(trailingWord);
+        Optional<LocalDate> actual2 = underTest.toLocalDateFromString(invalidMonth);
+        Optional<LocalDate> actual3 = underTest.toLocalDateFromString(invalidTime);
+        Optional<LocalDate> actual4 = underTest.toLocalDateFromString(numericWithoutYear);
+
+        // Then
+        assertThat(actual).isEmpty();
+        assertThat(actual2).isEmpty();
+        assertThat(actual3).isEmpty();
+        assertThat(actual4).isEmpty();
+    }
+
+    @Test
+    void toLocalDateFromString_whenDayIsPastEndOfMonth_shouldUseLastDay() {
+        // When
+        Optional<LocalDate> actual = underTest.toLocalDateFromString("31.04.2025");
+
+        // Then
+        assertEquals(Optional.of(LocalDate.of(2025, 4, 30)), actual);
+    }
+
+    @Test
+    void toLocalDateFromString_withSource_shouldLearnDateFormat() {
+        // Given
+        Source source = new Source();
+
+        // When
+        Optional<LocalDate> actual = underTest.toLocalDateFromString(source, "сегодня, 15:31");
+        Optional<LocalDate> actual2 = underTest.toLocalDateFromString(source, "15.01.2025, 13:41");
+
+        // Then
+        assertEquals(Optional.of(LocalDate.now()), actual);
+        assertEquals(Optional.of(LocalDate.of(2025, 1, 15)), actual2);
+        assertThat(source.getDateFormat()).isEqualTo(DateFormatFamily.DAY_MONTH_DOTTED);
+    }
+
+    @Test
+    void toLocalDateFromString_whenLearnedDateFormatDoesntMatch_shouldFallBackAndLearnNewOne() {
+        // Given
+        Source source = new Source();
+        source.setDateFormat(DateFormatFamily.DAY_MONTH_DOTTED);
+
+        // When
+        Optional<LocalDate> actual = underTest.toLocalDateFromString(source, " 15.01.25 ");
+        Optional<LocalDate> actual2 = underTest.toLocalDateFromString(source, "8 апреля 2025");
+        Optional<LocalDate> actual3 = underTest.toLocalDateFromString(source, "8 апреля 2025 года");
+
+        // Then
+        assertEquals(Optional.of(LocalDate.of(2025, 1, 15)), actual);
+        assertEquals(Optional.of(LocalDate.of(2025, 4, 8)), actual2);
+        assertThat(actual3).isEmpty();
+        assertThat(source.getDateFormat()).isEqualTo(DateFormatFamily.DAY_MONTH_NAME);
+    }
+
+    @Test
+    void toLocalDateFromString_whenDateIsInOtherLanguage_shouldReturnLocalDate() {
+        // When
+        Optional<LocalDate> english = underTest.toLocalDateFromString("January 15th, 2025 13:41");
+        Optional<LocalDate> english2 = underTest.toLocalDateFromString("8 Apr 25");
+        Optional<LocalDate> ukrainian = underTest.toLocalDateFromString("15 січня 2025");
+        Optional<LocalDate> polish = underTest.toLocalDateFromString("15 października 2025");
+        Optional<LocalDate> german = underTest.toLocalDateFromString("15. März 2025");
+
+        // Then
+        assertEquals(Optional.of(LocalDate.of(2025, 1, 15)), english);
+        assertEquals(Optional.of(LocalDate.of(2025, 4, 8)), english2);
+        assertEquals(Optional.of(LocalDate.of(2025, 1, 15)), ukrainian);
+        assertEquals(Optional.of(LocalDate.of(2025, 10, 15)), polish);
+        assertEquals(Optional.of(LocalDate.of(2025, 3, 15)), german);
+    }
+
+    @Test
+    void toLocalDateFromString_whenDateIsRelative_shouldCountBackFromNow() {
+        // When
+        Optional<LocalDate> minutes = underTest.toLocalDateFromString("5 минут назад");
+        Optional<LocalDate> days = underTest.toLocalDateFromString("3 days ago");
+        Optional<LocalDate> weeks = underTest.toLocalDateFromString("2 tygodnie temu");
+        Optional<LocalDate> oneDay = underTest.toLocalDateFromString("vor einem Tag");
+        Optional<LocalDate> yesterday = underTest.toLocalDateFromString("Gestern, 10:15");
+        Optional<LocalDate> withoutAgo = underTest.toLocalDateFromString("5 минут");
+
+        // Then
+        assertThat(minutes.orElseThrow()).isBetween(LocalDate.now().minusDays(1), LocalDate.now());
+        assertEquals(Optional.of(LocalDate.now().minusDays(3)), days);
+        assertEquals(Optional.of(LocalDate.now().minusWeeks(2)), weeks);
+        assertEquals(Optional.of(LocalDate.now().minusDays(1)), oneDay);
+        assertEquals(Optional.of(LocalDate.now().minusDays(1)), yesterday);
+        assertThat(withoutAgo).isEmpty();
+    }
+
+    @Test
+    void toLocalDateFromString_whenOnlyWeekday_shouldReturnItsLastOccurrence() {
+        // When
+        Optional<LocalDate> actual = underTest.toLocalDateFromString("Montag, 09:30");
+
+        // Then
+        assertThat(actual.orElseThrow().getDayOfWeek()).isEqualTo(DayOfWeek.MONDAY);
+        assertThat(actual.orElseThrow()).isBetween(LocalDate.now().minusDays(6), LocalDate.now());
+    }
+
+    @Test
+    void toLocalDateFromString_whenSourceHasLanguage_shouldAcceptOnlyItsWords() {
+        // Given
+        Source source = new Source();
+        source.setLanguage(Language.DE);
+
+        // When
+        Optional<LocalDate> actual = underTest.toLocalDateFromString(source, "15 Mai 2025");
+        Optional<LocalDate> actual2 = underTest.toLocalDateFromString(source, "15 мая 2025");
+
+        // Then
+        assertEquals(Optional.of(LocalDate.of(2025, 5, 15)), actual);
+        assertThat(actual2).isEmpty();
+    }
 
-}
\ No newline at end of file
+}
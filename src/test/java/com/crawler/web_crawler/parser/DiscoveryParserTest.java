@@ -0,0 +1,213 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.archive.PageArchive;
+import com.crawler.web_crawler.exception.JsoupException.JsoupParseException;
+import com.crawler.web_crawler.fetch.PageResponse;
+import com.crawler.web_crawler.fetch.PageValidators;
+import com.crawler.web_crawler.model.entity.NewsArticle;
+import com.crawler.web_crawler.model.entity.ParserType;
+import com.crawler.web_crawler.model.entity.Source;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DiscoveryParserTest {
+    private static final String START_URL = "https://source.com/";
+    private static final Instant NOW = Instant.parse("2025-01-15T10:00:00Z");
+
+    @Mock
+    private JsoupClient jsoupClient;
+    @Mock
+    private PageArchive pageArchive;
+    @Mock
+    private JsoupParser jsoupParser;
+
+    private final Clock[] clock = {Clock.fixed(NOW, ZoneOffset.UTC)};
+    private DiscoveryParser underTest;
+    private Source source;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new DiscoveryParser(jsoupClient, pageArchive, jsoupParser, 1.0, new DelegatingClock(clock));
+        source = new Source(1L, START_URL, "0 * * * * *", Map.of(), true);
+        source.getSettings().setArticleUrl("/news/\\d+$");
+        source.getSettings().setDiscoveryConcurrency(2);
+        source.setParserType(ParserType.DISCOVERY);
+    }
+
+    @Test
+    void parse_whenSiteLinksToArticles_shouldFollowLinksOfTheSiteOnce() {
+        // Given
+        stubPage(START_URL, """
+                <a href="/section">Section</a>
+                <a href="https://www.source.com/news/1#comments">News 1</a>
+                <a href="https://other.com/news/3">External</a>
+                <a href="mailto:editor@source.com">Mail</a>
+                """);
+        stubPage("https://source.com/section", """
+                <base href="https://source.com/section/">
+                <a href="../news/1?utm_source=feed">News 1 again</a>
+                <a href="/news/2">News 2</a>
+                """);
+        stubPage("https://www.source.com/news/1", "<a href=\"/\">Home</a>");
+        stubPage("https://source.com/news/2", "<p>News 2</p>");
+        stubArticle("https://www.source.com/news/1", "Title1");
+        stubArticle("https://source.com/news/2", "Title2");
+
+        // When
+        List<NewsArticle> actual = underTest.parse(source);
+
+        // Then
+        assertThat(actual).extracting(NewsArticle::getTitle).containsExactlyInAnyOrder("Title1", "Title2");
+        assertThat(actual).extracting(NewsArticle::getDetailUrl)
+                .containsExactlyInAnyOrder("https://www.source.com/news/1", "https://source.com/news/2");
+        verify(jsoupClient, times(4)).fetchPage(any(), any(PageValidators.class), any());
+        verify(jsoupClient, never()).fetchPage(eq("https://other.com/news/3"), any(PageValidators.class), any());
+        verify(pageArchive, times(2)).append(eq(1L), any(PageResponse.class));
+    }
+
+    @Test
+    void parse_whenDepthAndPageBudgetReached_shouldStop() {
+        // Given
+        source.getSettings().setDiscoveryDepth(1);
+        source.getSettings().setDiscoveryMaxPages(3);
+        stubPage(START_URL, """
+                <a href="/news/1">1</a><a href="/news/2">2</a><a href="/news/3">3</a><a href="/news/4">4</a>
+                """);
+        stubPage("https://source.com/news/1", "<a href=\"/deeper\">Deeper</a>");
+        stubPage("https://source.com/news/2", "<a href=\"/deeper\">Deeper</a>");
+        when(jsoupParser.parsePage(eq(source), any(PageResponse.class))).thenReturn(List.of());
+
+        // When
+        List<NewsArticle> actual = underTest.parse(source);
+
+        // Then
+        assertThat(actual).isEmpty();
+        verify(jsoupClient, times(3)).fetchPage(any(), any(PageValidators.class), any());
+    }
+
+    @Test
+    void parse_whenThousandsOfPagesFailAtOnce_shouldNotGrowTheStack() {
+        // Given
+        source.getSettings().setDiscoveryMaxPages(20_000);
+        StringBuilder links = new StringBuilder();
+        for(int i = 1; i <= 10_000; i++)
+            links.append("<a href=\"/news/").append(i).append("\">").append(i).append("</a>");
+        stubPage(START_URL, links.toString());
+        when(jsoupClient.fetchPage(argThat(url -> url.contains("/news/")), any(PageValidators.class), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Disallowed by robots.txt")));
+
+        // When
+        List<NewsArticle> actual = underTest.parse(source);
+
+        // Then
+        assertThat(actual).isEmpty();
+        verify(jsoupClient, times(10_001)).fetchPage(any(), any(PageValidators.class), any());
+    }
+
+    @Test
+    void parse_whenOnePageCannotBeRead_shouldKeepOtherArticles() {
+        // Given
+        stubPage(START_URL, "<a href=\"/news/1\">1</a><a href=\"/news/2\">2</a>");
+        stubPage("https://source.com/news/1", "<p>News 1</p>");
+        stubPage("https://source.com/news/2", "<p>News 2</p>");
+        when(jsoupParser.parsePage(eq(source), argThat(page -> page != null && page.url().endsWith("/news/1"))))
+                .thenThrow(new IllegalArgumentException("Unsupported charset"));
+        stubArticle("https://source.com/news/2", "Title2");
+
+        // When
+        List<NewsArticle> actual = underTest.parse(source);
+
+        // Then
+        assertThat(actual).extracting(NewsArticle::getTitle).containsExactly("Title2");
+    }
+
+    @Test
+    void parse_whenTimeBudgetSpent_shouldKeepArticlesFoundSoFar() {
+        // Given
+        source.getSettings().setDiscoveryMaxPages(10); // 10 s at 1 request per second
+        source.getSettings().setDiscoveryConcurrency(1);
+        stubPage(START_URL, "<a href=\"/news/1\">1</a><a href=\"/news/2\">2</a><a href=\"/news/3\">3</a>");
+        PageResponse page = new PageResponse("https://source.com/news/1", 200, "<p>News 1</p>".getBytes(StandardCharsets.UTF_8),
+                "text/html; charset=UTF-8", null, null, false);
+        when(jsoupClient.fetchPage(eq("https://source.com/news/1"), any(PageValidators.class), any())).thenAnswer(invocation -> {
+            clock[0] = Clock.fixed(NOW.plusSeconds(11), ZoneOffset.UTC);
+            return CompletableFuture.completedFuture(page);
+        });
+        stubArticle("https://source.com/news/1", "Title1");
+
+        // When
+        List<NewsArticle> actual = underTest.parse(source);
+
+        // Then
+        assertThat(actual).extracting(NewsArticle::getTitle).containsExactly("Title1");
+        verify(jsoupClient, times(2)).fetchPage(any(), any(PageValidators.class), any());
+        assertThat(underTest.timeLimit(source)).isEqualTo(Duration.ofSeconds(10).plus(Parser.PAGE_TIME_LIMIT));
+    }
+
+    @Test
+    void parse_whenArticleUrlPatternMissing_shouldThrowException() {
+        // Given
+        source.getSettings().setArticleUrl(null);
+
+        // When Then
+        assertThrows(JsoupParseException.class, () -> underTest.parse(source));
+        verifyNoInteractions(jsoupClient);
+    }
+
+    private void stubPage(String url, String html) {
+        PageResponse page = new PageResponse(url, 200, html.getBytes(StandardCharsets.UTF_8), "text/html; charset=UTF-8", null, null, false);
+        when(jsoupClient.fetchPage(eq(url), any(PageValidators.class), any())).thenReturn(CompletableFuture.completedFuture(page));
+    }
+
+    private void stubArticle(String url, String title) {
+        NewsArticle article = new NewsArticle();
+        article.setTitle(title);
+        article.setPublishDate(LocalDate.of(2025, 1, 15));
+        article.setSource(source);
+        article.setHash();
+        when(jsoupParser.parsePage(eq(source), argThat(page -> page != null && page.url().equals(url)))).thenReturn(List.of(article));
+    }
+
+    private static class DelegatingClock extends Clock {
+        private final Clock[] clock;
+
+        private DelegatingClock(Clock[] clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return clock[0].instant();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.archive.PageArchive;
+import com.crawler.web_crawler.exception.JsoupException.JsoupParseException;
+import com.crawler.web_crawler.fetch.PageResponse;
+import com.crawler.web_crawler.fetch.PageValidators;
+import com.crawler.web_crawler.model.entity.NewsArticle;
+import com.crawler.web_crawler.model.entity.ParserType;
+import com.crawler.web_crawler.model.entity.Source;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FeedParserTest {
+    @Mock
+    private JsoupClient jsoupClient;
+    @Mock
+    private PageArchive pageArchive;
+    @InjectMocks
+    private FeedParser underTest;
+
+    private Source source;
+
+    @BeforeEach
+    void setUp() {
+        source = new Source(1L, "https://source.com/rss.xml", "0 * * * * *", Map.of(), true);
+        source.setParserType(ParserType.FEED);
+    }
+
+    @Test
+    void parse_whenRssFeed_shouldMapItemsToArticles() throws Exception {
+        // Given
+        stubFeed("""
+                <?xml version="1.0" encoding="UTF-8"?>
+                <rss version="2.0" xmlns:content="http://purl.org/rss/1.0/modules/content/">
+                  <channel>
+                    <title>Source news</title>
+                    <link>https://source.com/</link>
+                    <item>
+                      <title>Title1</title>
+                      <link>/news/1</link>
+                      <description>&lt;p&gt;Teaser1&lt;/p&gt;</description>
+                      <content:encoded><![CDATA[<p>Full <b>text</b> 1</p>]]></content:encoded>
+                      <pubDate>Wed, 1 Jan 2025 23:30:00 +0300</pubDate>
+                    </item>
+                    <item>
+                      <title>Title2</title>
+                      <description>Teaser2</description>
+                      <pubDate>Thu, 02 Jan 2025 10:00:00 EST</pubDate>
+                    </item>
+                    <item>
+                      <title>No date</title>
+                    </item>
+                  </channel>
+                </rss>
+                """);
+
+        // When
+        List<NewsArticle> articles = underTest.parse(source);
+
+        // Then
+        assertThat(articles).hasSize(2);
+        assertEquals("Title1", articles.get(0).getTitle());
+        assertEquals("Full text 1", articles.get(0).getContent());
+        assertEquals(LocalDate.of(2025, 1, 1), articles.get(0).getPublishDate());
+        assertEquals("https://source.com/news/1", articles.get(0).getDetailUrl());
+        assertNotNull(articles.get(0).getHash());
+        assertEquals("Teaser2", articles.get(1).getContent());
+        assertEquals(LocalDate.of(2025, 1, 2), articles.get(1).getPublishDate());
+        assertNotNull(source.getContentDigest());
+        verify(pageArchive).append(eq(1L), any(PageResponse.class));
+    }
+
+    @Test
+    void parse_whenAtomFeed_shouldMapEntriesToArticles() throws Exception {
+        // Given
+        stubFeed("""
+                <?xml version="1.0" encoding="UTF-8"?>
+                <feed xmlns="http://www.w3.org/2005/Atom">
+                  <title>Source news</title>
+                  <updated>2025-01-05T00:00:00Z</updated>
+                  <entry>
+                    <title type="html">Title1</title>
+                    <link rel="alternate" href="https://source.com/news/1"/>
+                    <link rel="enclosure" href="https://source.com/image.jpg"/>
+                    <summary>Summary1</summary>
+                    <content type="xhtml"><div xmlns="http://www.w3.org/1999/xhtml"><p>Full</p><p>text</p></div></content>
+                    <published>2025-01-03T08:00:00+02:00</published>
+                    <updated>2025-01-04T08:00:00Z</updated>
+                  </entry>
+                  <entry>
+                    <title>Title2</title>
+                    <summary>Summary2</summary>
+                    <updated>2025-01-04</updated>
+                  </entry>
+                </feed>
+                """);
+
+        // When
+        List<NewsArticle> articles = underTest.parse(source);
+
+        // Then
+        assertThat(articles).extracting(NewsArticle::getTitle).containsExactly("Title1", "Title2");
+        assertEquals("Fulltext", articles.get(0).getContent().replace(" ", ""));
+        assertEquals(LocalDate.of(2025, 1, 3), articles.get(0).getPublishDate());
+        assertEquals("https://source.com/news/1", articles.get(0).getDetailUrl());
+        assertEquals("Summary2", articles.get(1).getContent());
+        assertEquals(LocalDate.of(2025, 1, 4), articles.get(1).getPublishDate());
+    }
+
+    @Test
+    void parse_whenFeedNotModified_shouldReturnEmptyListWithoutParsing() throws Exception {
+        // Given
+        PageResponse notModified = new PageResponse(source.getUrl(), 304, new byte[0], null, null, null, false);
+        when(jsoupClient.getPage(eq(source.getUrl()), any(PageValidators.class), any())).thenReturn(notModified);
+
+        // When
+        List<NewsArticle> articles = underTest.parse(source);
+
+        // Then
+        assertThat(articles).isEmpty();
+        verifyNoInteractions(pageArchive);
+    }
+
+    @Test
+    void parse_whenPageIsNotFeed_shouldThrowException() throws Exception {
+        // Given
+        stubFeed("<!DOCTYPE html><html><body><p>News</p></body></html>");
+
+        // When
+        JsoupParseException exception = assertThrows(JsoupParseException.class, () -> underTest.parse(source));
+
+        // Then
+        assertThat(exception.getMessage()).contains(source.getUrl());
+    }
+
+    @Test
+    void parse_whenFeedDeclaresExternalEntity_shouldNotResolveIt() throws Exception {
+        // Given
+        stubFeed("""
+                <?xml version="1.0"?>
+                <!DOCTYPE rss [<!ENTITY secret SYSTEM "file:///etc/passwd">]>
+                <rss><channel><item><title>&secret;</title><pubDate>Wed, 01 Jan 2025 00:00:00 GMT</pubDate></item></channel></rss>
+                """);
+
+        // When
+        List<NewsArticle> articles;
+        try {
+            articles = underTest.parse(source);
+        } catch (JsoupParseException e) {
+            articles = List.of();
+        }
+
+        // Then
+        assertThat(articles).noneMatch(article -> article.getTitle().contains("root:"));
+    }
+
+    private void stubFeed(String xml) throws Exception {
+        PageResponse page = new PageResponse(source.getUrl(), 200, xml.getBytes(StandardCharsets.UTF_8), "application/rss+xml", null, null, false);
+        when(jsoupClient.getPage(eq(source.getUrl()), any(PageValidators.class), any())).thenReturn(page);
+    }
+}
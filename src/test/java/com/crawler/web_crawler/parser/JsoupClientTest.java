@@ -1,83 +1,100 @@
 package com.crawler.web_crawler.parser;
 
 import com.crawler.web_crawler.exception.JsoupException.JsoupClientException;
-import org.jsoup.Connection;
-import org.jsoup.Jsoup;
+import com.crawler.web_crawler.fetch.PageFetcher;
+import com.crawler.web_crawler.fetch.PageResponse;
 import org.jsoup.nodes.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.MockedStatic;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class JsoupClientTest {
-    private static final String USER_AGENT =
-            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/135.0.0.0 Safari/537.36";
-    private static final int TIMEOUT = 10_000;
-
+    private PageFetcher pageFetcher;
     private JsoupClient underTest;
 
     @BeforeEach
     void setUp() {
-        underTest = new JsoupClient();
+        pageFetcher = mock(PageFetcher.class);
+        underTest = new JsoupClient(pageFetcher);
     }
 
     @Test
     void getPageByUrl_whenUrlCorrect_shouldReturnHtmlDocument() throws Exception {
-        try(MockedStatic<Jsoup> mockedJsoup = mockStatic(Jsoup.class)) {
-            // Given
-            String correctUrl = "https://www.google.com/";
-            Connection connection = mock(Connection.class);
-            Document document = mock(Document.class);
-
-            mockedJsoup.when(() -> Jsoup.connect(correctUrl)).thenReturn(connection);
-            when(connection.timeout(TIMEOUT)).thenReturn(connection);
-            when(connection.userAgent(USER_AGENT)).thenReturn(connection);
-            when(connection.referrer("http://www.google.com")).thenReturn(connection);
-            when(connection.get()).thenReturn(document);
-
-            // When
-            Document resultDocument = underTest.getPageByUrl(correctUrl);
-
-            // Then
-            assertThat(resultDocument).isSameAs(document);
-
-            verify(connection).timeout(TIMEOUT);
-            verify(connection).userAgent(USER_AGENT);
-            verify(connection).referrer("http://www.google.com");
-            verify(connection).get();
-        }
+        // Given
+        String correctUrl = "https://www.google.com/";
+        byte[] body = "<html><head><title>Google</title></head><body><p>Привет</p></body></html>"
+                .getBytes(StandardCharsets.UTF_8);
+        PageResponse page = new PageResponse(correctUrl, 200, body, "text/html; charset=UTF-8", null, null, false);
+
+        when(pageFetcher.fetch(correctUrl)).thenReturn(CompletableFuture.completedFuture(page));
+
+        // When
+        Document resultDocument = underTest.getPageByUrl(correctUrl);
+
+        // Then
+        assertEquals("Google", resultDocument.title());
+        assertEquals("Привет", resultDocument.select("p").text());
+        assertEquals(correctUrl, resultDocument.location());
+
+        verify(pageFetcher).fetch(correctUrl);
+    }
+
+    @Test
+    void toDocument_whenCharsetIsUnknown_shouldReadMetaCharsetInstead() throws Exception {
+        // Given
+        byte[] body = "<html><head><meta charset=\"windows-1251\"></head><body><p>Привет</p></body></html>"
+                .getBytes("windows-1251");
+        PageResponse page = new PageResponse("https://source.com/", 200, body, "text/html; charset=bogus\u00e9", null, null, false);
+
+        // When
+        Document document = underTest.toDocument(page);
+
+        // Then
+        assertNull(page.charset());
+        assertEquals("Привет", document.select("p").text());
+    }
+
+    @Test
+    void getPageByUrl_whenUrlIncorrect_shouldReturnException() {
+        // Given
+        String wrongUrl = "https://www.google";
+        IOException ioException = new IOException("Unknown host");
+
+        when(pageFetcher.fetch(wrongUrl)).thenReturn(CompletableFuture.failedFuture(ioException));
+
+        // When
+        JsoupClientException exception = assertThrows(
+                JsoupClientException.class,
+                () -> underTest.getPageByUrl(wrongUrl)
+        );
+
+        // Then
+        assertEquals("Cannot access to this page: " + wrongUrl, exception.getMessage());
+        assertThat(exception).hasCauseExactlyInstanceOf(IOException.class);
     }
 
     @Test
-    void getPageByUrl_whenUrlIncorrect_shouldReturnException() throws Exception {
-        try(MockedStatic<Jsoup> mockedJsoup = mockStatic(Jsoup.class)) {
-            // Given
-            String wrongUrl = "https://www.google";
-            Connection connection = mock(Connection.class);
-            IOException ioException = new IOException("Unknown host");
-
-            mockedJsoup.when(() -> Jsoup.connect(wrongUrl)).thenReturn(connection);
-            when(connection.timeout(anyInt())).thenReturn(connection);
-            when(connection.userAgent(anyString())).thenReturn(connection);
-            when(connection.referrer(anyString())).thenReturn(connection);
-            when(connection.get()).thenThrow(ioException);
-
-            // When
-            JsoupClientException exception = assertThrows(
-                    JsoupClientException.class,
-                    () -> underTest.getPageByUrl(wrongUrl)
-            );
-
-            // Then
-            assertEquals("Cannot access to this page: " + wrongUrl, exception.getMessage());
-            assertThat(exception).hasCauseExactlyInstanceOf(IOException.class);
-        }
+    void getPageByUrl_whenStatusIsNotSuccessful_shouldReturnException() {
+        // Given
+        String url = "https://www.google.com/missing";
+        PageResponse page = new PageResponse(url, 404, new byte[0], "text/html", null, null, false);
+
+        when(pageFetcher.fetch(url)).thenReturn(CompletableFuture.completedFuture(page));
 
+        // When
+        JsoupClientException exception = assertThrows(
+                JsoupClientException.class,
+                () -> underTest.getPageByUrl(url)
+        );
 
+        // Then
+        assertEquals("Cannot access to this page: " + url + ". Status code: 404", exception.getMessage());
     }
-}
\ No newline at end of file
+}
@@ -1,23 +1,28 @@
 package com.crawler.web_crawler.parser;
 
+import com.crawler.web_crawler.archive.PageArchive;
 import com.crawler.web_crawler.exception.JsoupException.JsoupClientException;
 import com.crawler.web_crawler.exception.JsoupException.JsoupParseException;
+import com.crawler.web_crawler.fetch.PageResponse;
+import com.crawler.web_crawler.fetch.PageValidators;
 import com.crawler.web_crawler.model.entity.NewsArticle;
 import com.crawler.web_crawler.model.entity.Source;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.jsoup.Jsoup;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.Charset;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,6 +34,10 @@ class JsoupParserTest {
     private JsoupClient jsoupClient;
     @Mock
     private DateParser dateParser;
+    @Mock
+    private PageArchive pageArchive;
+    @Spy
+    private SelectorCache selectorCache = new SelectorCache();
     @InjectMocks
     private JsoupParser underTest;
 
@@ -42,36 +51,25 @@ class JsoupParserTest {
         source = new Source();
         source.setUrl("https://google.com");
         source.setSelectors(Map.of(
-                selectorTitle, "css-title",
-                selectorContent, "css-content",
-                selectorDate, "css-date"
+                selectorTitle, ".title",
+                selectorContent, ".content",
+                selectorDate, ".date"
         ));
     }
 
     @Test
     void parse_whenParseSuccessful_shouldReturnListWithNewsArticles() throws Exception {
         // Given
-        Document document = mock(Document.class);
         String url = source.getUrl();
-        Map<String, String> selectors = source.getSelectors();
-
-        when(jsoupClient.getPageByUrl(url)).thenReturn(document);
-
-        Elements titleElements = createElements("Title1", "Title2", "Title3");
-        Elements contentElements = createElements("Content1", "Content2", "Content3");
-        Elements publishDateElements = createElements("01.01.2025", "02.01.2025", "03.01.2025");
-
-        when(document.select(selectors.get(selectorTitle))).thenReturn(titleElements);
-        when(document.select(selectors.get(selectorContent))).thenReturn(contentElements);
-        when(document.select(selectors.get(selectorDate))).thenReturn(publishDateElements);
-
-        Optional<LocalDate> optionalLocalDate = Optional.of(LocalDate.of(2025, 1, 1));
-        Optional<LocalDate> optionalLocalDate2 = Optional.of(LocalDate.of(2025, 1, 2));
-        Optional<LocalDate> optionalLocalDate3 = Optional.of(LocalDate.of(2025, 1, 3));
+        stubPage(url, listing(
+                teaser("Title1", "Content1", "01.01.2025"),
+                teaser("Title2", "Content2", "02.01.2025"),
+                teaser("Title3", "Content3", "03.01.2025")
+        ));
 
-        when(dateParser.toLocalDateFromString(publishDateElements.get(0).text())).thenReturn(optionalLocalDate);
-        when(dateParser.toLocalDateFromString(publishDateElements.get(1).text())).thenReturn(optionalLocalDate2);
-        when(dateParser.toLocalDateFromString(publishDateElements.get(2).text())).thenReturn(optionalLocalDate3);
+        when(dateParser.toLocalDateFromString(source, "01.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+        when(dateParser.toLocalDateFromString(source, "02.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 2)));
+        when(dateParser.toLocalDateFromString(source, "03.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 3)));
 
         // When
         List<NewsArticle> articleList = underTest.parse(source);
@@ -86,8 +84,8 @@ class JsoupParserTest {
 
         assertThat(articleList).hasSize(3);
 
-        verify(jsoupClient).getPageByUrl(url);
-        verify(dateParser, times(3)).toLocalDateFromString(anyString());
+        verify(jsoupClient).getPage(eq(url), any(PageValidators.class), any());
+        verify(dateParser, times(3)).toLocalDateFromString(eq(source), anyString());
     }
 
     @Test
@@ -96,7 +94,7 @@ class JsoupParserTest {
         String wrongUrl = source.getUrl();
         String errorMessage = "Cannot access to this page: " + wrongUrl;
 
-        when(jsoupClient.getPageByUrl(anyString())).thenThrow(new JsoupClientException(errorMessage));
+        when(jsoupClient.getPage(anyString(), any(PageValidators.class), any())).thenThrow(new JsoupClientException(errorMessage));
 
         // When
         JsoupParseException exception = assertThrows(
@@ -112,19 +110,11 @@ class JsoupParserTest {
     @Test
     void parse_whenTitleAndDateCountDoesntMatch_shouldReturnException() throws Exception {
         // Given
-        Document document = mock(Document.class);
-        String url = source.getUrl();
-        Map<String, String> selectors = source.getSelectors();
-
-        when(jsoupClient.getPageByUrl(url)).thenReturn(document);
-
-        Elements titleElements = createElements("Title1", "Title2", "Title3");
-        Elements contentElements = createElements("Content1", "Content2", "Content3");
-        Elements publishDateElements = createElements("01.01.2025", "02.01.2025");
-
-        when(document.select(selectors.get(selectorTitle))).thenReturn(titleElements);
-        when(document.select(selectors.get(selectorContent))).thenReturn(contentElements);
-        when(document.select(selectors.get(selectorDate))).thenReturn(publishDateElements);
+        stubPage(source.getUrl(), listing(
+                teaser("Title1", "Content1", "01.01.2025"),
+                teaser("Title2", "Content2", "02.01.2025"),
+                teaser("Title3", "Content3", null)
+        ));
 
         // When
         JsoupParseException exception = assertThrows(
@@ -139,27 +129,15 @@ class JsoupParserTest {
     @Test
     void parse_whenTitleOrDateIsNull_shouldSkipNewsArticle() throws Exception {
         // Given
-        Document document = mock(Document.class);
-        String url = source.getUrl();
-        Map<String, String> selectors = source.getSelectors();
-
-        when(jsoupClient.getPageByUrl(url)).thenReturn(document);
-
-        Elements titleElements = createElements("Title1", null, "Title3");
-        Elements contentElements = createElements("Content1", "Content2", "Content3");
-        Elements publishDateElements = createElements("01.01.2025", "02.01.2025", null);
-
-        when(document.select(selectors.get(selectorTitle))).thenReturn(titleElements);
-        when(document.select(selectors.get(selectorContent))).thenReturn(contentElements);
-        when(document.select(selectors.get(selectorDate))).thenReturn(publishDateElements);
-
-        Optional<LocalDate> optionalLocalDate = Optional.of(LocalDate.of(2025, 1, 1));
-        Optional<LocalDate> optionalLocalDate2 = Optional.of(LocalDate.of(2025, 1, 2));
-        Optional<LocalDate> optionalLocalDate3 = Optional.empty();
+        stubPage(source.getUrl(), listing(
+                teaser("Title1", "Content1", "01.01.2025"),
+                teaser("", "Content2", "02.01.2025"),
+                teaser("Title3", "Content3", "not a date")
+        ));
 
-        when(dateParser.toLocalDateFromString(publishDateElements.get(0).text())).thenReturn(optionalLocalDate);
-        when(dateParser.toLocalDateFromString(publishDateElements.get(1).text())).thenReturn(optionalLocalDate2);
-        when(dateParser.toLocalDateFromString(publishDateElements.get(2).text())).thenReturn(optionalLocalDate3);
+        when(dateParser.toLocalDateFromString(source, "01.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+        when(dateParser.toLocalDateFromString(source, "02.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 2)));
+        when(dateParser.toLocalDateFromString(source, "not a date")).thenReturn(Optional.empty());
 
         // When
         List<NewsArticle> articleList = underTest.parse(source);
@@ -172,15 +150,16 @@ class JsoupParserTest {
     }
 
     @Test
-    void parse_whenFromElementsToListGotNull_shouldReturnException() throws Exception {
+    void parse_whenSelectorIsInvalid_shouldReturnException() throws Exception {
         // Given
-        Document document = mock(Document.class);
-
-        when(jsoupClient.getPageByUrl(anyString())).thenReturn(document);
-
-        Elements nullElements = null;
+        source.setSelectors(Map.of(
+                selectorTitle, ".title[",
+                selectorContent, ".content",
+                selectorDate, ".date"
+        ));
+        PageResponse page = page(source.getUrl(), "<html></html>", null, null);
 
-        when(document.select(anyString())).thenReturn(nullElements);
+        when(jsoupClient.getPage(eq(source.getUrl()), any(PageValidators.class), any())).thenReturn(page);
 
         // When
         JsoupParseException exception = assertThrows(
@@ -189,33 +168,40 @@ class JsoupParserTest {
         );
 
         // Then
-        assertEquals("The elements list received from jsoup is null", exception.getMessage());
+        assertThat(exception.getMessage()).startsWith("Invalid css selector 'title'");
+        verify(jsoupClient, never()).toDocument(any());
     }
 
     @Test
-    void parse_whenContentIsNull_shouldReturnNewsArticleWhereArticleContentIsNull() throws Exception {
+    void parse_whenSourceParsedAgain_shouldReuseCompiledSelectors() throws Exception {
         // Given
-        Document document = mock(Document.class);
-        String url = source.getUrl();
-        Map<String, String> selectors = source.getSelectors();
-
-        when(jsoupClient.getPageByUrl(url)).thenReturn(document);
+        source.setId(1L);
+        stubPage(source.getUrl(), listing(teaser("Title1", "Content1", "01.01.2025")));
+        when(dateParser.toLocalDateFromString(source, "01.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+        underTest.parse(source);
+        source.setContentDigest(null);
 
-        Elements titleElements = createElements("Title1", "Title2", "Title3");
-        Elements contentElements = createElements("Content1");
-        Elements publishDateElements = createElements("01.01.2025", "02.01.2025", "03.01.2025");
+        // When
+        List<NewsArticle> articleList = underTest.parse(source);
 
-        when(document.select(selectors.get(selectorTitle))).thenReturn(titleElements);
-        when(document.select(selectors.get(selectorContent))).thenReturn(contentElements);
-        when(document.select(selectors.get(selectorDate))).thenReturn(publishDateElements);
+        // Then
+        assertThat(articleList).extracting(NewsArticle::getTitle).containsExactly("Title1");
+        assertSame(selectorCache.get(source, selectorTitle), selectorCache.get(source, selectorTitle));
+    }
 
-        Optional<LocalDate> optionalLocalDate = Optional.of(LocalDate.of(2025, 1, 1));
-        Optional<LocalDate> optionalLocalDate2 = Optional.of(LocalDate.of(2025, 1, 2));
-        Optional<LocalDate> optionalLocalDate3 = Optional.of(LocalDate.of(2025, 1, 3));
+    @Test
+    void parse_whenContentIsNull_shouldReturnNewsArticleWhereArticleContentIsNull() throws Exception {
+        // Given
+        String url = source.getUrl();
+        stubPage(url, listing(
+                teaser("Title1", "Content1", "01.01.2025"),
+                teaser("Title2", null, "02.01.2025"),
+                teaser("Title3", null, "03.01.2025")
+        ));
 
-        when(dateParser.toLocalDateFromString(publishDateElements.get(0).text())).thenReturn(optionalLocalDate);
-        when(dateParser.toLocalDateFromString(publishDateElements.get(1).text())).thenReturn(optionalLocalDate2);
-        when(dateParser.toLocalDateFromString(publishDateElements.get(2).text())).thenReturn(optionalLocalDate3);
+        when(dateParser.toLocalDateFromString(source, "01.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+        when(dateParser.toLocalDateFromString(source, "02.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 2)));
+        when(dateParser.toLocalDateFromString(source, "03.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 3)));
 
         // When
         List<NewsArticle> articleList = underTest.parse(source);
@@ -229,19 +215,387 @@ class JsoupParserTest {
 
         assertThat(articleList).hasSize(3);
 
-        verify(jsoupClient).getPageByUrl(url);
-        verify(dateParser, times(3)).toLocalDateFromString(anyString());
+        verify(jsoupClient).getPage(eq(url), any(PageValidators.class), any());
+        verify(dateParser, times(3)).toLocalDateFromString(eq(source), anyString());
+    }
+
+    @Test
+    void parse_whenTextIsTooLong_shouldTruncateTitleAndContent() throws Exception {
+        // Given
+        String longTitle = "Title ".repeat(100);
+        String longContent = "<p>Paragraph</p>".repeat(2_000);
+        stubPage(source.getUrl(), "<html><body><div class=\"news\"><h2 class=\"title\">" + longTitle
+                + "</h2><div class=\"content\">" + longContent + "</div><span class=\"date\">01.01.2025</span></div></body></html>");
+
+        when(dateParser.toLocalDateFromString(source, "01.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+
+        // When
+        List<NewsArticle> articleList = underTest.parse(source);
+
+        // Then
+        assertThat(articleList.get(0).getTitle()).hasSizeLessThanOrEqualTo(255).startsWith("Title Title");
+        assertThat(articleList.get(0).getContent()).hasSizeLessThanOrEqualTo(10_000).startsWith("Paragraph Paragraph");
+    }
+
+    @Test
+    void parse_whenPageNotModified_shouldReturnEmptyListWithoutParsing() throws Exception {
+        // Given
+        source.setEtag("\"v1\"");
+        source.setLastModified("Wed, 01 Jan 2025 00:00:00 GMT");
+        PageResponse notModified = new PageResponse(source.getUrl(), 304, new byte[0], null, null, null, false);
+
+        when(jsoupClient.getPage(source.getUrl(), new PageValidators("\"v1\"", "Wed, 01 Jan 2025 00:00:00 GMT"), null))
+                .thenReturn(notModified);
+
+        // When
+        List<NewsArticle> articleList = underTest.parse(source);
+
+        // Then
+        assertThat(articleList).isEmpty();
+        verify(jsoupClient, never()).toDocument(any());
+        verifyNoInteractions(dateParser, pageArchive);
+    }
+
+    @Test
+    void parse_whenPageDigestIsTheSame_shouldReturnEmptyListWithoutParsing() throws Exception {
+        // Given
+        PageResponse page = page(source.getUrl(), "<html></html>", null, null);
+        source.setContentDigest(page.digest());
+
+        when(jsoupClient.getPage(eq(source.getUrl()), any(PageValidators.class), any())).thenReturn(page);
+
+        // When
+        List<NewsArticle> articleList = underTest.parse(source);
+
+        // Then
+        assertThat(articleList).isEmpty();
+        verify(jsoupClient, never()).toDocument(any());
+    }
+
+    @Test
+    void parse_whenParseSuccessful_shouldRememberPageValidators() throws Exception {
+        // Given
+        PageResponse page = page(source.getUrl(), "<html></html>", "\"v2\"", "Thu, 02 Jan 2025 00:00:00 GMT");
+
+        when(jsoupClient.getPage(eq(source.getUrl()), any(PageValidators.class), any())).thenReturn(page);
+
+        // When
+        underTest.parse(source);
+
+        // Then
+        assertEquals("\"v2\"", source.getEtag());
+        assertEquals("Thu, 02 Jan 2025 00:00:00 GMT", source.getLastModified());
+        assertEquals(page.digest(), source.getContentDigest());
+        verify(pageArchive).append(source.getId(), page);
+    }
+
+    @Test
+    void parse_whenArticleSelectorSet_shouldExtractFieldsInsideEachBlock() throws Exception {
+        // Given
+        source.setSelectors(Map.of(
+                JsoupParser.SELECTOR_ARTICLE, ".news",
+                selectorTitle, ".title",
+                selectorContent, ".content",
+                selectorDate, ".date"
+        ));
+        stubPage(source.getUrl(), listing(
+                teaser("Title1", null, "01.01.2025"),
+                teaser("Advertisement", "Buy now", null),
+                teaser("Title2", "Content2", "02.01.2025")
+        ));
+
+        when(dateParser.toLocalDateFromString(source, "01.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+        when(dateParser.toLocalDateFromString(source, "02.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 2)));
+
+        // When
+        List<NewsArticle> articleList = underTest.parse(source);
+
+        // Then
+        assertThat(articleList).hasSize(2);
+        assertEquals("Title1", articleList.get(0).getTitle());
+        assertNull(articleList.get(0).getContent());
+        assertEquals("Title2", articleList.get(1).getTitle());
+        assertEquals("Content2", articleList.get(1).getContent());
+        assertEquals(LocalDate.of(2025, 1, 2), articleList.get(1).getPublishDate());
+        verify(dateParser, times(2)).toLocalDateFromString(eq(source), anyString());
+    }
+
+    @Test
+    void parse_whenPageUrlTemplateSet_shouldMergePagesInOrderUntilMissingPage() throws Exception {
+        // Given
+        source.setSelectors(Map.of(
+                selectorTitle, ".title",
+                selectorContent, ".content",
+                selectorDate, ".date"
+        ));
+        source.getSettings().setPageUrlTemplate("https://google.com/news?page={page}");
+        source.getSettings().setMaxPages(4);
+        stubPage(source.getUrl(), listing(teaser("Title1", "Content1", "01.01.2025")));
+        stubNextPage("https://google.com/news?page=2", 200, listing(
+                teaser("Title1", "Content1", "01.01.2025"),
+                teaser("Title2", "Content2", "01.01.2025")
+        ));
+        stubNextPage("https://google.com/news?page=3", 404, "");
+
+        when(dateParser.toLocalDateFromString(source, "01.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+
+        // When
+        List<NewsArticle> articleList = underTest.parse(source);
+
+        // Then
+        assertThat(articleList).extracting(NewsArticle::getTitle).containsExactly("Title1", "Title2");
+        verify(pageArchive, times(2)).append(any(), any(PageResponse.class));
+        verify(jsoupClient, never()).fetchPage(eq("https://google.com/news?page=4"), any(PageValidators.class), any());
+    }
+
+    @Test
+    void parse_whenKnownArticlesReached_shouldStopExtractingAndFetchingPages() throws Exception {
+        // Given
+        source.setSelectors(Map.of(
+                selectorTitle, ".title",
+                selectorContent, ".content",
+                selectorDate, ".date"
+        ));
+        source.getSettings().setPageUrlTemplate("https://google.com/news?page={page}");
+        source.getSettings().setMaxPages(5);
+        source.getSettings().setStopAfterKnown(2);
+        stubPage(source.getUrl(), listing(
+                teaser("Title1", "Content1", "01.01.2025"),
+                teaser("Title2", "Content2", "01.01.2025")
+        ));
+        stubNextPage("https://google.com/news?page=2", 200, listing(
+                teaser("Title3", "Content3", "01.01.2025"),
+                teaser("Title4", "Content4", "01.01.2025")
+        ));
+        stubNextPage("https://google.com/news?page=3", 200, listing(teaser("Title5", "Content5", "01.01.2025")));
+        when(dateParser.toLocalDateFromString(source, "01.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+        Set<String> knownHashes = Set.of(hashOf("Title2"), hashOf("Title3"), hashOf("Title4"));
+
+        // When
+        List<NewsArticle> articleList = underTest.parse(source, new KnownArticleStop(knownHashes::contains, 2));
+
+        // Then
+        assertThat(articleList).extracting(NewsArticle::getTitle).containsExactly("Title1", "Title2", "Title3");
+        verify(dateParser, times(3)).toLocalDateFromString(source, "01.01.2025");
+        verify(pageArchive, times(2)).append(any(), any(PageResponse.class));
+        verify(jsoupClient, never()).fetchPage(eq("https://google.com/news?page=4"), any(PageValidators.class), any());
+    }
+
+    @Test
+    void parse_whenNextPageSelectorSet_shouldFollowLinksUpToMaxPages() throws Exception {
+        // Given
+        source.setSelectors(Map.of(
+                selectorTitle, ".title",
+                selectorContent, ".content",
+                selectorDate, ".date",
+                Pagination.NEXT_PAGE, "a.next"
+        ));
+        source.getSettings().setMaxPages(3);
+        String next = "<a class=\"next\" href=\"/news?page=%d\">Next</a>";
+        stubPage(source.getUrl(), listing(teaser("Title1", "Content1", "01.01.2025"), next.formatted(2)));
+        stubPage("https://google.com/news?page=2", listing(teaser("Title2", "Content2", "01.01.2025"), next.formatted(3)));
+        stubPage("https://google.com/news?page=3", listing(teaser("Title3", "Content3", "01.01.2025"), next.formatted(4)));
+
+        when(dateParser.toLocalDateFromString(source, "01.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+
+        // When
+        List<NewsArticle> articleList = underTest.parse(source);
+
+        // Then
+        assertThat(articleList).extracting(NewsArticle::getTitle).containsExactly("Title1", "Title2", "Title3");
+        verify(jsoupClient, never()).getPage(eq("https://google.com/news?page=4"), any(PageValidators.class), any());
+    }
+
+    @Test
+    void fetchDetails_whenLinkSelectorSet_shouldReplaceContentWithDetailPageText() throws Exception {
+        // Given
+        source.setSelectors(Map.of(
+                JsoupParser.SELECTOR_ARTICLE, ".news",
+                selectorTitle, ".title",
+                selectorContent, ".content",
+                selectorDate, ".date",
+                DetailFollow.LINK, ".title",
+                DetailFollow.DETAIL_CONTENT, ".full"
+        ));
+        stubPage(source.getUrl(), listing(
+                teaser("<a href=\"/news/1\">Title1</a>", "Teaser1", "01.01.2025"),
+                teaser("<a href=\"/news/2\">Title2</a>", "Teaser2", "01.01.2025"),
+                teaser("Title3", "Teaser3", "01.01.2025")
+        ));
+        stubNextPage("https://google.com/news/1", 200, "<html><body><div class=\"full\">Full text 1</div></body></html>");
+        stubNextPage("https://google.com/news/2", 404, "");
+
+        when(dateParser.toLocalDateFromString(source, "01.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+        List<NewsArticle> articleList = underTest.parse(source);
+
+        // When
+        underTest.fetchDetails(source, articleList);
+
+        // Then
+        assertThat(articleList).extracting(NewsArticle::getDetailUrl)
+                .containsExactly("https://google.com/news/1", "https://google.com/news/2", null);
+        assertThat(articleList).extracting(NewsArticle::getContent)
+                .containsExactly("Full text 1", "Teaser2", "Teaser3");
+    }
+
+    @Test
+    void parse_whenStructuredDataIsComplete_shouldSkipDomAndDateParser() throws Exception {
+        // Given
+        source.setSelectors(Map.of());
+        source.getSettings().setStructuredData(true);
+        String html = "<html><head><script type=\"application/ld+json\">"
+                + "{\"@context\":\"https://schema.org\",\"@type\":\"ItemList\",\"itemListElement\":["
+                + "{\"@type\":\"ListItem\",\"item\":{\"@type\":\"NewsArticle\",\"headline\":\"Title1 &amp; more\","
+                + "\"description\":\"Content1\",\"datePublished\":\"2025-01-01T10:00:00+03:00\",\"url\":\"/news/1\"}},"
+                + "{\"@type\":\"ListItem\",\"item\":{\"@type\":[\"NewsArticle\"],\"headline\":\"Title2\","
+                + "\"articleBody\":\"Content2\",\"datePublished\":\"2025-01-02\"}}]}"
+                + "</script></head><body><div class=\"news\">ignored</div></body></html>";
+        when(jsoupClient.getPage(eq(source.getUrl()), any(PageValidators.class), any())).thenReturn(page(source.getUrl(), html, null, null));
+
+        // When
+        List<NewsArticle> articles = underTest.parse(source);
+
+        // Then
+        assertThat(articles).extracting(NewsArticle::getTitle).containsExactly("Title1 & more", "Title2");
+        assertThat(articles).extracting(NewsArticle::getContent).containsExactly("Content1", "Content2");
+        assertThat(articles).extracting(NewsArticle::getPublishDate)
+                .containsExactly(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 2));
+        assertEquals("https://google.com/news/1", articles.get(0).getDetailUrl());
+        verify(jsoupClient, never()).toDocument(any());
+        verifyNoInteractions(dateParser);
+    }
+
+    @Test
+    void parse_whenStructuredDataMissesContent_shouldTakeItFromCssSelector() throws Exception {
+        // Given
+        source.setSelectors(Map.of(selectorContent, ".content"));
+        source.getSettings().setStructuredData(true);
+        String html = "<html><head><script type=\"application/ld+json\">"
+                + "{\"@graph\":[{\"@type\":\"WebPage\"},"
+                + "{\"@type\":\"NewsArticle\",\"headline\":\"Title1\",\"datePublished\":\"2025-01-01\"},"
+                + "{\"@type\":\"NewsArticle\",\"headline\":\"Title2\",\"datePublished\":\"2025-01-02\"}]}"
+                + "</script></head><body>"
+                + teaser("Title1", "Content1", null) + teaser("Title2", "Content2", null)
+                + "</body></html>";
+        stubPage(source.getUrl(), html);
+
+        // When
+        List<NewsArticle> articles = underTest.parse(source);
+
+        // Then
+        assertThat(articles).extracting(NewsArticle::getContent).containsExactly("Content1", "Content2");
+        verifyNoInteractions(dateParser);
+    }
+
+    @Test
+    void parse_whenStructuredDataCharsetOnlyInMeta_shouldDecodeWithIt() throws Exception {
+        // Given
+        source.setSelectors(Map.of());
+        source.getSettings().setStructuredData(true);
+        String html = "<html><head><meta charset=\"windows-1251\"><script type=\"application/ld+json\">"
+                + "{\"@type\":\"NewsArticle\",\"headline\":\"Новини дня\",\"description\":\"Зміст\",\"datePublished\":\"2025-01-01\"}"
+                + "</script></head><body></body></html>";
+        PageResponse page = new PageResponse(source.getUrl(), 200, html.getBytes(Charset.forName("windows-1251")), "text/html", null, null, false);
+        when(jsoupClient.getPage(eq(source.getUrl()), any(PageValidators.class), any())).thenReturn(page);
+
+        // When
+        List<NewsArticle> articles = underTest.parse(source);
+
+        // Then
+        assertThat(articles).extracting(NewsArticle::getTitle).containsExactly("Новини дня");
+        assertThat(articles).extracting(NewsArticle::getContent).containsExactly("Зміст");
+    }
+
+    @Test
+    void parse_whenSelectorOutsideStreamingSubset_shouldParseDocument() throws Exception {
+        // Given
+        source.setSelectors(Map.of(
+                selectorTitle, ".news > .title",
+                selectorContent, ".content",
+                selectorDate, ".date"
+        ));
+        stubPage(source.getUrl(), listing(teaser("Title1", "Content1", "01.01.2025")));
+        when(dateParser.toLocalDateFromString(source, "01.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+
+        // When
+        List<NewsArticle> articleList = underTest.parse(source);
+
+        // Then
+        assertThat(articleList).extracting(NewsArticle::getTitle).containsExactly("Title1");
+        verify(jsoupClient).toDocument(any(PageResponse.class));
+    }
+
+    @Test
+    void parse_whenSelectorsInStreamingSubset_shouldNotBuildDocument() throws Exception {
+        // Given
+        stubPage(source.getUrl(), listing(teaser("Title1", "Content1", "01.01.2025")));
+        when(dateParser.toLocalDateFromString(source, "01.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+
+        // When
+        List<NewsArticle> articleList = underTest.parse(source);
+
+        // Then
+        assertThat(articleList).extracting(NewsArticle::getTitle).containsExactly("Title1");
+        verify(jsoupClient, never()).toDocument(any(PageResponse.class));
     }
 
-    private Elements createElements(String... texts) {
-        Elements elements = new Elements();
-        for(String text: texts) {
-            Element element = mock(Element.class);
-            when(element.text()).thenReturn(text);
-            elements.add(element);
-        }
+    @Test
+    void parse_whenMarkupNeedsErrorRecovery_shouldParseDocumentLikeJsoup() throws Exception {
+        // Given
+        source.setSelectors(Map.of(
+                selectorTitle, ".news a",
+                selectorContent, ".content",
+                selectorDate, ".date"
+        ));
+        stubPage(source.getUrl(), "<html><body><div class=\"news\"><a href=\"/1\">Title1<a href=\"/2\">Title2</a></div>"
+                + "<span class=\"date\">01.01.2025</span><span class=\"date\">02.01.2025</span></body></html>");
+        when(dateParser.toLocalDateFromString(source, "01.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+        when(dateParser.toLocalDateFromString(source, "02.01.2025")).thenReturn(Optional.of(LocalDate.of(2025, 1, 2)));
+
+        // When
+        List<NewsArticle> articleList = underTest.parse(source);
+
+        // Then
+        assertThat(articleList).extracting(NewsArticle::getTitle).containsExactly("Title1", "Title2");
+        verify(jsoupClient).toDocument(any(PageResponse.class));
+    }
+
+    private void stubNextPage(String url, int statusCode, String html) throws Exception {
+        PageResponse page = new PageResponse(url, statusCode, html.getBytes(), "text/html", null, null, false);
+        when(jsoupClient.fetchPage(url, PageValidators.none(), null)).thenReturn(CompletableFuture.completedFuture(page));
+        if(statusCode == 200)
+            lenient().when(jsoupClient.toDocument(page)).thenReturn(Jsoup.parse(html, url));
+    }
+
+    private void stubPage(String url, String html) throws Exception {
+        PageResponse page = page(url, html, null, null);
+        when(jsoupClient.getPage(eq(url), any(PageValidators.class), any())).thenReturn(page);
+        lenient().when(jsoupClient.toDocument(page)).thenReturn(Jsoup.parse(html, url)); // Not used when the streaming extractor runs
+    }
+
+    private String hashOf(String title) {
+        NewsArticle article = new NewsArticle();
+        article.setTitle(title);
+        article.setPublishDate(LocalDate.of(2025, 1, 1));
+        article.setSource(source);
+        article.setHash();
+        return article.getHash();
+    }
+
+    private PageResponse page(String url, String html, String etag, String lastModified) {
+        return new PageResponse(url, 200, html.getBytes(), "text/html", etag, lastModified, false);
+    }
+
+    private String listing(String... teasers) {
+        return "<html><body>" + String.join("", teasers) + "</body></html>";
+    }
 
-        return elements;
+    private String teaser(String title, String content, String date) {
+        return "<div class=\"news\">"
+                + "<h2 class=\"title\">" + title + "</h2>"
+                + (content == null ? "" : "<p class=\"content\">" + content + "</p>")
+                + (date == null ? "" : "<span class=\"date\">" + date + "</span>")
+                + "</div>";
     }
 
-}
\ No newline at end of file
+}
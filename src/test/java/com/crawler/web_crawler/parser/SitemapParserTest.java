@@ -0,0 +1,216 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.archive.PageArchive;
+import com.crawler.web_crawler.exception.JsoupException.JsoupParseException;
+import com.crawler.web_crawler.fetch.PageResponse;
+import com.crawler.web_crawler.fetch.PageValidators;
+import com.crawler.web_crawler.model.entity.NewsArticle;
+import com.crawler.web_crawler.model.entity.ParserType;
+import com.crawler.web_crawler.model.entity.Source;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SitemapParserTest {
+    private static final String INDEX_URL = "https://source.com/sitemap.xml";
+
+    @Mock
+    private JsoupClient jsoupClient;
+    @Mock
+    private PageArchive pageArchive;
+    @Mock
+    private JsoupParser jsoupParser;
+
+    private SitemapParser underTest;
+    private Source source;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2025-01-05T12:00:00Z"), ZoneOffset.UTC);
+        underTest = new SitemapParser(jsoupClient, pageArchive, jsoupParser, clock);
+        source = new Source(1L, INDEX_URL, "0 * * * * *", Map.of(), true);
+        source.setParserType(ParserType.SITEMAP);
+    }
+
+    @Test
+    void parse_whenNewsSitemap_shouldMapUrlsToArticles() throws Exception {
+        // Given
+        stubPage(INDEX_URL, """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <urlset xmlns="http://www.sitemaps.org/schemas/sitemap/0.9"
+                        xmlns:news="http://www.google.com/schemas/sitemap-news/0.9"
+                        xmlns:image="http://www.google.com/schemas/sitemap-image/1.1">
+                  <url>
+                    <loc>https://source.com/news/1</loc>
+                    <image:image><image:title>Photo</image:title></image:image>
+                    <news:news>
+                      <news:publication><news:name>Source</news:name><news:language>en</news:language></news:publication>
+                      <news:publication_date>2025-01-04T10:00:00+02:00</news:publication_date>
+                      <news:title>Title1</news:title>
+                    </news:news>
+                  </url>
+                  <url>
+                    <loc>https://source.com/news/2</loc>
+                    <lastmod>2025-01-03</lastmod>
+                  </url>
+                  <url>
+                    <loc>https://source.com/news/old</loc>
+                    <lastmod>2024-01-01</lastmod>
+                  </url>
+                </urlset>
+                """);
+
+        // When
+        List<NewsArticle> articles = underTest.parse(source);
+
+        // Then
+        assertThat(articles).extracting(NewsArticle::getTitle).containsExactly("Title1", "https://source.com/news/2");
+        assertThat(articles).extracting(NewsArticle::getPublishDate)
+                .containsExactly(LocalDate.of(2025, 1, 4), LocalDate.of(2025, 1, 3));
+        assertEquals("https://source.com/news/1", articles.get(0).getDetailUrl());
+        assertNotNull(source.getContentDigest());
+    }
+
+    @Test
+    void parse_whenIndexIsReadAgain_shouldReadOnlyChangedChildren() throws Exception {
+        // Given
+        stubPage(INDEX_URL, index("2025-01-04", "2025-01-04"));
+        stubPage("https://source.com/sitemap-1.xml", urlset("https://source.com/news/1", "2025-01-04"));
+        stubPage("https://source.com/sitemap-2.xml", urlset("https://source.com/news/2", "2025-01-04"));
+        underTest.parse(source);
+
+        stubPage(INDEX_URL, index("2025-01-04", "2025-01-05"));
+        stubPage("https://source.com/sitemap-2.xml", urlset("https://source.com/news/3", "2025-01-05"));
+
+        // When
+        List<NewsArticle> articles = underTest.parse(source);
+
+        // Then
+        assertThat(articles).extracting(NewsArticle::getDetailUrl).containsExactly("https://source.com/news/3");
+        verify(jsoupClient, times(1)).getPage(eq("https://source.com/sitemap-1.xml"), any(PageValidators.class), any());
+        assertThat(source.getSitemapLastmods()).containsEntry("https://source.com/sitemap-2.xml", "2025-01-05");
+        assertNull(source.getContentDigest());
+    }
+
+    @Test
+    void parse_whenLastmodOfUndatedEntryChanged_shouldKeepItsHash() throws Exception {
+        // Given
+        stubPage(INDEX_URL, urlset("https://source.com/news/1", "2025-01-03"));
+        String firstHash = underTest.parse(source).get(0).getHash();
+        source.resetPageValidators();
+        stubPage(INDEX_URL, urlset("https://SOURCE.com/news/1#top", "2025-01-04"));
+
+        // When
+        List<NewsArticle> articles = underTest.parse(source);
+
+        // Then
+        assertThat(articles).extracting(NewsArticle::getPublishDate).containsExactly(LocalDate.of(2025, 1, 4));
+        assertEquals(firstHash, articles.get(0).getHash());
+    }
+
+    @Test
+    void parse_whenChildrenRead_shouldReplaceSeenLastmodsInsteadOfChangingThem() throws Exception {
+        // Given
+        Map<String, String> savedLastmods = source.getSitemapLastmods();
+        stubPage(INDEX_URL, index("2025-01-04", "2025-01-04"));
+        stubPage("https://source.com/sitemap-1.xml", urlset("https://source.com/news/1", "2025-01-04"));
+        stubPage("https://source.com/sitemap-2.xml", urlset("https://source.com/news/2", "2025-01-04"));
+
+        // When
+        underTest.parse(source);
+
+        // Then
+        assertThat(savedLastmods).isEmpty();
+        assertThat(source.getSitemapLastmods()).hasSize(2);
+    }
+
+    @Test
+    void parse_whenPageValidatorsWereReset_shouldReadAllChildrenAgain() throws Exception {
+        // Given
+        stubPage(INDEX_URL, index("2025-01-04", "2025-01-04"));
+        stubPage("https://source.com/sitemap-1.xml", urlset("https://source.com/news/1", "2025-01-04"));
+        stubPage("https://source.com/sitemap-2.xml", urlset("https://source.com/news/2", "2025-01-04"));
+        underTest.parse(source);
+        source.resetPageValidators();
+
+        // When
+        List<NewsArticle> articles = underTest.parse(source);
+
+        // Then
+        assertThat(articles).hasSize(2);
+    }
+
+    @Test
+    void parse_whenChildIsGzipped_shouldReadIt() throws Exception {
+        // Given
+        stubPage(INDEX_URL, index("2025-01-04", "2025-01-04"));
+        PageResponse child = new PageResponse("https://source.com/sitemap-1.xml", 200,
+                gzip(urlset("https://source.com/news/1", "2025-01-04")), "application/octet-stream", null, null, false);
+        when(jsoupClient.getPage(eq("https://source.com/sitemap-1.xml"), any(PageValidators.class), any())).thenReturn(child);
+        stubPage("https://source.com/sitemap-2.xml", urlset("https://source.com/news/2", "2025-01-04"));
+
+        // When
+        List<NewsArticle> articles = underTest.parse(source);
+
+        // Then
+        assertThat(articles).extracting(NewsArticle::getDetailUrl)
+                .containsExactly("https://source.com/news/1", "https://source.com/news/2");
+    }
+
+    @Test
+    void parse_whenPageIsNotSitemap_shouldThrowException() throws Exception {
+        // Given
+        stubPage(INDEX_URL, "<rss><channel></channel></rss>");
+
+        // When
+        JsoupParseException exception = assertThrows(JsoupParseException.class, () -> underTest.parse(source));
+
+        // Then
+        assertThat(exception.getMessage()).contains(INDEX_URL);
+    }
+
+    private void stubPage(String url, String xml) throws Exception {
+        PageResponse page = new PageResponse(url, 200, xml.getBytes(StandardCharsets.UTF_8), "application/xml", null, null, false);
+        when(jsoupClient.getPage(eq(url), any(PageValidators.class), any())).thenReturn(page);
+    }
+
+    private String index(String firstLastmod, String secondLastmod) {
+        return "<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">"
+                + "<sitemap><loc>https://source.com/sitemap-1.xml</loc><lastmod>" + firstLastmod + "</lastmod></sitemap>"
+                + "<sitemap><loc>/sitemap-2.xml</loc><lastmod>" + secondLastmod + "</lastmod></sitemap>"
+                + "</sitemapindex>";
+    }
+
+    private String urlset(String loc, String lastmod) {
+        return "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">"
+                + "<url><loc>" + loc + "</loc><lastmod>" + lastmod + "</lastmod></url>"
+                + "</urlset>";
+    }
+
+    private byte[] gzip(String text) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(GZIPOutputStream output = new GZIPOutputStream(bytes)) {
+            output.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,206 @@
+package com.crawler.web_crawler.parser;
+
+import com.crawler.web_crawler.fetch.PageResponse;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
+import org.jsoup.select.QueryParser;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingExtractorTest {
+    private static final String URL = "https://source.com/news/";
+    private static final String PAGE = """
+            <!DOCTYPE html>
+            <html><head><title>News &amp; more</title>
+            <meta charset="utf-8"><base href="https://source.com/">
+            <script>var html = "<div class='title'>not a title</div>";</script>
+            <style>.title { color: red }</style></head>
+            <body>
+            <!-- <div class="title">commented out</div> -->
+            <ul id="feed">
+              <li class="item Main"><h2 class="title"><a href="/news/1">First&nbsp;news</a></h2>
+                <p class="content">Line one<br>line two<p class="content extra">Second paragraph
+                <span data-kind=Date class=date>01.01.2025</span>
+              <li class="item"><h2 class="title"><a href="news/2">Second <b>news</b></a></h2>
+                <div class="content"><p>Block one</p><p>Block two</p></div>
+                <img class="date" alt="x"><span class="date">02.01.2025</span>
+            </ul>
+            <div class="title" id="Last">Last <i>one</i>
+            </body></html>
+            """;
+
+    @Test
+    void extract_whenSelectorsInSubset_shouldMatchJsoupTexts() {
+        // Given
+        List<String> selectors = List.of(
+                ".title", "li.item .content", "#feed span.date", "[data-kind=date]", "ul li h2 a",
+                "div#Last", "LI.main", "*[class^=ite]", "h2 [href$=/2]", "title"
+        );
+        Document document = Jsoup.parse(PAGE, URL);
+
+        for(String selector: selectors) {
+            // When
+            List<StreamingExtractor.Match> matches = extract(Map.of("field", selector)).get("field");
+
+            // Then
+            Elements expected = ParseUtils.selectAll(document, Map.of("field", QueryParser.parse(selector)), 500).get("field");
+            assertThat(matches).as(selector).extracting(StreamingExtractor.Match::text)
+                    .containsExactlyElementsOf(expected.stream().map(element -> ParseUtils.boundedText(element, 10_000)).toList());
+        }
+    }
+
+    @Test
+    void extract_whenLinkSelected_shouldResolveOwnOrNestedHref() {
+        // When
+        Map<String, List<StreamingExtractor.Match>> matches = extract(Map.of("link", ".title"));
+
+        // Then
+        assertThat(matches.get("link")).extracting(StreamingExtractor.Match::link)
+                .containsExactly("https://source.com/news/1", "https://source.com/news/2", null);
+    }
+
+    @Test
+    void extract_whenMaxMatchesReached_shouldStopCollecting() {
+        // Given
+        Map<String, StreamingSelector> selectors = new LinkedHashMap<>();
+        selectors.put("title", StreamingSelector.compile(".title"));
+
+        // When
+        Map<String, List<StreamingExtractor.Match>> matches = StreamingExtractor.extract(page(), selectors, Map.of("title", 5), 2);
+
+        // Then
+        assertThat(matches.get("title")).extracting(StreamingExtractor.Match::text).containsExactly("First", "Secon");
+    }
+
+    // Titles feed the article hash, so both engines have to give exactly Element.text() or saved articles come back
+    @Test
+    void extract_whenTextHasInvisibleCharsBlocksOrPreformattedParts_shouldMatchElementText() {
+        // Given
+        String html = """
+                <div class="t">Soft\u00ADhyphen and zero\u200Bwidth, Жирный&shy;текст</div>
+                <div class="t"><pre>  keep   this
+                  as is </pre> after</div>
+                <div class="t"><span><p>block in inline</p></span>next</div>
+                <div class="t"><p>one</p><!-- note --><p>two</p>three<p>four</p><b>five</b></div>
+                <div class="t">line<br>break <hr>rule <p>para</p></div>
+                <div class="t"><textarea> a   b </textarea> c &nbsp; d</div>
+                <div class="t"> <h3> Heading </h3> <a href="/1">link</a></div>
+                """;
+        PageResponse page = new PageResponse(URL, 200, html.getBytes(StandardCharsets.UTF_8), "text/html", null, null, false);
+        Elements elements = Jsoup.parse(html, URL).select(".t");
+
+        // When
+        List<StreamingExtractor.Match> matches = StreamingExtractor.extract(page,
+                Map.of("field", StreamingSelector.compile(".t")), Map.of(), 500).get("field");
+
+        // Then
+        List<String> expected = elements.stream().map(element -> element.text()).toList();
+        assertThat(elements.stream().map(element -> ParseUtils.boundedText(element, 10_000)).toList())
+                .containsExactlyElementsOf(expected);
+        assertThat(matches).extracting(StreamingExtractor.Match::text).containsExactlyElementsOf(expected);
+    }
+
+    // Tags the tree builder implies or ignores on its own, without moving anything already built
+    @Test
+    void extract_whenMarkupNeedsImpliedOrIgnoredTags_shouldMatchJsoupTexts() {
+        // Given
+        Map<String, String> pages = new LinkedHashMap<>();
+        pages.put("<div class=t><p>a<div>b</div>c</div>", ".t");
+        pages.put("<div class=t><span>a<div>b</span>c</div>d</div>", ".t");
+        pages.put("<p class=t>one<h2>two</h2><p class=t>three<ul><li>four</ul>", ".t");
+        pages.put("<p class=t>a<main>b</main>c<dialog>d</dialog>", ".t");
+        pages.put("<ul><li class=t>a<li class=t>b<div>c<li class=t>d</ul>", ".t");
+        pages.put("<dl><dt class=t>a<dd class=t>b<dt class=t>c</dl>", ".t");
+        pages.put("<h1 class=t>a<h2 class=t>b</h1>c", ".t");
+        pages.put("<button class=t>a<button class=t>b</button>", ".t");
+        pages.put("<table class=t><tr><td>a<td class=c>b<tr><th>c</table>d", ".t");
+        pages.put("<table><caption class=c>a<tr><td class=c>b</td><col><td>c</table>", ".c");
+        pages.put("<table><thead><tr><td class=t>a<tbody><td class=t>b</table>", ".t");
+        pages.put("<div class=t><span>a</div></span>b", ".t");
+        pages.put("<div class=t>a</div></div><div class=t>b</div>", ".t");
+        pages.put("<div class=t><iframe>fall &amp; back</iframe><noembed><b>x</b></noembed></div>", ".t");
+        pages.put("<div class=t><xmp>a &lt; <i>b</i></xmp>c</div>", ".t");
+        pages.put("<div class=t><select><option>a<option>b<optgroup><option>c</select>d</div>", ".t");
+        pages.put("<div class=t><svg><path d='M0 0'/><g><circle r=1 /></g></svg>z<span>y</span></div>", ".t");
+        pages.put("<title>a</title><link rel=x><div class=t>b<noscript><img src=x>c</noscript>d</div>", ".t");
+        pages.put("<div class=t>a<p/>b<span/>c<br/>d</div>", ".t");
+        pages.put("<div class=t>a</div></body>\n<script>track()</script>\n</html>\n", ".t");
+
+        pages.forEach((html, selector) -> {
+            // When
+            List<StreamingExtractor.Match> matches = extract(html, selector);
+
+            // Then
+            assertThat(matches).as(html).isNotNull()
+                    .extracting(StreamingExtractor.Match::text).containsExactlyElementsOf(jsoupTexts(html, selector));
+        });
+    }
+
+    // Misnested formatting, foster parenting, a table that closes a <p> only in no-quirks mode...
+    @Test
+    void extract_whenMarkupNeedsTreeRebuilding_shouldLeavePageToJsoup() {
+        // Given
+        Map<String, String> pages = new LinkedHashMap<>();
+        pages.put("<div class=t><a href=/1>One<a href=/2>Two</a></div>", "div.t a");
+        pages.put("<div class=t><b>x<p>y</b>z</p></div>", ".t");
+        pages.put("<div class=t>a</p>b</div>", ".t");
+        pages.put("<div class=t><b>a</div><i>b</i>", ".t");
+        pages.put("<p class=t>one<table><tr><td>cell</table>two", ".t");
+        pages.put("<table><tr><td>a</td>b</tr></table><div class=t>c</div>", ".t");
+        pages.put("<div class=t>a<td>b</td>c</div>", ".t");
+        pages.put("<form><div class=t>a<form>b</form>c</div></form>", ".t");
+        pages.put("<div class=t><svg><title>a &amp; <b>x</b></title></svg>z</div>", ".t");
+        pages.put("<div class=t>a</div></body><p>b", ".t");
+        pages.put("<head></head><script></script><div class=t>a</div>", ".t");
+        pages.put("<head><noscript><b>x</b></noscript></head><p class=t>a", ".t");
+        pages.put("<div class=t>a<title>b<i>c</i></div>", ".t");
+
+        pages.forEach((html, selector) -> {
+            // When
+            List<StreamingExtractor.Match> matches = extract(html, selector);
+
+            // Then
+            assertThat(matches).as(html).isNull();
+        });
+    }
+
+    @Test
+    void compile_whenSelectorOutsideSubset_shouldReturnNull() {
+        assertNull(StreamingSelector.compile("div > p"));
+        assertNull(StreamingSelector.compile(".a, .b"));
+        assertNull(StreamingSelector.compile("li:first-child"));
+        assertNull(StreamingSelector.compile("[title=\"a b\"]"));
+        assertNull(StreamingSelector.compile("h1 ~ p"));
+        assertNotNull(StreamingSelector.compile("div.news  article#main [data-id='1'] a[href]"));
+    }
+
+    private Map<String, List<StreamingExtractor.Match>> extract(Map<String, String> selectors) {
+        Map<String, StreamingSelector> compiled = new LinkedHashMap<>();
+        selectors.forEach((key, selector) -> compiled.put(key, StreamingSelector.compile(selector)));
+        return StreamingExtractor.extract(page(), compiled, Map.of(), 500);
+    }
+
+    private List<StreamingExtractor.Match> extract(String html, String selector) {
+        PageResponse page = new PageResponse(URL, 200, html.getBytes(StandardCharsets.UTF_8), "text/html", null, null, false);
+        Map<String, List<StreamingExtractor.Match>> matches =
+                StreamingExtractor.extract(page, Map.of("field", StreamingSelector.compile(selector)), Map.of(), 500);
+        return matches == null ? null : matches.get("field");
+    }
+
+    private List<String> jsoupTexts(String html, String selector) {
+        Elements elements = ParseUtils.selectAll(Jsoup.parse(html, URL), Map.of("field", QueryParser.parse(selector)), 500).get("field");
+        return elements.stream().map(element -> ParseUtils.boundedText(element, 10_000)).toList();
+    }
+
+    private PageResponse page() {
+        return new PageResponse(URL, 200, PAGE.getBytes(StandardCharsets.UTF_8), "text/html", null, null, false);
+    }
+}
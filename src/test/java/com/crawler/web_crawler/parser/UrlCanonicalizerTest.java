@@ -0,0 +1,49 @@
+package com.crawler.web_crawler.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UrlCanonicalizerTest {
+
+    @Test
+    void canonicalize_whenUrlsDifferOnlyInSpelling_shouldReturnSameUrl() {
+        // When
+        String actual = UrlCanonicalizer.canonicalize("HTTPS://Source.COM:443/a/./b/../news?b=2&utm_source=x&a=1#top");
+        String actual2 = UrlCanonicalizer.canonicalize("https://source.com/a/news?a=1&b=2&fbclid=123");
+        String actual3 = UrlCanonicalizer.canonicalize("http://source.com:8080");
+
+        // Then
+        assertThat(actual).isEqualTo("https://source.com/a/news?a=1&b=2");
+        assertThat(actual2).isEqualTo(actual);
+        assertThat(actual3).isEqualTo("http://source.com:8080/");
+        assertThat(UrlCanonicalizer.fingerprint(actual)).isEqualTo(UrlCanonicalizer.fingerprint(actual2));
+        assertThat(UrlCanonicalizer.fingerprint("https://www.source.com/news")).isEqualTo(UrlCanonicalizer.fingerprint("https://source.com/news"));
+    }
+
+    @Test
+    void canonicalize_whenNotHttpUrl_shouldReturnNull() {
+        // Then
+        assertThat(UrlCanonicalizer.canonicalize("javascript:void(0)")).isNull();
+        assertThat(UrlCanonicalizer.canonicalize("mailto:editor@source.com")).isNull();
+        assertThat(UrlCanonicalizer.canonicalize("/relative/path")).isNull();
+        assertThat(UrlCanonicalizer.canonicalize("https://source.com/a b")).isEqualTo("https://source.com/a%20b");
+    }
+
+    @Test
+    void urlFingerprintSet_whenGrowing_shouldKeepEveryFingerprint() {
+        // Given
+        UrlFingerprintSet underTest = new UrlFingerprintSet(4);
+
+        // When
+        for(int i = 0; i < 10_000; i++)
+            underTest.add(UrlCanonicalizer.fingerprint("https://source.com/news/" + i));
+
+        // Then
+        assertThat(underTest.size()).isEqualTo(10_000);
+        assertThat(underTest.add(UrlCanonicalizer.fingerprint("https://source.com/news/42"))).isFalse();
+        assertThat(underTest.contains(UrlCanonicalizer.fingerprint("https://source.com/news/9999"))).isTrue();
+        assertThat(underTest.contains(UrlCanonicalizer.fingerprint("https://source.com/news/10000"))).isFalse();
+        assertThat(underTest.add(0)).isTrue();
+    }
+}
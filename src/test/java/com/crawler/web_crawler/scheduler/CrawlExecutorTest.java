@@ -0,0 +1,104 @@
+package com.crawler.web_crawler.scheduler;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlExecutorTest {
+
+    @Test
+    void execute_whenNoExecutor_shouldRunOnCallingThread() {
+        // Given
+        CrawlExecutor underTest = new CrawlExecutor(null, 1);
+        Thread[] crawlThread = new Thread[1];
+
+        // When
+        underTest.execute("https://source.com", () -> crawlThread[0] = Thread.currentThread());
+
+        // Then
+        assertSame(Thread.currentThread(), crawlThread[0]);
+    }
+
+    @Test
+    void execute_whenLimitReached_shouldWaitForPermit() throws Exception {
+        // Given
+        CrawlExecutor underTest = new CrawlExecutor(new SimpleAsyncTaskExecutor("crawl-test-"), 1);
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch secondDone = new CountDownLatch(1);
+
+        // When
+        underTest.execute("https://first.com", () -> {
+            firstStarted.countDown();
+            await(releaseFirst);
+        });
+        assertTrue(firstStarted.await(1, TimeUnit.SECONDS));
+        underTest.execute("https://second.com", secondDone::countDown);
+
+        // Then
+        assertFalse(secondDone.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, underTest.getActiveCrawls());
+
+        releaseFirst.countDown();
+        assertTrue(secondDone.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void execute_whenPreviousRunStillActive_shouldSkipRun() throws Exception {
+        // Given
+        CrawlExecutor underTest = new CrawlExecutor(new SimpleAsyncTaskExecutor("crawl-test-"), 10);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // When
+        underTest.execute("https://source.com", () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        underTest.execute("https://source.com", runs::incrementAndGet);
+        release.countDown();
+
+        // Then
+        Thread.sleep(100);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void cancel_whenCrawlRunning_shouldInterruptIt() throws Exception {
+        // Given
+        CrawlExecutor underTest = new CrawlExecutor(new SimpleAsyncTaskExecutor("crawl-test-"), 10);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        underTest.execute("https://source.com", () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        // When
+        underTest.cancel("https://source.com");
+
+        // Then
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
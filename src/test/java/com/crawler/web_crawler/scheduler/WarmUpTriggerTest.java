@@ -0,0 +1,55 @@
+package com.crawler.web_crawler.scheduler;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WarmUpTriggerTest {
+
+    @Test
+    void nextExecution_whenNothingExecuted_shouldFireLeadTimeBeforeNextCronFire() {
+        // Given
+        WarmUpTrigger underTest = new WarmUpTrigger("0 * * * * *", Duration.ofSeconds(5), ZoneOffset.UTC);
+        SimpleTriggerContext context = new SimpleTriggerContext(Clock.fixed(Instant.parse("2025-01-01T10:00:30Z"), ZoneOffset.UTC));
+
+        // When
+        Instant next = underTest.nextExecution(context);
+
+        // Then
+        assertEquals(Instant.parse("2025-01-01T10:00:55Z"), next);
+    }
+
+    @Test
+    void nextExecution_whenCronFireIsCloserThanLead_shouldSkipToFollowingFire() {
+        // Given
+        WarmUpTrigger underTest = new WarmUpTrigger("0 * * * * *", Duration.ofSeconds(5), ZoneOffset.UTC);
+        SimpleTriggerContext context = new SimpleTriggerContext(Clock.fixed(Instant.parse("2025-01-01T10:00:57Z"), ZoneOffset.UTC));
+
+        // When
+        Instant next = underTest.nextExecution(context);
+
+        // Then
+        assertEquals(Instant.parse("2025-01-01T10:01:55Z"), next);
+    }
+
+    @Test
+    void nextExecution_whenWarmUpExecuted_shouldMoveToFollowingFire() {
+        // Given
+        WarmUpTrigger underTest = new WarmUpTrigger("0 * * * * *", Duration.ofSeconds(5), ZoneOffset.UTC);
+        SimpleTriggerContext context = new SimpleTriggerContext(Clock.fixed(Instant.parse("2025-01-01T10:00:55Z"), ZoneOffset.UTC));
+        Instant executed = Instant.parse("2025-01-01T10:00:55Z");
+        context.update(executed, executed, executed.plusMillis(10));
+
+        // When
+        Instant next = underTest.nextExecution(context);
+
+        // Then
+        assertEquals(Instant.parse("2025-01-01T10:01:55Z"), next);
+    }
+}
@@ -1,6 +1,9 @@
 package com.crawler.web_crawler.scheduler.implementation;
 
+import com.crawler.web_crawler.fetch.ConnectionWarmer;
 import com.crawler.web_crawler.model.entity.Source;
+import com.crawler.web_crawler.scheduler.CrawlExecutor;
+import com.crawler.web_crawler.scheduler.WarmUpTrigger;
 import com.crawler.web_crawler.service.newsArticle.implementation.NewsParserServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,16 +12,19 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.support.CronTrigger;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.ScheduledFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +33,10 @@ class ScheduleParserServiceImplTest {
     private TaskScheduler taskScheduler;
     @Mock
     private NewsParserServiceImpl newsParserService;
+    @Mock
+    private ConnectionWarmer connectionWarmer;
+    @Spy
+    private CrawlExecutor crawlExecutor = new CrawlExecutor(null, 10);
     @Captor
     private ArgumentCaptor<Runnable> runnableCaptor;
     @Captor
@@ -72,6 +82,7 @@ class ScheduleParserServiceImplTest {
         assertEquals(activeSource.getSchedule(), triggerCaptor.getValue().getExpression());
 
         runnableCaptor.getValue().run();
+        verify(crawlExecutor).execute(eq(activeSource.getUrl()), any(Runnable.class));
         verify(newsParserService).parseAndSave(activeSource);
     }
 
@@ -161,4 +172,42 @@ class ScheduleParserServiceImplTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    void addNewScheduleSource_whenWarmUpEnabled_shouldScheduleWarmUpBeforeCrawl() {
+        // Given
+        when(connectionWarmer.isEnabled()).thenReturn(true);
+        when(connectionWarmer.getLead()).thenReturn(Duration.ofSeconds(5));
+        doReturn(scheduledFuture).when(taskScheduler).schedule(any(Runnable.class), any(CronTrigger.class));
+        doReturn(scheduledFuture).when(taskScheduler).schedule(any(Runnable.class), any(WarmUpTrigger.class));
+
+        // When
+        underTest.addNewScheduleSource(activeSource);
+
+        // Then
+        assertThat(underTest.getScheduledWarmUps()).containsKey(activeSource.getUrl());
+        verify(taskScheduler).schedule(runnableCaptor.capture(), any(WarmUpTrigger.class));
+
+        runnableCaptor.getValue().run();
+        verify(connectionWarmer).warmUp(activeSource.getUrl());
+        verifyNoInteractions(newsParserService);
+    }
+
+    @Test
+    void cancelScheduleSource_whenWarmUpScheduled_shouldCancelItToo() {
+        // Given
+        when(connectionWarmer.isEnabled()).thenReturn(true);
+        when(connectionWarmer.getLead()).thenReturn(Duration.ofSeconds(5));
+        doReturn(scheduledFuture).when(taskScheduler).schedule(any(Runnable.class), any(CronTrigger.class));
+        doReturn(scheduledFuture).when(taskScheduler).schedule(any(Runnable.class), any(WarmUpTrigger.class));
+        underTest.addNewScheduleSource(activeSource);
+
+        // When
+        underTest.cancelScheduleSource(activeSource.getUrl());
+
+        // Then
+        assertThat(underTest.getScheduledWarmUps()).isEmpty();
+        verify(scheduledFuture).cancel(true);
+        verify(scheduledFuture).cancel(false);
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.crawler.web_crawler.service.newsArticle;
+
+import com.crawler.web_crawler.model.dto.ArticleHashDTO;
+import com.crawler.web_crawler.repository.NewsArticleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArticleBloomFilterTest {
+    @TempDir
+    private Path directory;
+    @Mock
+    private NewsArticleRepository repository;
+
+    private ArticleBloomFilter underTest;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if(underTest != null)
+            underTest.close();
+    }
+
+    @Test
+    void open_whenFilterMissing_shouldRebuildItFromTableInBackground() throws Exception {
+        // Given
+        when(repository.findAllHashesAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(new ArticleHashDTO(1L, "11"), new ArticleHashDTO(2L, "-12")));
+
+        // When
+        underTest = open(1000);
+        awaitReady(underTest);
+
+        // Then
+        assertThat(underTest.mightContain(11)).isTrue();
+        assertThat(underTest.mightContain(-12)).isTrue();
+        assertThat(underTest.mightContain(13)).isFalse();
+        assertThat(directory.resolve("slice-0.bloom")).exists();
+    }
+
+    @Test
+    void open_whenFilterCheckpointed_shouldCatchUpOnlyAfterCoveredId() throws Exception {
+        // Given
+        when(repository.findAllHashesAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(new ArticleHashDTO(7L, "11")));
+        underTest = open(1000);
+        awaitReady(underTest);
+        underTest.add(12);
+        underTest.close();
+
+        when(repository.findAllHashesAfter(eq(7L), any(Pageable.class))).thenReturn(List.of(new ArticleHashDTO(8L, "13")));
+
+        // When
+        underTest = open(1000);
+        awaitReady(underTest);
+
+        // Then
+        assertThat(underTest.mightContain(11)).isTrue();
+        assertThat(underTest.mightContain(12)).isTrue();
+        assertThat(underTest.mightContain(13)).isTrue();
+        verify(repository, times(1)).findAllHashesAfter(eq(0L), any(Pageable.class));
+    }
+
+    @Test
+    void add_whenSliceIsFull_shouldAddLargerSliceAndKeepEarlierKeys() throws Exception {
+        // Given
+        when(repository.findAllHashesAfter(eq(0L), any(Pageable.class))).thenReturn(List.of());
+        underTest = open(100);
+        awaitReady(underTest);
+
+        // When
+        for(int key = 1; key <= 1000; key++)
+            underTest.add(key * 31);
+
+        // Then
+        assertThat(underTest.sliceCount()).isGreaterThan(1);
+        for(int key = 1; key <= 1000; key++)
+            assertThat(underTest.mightContain(key * 31)).isTrue();
+        assertThat(Files.size(directory.resolve("slice-1.bloom"))).isGreaterThan(Files.size(directory.resolve("slice-0.bloom")));
+    }
+
+    @Test
+    void mightContain_whenDisabled_shouldAlwaysAnswerMaybe() throws Exception {
+        // Given
+        underTest = new ArticleBloomFilter(repository, false, directory, 1000, 0.01, Duration.ofMinutes(1));
+        underTest.open();
+
+        // When
+        underTest.add(11);
+        boolean actual = underTest.mightContain(12);
+
+        // Then
+        assertThat(actual).isTrue();
+        assertThat(directory).isEmptyDirectory();
+        verifyNoInteractions(repository);
+    }
+
+    private ArticleBloomFilter open(long expectedEntries) throws Exception {
+        ArticleBloomFilter filter = new ArticleBloomFilter(repository, true, directory, expectedEntries, 0.001, Duration.ofHours(1));
+        filter.open();
+        return filter;
+    }
+
+    private static void awaitReady(ArticleBloomFilter filter) throws InterruptedException {
+        for(int i = 0; i < 500 && !filter.isReady(); i++)
+            Thread.sleep(10);
+        assertThat(filter.isReady()).isTrue();
+    }
+
+}
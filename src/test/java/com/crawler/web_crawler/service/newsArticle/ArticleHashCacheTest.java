@@ -0,0 +1,182 @@
+package com.crawler.web_crawler.service.newsArticle;
+
+import com.crawler.web_crawler.model.dto.ArticleHashDTO;
+import com.crawler.web_crawler.model.entity.NewsArticle;
+import com.crawler.web_crawler.model.entity.Source;
+import com.crawler.web_crawler.repository.NewsArticleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArticleHashCacheTest {
+    @Mock
+    private NewsArticleRepository repository;
+    @Mock
+    private ArticleBloomFilter bloomFilter;
+
+    private Source source1;
+    private Source source2;
+
+    @BeforeEach
+    void setUp() {
+        source1 = new Source(1L, "https://source1.com", "1 1 1 1 1 1", Map.of(), true);
+        source2 = new Source(2L, "https://source2.com", "1 1 1 1 1 1", Map.of(), true);
+        lenient().when(bloomFilter.mightContain(anyInt())).thenReturn(true);
+    }
+
+    @Test
+    void contains_whenSourceCheckedFirstTime_shouldLoadHashesInChunksOnce() {
+        // Given
+        ArticleHashCache underTest = new ArticleHashCache(repository, bloomFilter, 100_000);
+        List<ArticleHashDTO> firstChunk = new ArrayList<>();
+        for(long id = 1; id <= 5000; id++)
+            firstChunk.add(new ArticleHashDTO(id, String.valueOf(id * 7)));
+        when(repository.findHashesAfter(eq(1L), eq(0L), any(Pageable.class))).thenReturn(firstChunk);
+        when(repository.findHashesAfter(eq(1L), eq(5000L), any(Pageable.class))).thenReturn(List.of(new ArticleHashDTO(5001L, "-42")));
+
+        // When
+        boolean first = underTest.contains(source1, "35000");
+        boolean last = underTest.contains(source1, "-42");
+        boolean unknown = underTest.contains(source1, "8");
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(last).isTrue();
+        assertThat(unknown).isFalse();
+        assertThat(underTest.size()).isEqualTo(5001);
+        verify(repository, times(2)).findHashesAfter(eq(1L), anyLong(), any(Pageable.class));
+        verify(repository, never()).existsByHash(any());
+    }
+
+    @Test
+    void addAll_whenSourceLoaded_shouldKnowSavedHashesWithoutQuery() {
+        // Given
+        ArticleHashCache underTest = new ArticleHashCache(repository, bloomFilter, 100);
+        when(repository.findHashesAfter(eq(1L), eq(0L), any(Pageable.class))).thenReturn(List.of(new ArticleHashDTO(1L, "11")));
+        underTest.contains(source1, "11");
+
+        // When
+        underTest.addAll(source1, List.of(article(source1, "12"), article(source1, "11")));
+        underTest.addAll(source2, List.of(article(source2, "21"))); // Not loaded yet, read from the database later
+
+        // Then
+        assertThat(underTest.contains(source1, "12")).isTrue();
+        assertThat(underTest.size()).isEqualTo(2);
+        verify(repository, times(1)).findHashesAfter(anyLong(), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void contains_whenOverMaxEntries_shouldDropLeastRecentlyUsedSource() {
+        // Given
+        ArticleHashCache underTest = new ArticleHashCache(repository, bloomFilter, 3);
+        when(repository.findHashesAfter(eq(1L), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(new ArticleHashDTO(1L, "11"), new ArticleHashDTO(2L, "12")));
+        when(repository.findHashesAfter(eq(2L), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(new ArticleHashDTO(3L, "21"), new ArticleHashDTO(4L, "22")));
+
+        // When
+        underTest.contains(source1, "11");
+        underTest.contains(source2, "21");
+        long sizeAfterEviction = underTest.size();
+        boolean reloaded = underTest.contains(source1, "12");
+
+        // Then
+        assertThat(sizeAfterEviction).isEqualTo(2);
+        assertThat(reloaded).isTrue();
+        assertThat(underTest.size()).isEqualTo(2);
+        verify(repository, times(2)).findHashesAfter(eq(1L), eq(0L), any(Pageable.class));
+    }
+
+    @Test
+    void contains_whenSourceAloneIsOverMaxEntries_shouldCheckDatabase() {
+        // Given
+        ArticleHashCache underTest = new ArticleHashCache(repository, bloomFilter, 1);
+        when(repository.findHashesAfter(eq(1L), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(new ArticleHashDTO(1L, "11"), new ArticleHashDTO(2L, "12")));
+        when(repository.existsByHash("12")).thenReturn(true);
+        when(repository.existsByHash("13")).thenReturn(false);
+
+        // When
+        boolean known = underTest.contains(source1, "12");
+        boolean unknown = underTest.contains(source1, "13");
+
+        // Then
+        assertThat(known).isTrue();
+        assertThat(unknown).isFalse();
+        assertThat(underTest.size()).isZero();
+        verify(repository, times(1)).findHashesAfter(anyLong(), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void invalidate_shouldReloadSourceOnNextCheck() {
+        // Given
+        ArticleHashCache underTest = new ArticleHashCache(repository, bloomFilter, 100);
+        when(repository.findHashesAfter(eq(1L), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(new ArticleHashDTO(1L, "11")))
+                .thenReturn(List.of(new ArticleHashDTO(1L, "11"), new ArticleHashDTO(2L, "12")));
+        underTest.contains(source1, "12");
+
+        // When
+        underTest.invalidate(1L);
+        boolean actual = underTest.contains(source1, "12");
+
+        // Then
+        assertThat(actual).isTrue();
+        assertThat(underTest.size()).isEqualTo(2);
+    }
+
+    @Test
+    void contains_whenBloomFilterNeverSawHash_shouldNeitherLoadNorQuery() {
+        // Given
+        ArticleHashCache underTest = new ArticleHashCache(repository, bloomFilter, 100);
+        when(bloomFilter.mightContain(ArticleHashCache.keyOf("11"))).thenReturn(false);
+
+        // When
+        boolean actual = underTest.contains(source1, "11");
+        underTest.addAll(source1, List.of(article(source1, "11")));
+
+        // Then
+        assertThat(actual).isFalse();
+        verify(bloomFilter).add(11);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void resync_shouldReadSourceFromDatabaseWhateverBloomFilterSays() {
+        // Given
+        ArticleHashCache underTest = new ArticleHashCache(repository, bloomFilter, 100);
+        when(bloomFilter.mightContain(anyInt())).thenReturn(false);
+        when(repository.findHashesAfter(eq(1L), eq(0L), any(Pageable.class))).thenReturn(List.of(new ArticleHashDTO(1L, "11")));
+
+        // When
+        boolean beforeResync = underTest.contains(source1, "11");
+        underTest.resync(1L);
+        boolean afterResync = underTest.contains(source1, "11");
+
+        // Then
+        assertThat(beforeResync).isFalse();
+        assertThat(afterResync).isTrue();
+        verify(bloomFilter).add(11); // The filter learns the article it missed
+    }
+
+    private static NewsArticle article(Source source, String hash) {
+        return new NewsArticle(null, "title" + hash, LocalDate.now(), "content", source, hash);
+    }
+
+}
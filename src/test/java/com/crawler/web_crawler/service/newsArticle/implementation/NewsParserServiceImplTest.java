@@ -1,9 +1,19 @@
 package com.crawler.web_crawler.service.newsArticle.implementation;
 
+import com.crawler.web_crawler.archive.ArchivedPage;
+import com.crawler.web_crawler.archive.PageArchive;
+import com.crawler.web_crawler.exception.JsoupException.JsoupParseException;
+import com.crawler.web_crawler.fetch.PageResponse;
+import com.crawler.web_crawler.model.dto.ReparseResultDTO;
+import com.crawler.web_crawler.model.entity.DateFormatFamily;
 import com.crawler.web_crawler.model.entity.NewsArticle;
 import com.crawler.web_crawler.model.entity.Source;
 import com.crawler.web_crawler.parser.JsoupParser;
+import com.crawler.web_crawler.parser.KnownArticleStop;
+import com.crawler.web_crawler.parser.ParserResolver;
 import com.crawler.web_crawler.repository.NewsArticleRepository;
+import com.crawler.web_crawler.repository.SourceRepository;
+import com.crawler.web_crawler.service.newsArticle.ArticleHashCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -13,14 +23,17 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,7 +41,15 @@ class NewsParserServiceImplTest {
     @Mock
     private JsoupParser parser;
     @Mock
+    private ParserResolver parserResolver;
+    @Mock
     private NewsArticleRepository repository;
+    @Mock
+    private SourceRepository sourceRepository;
+    @Mock
+    private PageArchive pageArchive;
+    @Mock
+    private ArticleHashCache hashCache;
     @InjectMocks
     private NewsParserServiceImpl underTest;
 
@@ -41,6 +62,7 @@ class NewsParserServiceImplTest {
         source = new Source(1L, "https://source1.com", "1 1 1 1 1 1", Map.of("Key1Source1", "Value1Source1", "Key2Source1", "Value2Source1"), true);
         newsArticle1 = new NewsArticle(1L, "title1", LocalDate.now(), "content1", source, "hash1");
         newsArticle2 = new NewsArticle(2L, "title2", LocalDate.now(), "content2", source, "hash2");
+        lenient().when(parserResolver.forSource(any(Source.class))).thenReturn(parser);
     }
 
     @Test
@@ -55,15 +77,16 @@ class NewsParserServiceImplTest {
     void parseAndSave_whenNewsArticlesAreNew_shouldSaveAll() {
         // Given
         List<NewsArticle> parsedArticles = new ArrayList<>(List.of(newsArticle1, newsArticle2));
-        when(parser.parse(source)).thenReturn(parsedArticles);
-        when(repository.findHashesBySource(any(Source.class))).thenReturn(Collections.emptySet());
+        when(parser.parse(eq(source), any(KnownArticleStop.class))).thenReturn(parsedArticles);
+        knownHashes();
 
         // When
         underTest.parseAndSave(source);
 
         // Then
-        verify(parser).parse(source);
+        verify(parser).parse(eq(source), any(KnownArticleStop.class));
         verify(repository).saveAll(List.of(newsArticle1, newsArticle2));
+        verify(hashCache).addAll(source, List.of(newsArticle1, newsArticle2));
         verify(repository, never()).save(any());
     }
 
@@ -71,14 +94,15 @@ class NewsParserServiceImplTest {
     void parseAndSave_whenSomeArticlesExist_shouldSaveOnlyNew() {
         // Given
         List<NewsArticle> parsedArticles = new ArrayList<>(List.of(newsArticle1, newsArticle2));
-        when(parser.parse(source)).thenReturn(parsedArticles);
-        when(repository.findHashesBySource(any(Source.class))).thenReturn(Set.of("hash1"));
+        when(parser.parse(eq(source), any(KnownArticleStop.class))).thenReturn(parsedArticles);
+        knownHashes("hash1");
 
         // When
         underTest.parseAndSave(source);
 
         // Then
-        verify(parser).parse(source);
+        verify(parser).parse(eq(source), any(KnownArticleStop.class));
+        verify(parser).fetchDetails(source, List.of(newsArticle2));
         verify(repository).saveAll(List.of(newsArticle2));
         verify(repository, never()).save(any());
     }
@@ -87,22 +111,23 @@ class NewsParserServiceImplTest {
     void parseAndSave_whenAllArticlesExist_shouldSaveNothing() {
         // Given
         List<NewsArticle> parsedArticles = new ArrayList<>(List.of(newsArticle1, newsArticle2));
-        when(parser.parse(source)).thenReturn(parsedArticles);
-        when(repository.findHashesBySource(any(Source.class))).thenReturn(Set.of("hash1", "hash2"));
+        when(parser.parse(eq(source), any(KnownArticleStop.class))).thenReturn(parsedArticles);
+        knownHashes("hash1", "hash2");
 
         // When
         underTest.parseAndSave(source);
 
         // Then
         verify(repository, never()).saveAll(anyList());
+        verify(parser, never()).fetchDetails(any(), anyList());
     }
 
     @Test
     void parseAndSave_whenSaveFails_shouldReturnException() {
         // Given
         List<NewsArticle> parsedArticles = new ArrayList<>(List.of(newsArticle1, newsArticle2));
-        when(parser.parse(source)).thenReturn(parsedArticles);
-        when(repository.findHashesBySource(any(Source.class))).thenReturn(Set.of());
+        when(parser.parse(eq(source), any(KnownArticleStop.class))).thenReturn(parsedArticles);
+        knownHashes();
 
         doThrow(new DataIntegrityViolationException("DB error")).when(repository).saveAll(List.of(newsArticle1, newsArticle2));
 
@@ -116,6 +141,142 @@ class NewsParserServiceImplTest {
         assertThat(exception).hasCauseExactlyInstanceOf(DataIntegrityViolationException.class);
         assertEquals("Runtime exception while saving data: DB error", exception.getMessage());
         verify(repository).saveAll(List.of(newsArticle1, newsArticle2));
+        verify(hashCache).resync(source.getId());
+        verify(hashCache, never()).addAll(any(), anyList());
+    }
+
+    @Test
+    void parseAndSave_whenPageValidatorsChanged_shouldStoreThem() {
+        // Given
+        when(parser.parse(eq(source), any(KnownArticleStop.class))).thenAnswer(invocation -> {
+            source.setEtag("etag");
+            source.setContentDigest("digest");
+            return new ArrayList<>();
+        });
+
+        // When
+        underTest.parseAndSave(source);
+
+        // Then
+        verify(sourceRepository).updatePageValidators(source.getId(), "etag", null, "digest");
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void parseAndSave_whenSitemapLastmodsChanged_shouldStoreThem() {
+        // Given
+        when(parser.parse(eq(source), any(KnownArticleStop.class))).thenAnswer(invocation -> {
+            source.setSitemapLastmods(Map.of("https://source1.com/sitemap-1.xml", "2025-01-04"));
+            return new ArrayList<>();
+        });
+
+        // When
+        underTest.parseAndSave(source);
+
+        // Then
+        verify(sourceRepository).updateSitemapLastmods(source.getId(), Map.of("https://source1.com/sitemap-1.xml", "2025-01-04"));
+        verify(sourceRepository, never()).updatePageValidators(any(), any(), any(), any());
+    }
+
+    @Test
+    void parseAndSave_whenDateFormatLearned_shouldStoreIt() {
+        // Given
+        when(parser.parse(eq(source), any(KnownArticleStop.class))).thenAnswer(invocation -> {
+            source.setDateFormat(DateFormatFamily.DAY_MONTH_NAME);
+            return new ArrayList<>();
+        });
+
+        // When
+        underTest.parseAndSave(source);
+
+        // Then
+        verify(sourceRepository).updateDateFormat(source.getId(), DateFormatFamily.DAY_MONTH_NAME);
+        verify(sourceRepository, never()).updatePageValidators(any(), any(), any(), any());
+    }
+
+    @Test
+    void parseAndSave_whenSaveFails_shouldForgetPageValidators() {
+        // Given
+        when(parser.parse(eq(source), any(KnownArticleStop.class))).thenAnswer(invocation -> {
+            source.setContentDigest("digest");
+            return new ArrayList<>(List.of(newsArticle1));
+        });
+        knownHashes();
+        doThrow(new DataIntegrityViolationException("DB error")).when(repository).saveAll(List.of(newsArticle1));
+
+        // When
+        assertThrows(RuntimeException.class, () -> underTest.parseAndSave(source));
+
+        // Then
+        assertThat(source.getContentDigest()).isNull();
+        verifyNoInteractions(sourceRepository);
+    }
+
+    @Test
+    void parseAndSave_whenDetailPagesFail_shouldForgetPageValidators() {
+        // Given
+        when(parser.parse(eq(source), any(KnownArticleStop.class))).thenAnswer(invocation -> {
+            source.setEtag("etag");
+            source.setContentDigest("digest");
+            return new ArrayList<>(List.of(newsArticle1));
+        });
+        knownHashes();
+        doThrow(new JsoupParseException("Broken detail page")).when(parser).fetchDetails(source, List.of(newsArticle1));
+
+        // When
+        assertThrows(JsoupParseException.class, () -> underTest.parseAndSave(source));
+
+        // Then
+        assertThat(source.getEtag()).isNull();
+        assertThat(source.getContentDigest()).isNull();
+        verify(repository, never()).saveAll(anyList());
+        verifyNoInteractions(sourceRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reparseArchive_whenPagesArchived_shouldSaveOnlyNewArticlesOnce() {
+        // Given
+        ArchivedPage firstSnapshot = new ArchivedPage(1L, source.getUrl(), Instant.parse("2025-01-01T00:00:00Z"), "text/html", new byte[0]);
+        ArchivedPage secondSnapshot = new ArchivedPage(1L, source.getUrl(), Instant.parse("2025-01-02T00:00:00Z"), "text/html", new byte[0]);
+        NewsArticle known = new NewsArticle(null, "title0", LocalDate.now(), "content0", source, "hash0");
+
+        doAnswer(invocation -> {
+            Consumer<ArchivedPage> consumer = invocation.getArgument(3);
+            consumer.accept(firstSnapshot);
+            consumer.accept(secondSnapshot);
+            return null;
+        }).when(pageArchive).forEachPage(eq(1L), isNull(), isNull(), any(Consumer.class));
+        when(parser.parsePage(eq(source), any(PageResponse.class)))
+                .thenReturn(List.of(known, newsArticle1))
+                .thenReturn(List.of(newsArticle1, newsArticle2));
+        knownHashes("hash0");
+
+        // When
+        ReparseResultDTO result = underTest.reparseArchive(source, null, null, true);
+
+        // Then
+        assertEquals(2, result.pages());
+        assertEquals(4, result.articles());
+        assertEquals(2, result.newArticles());
+        verify(repository).saveAll(List.of(newsArticle1, newsArticle2));
+        verify(hashCache).addAll(source, List.of(newsArticle1, newsArticle2));
+        verify(parser, never()).parse(any(), any());
+    }
+
+    @Test
+    void reparseArchive_whenNotSaving_shouldOnlyReportResult() {
+        // When
+        ReparseResultDTO result = underTest.reparseArchive(source, null, null, false);
+
+        // Then
+        assertEquals(0, result.pages());
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    private void knownHashes(String... hashes) {
+        Set<String> known = Set.of(hashes);
+        when(hashCache.contains(eq(source), anyString())).thenAnswer(invocation -> known.contains(invocation.<String>getArgument(1)));
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,133 @@
+package com.crawler.web_crawler.service.selector.implementation;
+
+import com.crawler.web_crawler.archive.PageArchive;
+import com.crawler.web_crawler.fetch.PageResponse;
+import com.crawler.web_crawler.fetch.PageValidators;
+import com.crawler.web_crawler.model.dto.SelectorTestRequestDTO;
+import com.crawler.web_crawler.model.dto.SelectorTestResultDTO;
+import com.crawler.web_crawler.parser.DateParser;
+import com.crawler.web_crawler.parser.JsoupClient;
+import com.crawler.web_crawler.parser.JsoupParser;
+import com.crawler.web_crawler.parser.PageSnapshotCache;
+import com.crawler.web_crawler.parser.SelectorCache;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SelectorSandboxServiceImplTest {
+    private static final String URL = "https://source.com/news";
+    private static final String HTML = "<html><body>"
+            + "<div class=\"news\"><h2>Title1</h2><span class=\"date\">01.01.2025</span></div>"
+            + "<div class=\"news\"><h2>Title2</h2><span class=\"date\">02.01.2025</span></div>"
+            + "</body></html>";
+
+    @Mock
+    private JsoupClient jsoupClient;
+    @Mock
+    private DateParser dateParser;
+    @Mock
+    private PageArchive pageArchive;
+
+    private SelectorSandboxServiceImpl underTest;
+
+    @BeforeEach
+    void setUp() {
+        SelectorCache selectorCache = new SelectorCache();
+        underTest = new SelectorSandboxServiceImpl(
+                jsoupClient,
+                new JsoupParser(dateParser, jsoupClient, pageArchive, selectorCache),
+                selectorCache,
+                new PageSnapshotCache(Duration.ofMinutes(5), 10)
+        );
+    }
+
+    @Test
+    void testSelectors_whenCalledTwice_shouldFetchPageOnceAndReturnRows() throws Exception {
+        // Given
+        PageResponse page = new PageResponse(URL, 200, HTML.getBytes(), "text/html", null, null, false);
+        when(jsoupClient.getPage(URL, PageValidators.none(), null)).thenReturn(page);
+        when(jsoupClient.toDocument(page)).thenReturn(Jsoup.parse(HTML, URL));
+        when(dateParser.toLocalDateFromString(any(), any())).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+
+        SelectorTestRequestDTO request = new SelectorTestRequestDTO(URL, Map.of(
+                "title", ".news h2",
+                "content", ".news p",
+                "date", ".date"
+        ), null);
+
+        // When
+        SelectorTestResultDTO first = underTest.testSelectors(request, false);
+        SelectorTestResultDTO second = underTest.testSelectors(request, false);
+
+        // Then
+        assertFalse(first.fromCache());
+        assertTrue(second.fromCache());
+        assertThat(second.matches()).containsExactly(Map.entry("content", 0), Map.entry("date", 2), Map.entry("title", 2));
+        assertThat(second.articles()).extracting(SelectorTestResultDTO.ArticlePreview::title)
+                .containsExactly("Title1", "Title2");
+        verify(jsoupClient, times(1)).getPage(URL, PageValidators.none(), null);
+        verifyNoInteractions(pageArchive);
+    }
+
+    @Test
+    void testSelectors_whenRefreshRequested_shouldFetchPageAgain() throws Exception {
+        // Given
+        PageResponse page = new PageResponse(URL, 200, HTML.getBytes(), "text/html", null, null, false);
+        when(jsoupClient.getPage(URL, PageValidators.none(), null)).thenReturn(page);
+        when(jsoupClient.toDocument(page)).thenReturn(Jsoup.parse(HTML, URL));
+        when(dateParser.toLocalDateFromString(any(), any())).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+
+        SelectorTestRequestDTO request = new SelectorTestRequestDTO(URL, Map.of(
+                "title", "h2",
+                "content", "p",
+                "date", ".date"
+        ), null);
+        underTest.testSelectors(request, false);
+
+        // When
+        SelectorTestResultDTO result = underTest.testSelectors(request, true);
+
+        // Then
+        assertFalse(result.fromCache());
+        verify(jsoupClient, times(2)).getPage(URL, PageValidators.none(), null);
+    }
+
+    @Test
+    void testSelectors_whenMarkupNeedsErrorRecovery_shouldPreviewWhatCrawlerStores() throws Exception {
+        // Given
+        String html = "<html><body><div class=\"news\"><a href=\"/1\">Title1<a href=\"/2\">Title2</a></div>"
+                + "<span class=\"date\">01.01.2025</span><span class=\"date\">02.01.2025</span></body></html>";
+        PageResponse page = new PageResponse(URL, 200, html.getBytes(), "text/html", null, null, false);
+        when(jsoupClient.getPage(URL, PageValidators.none(), null)).thenReturn(page);
+        when(jsoupClient.toDocument(page)).thenReturn(Jsoup.parse(html, URL));
+        when(dateParser.toLocalDateFromString(any(), any())).thenReturn(Optional.of(LocalDate.of(2025, 1, 1)));
+
+        SelectorTestRequestDTO request = new SelectorTestRequestDTO(URL, Map.of(
+                "title", ".news a",
+                "content", ".content",
+                "date", ".date"
+        ), null);
+
+        // When
+        SelectorTestResultDTO result = underTest.testSelectors(request, false);
+
+        // Then
+        assertThat(result.matches()).containsEntry("title", 2);
+        assertThat(result.articles()).extracting(SelectorTestResultDTO.ArticlePreview::title)
+                .containsExactly("Title1", "Title2");
+    }
+}
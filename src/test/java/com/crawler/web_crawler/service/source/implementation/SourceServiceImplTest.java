@@ -5,7 +5,10 @@ import com.crawler.web_crawler.exception.SourceAlreadyExistsException;
 import com.crawler.web_crawler.exception.SourceNotFoundException;
 import com.crawler.web_crawler.model.dto.SourceRequestDTO;
 import com.crawler.web_crawler.model.entity.Source;
+import com.crawler.web_crawler.model.entity.SourceSettings;
+import com.crawler.web_crawler.parser.SelectorCache;
 import com.crawler.web_crawler.repository.SourceRepository;
+import com.crawler.web_crawler.service.newsArticle.ArticleHashCache;
 import com.crawler.web_crawler.scheduler.SchedulerParserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -31,6 +34,10 @@ class SourceServiceImplTest {
     private SourceRequestDtoMapper mapper;
     @Mock
     private SchedulerParserService schedulerParserService;
+    @Mock
+    private SelectorCache selectorCache;
+    @Mock
+    private ArticleHashCache hashCache;
     @InjectMocks
     private SourceServiceImpl underTest;
 
@@ -58,8 +65,11 @@ class SourceServiceImplTest {
                 Map.of("key1", "value1"),
                 false
         );
+        SourceSettings settings = new SourceSettings();
+        settings.setMaxPages(3);
 
         when(repository.findById(id)).thenReturn(Optional.of(source1));
+        when(mapper.settingsOf(newSourceRequestDto)).thenReturn(settings);
         when(repository.save(source1)).thenReturn(source1);
         when(mapper.toDto(source1)).thenReturn(newSourceRequestDto);
 
@@ -71,10 +81,12 @@ class SourceServiceImplTest {
         assertEquals("0 * * * * *", source1.getSchedule());
         assertEquals("value1", source1.getSelectors().get("key1"));
         assertFalse(source1.getIsActive());
+        assertEquals(3, source1.getSettings().getMaxPages());
 
         verify(repository).save(source1);
         verify(schedulerParserService).cancelScheduleSource(oldUrl);
         verify(schedulerParserService).addNewScheduleSource(source1);
+        verify(selectorCache).invalidate(id);
         verify(mapper).toDto(source1);
 
         assertThat(newSourceRequestDto).isEqualTo(updatedDto);
@@ -314,6 +326,8 @@ class SourceServiceImplTest {
         verify(repository).findById(id);
         verify(repository).delete(source1);
         verify(schedulerParserService).cancelScheduleSource(source1.getUrl());
+        verify(selectorCache).invalidate(id);
+        verify(hashCache).invalidate(id);
         verifyNoMoreInteractions(repository);
     }
 